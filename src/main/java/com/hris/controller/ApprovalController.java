@@ -0,0 +1,116 @@
+package com.hris.controller;
+
+import com.hris.dto.ApprovalInboxPage;
+import com.hris.dto.BulkApprovalRequest;
+import com.hris.dto.BulkApprovalResult;
+import com.hris.model.Employee;
+import com.hris.model.enums.ApprovalRequestType;
+import com.hris.repository.EmployeeRepository;
+import com.hris.service.ApprovalInboxService;
+import com.hris.service.BulkApprovalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Approval Controller
+ * Approval lintas jenis pengajuan (cuti, WFH, lembur)
+ */
+@Slf4j
+@Controller
+@RequestMapping("/approvals")
+@RequiredArgsConstructor
+public class ApprovalController {
+
+    private final BulkApprovalService bulkApprovalService;
+    private final ApprovalInboxService approvalInboxService;
+    private final EmployeeRepository employeeRepository;
+
+    // =====================================================
+    // INBOX
+    // =====================================================
+
+    /**
+     * Pending leave, WFH and overtime requests awaiting the current user, oldest first
+     * HR/Admin also see the HR queue; pass nextCursor of the previous page to continue
+     */
+    @GetMapping("/inbox")
+    @ResponseBody
+    public ApprovalInboxPage inbox(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        return approvalInboxService.getInbox(currentEmployeeId(authentication), isHrOrAdmin(authentication),
+                cursor, size);
+    }
+
+    /**
+     * Pending counts per request type (badges)
+     */
+    @GetMapping("/inbox/counts")
+    @ResponseBody
+    public Map<ApprovalRequestType, Long> inboxCounts(Authentication authentication) {
+        return approvalInboxService.getCounts(currentEmployeeId(authentication), isHrOrAdmin(authentication));
+    }
+
+    // =====================================================
+    // BULK ACTIONS
+    // =====================================================
+
+    /**
+     * Approve or reject many requests at once; per-item results
+     * An invalid request is answered with 400, an unexpected failure with 500 (nothing was applied)
+     */
+    @PostMapping("/bulk")
+    @ResponseBody
+    public ResponseEntity<BulkApprovalResult> bulkApprove(
+            @RequestBody BulkApprovalRequest request,
+            Principal principal) {
+        log.info("Executing bulk {} of {} {} requests by user {}", request.getAction(),
+                request.getRequestIds() != null ? request.getRequestIds().size() : 0,
+                request.getRequestType(), principal.getName());
+
+        try {
+            Employee approver = employeeRepository.findByEmailAndDeletedAtIsNull(principal.getName())
+                    .orElseThrow(() -> new IllegalArgumentException("Approver not found"));
+            return ResponseEntity.ok(bulkApprovalService.process(request, approver.getId()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Bulk approval rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResult(request, "INVALID_REQUEST", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Bulk approval failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(errorResult(request, "SYSTEM_ERROR", "Bulk approval failed: " + e.getMessage()));
+        }
+    }
+
+    private static BulkApprovalResult errorResult(BulkApprovalRequest request, String errorType, String message) {
+        BulkApprovalResult result = BulkApprovalResult.builder()
+                .requestType(request.getRequestType())
+                .action(request.getAction())
+                .build();
+        result.getFailureList().add(BulkApprovalResult.FailureItem.builder()
+                .errorMessage(message)
+                .errorType(errorType)
+                .build());
+        return result;
+    }
+
+    private Long currentEmployeeId(Authentication authentication) {
+        return employeeRepository.findByEmailAndDeletedAtIsNull(authentication.getName())
+                .orElseThrow(() -> new IllegalStateException("Employee not found"))
+                .getId();
+    }
+
+    private boolean isHrOrAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_HR".equals(a.getAuthority()));
+    }
+}
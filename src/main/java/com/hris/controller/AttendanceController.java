@@ -1,14 +1,23 @@
 package com.hris.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.hris.dto.ClockInRequest;
 import com.hris.dto.ClockOutRequest;
 import com.hris.model.*;
+import com.hris.model.enums.AttendanceStatus;
 import com.hris.repository.AttendanceRecordRepository;
 import com.hris.repository.EmployeeRepository;
+import com.hris.service.AttendanceIngestionService;
+import com.hris.service.AttendanceReportService;
 import com.hris.service.AttendanceService;
+import com.hris.service.AttendanceSummaryService;
+import com.hris.service.AttendanceSyncService;
 import com.hris.service.CompanyService;
+import com.hris.service.DailyAttendanceContextService;
+import com.hris.service.DepartmentService;
 import com.hris.service.EmployeeShiftService;
-import com.hris.service.HolidayService;
+import com.hris.service.HolidayCalendar;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,15 +25,23 @@ import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -41,10 +58,15 @@ public class AttendanceController {
 
     private final AttendanceService attendanceService;
     private final EmployeeShiftService employeeShiftService;
-    private final HolidayService holidayService;
     private final CompanyService companyService;
     private final EmployeeRepository employeeRepository;
     private final AttendanceRecordRepository attendanceRecordRepository;
+    private final AttendanceSyncService attendanceSyncService;
+    private final AttendanceSummaryService attendanceSummaryService;
+    private final AttendanceReportService attendanceReportService;
+    private final AttendanceIngestionService attendanceIngestionService;
+    private final DepartmentService departmentService;
+    private final ObjectMapper objectMapper;
 
     // =====================================================
     // PAGES
@@ -119,6 +141,7 @@ public class AttendanceController {
 
     /**
      * Attendance report page (admin/HR only)
+     * Company-wide or per employee, filterable, keyset paginated (afterDate/afterId)
      */
     @GetMapping("/report")
     @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
@@ -126,6 +149,14 @@ public class AttendanceController {
             @RequestParam(required = false) @DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) AttendanceStatus status,
+            @RequestParam(required = false) Boolean late,
+            @RequestParam(required = false) Boolean overtime,
+            @RequestParam(required = false) Boolean wfh,
+            @RequestParam(required = false) @DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "50") int size,
             Model model) {
 
         // Default to current month if no date range specified
@@ -136,26 +167,114 @@ public class AttendanceController {
             endDate = startDate.plusMonths(1).minusDays(1);
         }
 
+        AttendanceReportService.ReportFilter filter = new AttendanceReportService.ReportFilter(
+                startDate, endDate, departmentId, employeeId, status, late, overtime, wfh);
+        AttendanceReportService.Cursor after = afterDate != null && afterId != null
+                ? new AttendanceReportService.Cursor(afterDate, afterId) : null;
+        try {
+            AttendanceReportService.ReportPage page = attendanceReportService.getPage(filter, after, size);
+            model.addAttribute("records", page.rows());
+            model.addAttribute("nextCursor", page.next());
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("errorMessage", e.getMessage());
+        }
+
         if (employeeId != null) {
-            List<AttendanceRecord> records = attendanceService.getAttendanceByEmployeeAndDateRange(
-                    employeeId, startDate, endDate);
-            Employee employee = employeeRepository.findById(employeeId).orElse(null);
-            model.addAttribute("records", records);
-            model.addAttribute("selectedEmployee", employee);
+            model.addAttribute("selectedEmployee", employeeRepository.findById(employeeId).orElse(null));
+            // Monthly totals from the materialized summary (no aggregate scan over records)
+            model.addAttribute("monthlySummaries",
+                    attendanceSummaryService.getMonthlySummaries(employeeId, startDate, endDate));
         }
 
-        List<Employee> employees = employeeRepository.findAllByDeletedAtIsNullOrderByFullNameAsc();
-        model.addAttribute("employees", employees);
+        model.addAttribute("employees", employeeRepository.findAllOptions());
+        model.addAttribute("departments", departmentService.getAllDepartments());
+        model.addAttribute("statuses", AttendanceStatus.values());
         model.addAttribute("startDate", startDate);
         model.addAttribute("endDate", endDate);
+        model.addAttribute("departmentId", departmentId);
+        model.addAttribute("status", status);
+        model.addAttribute("late", late);
+        model.addAttribute("overtime", overtime);
+        model.addAttribute("wfh", wfh);
+        model.addAttribute("size", size);
         model.addAttribute("activePage", "attendance-report");
         return "attendance/report";
     }
 
+    /**
+     * Export attendance report (CSV or XLSX), streamed straight to the response
+     */
+    @GetMapping("/report/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public ResponseEntity<StreamingResponseBody> exportReport(
+            @RequestParam @DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long employeeId,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) AttendanceStatus status,
+            @RequestParam(required = false) Boolean late,
+            @RequestParam(required = false) Boolean overtime,
+            @RequestParam(required = false) Boolean wfh,
+            @RequestParam(defaultValue = "csv") String format) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        AttendanceReportService.ReportFilter filter = new AttendanceReportService.ReportFilter(
+                startDate, endDate, departmentId, employeeId, status, late, overtime, wfh);
+
+        String baseName = "attendance-report-" + startDate + "-" + endDate;
+        if ("xlsx".equalsIgnoreCase(format)) {
+            try {
+                attendanceReportService.checkXlsxLimit(filter);
+            } catch (IllegalArgumentException e) {
+                byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+                return ResponseEntity.badRequest()
+                        .contentType(MediaType.parseMediaType("text/plain; charset=UTF-8"))
+                        .body(out -> out.write(message));
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + baseName + ".xlsx\"")
+                    .body(out -> attendanceReportService.writeXlsx(filter, out));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + baseName + ".csv\"")
+                .body(out -> attendanceReportService.writeCsv(filter, out));
+    }
+
     // =====================================================
     // API ENDPOINTS
     // =====================================================
 
+    /**
+     * Monthly attendance summary (payroll/report source)
+     * Without employeeId returns the summaries of all employees for the month
+     */
+    @GetMapping("/api/summary")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public Object monthlySummary(@RequestParam int year,
+                                 @RequestParam int month,
+                                 @RequestParam(required = false) Long employeeId) {
+        YearMonth period = YearMonth.of(year, month);
+        if (employeeId != null) {
+            return attendanceSummaryService.getMonthlySummary(employeeId, period);
+        }
+        return attendanceSummaryService.getMonthlySummaries(period);
+    }
+
+    /**
+     * Verify monthly summaries against attendance records and repair drift
+     */
+    @PostMapping("/api/summary/verify")
+    @ResponseBody
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> verifyMonthlySummary(@RequestParam int year, @RequestParam int month) {
+        int repaired = attendanceSummaryService.verify(YearMonth.of(year, month));
+        return Map.of("success", true, "repaired", repaired);
+    }
+
     /**
      * Clock in API
      */
@@ -164,6 +283,10 @@ public class AttendanceController {
     @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN', 'HR')")
     public String clockIn(@RequestBody ClockInRequest request) {
         AttendanceRecord record = attendanceService.clockIn(request);
+        if (record.getId() == null) {
+            // Write-behind mode: accepted and queued, persisted by the ingestion writer
+            return "{\"success\":true,\"queued\":true}";
+        }
         return "{\"success\":true,\"id\":" + record.getId() + "}";
     }
 
@@ -175,9 +298,71 @@ public class AttendanceController {
     @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN', 'HR')")
     public String clockOut(@RequestBody ClockOutRequest request) {
         AttendanceRecord record = attendanceService.clockOut(request);
+        if (record.getId() == null) {
+            // Write-behind mode: accepted and queued, persisted by the ingestion writer
+            return "{\"success\":true,\"queued\":true}";
+        }
         return "{\"success\":true,\"id\":" + record.getId() + "}";
     }
 
+    /**
+     * Bulk sync of offline punches (NDJSON in, NDJSON per-punch results out)
+     * Employees without ADMIN/HR role can only sync their own punches
+     */
+    @PostMapping(value = "/api/sync", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN', 'HR')")
+    public ResponseEntity<StreamingResponseBody> syncOfflinePunches(InputStream body, Authentication authentication) {
+        Long allowedEmployeeId = null;
+        boolean isAdminOrHr = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_HR".equals(a.getAuthority()));
+        if (!isAdminOrHr) {
+            Employee employee = employeeRepository.findByEmailAndDeletedAtIsNull(authentication.getName())
+                    .orElseThrow(() -> new IllegalStateException("Employee not found"));
+            allowedEmployeeId = employee.getId();
+        }
+
+        // Results are written per window as it is applied, the upload is never held whole
+        Long syncEmployeeId = allowedEmployeeId;
+        StreamingResponseBody stream = out -> {
+            ObjectWriter writer = objectMapper.writerFor(AttendanceSyncService.PunchResult.class);
+            attendanceSyncService.sync(body, syncEmployeeId, results -> {
+                for (AttendanceSyncService.PunchResult result : results) {
+                    out.write(writer.writeValueAsBytes(result));
+                    out.write('\n');
+                }
+                out.flush();
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(stream);
+    }
+
+    /**
+     * Clock-in throughput and latency (daily context path vs database path)
+     */
+    @GetMapping("/api/clock-in/stats")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public Map<String, DailyAttendanceContextService.LatencyStats.Summary> getClockInStats() {
+        return attendanceService.getClockInStats();
+    }
+
+    /**
+     * Write-behind ingestion state: queued, parked (database unavailable) and rejected punches
+     * Rejected punches were acknowledged to the client but changed no record (see rejected file)
+     */
+    @GetMapping("/api/ingestion/stats")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public Map<String, Object> getIngestionStats() {
+        return Map.of(
+                "enabled", attendanceIngestionService.isEnabled(),
+                "backlog", attendanceIngestionService.getBacklog(),
+                "parked", attendanceIngestionService.getParkedCount(),
+                "rejected", attendanceIngestionService.getRejectedCount());
+    }
+
     /**
      * Get today's attendance status
      */
@@ -232,10 +417,10 @@ public class AttendanceController {
 
         // Shift info
         if (shift.getShiftPattern() != null) {
-            json.append(",\"shiftName\":\"").append(escapeJson(shift.getShiftPattern().getName())).append("\"");
-            json.append(",\"shiftColor\":\"").append(escapeJson(shift.getShiftPattern().getColor())).append("\"");
-            json.append(",\"isWfhAllowed\":").append(Boolean.TRUE.equals(shift.getShiftPattern().getIsWfhAllowed()));
-            json.append(",\"isAttendanceMandatory\":").append(Boolean.TRUE.equals(shift.getShiftPattern().getIsAttendanceMandatory()));
+            json.append(",\"shiftName\":\"").append(escapeJson(shift.getShiftPattern().name())).append("\"");
+            json.append(",\"shiftColor\":\"").append(escapeJson(shift.getShiftPattern().color())).append("\"");
+            json.append(",\"isWfhAllowed\":").append(shift.getShiftPattern().isWfhAllowed());
+            json.append(",\"isAttendanceMandatory\":").append(shift.getShiftPattern().isAttendanceMandatory());
         } else {
             json.append(",\"shiftName\":null");
             json.append(",\"isWfhAllowed\":false");
@@ -313,19 +498,21 @@ public class AttendanceController {
         Map<LocalDate, AttendanceRecord> recordMap = records.stream()
                 .collect(Collectors.toMap(AttendanceRecord::getAttendanceDate, r -> r));
 
-        List<DayScheduleDTO> result = new ArrayList<>();
-        LocalDate date = startDate;
-        while (!date.isAfter(endDate)) {
-            AttendanceRecord record = recordMap.get(date);
-            DayScheduleDTO dto = createDayScheduleDTO(employee.getId(), date, record);
-            result.add(dto);
-            date = date.plusDays(1);
+        // Resolve shifts and holidays for the whole range at once
+        List<EmployeeShiftService.ResolvedShiftDay> days =
+                employeeShiftService.resolveShifts(employee.getId(), startDate, endDate);
+
+        List<DayScheduleDTO> result = new ArrayList<>(days.size());
+        for (EmployeeShiftService.ResolvedShiftDay day : days) {
+            AttendanceRecord record = recordMap.get(day.getDate());
+            result.add(createDayScheduleDTO(day, record));
         }
 
         return result;
     }
 
-    private DayScheduleDTO createDayScheduleDTO(Long employeeId, LocalDate date, AttendanceRecord record) {
+    private DayScheduleDTO createDayScheduleDTO(EmployeeShiftService.ResolvedShiftDay day, AttendanceRecord record) {
+        LocalDate date = day.getDate();
         DayScheduleDTO dto = new DayScheduleDTO();
         dto.setDate(date.toString());
         dto.setDayName(date.getDayOfWeek().getDisplayName(TextStyle.FULL, new Locale("id", "ID")));
@@ -356,20 +543,20 @@ public class AttendanceController {
             }
         } else {
             // No attendance record - get shift schedule
-            EmployeeShiftService.ShiftAssignmentResult shift = employeeShiftService.getShiftAssignment(employeeId, date);
+            EmployeeShiftService.ShiftAssignmentResult shift = day.getAssignment();
             dto.setHasAttendance(false);
             dto.setIsWorkingDay(shift.isWorkingDay());
 
             // Check holiday
-            Holiday holiday = holidayService.getHolidayByDate(date).orElse(null);
+            HolidayCalendar.HolidayEntry holiday = day.getHoliday();
             if (holiday != null) {
                 dto.setIsHoliday(true);
-                dto.setHolidayName(holiday.getName());
+                dto.setHolidayName(holiday.name());
             }
 
             if (shift.getShiftPattern() != null) {
-                dto.setShiftName(shift.getShiftPattern().getName());
-                dto.setShiftColor(shift.getShiftPattern().getColor());
+                dto.setShiftName(shift.getShiftPattern().name());
+                dto.setShiftColor(shift.getShiftPattern().color());
             }
             if (shift.getStartTime() != null) {
                 dto.setShiftStartTime(shift.getStartTime().toString());
@@ -2,6 +2,7 @@ package com.hris.controller;
 
 import com.hris.dto.BulkAssignShiftRequest;
 import com.hris.dto.BulkAssignShiftResult;
+import com.hris.model.AttendanceRecomputeJob;
 import com.hris.model.Employee;
 import com.hris.model.EmployeeShiftSchedule;
 import com.hris.model.EmployeeShiftSetting;
@@ -16,10 +17,14 @@ import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
@@ -43,6 +48,8 @@ public class EmployeeShiftController {
     private final WorkingHoursService workingHoursService;
     private final DepartmentService departmentService;
     private final CompanyService companyService;
+    private final ShiftRosterService shiftRosterService;
+    private final AttendanceRecomputeService attendanceRecomputeService;
 
     // =====================================================
     // EMPLOYEE SHIFT ASSIGNMENT
@@ -220,6 +227,41 @@ public class EmployeeShiftController {
         return "employee/shift-detail";
     }
 
+    // =====================================================
+    // SHIFT ROSTER
+    // =====================================================
+
+    /**
+     * Stream shift roster for a department (including sub-departments) or all active employees
+     * format: json (compact matrix with legend) or csv
+     */
+    @GetMapping("/shift-roster/export")
+    public ResponseEntity<StreamingResponseBody> exportShiftRoster(
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "json") String format) {
+        ShiftRosterService.RosterMatrix roster;
+        try {
+            roster = shiftRosterService.computeRoster(departmentId, startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            log.warn("Roster export rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        if ("csv".equalsIgnoreCase(format)) {
+            String filename = "shift-roster-" + startDate + "-" + endDate + ".csv";
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(out -> shiftRosterService.writeCsv(roster, out));
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> shiftRosterService.writeJson(roster, out));
+    }
+
     // =====================================================
     // BULK SHIFT ASSIGNMENT
     // =====================================================
@@ -328,6 +370,45 @@ public class EmployeeShiftController {
         }
     }
 
+    // =====================================================
+    // ATTENDANCE RECOMPUTE JOBS
+    // =====================================================
+
+    /**
+     * List latest attendance recompute jobs (retroactive shift changes)
+     */
+    @GetMapping("/shift-recompute-jobs")
+    @ResponseBody
+    public List<AttendanceRecomputeJob> listRecomputeJobs() {
+        return attendanceRecomputeService.getRecentJobs();
+    }
+
+    /**
+     * Get recompute job progress
+     */
+    @GetMapping("/shift-recompute-jobs/{jobId}")
+    @ResponseBody
+    public ResponseEntity<AttendanceRecomputeJob> getRecomputeJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(attendanceRecomputeService.getJob(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Retry a failed recompute job from its last checkpoint
+     */
+    @PostMapping("/shift-recompute-jobs/{jobId}/retry")
+    @ResponseBody
+    public ResponseEntity<?> retryRecomputeJob(@PathVariable Long jobId) {
+        try {
+            return ResponseEntity.ok(attendanceRecomputeService.retryJob(jobId));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
     /**
      * Summary DTO for employee with current shift
      */
@@ -2,6 +2,7 @@ package com.hris.controller;
 
 import com.hris.model.Holiday;
 import com.hris.model.enums.HolidayType;
+import com.hris.service.HolidayCalendar;
 import com.hris.service.HolidayService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -204,14 +205,14 @@ public class HolidayController {
         );
 
         if (isHoliday) {
-            Holiday holiday = holidayService.getHolidayByDate(date).orElse(null);
+            HolidayCalendar.HolidayEntry holiday = holidayService.getHolidayByDate(date).orElse(null);
             if (holiday != null) {
                 return Map.of(
                         "date", date,
                         "isHoliday", true,
-                        "holidayName", holiday.getName(),
-                        "holidayType", holiday.getHolidayType().name(),
-                        "description", holiday.getDescription() != null ? holiday.getDescription() : ""
+                        "holidayName", holiday.name(),
+                        "holidayType", holiday.holidayType().name(),
+                        "description", holiday.description() != null ? holiday.description() : ""
                 );
             }
         }
@@ -19,6 +19,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
 import java.time.LocalDate;
+import java.util.Map;
 
 /**
  * Controller for Leave Request pages
@@ -265,4 +266,18 @@ public class LeaveRequestController {
         }
         return "redirect:/leave/my-requests";
     }
+
+    // =====================================================
+    // ON LEAVE LOOKUP
+    // =====================================================
+
+    /**
+     * Employees on approved leave on date (employee id -> leave request id), for dashboards and rosters
+     */
+    @GetMapping("/on-leave")
+    @ResponseBody
+    public Map<Long, Long> employeesOnLeave(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return leaveRequestService.getEmployeesOnLeave(date != null ? date : LocalDate.now());
+    }
 }
@@ -1,13 +1,17 @@
 package com.hris.controller;
 
+import com.hris.dto.LowLeaveBalanceRow;
 import com.hris.model.Employee;
 import com.hris.model.LeaveBalance;
 import com.hris.service.DepartmentService;
 import com.hris.service.EmployeeService;
 import com.hris.service.LeaveBalanceService;
+import com.hris.service.LeaveRolloverService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -29,6 +33,7 @@ import java.util.List;
 public class LeaveSettingsController {
 
     private final LeaveBalanceService leaveBalanceService;
+    private final LeaveRolloverService leaveRolloverService;
     private final EmployeeService employeeService;
     private final DepartmentService departmentService;
 
@@ -155,6 +160,7 @@ public class LeaveSettingsController {
         model.addAttribute("activePage", "leave-settings");
         model.addAttribute("balance", balance);
         model.addAttribute("employee", employee);
+        model.addAttribute("ledgerEntries", leaveBalanceService.getLedgerEntries(employeeId, year));
         model.addAttribute("isEdit", true);
 
         return "leave-settings/form";
@@ -235,4 +241,38 @@ public class LeaveSettingsController {
 
         return "redirect:/leave-settings?year=" + year;
     }
+
+    @PostMapping("/rollover")
+    public String rolloverLeaveBalances(
+            @RequestParam int year,
+            RedirectAttributes redirectAttributes) {
+        log.info("Starting leave balance rollover into year: {}", year);
+
+        if (leaveRolloverService.startRollover(year)) {
+            redirectAttributes.addFlashAttribute("success",
+                    "Rollover leave balance ke tahun " + year + " dijalankan di background");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "Rollover leave balance sedang berjalan");
+        }
+
+        return "redirect:/leave-settings?year=" + year;
+    }
+
+    @GetMapping("/rollover/{year}")
+    @ResponseBody
+    public List<LeaveRolloverService.PartitionStatus> rolloverStatus(@PathVariable int year) {
+        return leaveRolloverService.getStatus(year);
+    }
+
+    @GetMapping("/low-balance")
+    @ResponseBody
+    public Page<LowLeaveBalanceRow> lowBalanceEmployees(
+            @RequestParam(defaultValue = "3") double threshold,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return leaveBalanceService.getLowBalanceEmployees(threshold, year, departmentId,
+                PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), 100)));
+    }
 }
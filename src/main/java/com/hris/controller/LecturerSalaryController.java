@@ -4,16 +4,25 @@ import com.hris.model.LecturerSalary;
 import com.hris.model.LecturerProfile;
 import com.hris.model.enums.LecturerSalaryStatus;
 import com.hris.model.enums.LecturerEmploymentStatus;
+import com.hris.service.LecturerPayrollRunService;
 import com.hris.service.LecturerProfileService;
 import com.hris.service.LecturerSalaryService;
+import com.hris.service.LecturerStagingImportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/lecturer-salaries")
@@ -26,6 +35,12 @@ public class LecturerSalaryController {
     @Autowired
     private LecturerProfileService lecturerProfileService;
 
+    @Autowired
+    private LecturerPayrollRunService payrollRunService;
+
+    @Autowired
+    private LecturerStagingImportService stagingImportService;
+
     @GetMapping
     public String listSalaries(
             @RequestParam(required = false) String period,
@@ -79,7 +94,30 @@ public class LecturerSalaryController {
 
             redirectAttributes.addFlashAttribute("success", "Gaji dosen berhasil dihitung");
             return "redirect:/lecturer-salaries/view/" + salary.getId();
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/lecturer-salaries/calculate";
+        }
+    }
+
+    @PostMapping("/run")
+    public String runPayroll(@RequestParam String period, RedirectAttributes redirectAttributes) {
+        try {
+            LecturerPayrollRunService.RunResult result = payrollRunService.runPayroll(period);
+
+            redirectAttributes.addFlashAttribute("success", String.format(
+                    "Gaji %d dosen periode %s berhasil dihitung (%d sudah ada, %d tidak aktif, %d gagal) dalam %.1f detik",
+                    result.calculated(), period, result.skipped() - result.inactive(), result.inactive(),
+                    result.failed(), result.elapsedMillis() / 1000.0));
+            if (result.failed() > 0) {
+                redirectAttributes.addFlashAttribute("error", "Gagal dihitung: " + result.failures().stream()
+                        .limit(10)
+                        .map(f -> (f.lecturerProfileId() != null ? "Dosen #" + f.lecturerProfileId() + ": " : "")
+                                + f.reason())
+                        .collect(Collectors.joining("; ")));
+            }
+            return "redirect:/lecturer-salaries?period=" + period;
+        } catch (IllegalArgumentException | IllegalStateException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/lecturer-salaries/calculate";
         }
@@ -132,4 +170,23 @@ public class LecturerSalaryController {
         }
         return "redirect:/lecturer-salaries";
     }
+
+    /**
+     * Bulk import of staging data from the academic / research systems
+     * Body is streamed: text/csv with a header row, or NDJSON (application/x-ndjson, text/plain)
+     */
+    @PostMapping(value = "/staging/{target}/import",
+            consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    @ResponseBody
+    public ResponseEntity<?> importStaging(@PathVariable LecturerStagingImportService.Target target,
+                                           @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                           InputStream body) throws IOException {
+        LecturerStagingImportService.Format format = contentType.toLowerCase().startsWith("text/csv")
+                ? LecturerStagingImportService.Format.CSV : LecturerStagingImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.ok(stagingImportService.importRows(target, format, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package com.hris.controller;
+
+import com.hris.dto.GeofenceCheckRequest;
+import com.hris.dto.OfficeLocationRequest;
+import com.hris.model.Employee;
+import com.hris.model.OfficeLocation;
+import com.hris.repository.EmployeeRepository;
+import com.hris.service.GeofenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller untuk Office Location (geofence) Management
+ * API JSON untuk CRUD lokasi kantor dan validasi lokasi batch
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@RequestMapping("/office-locations")
+public class OfficeLocationController {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+
+    private final GeofenceService geofenceService;
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * List all office locations
+     */
+    @GetMapping("/api")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public List<OfficeLocation> list() {
+        return geofenceService.getAllOfficeLocations();
+    }
+
+    /**
+     * Create office location
+     */
+    @PostMapping("/api")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public ResponseEntity<?> create(@RequestBody OfficeLocationRequest request) {
+        try {
+            return ResponseEntity.ok(geofenceService.createOfficeLocation(request));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Update office location
+     */
+    @PutMapping("/api/{id}")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody OfficeLocationRequest request) {
+        try {
+            return ResponseEntity.ok(geofenceService.updateOfficeLocation(id, request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete office location
+     */
+    @DeleteMapping("/api/{id}")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('ADMIN', 'HR')")
+    public ResponseEntity<?> delete(@PathVariable Long id) {
+        try {
+            geofenceService.deleteOfficeLocation(id);
+            return ResponseEntity.ok(Map.of("success", true));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Validate many locations in one call (offline device uploads)
+     * Results are returned in request order
+     * Employees without ADMIN/HR role can only validate their own locations (own department)
+     */
+    @PostMapping("/api/validate-batch")
+    @ResponseBody
+    @PreAuthorize("hasAnyRole('EMPLOYEE', 'ADMIN', 'HR')")
+    public ResponseEntity<?> validateBatch(@RequestBody List<GeofenceCheckRequest> checks,
+                                           Authentication authentication) {
+        if (checks.size() > MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("success", false,
+                    "message", "Maksimal " + MAX_BATCH_SIZE + " lokasi per request"));
+        }
+
+        boolean isAdminOrHr = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()) || "ROLE_HR".equals(a.getAuthority()));
+        if (!isAdminOrHr) {
+            Employee employee = employeeRepository.findByEmailAndDeletedAtIsNull(authentication.getName())
+                    .orElseThrow(() -> new IllegalStateException("Employee not found"));
+            for (GeofenceCheckRequest check : checks) {
+                if (check.getEmployeeId() != null && !check.getEmployeeId().equals(employee.getId())) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("success", false,
+                            "message", "Hanya dapat memvalidasi lokasi milik sendiri"));
+                }
+                check.setEmployeeId(employee.getId());
+                check.setDepartmentId(null);
+            }
+        }
+        return ResponseEntity.ok(geofenceService.validateBatch(checks));
+    }
+}
@@ -0,0 +1,35 @@
+package com.hris.dto;
+
+import com.hris.model.enums.ApprovalRequestType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One pending request in an approver's inbox (leave, WFH or overtime)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalInboxItem {
+
+    private ApprovalRequestType requestType;
+    private Long requestId;
+    private Long employeeId;
+    private String employeeName;
+    private String status; // PENDING_SUPERVISOR or PENDING_HR
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    /**
+     * Leave type (leave) or estimated hours (overtime); null for WFH
+     */
+    private String detail;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,40 @@
+package com.hris.dto;
+
+import com.hris.model.enums.ApprovalRequestType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page of an approver's inbox (keyset pagination, oldest first)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalInboxPage {
+
+    @Builder.Default
+    private List<ApprovalInboxItem> items = new ArrayList<>();
+
+    /**
+     * Cursor for the next page, null on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * Pending count per request type (badges); filled on the first page only
+     */
+    @Builder.Default
+    private Map<ApprovalRequestType, Long> counts = new EnumMap<>(ApprovalRequestType.class);
+
+    public long getTotalCount() {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
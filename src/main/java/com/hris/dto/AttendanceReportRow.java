@@ -0,0 +1,39 @@
+package com.hris.dto;
+
+import com.hris.model.enums.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Row of the company-wide attendance report (flat projection, no entity graph)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceReportRow {
+    private Long id;
+    private LocalDate attendanceDate;
+    private Long employeeId;
+    private String employeeNik;
+    private String employeeName;
+    private String departmentName;
+    private LocalTime clockInTime;
+    private LocalTime clockOutTime;
+    private AttendanceStatus status;
+    private Boolean isLate;
+    private Integer lateDurationMinutes;
+    private Boolean isEarlyLeave;
+    private Integer earlyLeaveDurationMinutes;
+    private Boolean isOvertime;
+    private Integer overtimeDurationMinutes;
+    private Integer actualWorkMinutes;
+    private Integer underworkMinutes;
+    private Boolean isWfh;
+    private BigDecimal lateDeductionAmount;
+    private BigDecimal underworkDeductionAmount;
+}
@@ -0,0 +1,30 @@
+package com.hris.dto;
+
+import com.hris.model.enums.ApprovalAction;
+import com.hris.model.enums.ApprovalRequestType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for Bulk Approval (leave, WFH, overtime)
+ * Each request is approved/rejected at the level of its current status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkApprovalRequest {
+
+    private ApprovalRequestType requestType;
+    private ApprovalAction action;
+    private List<Long> requestIds;
+
+    /**
+     * Approval note, or rejection reason
+     */
+    private String note;
+}
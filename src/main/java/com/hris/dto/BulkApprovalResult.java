@@ -0,0 +1,98 @@
+package com.hris.dto;
+
+import com.hris.model.enums.ApprovalAction;
+import com.hris.model.enums.ApprovalRequestType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result DTO for Bulk Approval
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkApprovalResult {
+
+    private ApprovalRequestType requestType;
+    private ApprovalAction action;
+
+    @Builder.Default
+    private List<SuccessItem> successList = new ArrayList<>();
+
+    @Builder.Default
+    private List<FailureItem> failureList = new ArrayList<>();
+
+    @Builder.Default
+    private List<SkippedItem> skippedList = new ArrayList<>();
+
+    public int getTotalProcessed() {
+        return successList.size() + failureList.size() + skippedList.size();
+    }
+
+    public int getSuccessCount() {
+        return successList.size();
+    }
+
+    public int getFailureCount() {
+        return failureList.size();
+    }
+
+    public int getSkippedCount() {
+        return skippedList.size();
+    }
+
+    public double getSuccessPercentage() {
+        int total = getTotalProcessed();
+        if (total == 0) return 0;
+        return (getSuccessCount() * 100.0) / total;
+    }
+
+    /**
+     * Success item - request approved/rejected
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SuccessItem {
+        private Long requestId;
+        private Long employeeId;
+        private String employeeName;
+        private String previousStatus;
+        private String newStatus;
+        private Double deductedDays; // leave HR approval only
+    }
+
+    /**
+     * Failure item - request left unchanged
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailureItem {
+        private Long requestId;
+        private Long employeeId;
+        private String employeeName;
+        private String errorMessage;
+        private String errorType; // NOT_FOUND, INVALID_STATUS, NOT_AUTHORIZED, INSUFFICIENT_BALANCE, INVALID_REQUEST, SYSTEM_ERROR
+    }
+
+    /**
+     * Skipped item - request id listed more than once
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SkippedItem {
+        private Long requestId;
+        private String skipReason; // DUPLICATE_ID
+    }
+}
@@ -30,6 +30,11 @@ public class BulkAssignShiftResult {
     private boolean retroactive;
     private long retroactiveDays;
 
+    /**
+     * Attendance recompute job for the retroactive period (null if nothing to recompute)
+     */
+    private Long recomputeJobId;
+
     public int getTotalProcessed() {
         return successList.size() + failureList.size() + skippedList.size();
     }
@@ -0,0 +1,16 @@
+package com.hris.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight employee option for dropdowns (id + name only)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeOption {
+    private Long id;
+    private String fullName;
+}
@@ -0,0 +1,23 @@
+package com.hris.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Geofence Check Request DTO
+ * One location to validate in a batch (department taken from employee if not given)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeofenceCheckRequest {
+    private Long employeeId;
+    private Long departmentId;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+}
@@ -0,0 +1,23 @@
+package com.hris.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight row for the low leave balance list (no entity / lazy employee loading)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowLeaveBalanceRow {
+    private Long balanceId;
+    private Long employeeId;
+    private String nik;
+    private String fullName;
+    private String departmentName;
+    private Integer year;
+    private Double balance;
+    private Double used;
+    private Double remainingBalance;
+}
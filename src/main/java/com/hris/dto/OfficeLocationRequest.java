@@ -0,0 +1,28 @@
+package com.hris.dto;
+
+import com.hris.model.enums.GeofenceShape;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Office Location Request DTO
+ * Editable fields of a geofence (id, company and audit fields are set by the server)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeLocationRequest {
+    private Long departmentId;
+    private String name;
+    private GeofenceShape shapeType;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private Integer radiusMeters;
+    private String polygonPoints;
+    private Boolean isActive;
+}
@@ -0,0 +1,29 @@
+package com.hris.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Offline Punch Request DTO
+ * One line of an NDJSON bulk sync upload from a device
+ * Direction (IN/OUT) is optional: without it the first punch of the day is the clock-in
+ * and the last one the clock-out
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfflinePunchRequest {
+    private String deviceId;
+    private Long employeeId;
+    private LocalDateTime timestamp;
+    private String direction;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private String deviceInfo;
+}
@@ -0,0 +1,17 @@
+package com.hris.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight employee row for the shift roster (id, name and department only, no entity loading)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterEmployeeRow {
+    private Long id;
+    private String fullName;
+    private String departmentName;
+}
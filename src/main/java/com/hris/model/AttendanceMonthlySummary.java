@@ -0,0 +1,88 @@
+package com.hris.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Attendance Monthly Summary Entity
+ * Ringkasan attendance per employee per bulan, dipelihara oleh AttendanceSummaryService
+ * (read-only dari sisi aplikasi; ditulis dengan SQL agregat dari attendance_records)
+ */
+@Entity
+@Table(name = "attendance_monthly_summaries",
+    uniqueConstraints = @UniqueConstraint(name = "uk_attendance_summary_period",
+        columnNames = {"employee_id", "period_year", "period_month"}),
+    indexes = @Index(name = "idx_attendance_summary_period", columnList = "period_year, period_month"))
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceMonthlySummary extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "period_year", nullable = false)
+    private Integer periodYear;
+
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+
+    @Column(name = "record_count", nullable = false)
+    private Integer recordCount = 0;
+
+    @Column(name = "present_days", nullable = false)
+    private Integer presentDays = 0;
+
+    @Column(name = "late_days", nullable = false)
+    private Integer lateDays = 0;
+
+    @Column(name = "wfh_days", nullable = false)
+    private Integer wfhDays = 0;
+
+    @Column(name = "overtime_days", nullable = false)
+    private Integer overtimeDays = 0;
+
+    @Column(name = "early_leave_days", nullable = false)
+    private Integer earlyLeaveDays = 0;
+
+    @Column(name = "late_minutes", nullable = false)
+    private Integer lateMinutes = 0;
+
+    @Column(name = "early_leave_minutes", nullable = false)
+    private Integer earlyLeaveMinutes = 0;
+
+    @Column(name = "overtime_minutes", nullable = false)
+    private Integer overtimeMinutes = 0;
+
+    @Column(name = "underwork_minutes", nullable = false)
+    private Integer underworkMinutes = 0;
+
+    @Column(name = "actual_work_minutes", nullable = false)
+    private Integer actualWorkMinutes = 0;
+
+    @Column(name = "late_deduction_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal lateDeductionTotal = BigDecimal.ZERO;
+
+    @Column(name = "early_leave_deduction_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal earlyLeaveDeductionTotal = BigDecimal.ZERO;
+
+    @Column(name = "underwork_deduction_total", nullable = false, precision = 15, scale = 2)
+    private BigDecimal underworkDeductionTotal = BigDecimal.ZERO;
+
+    /**
+     * Total attendance deduction for the month (late + early leave + underwork)
+     */
+    public BigDecimal getTotalDeduction() {
+        return lateDeductionTotal.add(earlyLeaveDeductionTotal).add(underworkDeductionTotal);
+    }
+}
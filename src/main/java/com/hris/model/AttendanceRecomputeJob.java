@@ -0,0 +1,112 @@
+package com.hris.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Attendance Recompute Job Entity
+ * Job rekalkulasi attendance record setelah perubahan shift retroaktif
+ * Checkpoint (lastRecordId) membuat job bisa dilanjutkan setelah restart
+ */
+@Entity
+@Table(name = "attendance_recompute_jobs", indexes = {
+    @Index(name = "idx_recompute_job_status", columnList = "status")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceRecomputeJob extends BaseEntity {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private String status = STATUS_PENDING;
+
+    @Column(name = "employee_ids", nullable = false, columnDefinition = "TEXT")
+    private String employeeIds;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @Column(name = "reason", length = 255)
+    private String reason;
+
+    @Column(name = "total_records", nullable = false)
+    @Builder.Default
+    private Integer totalRecords = 0;
+
+    @Column(name = "processed_records", nullable = false)
+    @Builder.Default
+    private Integer processedRecords = 0;
+
+    @Column(name = "last_record_id", nullable = false)
+    @Builder.Default
+    private Long lastRecordId = 0L;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+
+    /**
+     * Get affected employee IDs
+     */
+    public List<Long> getEmployeeIdList() {
+        if (employeeIds == null || employeeIds.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(employeeIds.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Set affected employee IDs
+     */
+    public void setEmployeeIdList(Collection<Long> ids) {
+        this.employeeIds = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Get progress percentage (0-100)
+     */
+    public double getProgressPercentage() {
+        if (totalRecords == null || totalRecords == 0) {
+            return STATUS_COMPLETED.equals(status) ? 100 : 0;
+        }
+        return Math.min(100, (processedRecords * 100.0) / totalRecords);
+    }
+}
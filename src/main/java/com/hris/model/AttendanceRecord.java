@@ -317,9 +317,7 @@ public class AttendanceRecord extends AuditableEntity {
         }
 
         // Check if overnight shift
-        boolean isOvernight = shiftPattern != null && workingHours != null
-                && workingHours.getIsOvernight() != null
-                && workingHours.getIsOvernight();
+        boolean isOvernight = shiftPattern != null && workingHours != null && workingHours.endsNextDay();
 
         int duration;
         if (isOvernight && clockOutTime.isBefore(clockInTime)) {
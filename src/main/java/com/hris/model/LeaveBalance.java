@@ -8,6 +8,7 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Leave Balance Entity
@@ -94,43 +95,48 @@ public class LeaveBalance extends AuditableEntity {
     private String notes;
 
     /**
-     * Check if employee has sufficient balance for leave request
+     * Waktu carry forward tahun sebelumnya diterapkan (rollover); null = belum
      */
-    public boolean hasSufficientBalance(double requestedDays) {
-        return balance >= requestedDays;
-    }
+    @Column(name = "rolled_over_at")
+    private LocalDateTime rolledOverAt;
 
     /**
-     * Get remaining balance
+     * Stored generated column (balance - used), maintained by MySQL on every write
+     * Only for indexed queries; getRemainingBalance() always computes from the current fields
      */
-    public double getRemainingBalance() {
-        return balance - used;
-    }
+    @Column(name = "remaining_balance", insertable = false, updatable = false)
+    private Double remainingBalance;
 
     /**
-     * Get total available balance (including carried forward)
+     * Optimistic lock version
+     * Juga dinaikkan oleh update atomik di LeaveBalanceService, sehingga edit via entity
+     * yang bertabrakan dengan deduction paralel gagal alih-alih menimpa
      */
-    public double getTotalAvailableBalance() {
-        return getRemainingBalance() + (carriedForward != null ? carriedForward : 0.0);
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * Check if employee has sufficient balance for leave request
+     */
+    public boolean hasSufficientBalance(double requestedDays) {
+        return getRemainingBalance() >= requestedDays;
     }
 
     /**
-     * Deduct balance for leave request
+     * Get remaining balance
+     * balance = jatah + carry forward + penyesuaian - kadaluarsa, used = cuti yang diambil
      */
-    public void deductBalance(double days) {
-        if (balance >= days) {
-            balance -= days;
-            used += days;
-        } else {
-            throw new IllegalArgumentException("Insufficient leave balance");
-        }
+    public double getRemainingBalance() {
+        return balance - used;
     }
 
     /**
-     * Add balance (manual adjustment or reimbursement)
+     * Get total available balance
+     * Carried forward days are already part of balance
      */
-    public void addBalance(double days) {
-        balance += days;
+    public double getTotalAvailableBalance() {
+        return getRemainingBalance();
     }
 
     /**
@@ -143,17 +149,6 @@ public class LeaveBalance extends AuditableEntity {
         return LocalDate.now().isAfter(carriedForwardExpiryDate);
     }
 
-    /**
-     * Expire carried forward balance
-     * Call this when the expiry date has passed
-     */
-    public void expireCarriedForward() {
-        if (isCarriedForwardExpired() && carriedForward > 0) {
-            expiredBalance += carriedForward;
-            carriedForward = 0.0;
-        }
-    }
-
     /**
      * Get balance utilization percentage
      */
@@ -164,31 +159,6 @@ public class LeaveBalance extends AuditableEntity {
         return (used / annualQuota) * 100;
     }
 
-    /**
-     * Reset balance for new year
-     * Carry forward unused balance from previous year
-     * Expired balance is calculated based on 6-month rule
-     */
-    public void resetForNewYear() {
-        double unused = balance - used;
-
-        // Calculate expired balance (cutoff after 6 months)
-        // According to PP No. 35 Tahun 2021, leave expires after 6 months into the next year
-        // So at most 6 days can be carried forward (if employee had 12 days quota)
-        double maxCarryForward = annualQuota / 2; // Half of annual quota
-        double actualCarryForward = Math.min(unused, maxCarryForward);
-
-        this.carriedForward = actualCarryForward;
-        this.carriedForwardExpiryDate = LocalDate.now().plusMonths(6);
-
-        // Calculate expired balance
-        this.expiredBalance = Math.max(0, unused - maxCarryForward);
-
-        // Reset balance for new year
-        this.balance = (double) annualQuota;
-        this.used = 0.0;
-    }
-
     /**
      * Get display name with year
      */
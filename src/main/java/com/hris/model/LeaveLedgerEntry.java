@@ -0,0 +1,62 @@
+package com.hris.model;
+
+import com.hris.model.enums.LeaveLedgerEntryType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leave Ledger Entry Entity
+ * Satu mutasi saldo cuti (append-only, tidak pernah diubah atau dihapus)
+ * Jumlah days per (employee, year) = saldo di leave_balances
+ */
+@Entity
+@Immutable
+@Table(name = "leave_balance_ledger", indexes = {
+    @Index(name = "idx_leave_ledger_employee_year", columnList = "employee_id,year,id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaveLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "employee_id", nullable = false)
+    private Long employeeId;
+
+    @Column(name = "year", nullable = false)
+    private Integer year;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private LeaveLedgerEntryType entryType;
+
+    /**
+     * Pengaruh ke sisa saldo: positif menambah, negatif mengurangi
+     */
+    @Column(name = "days", nullable = false)
+    private Double days;
+
+    @Column(name = "leave_request_id")
+    private Long leaveRequestId;
+
+    @Column(name = "note", length = 500)
+    private String note;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "created_by")
+    private Long createdBy;
+}
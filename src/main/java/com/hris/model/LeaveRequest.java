@@ -69,6 +69,13 @@ public class LeaveRequest extends AuditableEntity {
     @Column(name = "end_date", nullable = false)
     private LocalDate endDate;
 
+    /**
+     * Deductible working days (shift working days minus holidays)
+     * Set on create/update and recalculated on HR approval; null for legacy requests
+     */
+    @Column(name = "working_days")
+    private Double workingDays;
+
     /**
      * Reason for the leave request
      */
@@ -149,6 +156,14 @@ public class LeaveRequest extends AuditableEntity {
         return java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
     }
 
+    /**
+     * Get deductible days, falling back to calendar days for requests created before
+     * working days were tracked
+     */
+    public double getDeductibleDays() {
+        return workingDays != null ? workingDays : getDurationDays();
+    }
+
     /**
      * Check if this is a short leave (3 days or less)
      */
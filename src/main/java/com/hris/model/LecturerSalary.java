@@ -35,6 +35,10 @@ public class LecturerSalary extends AuditableEntity {
     @Enumerated(EnumType.STRING)
     private LecturerRank academicRank;
 
+    // Rate table version used for the calculation
+    @Column(name = "rate_version")
+    private Long rateVersion;
+
     // Basic Salary Components (for Permanent Lecturers)
     @Column(name = "basic_salary", precision = 15, scale = 2)
     private BigDecimal basicSalary = BigDecimal.ZERO;
@@ -149,6 +153,14 @@ public class LecturerSalary extends AuditableEntity {
         this.academicRank = academicRank;
     }
 
+    public Long getRateVersion() {
+        return rateVersion;
+    }
+
+    public void setRateVersion(Long rateVersion) {
+        this.rateVersion = rateVersion;
+    }
+
     public BigDecimal getBasicSalary() {
         return basicSalary;
     }
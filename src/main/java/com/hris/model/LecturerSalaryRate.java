@@ -3,6 +3,7 @@ package com.hris.model;
 import com.hris.model.enums.LecturerRank;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Objects;
 
 /**
@@ -17,10 +18,17 @@ public class LecturerSalaryRate extends AuditableEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "academic_rank", nullable = false, unique = true, length = 50, columnDefinition = "VARCHAR(50)")
+    @Column(name = "academic_rank", nullable = false, length = 50, columnDefinition = "VARCHAR(50)")
     @Enumerated(EnumType.STRING)
     private LecturerRank academicRank;
 
+    // Validity range [validFrom, validTo]; validTo null = open-ended
+    @Column(name = "valid_from", nullable = false)
+    private LocalDate validFrom;
+
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
     // Basic Salary & Allowances for Permanent Lecturers
     @Column(name = "basic_salary", precision = 15, scale = 2)
     private BigDecimal basicSalary = BigDecimal.ZERO;
@@ -62,6 +70,10 @@ public class LecturerSalaryRate extends AuditableEntity {
     @Column(name = "publication_honor", precision = 15, scale = 2)
     private BigDecimal publicationHonor = BigDecimal.ZERO;
 
+    // Rate table version of the last change to this row (table version = highest of all rows)
+    @Column(name = "rate_version", nullable = false)
+    private Long rateVersion = 1L;
+
     // Constructors
     public LecturerSalaryRate() {}
 
@@ -86,6 +98,26 @@ public class LecturerSalaryRate extends AuditableEntity {
         this.academicRank = academicRank;
     }
 
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public boolean isValidOn(LocalDate date) {
+        return !date.isBefore(validFrom) && (validTo == null || !date.isAfter(validTo));
+    }
+
     public BigDecimal getBasicSalary() {
         return basicSalary;
     }
@@ -182,6 +214,14 @@ public class LecturerSalaryRate extends AuditableEntity {
         this.publicationHonor = publicationHonor != null ? publicationHonor : BigDecimal.ZERO;
     }
 
+    public Long getRateVersion() {
+        return rateVersion;
+    }
+
+    public void setRateVersion(Long rateVersion) {
+        this.rateVersion = rateVersion;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,92 @@
+package com.hris.model;
+
+import com.hris.model.enums.GeofenceShape;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Office Location Entity
+ * Geofence kantor/kampus (radius atau polygon) per company atau per department
+ */
+@Entity
+@Table(name = "office_locations", indexes = {
+    @Index(name = "idx_office_location_company", columnList = "company_id"),
+    @Index(name = "idx_office_location_department", columnList = "department_id"),
+    @Index(name = "idx_office_location_active", columnList = "is_active")
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class OfficeLocation extends AuditableEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "company_id", nullable = false)
+    private Long companyId;
+
+    /**
+     * Department scope (null = all employees of the company)
+     */
+    @Column(name = "department_id")
+    private Long departmentId;
+
+    @Column(name = "name", nullable = false, length = 100)
+    private String name;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "shape_type", nullable = false, length = 20, columnDefinition = "VARCHAR(20)")
+    private GeofenceShape shapeType = GeofenceShape.RADIUS;
+
+    @Column(name = "latitude", precision = 10, scale = 8)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 11, scale = 8)
+    private BigDecimal longitude;
+
+    @Column(name = "radius_meters")
+    private Integer radiusMeters;
+
+    /**
+     * Polygon vertices as "lat,lng;lat,lng;..."
+     */
+    @Column(name = "polygon_points", columnDefinition = "TEXT")
+    private String polygonPoints;
+
+    @Column(name = "is_active", nullable = false)
+    private Boolean isActive = true;
+
+    /**
+     * Parse polygon vertices into [lat, lng] pairs
+     */
+    public List<double[]> getPolygonVertices() {
+        List<double[]> vertices = new ArrayList<>();
+        if (polygonPoints == null || polygonPoints.isBlank()) {
+            return vertices;
+        }
+        for (String point : polygonPoints.split(";")) {
+            if (point.isBlank()) {
+                continue;
+            }
+            String[] parts = point.trim().split(",");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Format titik polygon tidak valid: " + point);
+            }
+            vertices.add(new double[]{Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim())});
+        }
+        return vertices;
+    }
+
+    public boolean isPolygon() {
+        return shapeType == GeofenceShape.POLYGON;
+    }
+}
@@ -16,6 +16,10 @@ public class PublicationStaging extends SoftDeleteEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Record id in the source system (import dedupe key)
+    @Column(name = "source_id", length = 100)
+    private String sourceId;
+
     @Column(name = "lecturer_id", nullable = false)
     private Long lecturerId;
 
@@ -81,6 +85,14 @@ public class PublicationStaging extends SoftDeleteEntity {
         this.id = id;
     }
 
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
     public Long getLecturerId() {
         return lecturerId;
     }
@@ -136,36 +136,32 @@ public class ShiftPattern extends AuditableEntity {
      * Calculate late deduction
      */
     public BigDecimal calculateLateDeduction(int lateMinutes) {
-        if (lateDeductionPerMinute == null || lateDeductionPerMinute.compareTo(BigDecimal.ZERO) == 0) {
-            return BigDecimal.ZERO;
-        }
-
         // Subtract tolerance
         int billableMinutes = Math.max(0, lateMinutes - (lateToleranceMinutes != null ? lateToleranceMinutes : 0));
 
-        BigDecimal deduction = lateDeductionPerMinute.multiply(BigDecimal.valueOf(billableMinutes));
-
-        // Cap at max amount
-        if (lateDeductionMaxAmount != null && lateDeductionMaxAmount.compareTo(BigDecimal.ZERO) > 0) {
-            deduction = deduction.min(lateDeductionMaxAmount);
-        }
-
-        return deduction;
+        return cappedDeduction(lateDeductionPerMinute, lateDeductionMaxAmount, billableMinutes);
     }
 
     /**
      * Calculate underwork deduction
      */
     public BigDecimal calculateUnderworkDeduction(int underworkMinutes) {
-        if (underworkDeductionPerMinute == null || underworkDeductionPerMinute.compareTo(BigDecimal.ZERO) == 0) {
+        return cappedDeduction(underworkDeductionPerMinute, underworkDeductionMaxAmount, underworkMinutes);
+    }
+
+    /**
+     * Deduction per minute times minutes, capped at max amount (no cap when max is null or zero)
+     */
+    public static BigDecimal cappedDeduction(BigDecimal perMinute, BigDecimal maxAmount, int minutes) {
+        if (perMinute == null || perMinute.compareTo(BigDecimal.ZERO) == 0) {
             return BigDecimal.ZERO;
         }
 
-        BigDecimal deduction = underworkDeductionPerMinute.multiply(BigDecimal.valueOf(underworkMinutes));
+        BigDecimal deduction = perMinute.multiply(BigDecimal.valueOf(minutes));
 
         // Cap at max amount
-        if (underworkDeductionMaxAmount != null && underworkDeductionMaxAmount.compareTo(BigDecimal.ZERO) > 0) {
-            deduction = deduction.min(underworkDeductionMaxAmount);
+        if (maxAmount != null && maxAmount.compareTo(BigDecimal.ZERO) > 0) {
+            deduction = deduction.min(maxAmount);
         }
 
         return deduction;
@@ -17,6 +17,10 @@ public class TeachingAttendanceStaging extends SoftDeleteEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Record id in the source system (import dedupe key)
+    @Column(name = "source_id", length = 100)
+    private String sourceId;
+
     @Column(name = "lecturer_id", nullable = false)
     private Long lecturerId;
 
@@ -56,6 +60,14 @@ public class TeachingAttendanceStaging extends SoftDeleteEntity {
         this.id = id;
     }
 
+    public String getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(String sourceId) {
+        this.sourceId = sourceId;
+    }
+
     public Long getLecturerId() {
         return lecturerId;
     }
@@ -82,6 +82,17 @@ public class WorkingHours extends AuditableEntity {
         return name;
     }
 
+    /**
+     * Check if the shift ends on the day after it starts: flagged overnight, or end time <= start time
+     * Single rule for shift windows, work duration and clock-out attribution
+     */
+    public boolean endsNextDay() {
+        if (Boolean.TRUE.equals(isOvernight)) {
+            return true;
+        }
+        return startTime != null && endTime != null && !endTime.isAfter(startTime);
+    }
+
     /**
      * Get work duration in minutes
      */
@@ -93,7 +104,7 @@ public class WorkingHours extends AuditableEntity {
         long startMinutes = startTime.getHour() * 60 + startTime.getMinute();
         long endMinutes = endTime.getHour() * 60 + endTime.getMinute();
 
-        if (isOvernight) {
+        if (endsNextDay()) {
             // Shift malam: 22:00 - 06:00 (next day)
             return (int) ((24 * 60 - startMinutes) + endMinutes);
         } else {
@@ -0,0 +1,19 @@
+package com.hris.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Approval Action Enum
+ * Keputusan approver atas pengajuan; level (supervisor/HR) mengikuti status pengajuan saat ini
+ */
+@Getter
+public enum ApprovalAction {
+    APPROVE("Setujui"),
+    REJECT("Tolak");
+
+    private final String displayName;
+
+    ApprovalAction(String displayName) {
+        this.displayName = displayName;
+    }
+}
@@ -0,0 +1,20 @@
+package com.hris.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Approval Request Type Enum
+ * Jenis pengajuan yang melalui 2-level approval (supervisor lalu HR)
+ */
+@Getter
+public enum ApprovalRequestType {
+    LEAVE("Cuti"),
+    WFH("WFH"),
+    OVERTIME("Lembur");
+
+    private final String displayName;
+
+    ApprovalRequestType(String displayName) {
+        this.displayName = displayName;
+    }
+}
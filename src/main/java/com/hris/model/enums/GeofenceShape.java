@@ -0,0 +1,19 @@
+package com.hris.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Geofence Shape Enum
+ * Bentuk area kantor untuk validasi lokasi attendance
+ */
+@Getter
+public enum GeofenceShape {
+    RADIUS("Radius"),
+    POLYGON("Polygon");
+
+    private final String displayName;
+
+    GeofenceShape(String displayName) {
+        this.displayName = displayName;
+    }
+}
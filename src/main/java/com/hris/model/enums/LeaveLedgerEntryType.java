@@ -0,0 +1,28 @@
+package com.hris.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Leave Ledger Entry Type Enum
+ * Jenis mutasi saldo cuti di leave_balance_ledger
+ *
+ * Entry entitlement mengubah leave_balances.balance,
+ * entry pemakaian mengubah leave_balances.used (days negatif = cuti diambil)
+ */
+@Getter
+public enum LeaveLedgerEntryType {
+    GRANT("Jatah Tahunan", true),
+    CARRY_FORWARD("Carry Forward", true),
+    EXPIRY("Kadaluarsa", true),
+    ADJUSTMENT("Penyesuaian", true),
+    DEDUCTION("Cuti Diambil", false),
+    REIMBURSEMENT("Pengembalian Cuti", false);
+
+    private final String displayName;
+    private final boolean entitlement;
+
+    LeaveLedgerEntryType(String displayName, boolean entitlement) {
+        this.displayName = displayName;
+        this.entitlement = entitlement;
+    }
+}
@@ -0,0 +1,40 @@
+package com.hris.repository;
+
+import com.hris.model.AttendanceMonthlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository untuk AttendanceMonthlySummary Entity
+ */
+@Repository
+public interface AttendanceMonthlySummaryRepository extends JpaRepository<AttendanceMonthlySummary, Long> {
+
+    /**
+     * Find summary of employee for a month
+     */
+    Optional<AttendanceMonthlySummary> findByEmployeeIdAndPeriodYearAndPeriodMonth(
+            Long employeeId, Integer periodYear, Integer periodMonth);
+
+    /**
+     * Find summaries of all employees for a month
+     */
+    List<AttendanceMonthlySummary> findByPeriodYearAndPeriodMonthOrderByEmployeeIdAsc(
+            Integer periodYear, Integer periodMonth);
+
+    /**
+     * Find summaries of employee between two months (inclusive, encoded as year * 12 + month)
+     */
+    @Query("SELECT s FROM AttendanceMonthlySummary s " +
+            "WHERE s.employeeId = :employeeId " +
+            "AND (s.periodYear * 12 + s.periodMonth) BETWEEN :fromPeriod AND :toPeriod " +
+            "ORDER BY s.periodYear ASC, s.periodMonth ASC")
+    List<AttendanceMonthlySummary> findByEmployeeIdAndPeriodRange(@Param("employeeId") Long employeeId,
+                                                                 @Param("fromPeriod") int fromPeriod,
+                                                                 @Param("toPeriod") int toPeriod);
+}
@@ -0,0 +1,25 @@
+package com.hris.repository;
+
+import com.hris.model.AttendanceRecomputeJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository untuk AttendanceRecomputeJob Entity
+ */
+@Repository
+public interface AttendanceRecomputeJobRepository extends JpaRepository<AttendanceRecomputeJob, Long> {
+
+    /**
+     * Find jobs by status, oldest first (resume order)
+     */
+    List<AttendanceRecomputeJob> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    /**
+     * Find latest jobs
+     */
+    List<AttendanceRecomputeJob> findTop20ByOrderByIdDesc();
+}
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +51,12 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
      */
     List<AttendanceRecord> findByAttendanceDateAndDeletedAtIsNull(LocalDate attendanceDate);
 
+    /**
+     * Find records of many employees in date range (bulk reconciliation)
+     */
+    List<AttendanceRecord> findByEmployeeIdInAndAttendanceDateBetweenAndDeletedAtIsNull(
+            Collection<Long> employeeIds, LocalDate startDate, LocalDate endDate);
+
     /**
      * Find attendance records by date range
      */
@@ -80,41 +87,6 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
     List<AttendanceRecord> findByStatusAndAttendanceDateBetweenAndDeletedAtIsNull(
             AttendanceStatus status, LocalDate startDate, LocalDate endDate);
 
-    /**
-     * Get monthly summary for employee
-     */
-    @Query("SELECT COUNT(a) FROM AttendanceRecord a " +
-            "WHERE a.employeeId = :employeeId " +
-            "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
-            "AND a.deletedAt IS NULL")
-    long countByEmployeeAndDateRange(@Param("employeeId") Long employeeId,
-                                       @Param("startDate") LocalDate startDate,
-                                       @Param("endDate") LocalDate endDate);
-
-    /**
-     * Count late days for employee in date range
-     */
-    @Query("SELECT COUNT(a) FROM AttendanceRecord a " +
-            "WHERE a.employeeId = :employeeId " +
-            "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
-            "AND a.isLate = true " +
-            "AND a.deletedAt IS NULL")
-    long countLateDaysByEmployeeAndDateRange(@Param("employeeId") Long employeeId,
-                                              @Param("startDate") LocalDate startDate,
-                                              @Param("endDate") LocalDate endDate);
-
-    /**
-     * Count overtime days for employee in date range
-     */
-    @Query("SELECT COUNT(a) FROM AttendanceRecord a " +
-            "WHERE a.employeeId = :employeeId " +
-            "AND a.attendanceDate BETWEEN :startDate AND :endDate " +
-            "AND a.isOvertime = true " +
-            "AND a.deletedAt IS NULL")
-    long countOvertimeDaysByEmployeeAndDateRange(@Param("employeeId") Long employeeId,
-                                                  @Param("startDate") LocalDate startDate,
-                                                  @Param("endDate") LocalDate endDate);
-
     /**
      * Check if employee has already clocked in today
      */
@@ -125,6 +97,15 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             "AND a.deletedAt IS NULL")
     boolean hasClockedInToday(@Param("employeeId") Long employeeId, @Param("date") LocalDate date);
 
+    /**
+     * Find IDs of employees who have clocked in on date (daily attendance context)
+     */
+    @Query("SELECT a.employeeId FROM AttendanceRecord a " +
+            "WHERE a.attendanceDate = :date " +
+            "AND a.clockInTime IS NOT NULL " +
+            "AND a.deletedAt IS NULL")
+    List<Long> findClockedInEmployeeIdsByDate(@Param("date") LocalDate date);
+
     /**
      * Check if employee has already clocked out today
      */
@@ -1,16 +1,21 @@
 package com.hris.repository;
 
+import com.hris.dto.EmployeeOption;
+import com.hris.dto.RosterEmployeeRow;
 import com.hris.model.Employee;
 import com.hris.model.enums.EmployeeStatus;
 import com.hris.model.enums.EmploymentStatus;
 import com.hris.model.enums.RoleType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +55,49 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
            "WHERE e.deletedAt IS NULL ORDER BY e.fullName")
     List<Employee> findAllActive();
 
+    /**
+     * Find [employee id, department id] of all active (status ACTIVE, not deleted) employees
+     */
+    @Query("SELECT e.id, d.id FROM Employee e LEFT JOIN e.department d " +
+           "WHERE e.status = com.hris.model.enums.EmployeeStatus.ACTIVE AND e.deletedAt IS NULL")
+    List<Object[]> findActiveIdsWithDepartmentId();
+
+    /**
+     * Find [employee id, department id] of one active (status ACTIVE, not deleted) employee
+     */
+    @Query("SELECT e.id, d.id FROM Employee e LEFT JOIN e.department d " +
+           "WHERE e.id = :id AND e.status = com.hris.model.enums.EmployeeStatus.ACTIVE AND e.deletedAt IS NULL")
+    List<Object[]> findActiveIdWithDepartmentId(@Param("id") Long id);
+
+    /**
+     * Find [employee id, department id] for the given (not deleted) employees
+     */
+    @Query("SELECT e.id, d.id FROM Employee e LEFT JOIN e.department d WHERE e.id IN :ids AND e.deletedAt IS NULL")
+    List<Object[]> findDepartmentIdsByEmployeeIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find [employee id, department id, status] for the given (not deleted) employees
+     */
+    @Query("SELECT e.id, d.id, e.status FROM Employee e LEFT JOIN e.department d " +
+           "WHERE e.id IN :ids AND e.deletedAt IS NULL")
+    List<Object[]> findDepartmentIdsAndStatusByEmployeeIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find employees by status as lightweight roster rows
+     */
+    @Query("SELECT new com.hris.dto.RosterEmployeeRow(e.id, e.fullName, d.name) FROM Employee e " +
+           "LEFT JOIN e.department d WHERE e.status = :status AND e.deletedAt IS NULL ORDER BY e.fullName")
+    List<RosterEmployeeRow> findRosterRowsByStatus(@Param("status") EmployeeStatus status);
+
+    /**
+     * Find employees by status in departments as lightweight roster rows
+     */
+    @Query("SELECT new com.hris.dto.RosterEmployeeRow(e.id, e.fullName, d.name) FROM Employee e " +
+           "JOIN e.department d WHERE d.id IN :departmentIds AND e.status = :status AND e.deletedAt IS NULL " +
+           "ORDER BY e.fullName")
+    List<RosterEmployeeRow> findRosterRowsByDepartmentIdsAndStatus(@Param("departmentIds") Collection<Long> departmentIds,
+                                                                   @Param("status") EmployeeStatus status);
+
     /**
      * Find employee by ID with relationships fetched (for detail page)
      */
@@ -166,6 +214,13 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query("SELECT e FROM Employee e WHERE e.deletedAt IS NULL ORDER BY e.fullName ASC")
     List<Employee> findAllByDeletedAtIsNullOrderByFullNameAsc();
 
+    /**
+     * Find id + name of all active employees ordered by full name (dropdowns)
+     */
+    @Query("SELECT new com.hris.dto.EmployeeOption(e.id, e.fullName) FROM Employee e " +
+            "WHERE e.deletedAt IS NULL ORDER BY e.fullName ASC")
+    List<EmployeeOption> findAllOptions();
+
     /**
      * Search employees by name or email (for user management)
      */
@@ -176,4 +231,11 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
            "LOWER(e.email) LIKE LOWER(CONCAT('%', :search, '%'))) AND " +
            "e.deletedAt IS NULL ORDER BY e.fullName")
     List<Employee> searchByNameOrEmail(@Param("search") String search);
+
+    /**
+     * Lock employee row until the transaction ends (serializes leave submissions of one employee)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Employee e WHERE e.id = :id")
+    Optional<Employee> lockById(@Param("id") Long id);
 }
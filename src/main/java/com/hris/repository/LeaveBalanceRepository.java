@@ -1,7 +1,10 @@
 package com.hris.repository;
 
+import com.hris.dto.LowLeaveBalanceRow;
 import com.hris.model.Employee;
 import com.hris.model.LeaveBalance;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -75,4 +78,22 @@ public interface LeaveBalanceRepository extends JpaRepository<LeaveBalance, Long
             "AND (lb.balance - lb.used) < :threshold " +
             "AND lb.deletedAt IS NULL")
     List<LeaveBalance> findLowBalanceByEmployee(@Param("employee") Employee employee, @Param("threshold") double threshold);
+
+    /**
+     * Find balances with remaining below threshold as lightweight rows (lowest first)
+     * Uses idx_leave_balance_year_remaining on the generated remaining_balance column
+     */
+    @Query(value = "SELECT new com.hris.dto.LowLeaveBalanceRow(lb.id, e.id, e.nik, e.fullName, d.name, " +
+            "lb.year, lb.balance, lb.used, lb.remainingBalance) " +
+            "FROM LeaveBalance lb JOIN lb.employee e LEFT JOIN e.department d " +
+            "WHERE lb.year = :year AND lb.remainingBalance < :threshold AND lb.deletedAt IS NULL " +
+            "AND (:departmentId IS NULL OR d.id = :departmentId) " +
+            "ORDER BY lb.remainingBalance ASC, lb.id ASC",
+            countQuery = "SELECT COUNT(lb) FROM LeaveBalance lb JOIN lb.employee e LEFT JOIN e.department d " +
+            "WHERE lb.year = :year AND lb.remainingBalance < :threshold AND lb.deletedAt IS NULL " +
+            "AND (:departmentId IS NULL OR d.id = :departmentId)")
+    Page<LowLeaveBalanceRow> findLowBalances(@Param("year") Integer year,
+                                             @Param("threshold") double threshold,
+                                             @Param("departmentId") Long departmentId,
+                                             Pageable pageable);
 }
@@ -0,0 +1,20 @@
+package com.hris.repository;
+
+import com.hris.model.LeaveLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository untuk LeaveLedgerEntry Entity
+ * Read-only; entry ditulis oleh LeaveBalanceService bersama update atomik saldo
+ */
+@Repository
+public interface LeaveLedgerEntryRepository extends JpaRepository<LeaveLedgerEntry, Long> {
+
+    /**
+     * Find ledger entries of employee in year (oldest first)
+     */
+    List<LeaveLedgerEntry> findByEmployeeIdAndYearOrderByIdAsc(Long employeeId, Integer year);
+}
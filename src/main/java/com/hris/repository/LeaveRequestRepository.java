@@ -3,12 +3,15 @@ package com.hris.repository;
 import com.hris.model.LeaveRequest;
 import com.hris.model.enums.LeaveRequestStatus;
 import com.hris.model.enums.LeaveType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -37,6 +40,16 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
             "ORDER BY lr.createdAt ASC")
     List<LeaveRequest> findPendingSupervisorRequests();
 
+    /**
+     * Find pending supervisor requests of the given requesters (a supervisor's team)
+     */
+    @Query("SELECT lr FROM LeaveRequest lr " +
+            "WHERE lr.status = 'PENDING_SUPERVISOR' " +
+            "AND lr.employeeId IN :employeeIds " +
+            "AND lr.deletedAt IS NULL " +
+            "ORDER BY lr.createdAt ASC")
+    List<LeaveRequest> findPendingSupervisorRequestsByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
     /**
      * Find pending HR requests
      */
@@ -77,6 +90,20 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
+    /**
+     * Find overlapping leave requests for employee with a locking read
+     * Sees requests committed after the transaction's snapshot (submission re-check under employee lock)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT lr FROM LeaveRequest lr WHERE lr.employeeId = :employeeId " +
+            "AND lr.status IN ('PENDING_SUPERVISOR', 'PENDING_HR', 'APPROVED') " +
+            "AND lr.deletedAt IS NULL " +
+            "AND ((lr.startDate <= :endDate AND lr.endDate >= :startDate))")
+    List<LeaveRequest> lockOverlappingLeaveRequests(
+            @Param("employeeId") Long employeeId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
     /**
      * Find approved leave requests for employee in date range
      */
@@ -126,4 +153,13 @@ public interface LeaveRequestRepository extends JpaRepository<LeaveRequest, Long
             "AND lr.deletedAt IS NULL " +
             "ORDER BY lr.createdAt DESC")
     List<LeaveRequest> findBySupervisorIdOrderByCreatedAtDesc(@Param("supervisorId") Long supervisorId);
+
+    /**
+     * Lock and load requests with their requesters in one query (bulk approval)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT lr FROM LeaveRequest lr JOIN FETCH lr.employee " +
+            "WHERE lr.id IN :ids " +
+            "AND lr.deletedAt IS NULL")
+    List<LeaveRequest> lockAllWithEmployeeByIdIn(@Param("ids") Collection<Long> ids);
 }
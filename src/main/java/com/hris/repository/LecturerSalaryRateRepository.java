@@ -14,10 +14,15 @@ public interface LecturerSalaryRateRepository extends JpaRepository<LecturerSala
 
     List<LecturerSalaryRate> findAllByDeletedAtIsNull();
 
-    Optional<LecturerSalaryRate> findByAcademicRankAndDeletedAtIsNull(LecturerRank academicRank);
+    /**
+     * Latest rate version of a rank
+     */
+    Optional<LecturerSalaryRate> findFirstByAcademicRankAndDeletedAtIsNullOrderByValidFromDesc(LecturerRank academicRank);
+
+    List<LecturerSalaryRate> findByAcademicRankAndDeletedAtIsNullOrderByValidFrom(LecturerRank academicRank);
 
     boolean existsByAcademicRankAndDeletedAtIsNull(LecturerRank academicRank);
 
-    @Query("SELECT lr FROM LecturerSalaryRate lr WHERE lr.deletedAt IS NULL ORDER BY lr.academicRank")
+    @Query("SELECT lr FROM LecturerSalaryRate lr WHERE lr.deletedAt IS NULL ORDER BY lr.academicRank, lr.validFrom DESC")
     List<LecturerSalaryRate> findAllOrderByAcademicRank();
 }
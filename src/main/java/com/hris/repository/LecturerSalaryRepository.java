@@ -3,6 +3,7 @@ package com.hris.repository;
 import com.hris.model.LecturerSalary;
 import com.hris.model.enums.LecturerSalaryStatus;
 import com.hris.model.enums.LecturerEmploymentStatus;
+import com.hris.model.enums.LecturerRank;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -56,4 +57,10 @@ public interface LecturerSalaryRepository extends JpaRepository<LecturerSalary,
 
     boolean existsByLecturerProfileIdAndPeriodAndDeletedAtIsNull(
             Long lecturerProfileId, String period);
+
+    /**
+     * Active salaries of an academic rank in a period range (YYYY-MM, inclusive)
+     */
+    boolean existsByAcademicRankAndPeriodBetweenAndDeletedAtIsNull(
+            LecturerRank academicRank, String startPeriod, String endPeriod);
 }
@@ -0,0 +1,34 @@
+package com.hris.repository;
+
+import com.hris.model.OfficeLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository untuk OfficeLocation Entity
+ */
+@Repository
+public interface OfficeLocationRepository extends JpaRepository<OfficeLocation, Long> {
+
+    /**
+     * Find all office locations ordered by name
+     */
+    List<OfficeLocation> findByDeletedAtIsNullOrderByName();
+
+    /**
+     * Find active office locations (geofence index source)
+     */
+    List<OfficeLocation> findByIsActiveTrueAndDeletedAtIsNull();
+
+    /**
+     * Check if name is used by another office location of the company
+     */
+    boolean existsByCompanyIdAndNameAndDeletedAtIsNullAndIdNot(Long companyId, String name, Long id);
+
+    /**
+     * Check if name is used by an office location of the company
+     */
+    boolean existsByCompanyIdAndNameAndDeletedAtIsNull(Long companyId, String name);
+}
@@ -2,12 +2,15 @@ package com.hris.repository;
 
 import com.hris.model.OvertimeRequest;
 import com.hris.model.enums.RequestStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -50,6 +53,16 @@ public interface OvertimeRequestRepository extends JpaRepository<OvertimeRequest
             "ORDER BY otr.createdAt ASC")
     List<OvertimeRequest> findPendingSupervisorRequests();
 
+    /**
+     * Find pending supervisor requests of the given requesters (a supervisor's team)
+     */
+    @Query("SELECT otr FROM OvertimeRequest otr " +
+            "WHERE otr.status = 'PENDING_SUPERVISOR' " +
+            "AND otr.employeeId IN :employeeIds " +
+            "AND otr.deletedAt IS NULL " +
+            "ORDER BY otr.createdAt ASC")
+    List<OvertimeRequest> findPendingSupervisorRequestsByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
     /**
      * Find pending HR requests
      */
@@ -104,4 +117,13 @@ public interface OvertimeRequestRepository extends JpaRepository<OvertimeRequest
     long countApprovedOvertimeDaysByEmployeeAndDateRange(@Param("employeeId") Long employeeId,
                                                           @Param("startDate") LocalDate startDate,
                                                           @Param("endDate") LocalDate endDate);
+
+    /**
+     * Lock and load requests with their requesters in one query (bulk approval)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT otr FROM OvertimeRequest otr JOIN FETCH otr.employee " +
+            "WHERE otr.id IN :ids " +
+            "AND otr.deletedAt IS NULL")
+    List<OvertimeRequest> lockAllWithEmployeeByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -2,12 +2,15 @@ package com.hris.repository;
 
 import com.hris.model.WfhRequest;
 import com.hris.model.enums.RequestStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -56,6 +59,16 @@ public interface WfhRequestRepository extends JpaRepository<WfhRequest, Long> {
             "ORDER BY wr.createdAt ASC")
     List<WfhRequest> findPendingSupervisorRequests();
 
+    /**
+     * Find pending supervisor requests of the given requesters (a supervisor's team)
+     */
+    @Query("SELECT wr FROM WfhRequest wr " +
+            "WHERE wr.status = 'PENDING_SUPERVISOR' " +
+            "AND wr.employeeId IN :employeeIds " +
+            "AND wr.deletedAt IS NULL " +
+            "ORDER BY wr.createdAt ASC")
+    List<WfhRequest> findPendingSupervisorRequestsByEmployeeIds(@Param("employeeIds") Collection<Long> employeeIds);
+
     /**
      * Find pending HR requests
      */
@@ -81,6 +94,27 @@ public interface WfhRequestRepository extends JpaRepository<WfhRequest, Long> {
             "AND wr.deletedAt IS NULL")
     boolean hasApprovedWfhForDate(@Param("employeeId") Long employeeId, @Param("date") LocalDate date);
 
+    /**
+     * Find IDs of employees with approved WFH on date (daily attendance context)
+     */
+    @Query("SELECT wr.employeeId FROM WfhRequest wr " +
+            "WHERE wr.requestDate = :date " +
+            "AND wr.status = 'APPROVED' " +
+            "AND wr.deletedAt IS NULL")
+    List<Long> findApprovedEmployeeIdsByDate(@Param("date") LocalDate date);
+
+    /**
+     * Find [employee id, date] of approved WFH for many employees in date range (bulk reconciliation)
+     */
+    @Query("SELECT wr.employeeId, wr.requestDate FROM WfhRequest wr " +
+            "WHERE wr.employeeId IN :employeeIds " +
+            "AND wr.requestDate BETWEEN :startDate AND :endDate " +
+            "AND wr.status = 'APPROVED' " +
+            "AND wr.deletedAt IS NULL")
+    List<Object[]> findApprovedByEmployeeIdsAndDateRange(@Param("employeeIds") Collection<Long> employeeIds,
+                                                         @Param("startDate") LocalDate startDate,
+                                                         @Param("endDate") LocalDate endDate);
+
     /**
      * Count WFH days for employee in date range
      */
@@ -92,4 +126,13 @@ public interface WfhRequestRepository extends JpaRepository<WfhRequest, Long> {
     long countApprovedWfhDaysByEmployeeAndDateRange(@Param("employeeId") Long employeeId,
                                                      @Param("startDate") LocalDate startDate,
                                                      @Param("endDate") LocalDate endDate);
+
+    /**
+     * Lock and load requests with their requesters in one query (bulk approval)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT wr FROM WfhRequest wr JOIN FETCH wr.employee " +
+            "WHERE wr.id IN :ids " +
+            "AND wr.deletedAt IS NULL")
+    List<WfhRequest> lockAllWithEmployeeByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,252 @@
+package com.hris.service;
+
+import com.hris.dto.ApprovalInboxItem;
+import com.hris.dto.ApprovalInboxPage;
+import com.hris.model.enums.ApprovalRequestType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approval Inbox Service
+ * Inbox approver: pengajuan cuti, WFH dan lembur yang menunggu keputusan approver tertentu
+ *
+ * - Antrian supervisor: employee_id IN bawahan approver (SupervisorIndex, sumber yang sama dengan
+ *   ApprovalService.canApprove) AND status PENDING_SUPERVISOR, sehingga pergantian head department
+ *   langsung memindahkan antrian; antrian HR: status PENDING_HR (hanya untuk HR/Admin)
+ * - Tiap antrian (jenis x level) satu query index (status, employee_id, created_at) atau
+ *   (status, created_at) dengan keyset (created_at, id) dan LIMIT; hasil di-merge urut
+ *   (created_at, antrian, id) sehingga biaya mengikuti ukuran halaman, bukan jumlah pending company
+ * - Badge jumlah dari COUNT per antrian dalam satu query UNION ALL
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ApprovalInboxService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_SEPARATOR = "_";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApprovalService approvalService;
+
+    /**
+     * Inbox page for approver, oldest request first
+     *
+     * @param includeHr Include the HR queue (approver has HR/Admin role)
+     * @param cursor    nextCursor of the previous page, null for the first page
+     */
+    public ApprovalInboxPage getInbox(Long approverId, boolean includeHr, String cursor, int size) {
+        int limit = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.parse(cursor) : null;
+
+        List<Long> team = team(approverId);
+        List<Row> rows = new ArrayList<>();
+        for (Queue queue : queues(includeHr, team)) {
+            rows.addAll(fetch(queue, team, after, limit + 1));
+        }
+        rows.sort(Comparator.comparing((Row r) -> r.item().getCreatedAt())
+                .thenComparingInt(r -> r.queue().ordinal())
+                .thenComparingLong(r -> r.item().getRequestId()));
+
+        ApprovalInboxPage page = ApprovalInboxPage.builder().build();
+        for (int i = 0; i < Math.min(limit, rows.size()); i++) {
+            page.getItems().add(rows.get(i).item());
+        }
+        if (rows.size() > limit) {
+            Row last = rows.get(limit - 1);
+            page.setNextCursor(new Cursor(last.item().getCreatedAt(), last.queue().ordinal(),
+                    last.item().getRequestId()).format());
+        }
+        if (after == null) {
+            page.setCounts(counts(team, includeHr));
+        }
+        return page;
+    }
+
+    /**
+     * Pending count per request type for approver (inbox badges)
+     */
+    public Map<ApprovalRequestType, Long> getCounts(Long approverId, boolean includeHr) {
+        return counts(team(approverId), includeHr);
+    }
+
+    private Map<ApprovalRequestType, Long> counts(List<Long> team, boolean includeHr) {
+        List<String> selects = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        for (Queue queue : queues(includeHr, team)) {
+            selects.add("SELECT '" + queue.source.type.name() + "' AS request_type, COUNT(*) AS total FROM " + queue.source.table +
+                    " r WHERE " + scope(queue, team, args) + " AND r.deleted_at IS NULL");
+        }
+
+        Map<ApprovalRequestType, Long> counts = new EnumMap<>(ApprovalRequestType.class);
+        for (ApprovalRequestType type : ApprovalRequestType.values()) {
+            counts.put(type, 0L);
+        }
+        if (selects.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query(String.join(" UNION ALL ", selects), rs -> {
+            ApprovalRequestType type = ApprovalRequestType.valueOf(rs.getString("request_type"));
+            counts.merge(type, rs.getLong("total"), Long::sum);
+        }, args.toArray());
+        return counts;
+    }
+
+    // =====================================================
+    // QUERIES
+    // =====================================================
+
+    private List<Row> fetch(Queue queue, List<Long> team, Cursor after, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder()
+                .append("SELECT r.id, r.employee_id, e.full_name, r.status, r.created_at, ")
+                .append(queue.source.columns)
+                .append(" FROM ").append(queue.source.table).append(" r ")
+                .append("JOIN employees e ON e.id = r.employee_id ")
+                .append("WHERE ").append(scope(queue, team, args)).append(" AND r.deleted_at IS NULL");
+
+        if (after != null) {
+            // Order is (created_at, queue, id): queues before the cursor's start strictly after its time,
+            // queues after it include its time
+            long idBound = queue.ordinal() < after.queue() ? Long.MAX_VALUE
+                    : queue.ordinal() == after.queue() ? after.id() : 0L;
+            Timestamp createdAt = Timestamp.valueOf(after.createdAt());
+            sql.append(" AND (r.created_at > ? OR (r.created_at = ? AND r.id > ?))");
+            args.add(createdAt);
+            args.add(createdAt);
+            args.add(idBound);
+        }
+        sql.append(" ORDER BY r.created_at, r.id LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, i) -> {
+            Date start = rs.getDate("start_date");
+            Date end = rs.getDate("end_date");
+            return new Row(queue, ApprovalInboxItem.builder()
+                    .requestType(queue.source.type)
+                    .requestId(rs.getLong("id"))
+                    .employeeId(rs.getLong("employee_id"))
+                    .employeeName(rs.getString("full_name"))
+                    .status(rs.getString("status"))
+                    .startDate(start != null ? start.toLocalDate() : null)
+                    .endDate(end != null ? end.toLocalDate() : null)
+                    .detail(rs.getString("detail"))
+                    .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                    .build());
+        }, args.toArray());
+    }
+
+    /**
+     * Employees whose supervisor-level requests the approver decides (same resolution as canApprove)
+     */
+    private List<Long> team(Long approverId) {
+        List<Long> team = new ArrayList<>(approvalService.getSubordinateIds(approverId));
+        Collections.sort(team);
+        return team;
+    }
+
+    /**
+     * Supervisor queues only when the approver has subordinates, HR queues only for HR/Admin
+     */
+    private static List<Queue> queues(boolean includeHr, List<Long> team) {
+        List<Queue> queues = new ArrayList<>();
+        for (Queue queue : Queue.values()) {
+            if (queue.supervisorLevel ? !team.isEmpty() : includeHr) {
+                queues.add(queue);
+            }
+        }
+        return queues;
+    }
+
+    /**
+     * WHERE condition selecting the queue's rows, binding the team ids for supervisor queues
+     */
+    private static String scope(Queue queue, List<Long> team, List<Object> args) {
+        if (!queue.supervisorLevel) {
+            return "r.status = 'PENDING_HR'";
+        }
+        args.addAll(team);
+        return "r.status = 'PENDING_SUPERVISOR' AND r.employee_id IN ("
+                + String.join(", ", Collections.nCopies(team.size(), "?")) + ")";
+    }
+
+    /**
+     * Table and type-specific columns (start_date, end_date, detail) per request type
+     */
+    private enum Source {
+        LEAVE(ApprovalRequestType.LEAVE, "leave_requests",
+                "r.start_date AS start_date, r.end_date AS end_date, r.leave_type AS detail"),
+        WFH(ApprovalRequestType.WFH, "wfh_requests",
+                "r.request_date AS start_date, r.request_date AS end_date, NULL AS detail"),
+        OVERTIME(ApprovalRequestType.OVERTIME, "overtime_requests",
+                "r.request_date AS start_date, r.request_date AS end_date, r.estimated_hours AS detail");
+
+        private final ApprovalRequestType type;
+        private final String table;
+        private final String columns;
+
+        Source(ApprovalRequestType type, String table, String columns) {
+            this.type = type;
+            this.table = table;
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * One inbox queue: request type x approval level; ordinal is the merge tie-breaker
+     */
+    private enum Queue {
+        LEAVE_SUPERVISOR(Source.LEAVE, true),
+        WFH_SUPERVISOR(Source.WFH, true),
+        OVERTIME_SUPERVISOR(Source.OVERTIME, true),
+        LEAVE_HR(Source.LEAVE, false),
+        WFH_HR(Source.WFH, false),
+        OVERTIME_HR(Source.OVERTIME, false);
+
+        private final Source source;
+        private final boolean supervisorLevel;
+
+        Queue(Source source, boolean supervisorLevel) {
+            this.source = source;
+            this.supervisorLevel = supervisorLevel;
+        }
+    }
+
+    private record Row(Queue queue, ApprovalInboxItem item) {
+    }
+
+    /**
+     * Position after the last item of a page: created_at, queue ordinal, request id
+     */
+    private record Cursor(LocalDateTime createdAt, int queue, long id) {
+
+        private String format() {
+            return createdAt + CURSOR_SEPARATOR + queue + CURSOR_SEPARATOR + id;
+        }
+
+        private static Cursor parse(String value) {
+            String[] parts = value.split(CURSOR_SEPARATOR);
+            try {
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException();
+                }
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid inbox cursor: " + value);
+            }
+        }
+    }
+}
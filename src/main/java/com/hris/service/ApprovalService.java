@@ -6,6 +6,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+
 /**
  * Approval Service
  * Handles 2-level approval workflow logic
@@ -20,6 +22,8 @@ import org.springframework.stereotype.Service;
  * - Head of Root Department → No supervisor (1-level: HR only)
  * - Head of Child Department → Parent department head is supervisor
  * - Regular employee → Current department head is supervisor
+ *
+ * Supervisor per employee is precomputed by SupervisorIndex (no lazy walk per call)
  */
 @Slf4j
 @Service
@@ -27,6 +31,7 @@ import org.springframework.stereotype.Service;
 public class ApprovalService {
 
     private final EmployeeService employeeService;
+    private final SupervisorIndex supervisorIndex;
 
     // =====================================================
     // SUPERVISOR DETERMINATION
@@ -34,7 +39,7 @@ public class ApprovalService {
 
     /**
      * Determine supervisor for requester
-     * Based on department hierarchy and position level
+     * Based on department hierarchy and position level (resolved by SupervisorIndex)
      *
      * @param requester Employee who is making the request
      * @return Supervisor employee, or null if no supervisor needed (highest level)
@@ -43,51 +48,11 @@ public class ApprovalService {
         if (requester == null) {
             return null;
         }
-
-        Position requesterPosition = requester.getPosition();
-        var requesterDept = requester.getDepartment();
-
-        // Case 1: Rektor (position level 6) → No supervisor
-        if (requesterPosition != null && requesterPosition.getLevel() >= 6) {
-            log.info("Requester is Rektor (level 6), no supervisor needed");
-            return null;
-        }
-
-        if (requesterDept == null) {
-            log.warn("Requester has no department, no supervisor determined");
-            return null;
-        }
-
-        // Case 2: Head of Root Department → No supervisor
-        if (requesterDept.isRoot() && isHeadOfDepartment(requester, requesterDept)) {
-            log.info("Requester is head of root department, no supervisor needed");
-            return null;
-        }
-
-        // Case 3: Head of Child Department → Parent department head
-        if (isHeadOfDepartment(requester, requesterDept) && !requesterDept.isRoot()) {
-            var parentDept = requesterDept.getParent();
-            if (parentDept != null && parentDept.getHead() != null) {
-                Employee parentHead = parentDept.getHead();
-                // Make sure parent head is not the same as requester
-                if (parentHead != null && !parentHead.getId().equals(requester.getId())) {
-                    log.info("Requester is head of child department, supervisor is parent dept head: {}",
-                            parentHead.getFullName());
-                    return parentHead;
-                }
-            }
-        }
-
-        // Case 4: Regular employee → Current department head
-        Employee deptHead = requesterDept.getHead();
-        if (deptHead != null && !deptHead.getId().equals(requester.getId())) {
-            log.info("Requester is regular employee, supervisor is dept head: {}", deptHead.getFullName());
-            return deptHead;
+        SupervisorIndex.Resolution resolution = supervisorIndex.getResolution(requester.getId());
+        if (resolution == null) {
+            return resolveFromHierarchy(requester);
         }
-
-        // Case 5: No valid supervisor found
-        log.warn("No valid supervisor found for requester: {}", requester.getFullName());
-        return null;
+        return resolution.supervisorId() != null ? employeeService.getEmployeeById(resolution.supervisorId()) : null;
     }
 
     /**
@@ -97,7 +62,7 @@ public class ApprovalService {
      * @return true if needs supervisor approval, false if directly to HR
      */
     public boolean needsTwoLevelApproval(Employee requester) {
-        return determineSupervisor(requester) != null;
+        return getSupervisorId(requester) != null;
     }
 
     /**
@@ -115,8 +80,15 @@ public class ApprovalService {
      * Returns null if no supervisor needed
      */
     public Long getSupervisorId(Employee requester) {
-        Employee supervisor = determineSupervisor(requester);
-        return supervisor != null ? supervisor.getId() : null;
+        if (requester == null) {
+            return null;
+        }
+        SupervisorIndex.Resolution resolution = supervisorIndex.getResolution(requester.getId());
+        if (resolution == null) {
+            Employee supervisor = resolveFromHierarchy(requester);
+            return supervisor != null ? supervisor.getId() : null;
+        }
+        return resolution.supervisorId();
     }
 
     /**
@@ -138,16 +110,15 @@ public class ApprovalService {
             return false;
         }
 
-        Employee expectedSupervisor = determineSupervisor(requester);
-
         // If current status is PENDING_SUPERVISOR
         if ("PENDING_SUPERVISOR".equals(currentStatus)) {
-            if (expectedSupervisor == null) {
+            Long expectedSupervisorId = getSupervisorId(requester);
+            if (expectedSupervisorId == null) {
                 // No supervisor needed, HR can approve directly
                 return isHrOrAdmin(approverEmployee);
             }
             // Check if approver is the expected supervisor
-            return expectedSupervisor.getId().equals(approverEmployee.getId());
+            return expectedSupervisorId.equals(approverEmployee.getId());
         }
 
         // If current status is PENDING_HR
@@ -159,10 +130,63 @@ public class ApprovalService {
         return false;
     }
 
+    /**
+     * Employees whose requests the supervisor approves at supervisor level
+     */
+    public Set<Long> getSubordinateIds(Long supervisorId) {
+        return supervisorIndex.getSubordinateIds(supervisorId);
+    }
+
     // =====================================================
     // HELPER METHODS
     // =====================================================
 
+    /**
+     * Walk Employee -> Department -> head/parent (same rules as SupervisorIndex)
+     * Fallback for employees not in the index yet (created in the current transaction)
+     */
+    private Employee resolveFromHierarchy(Employee requester) {
+        Position requesterPosition = requester.getPosition();
+        var requesterDept = requester.getDepartment();
+
+        // Case 1: Rektor (position level 6) → No supervisor
+        if (requesterPosition != null && requesterPosition.getLevel() != null && requesterPosition.getLevel() >= 6) {
+            return null;
+        }
+
+        if (requesterDept == null) {
+            log.debug("Requester {} has no department, no supervisor determined", requester.getId());
+            return null;
+        }
+
+        // Case 2: Head of Root Department → No supervisor
+        if (requesterDept.isRoot() && isHeadOfDepartment(requester, requesterDept)) {
+            return null;
+        }
+
+        // Case 3: Head of Child Department → Parent department head
+        if (isHeadOfDepartment(requester, requesterDept) && !requesterDept.isRoot()) {
+            var parentDept = requesterDept.getParent();
+            if (parentDept != null && parentDept.getHead() != null) {
+                Employee parentHead = parentDept.getHead();
+                // Make sure parent head is not the same as requester
+                if (parentHead != null && !parentHead.getId().equals(requester.getId())) {
+                    return parentHead;
+                }
+            }
+        }
+
+        // Case 4: Regular employee → Current department head
+        Employee deptHead = requesterDept.getHead();
+        if (deptHead != null && !deptHead.getId().equals(requester.getId())) {
+            return deptHead;
+        }
+
+        // Case 5: No valid supervisor found
+        log.debug("No valid supervisor found for requester {}", requester.getId());
+        return null;
+    }
+
     /**
      * Check if employee is the head of the specified department
      */
@@ -0,0 +1,286 @@
+package com.hris.service;
+
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Attendance Calculator
+ * Perhitungan late, early leave, overtime dan underwork berbasis LocalDateTime
+ *
+ * - Shift window: tanggal attendance + jam masuk s/d jam keluar; shift overnight
+ *   (WorkingHours.endsNextDay: flag overnight atau jam keluar <= jam masuk) berakhir di hari berikutnya
+ * - Toleransi late / early leave dari ShiftPattern, overtime hanya jika diizinkan
+ * - Durasi kerja aktual = durasi clock-in s/d clock-out dikurangi break WorkingHours
+ *
+ * Stateless dan tanpa akses database. Aritmetika dilakukan dalam menit (long) sehingga
+ * satu perhitungan hanya mengalokasikan objek hasil; dipakai clock-in/out satuan,
+ * sync batch maupun job rekalkulasi (compute per record, paralel dalam satu chunk).
+ */
+@Service
+public class AttendanceCalculator {
+
+    /**
+     * Clock-out punches up to this long after an overnight shift ends belong to that shift
+     */
+    static final int OVERNIGHT_CLOCK_OUT_GRACE_MINUTES = 6 * 60;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // =====================================================
+    // SHIFT WINDOW
+    // =====================================================
+
+    /**
+     * Get the shift window on an attendance date (null if the shift has no start/end time)
+     */
+    public ShiftWindow window(EmployeeShiftService.ShiftAssignmentResult shift, LocalDate attendanceDate) {
+        ShiftResolutionEngine.WorkingHoursEntry wh = shift.getWorkingHours();
+        if (wh == null || wh.startTime() == null || wh.endTime() == null) {
+            return null;
+        }
+        long dayStart = attendanceDate.toEpochDay() * MINUTES_PER_DAY;
+        long start = dayStart + minuteOfDay(wh.startTime());
+        long end = dayStart + minuteOfDay(wh.endTime());
+        if (wh.endsNextDay()) {
+            end += MINUTES_PER_DAY;
+        }
+
+        ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+        return new ShiftWindow(start, end,
+                wh.breakDurationMinutes() != null ? wh.breakDurationMinutes() : 0,
+                wh.netWorkDurationMinutes(),
+                positive(shift.getLateToleranceMinutes()),
+                pattern != null ? positive(pattern.earlyLeaveToleranceMinutes()) : 0,
+                pattern != null && pattern.isOvertimeAllowed());
+    }
+
+    /**
+     * Check if a clock-in happens after the shift has already ended
+     */
+    public boolean isAfterShiftEnd(EmployeeShiftService.ShiftAssignmentResult shift, LocalDate attendanceDate,
+                                   LocalDateTime clockIn) {
+        ShiftWindow window = window(shift, attendanceDate);
+        return window != null && toMinutes(clockIn) > window.endMinute();
+    }
+
+    /**
+     * Check if a clock-out belongs to the previous day's overnight shift
+     *
+     * @param previousDayShift Shift assignment on clockOut date - 1
+     */
+    public boolean belongsToPreviousDay(EmployeeShiftService.ShiftAssignmentResult previousDayShift,
+                                        LocalDateTime clockOut) {
+        if (previousDayShift == null || !previousDayShift.isOvernight()) {
+            return false;
+        }
+        ShiftWindow window = window(previousDayShift, clockOut.toLocalDate().minusDays(1));
+        return window != null && toMinutes(clockOut) <= window.endMinute() + OVERNIGHT_CLOCK_OUT_GRACE_MINUTES;
+    }
+
+    /**
+     * Attendance date for a clock-out: the previous day if the clock-out falls into the previous day's
+     * overnight shift and that day still has an open clock-in, otherwise the clock-out date
+     *
+     * @param previousDayShift Shift assignment on clockOut date - 1
+     * @param previousDayOpen  Whether the previous day has a clock-in without clock-out (only asked when needed)
+     */
+    public LocalDate resolveClockOutDate(EmployeeShiftService.ShiftAssignmentResult previousDayShift,
+                                         LocalDateTime clockOut, BooleanSupplier previousDayOpen) {
+        if (belongsToPreviousDay(previousDayShift, clockOut) && previousDayOpen.getAsBoolean()) {
+            return clockOut.toLocalDate().minusDays(1);
+        }
+        return clockOut.toLocalDate();
+    }
+
+    // =====================================================
+    // CALCULATION
+    // =====================================================
+
+    /**
+     * Calculate late minutes and deduction for a clock-in
+     */
+    public LateResult calculateLate(EmployeeShiftService.ShiftAssignmentResult shift, LocalDate attendanceDate,
+                                    LocalDateTime clockIn) {
+        ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+        ShiftWindow window = window(shift, attendanceDate);
+        if (window == null || pattern == null) {
+            return new LateResult(0, BigDecimal.ZERO);
+        }
+
+        int lateMinutes = lateMinutes(window, toMinutes(clockIn));
+        // Use existing deduction method from ShiftPattern
+        return new LateResult(lateMinutes,
+                lateMinutes > 0 ? pattern.calculateLateDeduction(lateMinutes) : BigDecimal.ZERO);
+    }
+
+    /**
+     * Calculate early leave, overtime, work duration and underwork for a clock-out
+     *
+     * @param clockIn Clock-in of the record (null if unknown)
+     */
+    public ClockOutResult calculateClockOut(EmployeeShiftService.ShiftAssignmentResult shift, LocalDate attendanceDate,
+                                            LocalDateTime clockIn, LocalDateTime clockOut) {
+        ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+        ShiftWindow window = window(shift, attendanceDate);
+        long out = toMinutes(clockOut);
+
+        int earlyLeaveMinutes = 0;
+        int overtimeMinutes = 0;
+        if (window != null && pattern != null) {
+            earlyLeaveMinutes = earlyLeaveMinutes(window, out);
+            overtimeMinutes = overtimeMinutes(window, out);
+        }
+
+        int actualWorkMinutes = 0;
+        int underworkMinutes = 0;
+        BigDecimal underworkDeduction = BigDecimal.ZERO;
+        if (clockIn != null && shift.getWorkingHours() != null) {
+            int breakMinutes = window != null ? window.breakMinutes() : 0;
+            actualWorkMinutes = actualWorkMinutes(toMinutes(clockIn), out, breakMinutes);
+
+            int requiredMinutes = shift.getWorkingHours().netWorkDurationMinutes();
+            if (actualWorkMinutes < requiredMinutes) {
+                underworkMinutes = requiredMinutes - actualWorkMinutes;
+                // Use existing deduction method from ShiftPattern
+                if (pattern != null) {
+                    underworkDeduction = pattern.calculateUnderworkDeduction(underworkMinutes);
+                }
+            }
+        }
+
+        return new ClockOutResult(earlyLeaveMinutes, overtimeMinutes, actualWorkMinutes, underworkMinutes, underworkDeduction);
+    }
+
+    /**
+     * Compute all figures for many attendance days
+     * Results are in input order; days without clock-in get zero figures
+     */
+    public List<DayResult> computeAll(List<DayInput> days) {
+        List<DayResult> results = new ArrayList<>(days.size());
+        for (DayInput day : days) {
+            results.add(compute(day));
+        }
+        return results;
+    }
+
+    /**
+     * Late and clock-out figures of one day (stateless, safe to call from parallel streams)
+     */
+    public DayResult compute(DayInput day) {
+        LateResult late = day.clockIn() != null
+                ? calculateLate(day.shift(), day.attendanceDate(), day.clockIn())
+                : new LateResult(0, BigDecimal.ZERO);
+        ClockOutResult out = day.clockOut() != null
+                ? calculateClockOut(day.shift(), day.attendanceDate(), day.clockIn(), day.clockOut())
+                : null;
+        return new DayResult(late, out);
+    }
+
+    // =====================================================
+    // PRIMITIVES (minutes since epoch)
+    // =====================================================
+
+    static int lateMinutes(ShiftWindow window, long clockIn) {
+        return (int) Math.max(0, clockIn - (window.startMinute() + window.lateToleranceMinutes()));
+    }
+
+    static int earlyLeaveMinutes(ShiftWindow window, long clockOut) {
+        return (int) Math.max(0, (window.endMinute() - window.earlyLeaveToleranceMinutes()) - clockOut);
+    }
+
+    static int overtimeMinutes(ShiftWindow window, long clockOut) {
+        return window.overtimeAllowed() ? (int) Math.max(0, clockOut - window.endMinute()) : 0;
+    }
+
+    static int actualWorkMinutes(long clockIn, long clockOut, int breakMinutes) {
+        long gross = Math.max(0, clockOut - clockIn);
+        return (int) Math.max(0, gross - breakMinutes);
+    }
+
+    static long toMinutes(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY + minuteOfDay(dateTime.toLocalTime());
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int positive(Integer value) {
+        return value != null && value > 0 ? value : 0;
+    }
+
+    // =====================================================
+    // RESULTS
+    // =====================================================
+
+    /**
+     * Shift window in minutes since epoch, with tolerances and break
+     */
+    public record ShiftWindow(long startMinute,
+                              long endMinute,
+                              int breakMinutes,
+                              int requiredMinutes,
+                              int lateToleranceMinutes,
+                              int earlyLeaveToleranceMinutes,
+                              boolean overtimeAllowed) {
+    }
+
+    /**
+     * Late figures for a clock-in
+     */
+    public record LateResult(int lateMinutes, BigDecimal lateDeduction) {
+    }
+
+    /**
+     * Figures for a clock-out
+     */
+    public record ClockOutResult(int earlyLeaveMinutes,
+                                 int overtimeMinutes,
+                                 int actualWorkMinutes,
+                                 int underworkMinutes,
+                                 BigDecimal underworkDeduction) {
+    }
+
+    /**
+     * Input for bulk computation (clock-in/out as full date-times)
+     */
+    public record DayInput(EmployeeShiftService.ShiftAssignmentResult shift,
+                           LocalDate attendanceDate,
+                           LocalDateTime clockIn,
+                           LocalDateTime clockOut) {
+
+        /**
+         * Input from a stored attendance record (times without date)
+         * Overnight: a clock-out not after the clock-in (or, without clock-in, before the shift start
+         * of an overnight shift) falls on the next day
+         */
+        public static DayInput of(EmployeeShiftService.ShiftAssignmentResult shift, LocalDate attendanceDate,
+                                  LocalTime clockInTime, LocalTime clockOutTime) {
+            LocalDateTime clockIn = clockInTime != null ? LocalDateTime.of(attendanceDate, clockInTime) : null;
+            LocalDateTime clockOut = null;
+            if (clockOutTime != null) {
+                clockOut = LocalDateTime.of(attendanceDate, clockOutTime);
+                boolean nextDay = clockIn != null
+                        ? !clockOut.isAfter(clockIn)
+                        : shift.isOvernight() && shift.getStartTime() != null && clockOutTime.isBefore(shift.getStartTime());
+                if (nextDay) {
+                    clockOut = clockOut.plusDays(1);
+                }
+            }
+            return new DayInput(shift, attendanceDate, clockIn, clockOut);
+        }
+    }
+
+    /**
+     * Bulk computation result (clockOut is null when the day has no clock-out)
+     */
+    public record DayResult(LateResult late, ClockOutResult clockOut) {
+    }
+}
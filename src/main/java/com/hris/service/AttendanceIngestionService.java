@@ -0,0 +1,795 @@
+package com.hris.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hris.model.enums.AttendanceStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Attendance Ingestion Service
+ * Write-behind untuk clock-in/clock-out (app.attendance.ingestion.mode = write-behind)
+ *
+ * Punch yang sudah lolos validasi ditulis ke journal lokal (fsync) lalu masuk antrian setelah
+ * transaksi pemanggil commit; client langsung di-ack. Background writer mem-flush antrian ke attendance_records
+ * dengan JDBC batch insert/update.
+ *
+ * - Idempotency key: (employee, date, direction) - duplikat ditolak selama masih di antrian,
+ *   dan SQL insert/update hanya berlaku sekali di database
+ * - Update count per baris dicek: clock-out yang belum menemukan record karena clock-in-nya masih
+ *   di antrian dimasukkan kembali ke antrian, punch lain yang tidak berlaku dicatat di file rejected
+ * - Backpressure: enqueue menunggu maksimal offer-timeout, lalu ditolak jika antrian penuh
+ * - Durable: journal di-replay saat startup, dikosongkan setiap antrian habis ter-flush
+ * - Group commit: punch yang masuk bersamaan berbagi satu fsync journal (satu thread menjalankan
+ *   force untuk semua baris yang sudah ditulis, yang lain menunggu), di luar lock antrian
+ * - Database down: batch di-retry maksimal max-retry-ms, lalu di-park (tetap di journal) dan
+ *   dicoba lagi setelah batch berikutnya berhasil atau di-replay saat startup
+ * - Punch yang sudah di-ack tapi tidak berlaku dicatat di file rejected, di-log ERROR dan dihitung
+ *   (lihat getRejectedCount)
+ * - Shutdown: berhenti menerima punch lalu drain antrian; berhenti di batch pertama yang di-park
+ */
+@Slf4j
+@Service
+public class AttendanceIngestionService {
+
+    private static final String INSERT_CLOCK_IN_SQL =
+            "INSERT INTO attendance_records (employee_id, attendance_date, clock_in_time, " +
+            "clock_in_latitude, clock_in_longitude, clock_in_device_info, clock_in_photo_path, " +
+            "working_hours_id, shift_pattern_id, is_late, late_duration_minutes, late_deduction_amount, " +
+            "required_work_minutes, status, is_wfh, created_at, updated_at) " +
+            "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW() FROM DUAL " +
+            "WHERE NOT EXISTS (SELECT 1 FROM attendance_records a " +
+            "WHERE a.employee_id = ? AND a.attendance_date = ? AND a.deleted_at IS NULL)";
+
+    private static final String UPDATE_CLOCK_OUT_SQL =
+            "UPDATE attendance_records SET clock_out_time = ?, clock_out_latitude = ?, clock_out_longitude = ?, " +
+            "clock_out_device_info = ?, clock_out_photo_path = ?, is_early_leave = ?, " +
+            "early_leave_duration_minutes = ?, is_overtime = ?, overtime_duration_minutes = ?, " +
+            "actual_work_minutes = ?, underwork_minutes = ?, underwork_deduction_amount = ?, updated_at = NOW() " +
+            "WHERE employee_id = ? AND attendance_date = ? AND clock_out_time IS NULL AND deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final long maxRetryMillis;
+    private final Path journalFile;
+    private final Path rejectedFile;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Punch> queue = new ArrayDeque<>();
+    private final Set<String> pendingKeys = new HashSet<>();
+    private List<Punch> inFlight = List.of();
+    // Batches given up on while the database was unavailable, still journaled
+    private final ArrayDeque<Punch> parked = new ArrayDeque<>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    // Slots claimed by punches whose transaction has not committed yet
+    private int reserved;
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    private FileChannel journalChannel;
+    private Thread writerThread;
+
+    // Journal appends and group fsync; taken after (never before) the queue lock
+    private final ReentrantLock journalLock = new ReentrantLock();
+    private final Condition journalForced = journalLock.newCondition();
+    private long journalWritten;
+    private long journalSynced;
+    private boolean journalSyncing;
+    // Punches journaled but not queued yet; the journal is not truncated while any exist
+    private final AtomicInteger unqueued = new AtomicInteger();
+
+    public AttendanceIngestionService(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      ObjectMapper objectMapper,
+                                      AttendanceSummaryService attendanceSummaryService,
+                                      @Value("${app.attendance.ingestion.mode:sync}") String mode,
+                                      @Value("${app.attendance.ingestion.queue-capacity:10000}") int capacity,
+                                      @Value("${app.attendance.ingestion.batch-size:500}") int batchSize,
+                                      @Value("${app.attendance.ingestion.flush-interval-ms:200}") long flushIntervalMillis,
+                                      @Value("${app.attendance.ingestion.offer-timeout-ms:500}") long offerTimeoutMillis,
+                                      @Value("${app.attendance.ingestion.max-retry-ms:60000}") long maxRetryMillis,
+                                      @Value("${app.attendance.ingestion.journal-dir:./data/attendance-queue}") String journalDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.attendanceSummaryService = attendanceSummaryService;
+        this.enabled = "write-behind".equalsIgnoreCase(mode);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.maxRetryMillis = maxRetryMillis;
+        this.journalFile = Paths.get(journalDir, "attendance-punches.journal");
+        this.rejectedFile = Paths.get(journalDir, "attendance-punches.rejected");
+    }
+
+    /**
+     * Check if write-behind mode is active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // =====================================================
+    // LIFECYCLE
+    // =====================================================
+
+    /**
+     * Open journal and replay punches that were not flushed before the last shutdown
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(journalFile.getParent());
+
+        if (Files.exists(journalFile)) {
+            int replayed = 0;
+            for (String line : Files.readAllLines(journalFile, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Punch punch = objectMapper.readValue(line, Punch.class);
+                    queue.add(punch);
+                    pendingKeys.add(punch.idempotencyKey());
+                    replayed++;
+                } catch (IOException e) {
+                    // Torn last line from a crash mid-append
+                    log.warn("Skipping unreadable journal entry: {}", e.getMessage());
+                }
+            }
+            if (replayed > 0) {
+                log.info("Replaying {} attendance punches from journal", replayed);
+            }
+        }
+
+        journalChannel = FileChannel.open(journalFile,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        accepting = true;
+    }
+
+    /**
+     * Start background writer once the application (and database) is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWriter() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::writerLoop, "attendance-ingestion-writer");
+        writerThread.setDaemon(false);
+        writerThread.start();
+    }
+
+    /**
+     * Stop accepting punches and drain the queue before shutdown
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        if (!enabled) {
+            return;
+        }
+        accepting = false;
+
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (writerThread != null) {
+            writerThread.join();
+        } else {
+            // Writer never started (shutdown before ready): flush on this thread
+            running = true;
+            drainAll();
+        }
+
+        if (journalChannel != null) {
+            journalChannel.close();
+        }
+        log.info("Attendance ingestion queue drained and closed");
+    }
+
+    // =====================================================
+    // ENQUEUE
+    // =====================================================
+
+    /**
+     * Append a validated punch to the journal and queue
+     * Inside a transaction the slot and key are reserved now, the punch is journaled and queued only
+     * after the transaction commits (released on rollback), so a rolled back clock-in is never replayed
+     *
+     * @throws IllegalStateException if a punch with the same key is already queued,
+     *                               or the queue stays full for longer than the offer timeout
+     */
+    public void enqueue(Punch punch) {
+        if (!accepting) {
+            throw new IllegalStateException("Attendance ingestion is not accepting punches");
+        }
+        reserve(punch);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(punch);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean published;
+
+            @Override
+            public void afterCommit() {
+                publish(punch);
+                published = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!published) {
+                    release(punch);
+                }
+            }
+        });
+    }
+
+    /**
+     * Wait for a free slot and claim the idempotency key
+     */
+    private void reserve(Punch punch) {
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+            while (queue.size() + inFlight.size() + parked.size() + reserved >= capacity) {
+                if (nanos <= 0) {
+                    throw new IllegalStateException("Server sedang sibuk, silakan coba lagi beberapa saat");
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+
+            if (!pendingKeys.add(punch.idempotencyKey())) {
+                throw new IllegalStateException(punch.direction() == Direction.IN
+                        ? "Already clocked in today" : "Already clocked out");
+            }
+            reserved++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for attendance queue");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journal and queue a reserved punch; queued only once its journal line is forced to disk
+     */
+    private void publish(Punch punch) {
+        try {
+            long position = appendToJournal(punch);
+            try {
+                syncJournal(position);
+            } catch (IOException e) {
+                unqueued.decrementAndGet();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write attendance journal", e);
+        }
+
+        lock.lock();
+        try {
+            unqueued.decrementAndGet();
+            reserved--;
+            queue.add(punch);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back the slot and key of a punch that was not published
+     */
+    private void release(Punch punch) {
+        lock.lock();
+        try {
+            reserved--;
+            pendingKeys.remove(punch.idempotencyKey());
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check if a punch for (employee, date, direction) is queued but not yet written
+     */
+    public boolean isPending(Long employeeId, LocalDate date, Direction direction) {
+        if (!enabled) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return pendingKeys.contains(key(employeeId, date, direction));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Find clock-in punch for employee and date that is queued or being written (clock-out before
+     * the clock-in is flushed), including a batch that is still being retried
+     */
+    public Punch findPendingClockIn(Long employeeId, LocalDate date) {
+        if (!enabled) {
+            return null;
+        }
+        lock.lock();
+        try {
+            return findPending(Direction.IN, employeeId, date);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Called with lock held
+     */
+    private Punch findPending(Direction direction, Long employeeId, LocalDate date) {
+        for (Punch punch : inFlight) {
+            if (punch.matches(direction, employeeId, date)) {
+                return punch;
+            }
+        }
+        for (Punch punch : queue) {
+            if (punch.matches(direction, employeeId, date)) {
+                return punch;
+            }
+        }
+        for (Punch punch : parked) {
+            if (punch.matches(direction, employeeId, date)) {
+                return punch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of punches waiting to be written, including parked ones
+     */
+    public int getBacklog() {
+        lock.lock();
+        try {
+            return queue.size() + inFlight.size() + parked.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of punches parked after the database stayed unavailable past max-retry-ms
+     */
+    public int getParkedCount() {
+        lock.lock();
+        try {
+            return parked.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of acknowledged punches set aside to the rejected file since startup
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Append punch to the journal (not yet forced)
+     *
+     * @return Number of lines written up to and including this one
+     */
+    private long appendToJournal(Punch punch) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(punch) + "\n").getBytes(StandardCharsets.UTF_8);
+        journalLock.lock();
+        try {
+            journalChannel.write(ByteBuffer.wrap(line));
+            unqueued.incrementAndGet();
+            return ++journalWritten;
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Wait until the journal is forced past position; the first waiter forces everything written
+     * so far, punches appended meanwhile wait and share the next force
+     */
+    private void syncJournal(long position) throws IOException {
+        journalLock.lock();
+        try {
+            while (journalSynced < position) {
+                if (journalSyncing) {
+                    journalForced.awaitUninterruptibly();
+                    continue;
+                }
+                journalSyncing = true;
+                long target = journalWritten;
+                boolean forced = false;
+                journalLock.unlock();
+                try {
+                    journalChannel.force(false);
+                    forced = true;
+                } finally {
+                    journalLock.lock();
+                    journalSyncing = false;
+                    if (forced) {
+                        journalSynced = target;
+                    }
+                    journalForced.signalAll();
+                }
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // =====================================================
+    // WRITER
+    // =====================================================
+
+    private void writerLoop() {
+        try {
+            while (accepting) {
+                List<Punch> batch = takeBatch(true);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            }
+            drainAll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Attendance ingestion writer interrupted with {} punches pending", getBacklog());
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Flush the queue until empty; stops at the first parked batch so shutdown does not wait
+     * on an unavailable database (the rest stays in the journal for replay at startup)
+     */
+    private void drainAll() throws InterruptedException {
+        List<Punch> batch;
+        while (!(batch = takeBatch(false)).isEmpty()) {
+            if (!flush(batch)) {
+                log.error("Attendance drain stopped, {} punches left in journal for replay at startup", getBacklog());
+                return;
+            }
+        }
+    }
+
+    private List<Punch> takeBatch(boolean wait) throws InterruptedException {
+        lock.lock();
+        try {
+            if (wait && queue.isEmpty() && accepting) {
+                notEmpty.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+            List<Punch> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+            while (batch.size() < batchSize && !queue.isEmpty()) {
+                batch.add(queue.poll());
+            }
+            inFlight = batch;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write batch (clock-ins before clock-outs so a pair in one batch lands correctly),
+     * retrying for at most max-retry-ms; rows that fail individually are set aside.
+     * A clock-out that matched no record while its clock-in is still queued goes back to the queue,
+     * any other punch that changed nothing is set aside as well
+     *
+     * @return false if the batch was parked because the database stayed unavailable
+     */
+    private boolean flush(List<Punch> batch) throws InterruptedException {
+        List<Punch> unapplied;
+        long backoff = 100;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxRetryMillis);
+        while (true) {
+            try {
+                unapplied = transactionTemplate.execute(status -> writeBatch(batch));
+                break;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Attendance batch rejected ({}), writing rows individually", e.getMostSpecificCause().getMessage());
+                unapplied = writeIndividually(batch);
+                break;
+            } catch (DataAccessException e) {
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) - deadline > 0) {
+                    park(batch, e);
+                    return false;
+                }
+                log.warn("Attendance batch of {} failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, 10_000);
+            }
+        }
+
+        List<Punch> rejected = new ArrayList<>();
+        lock.lock();
+        try {
+            inFlight = List.of();
+            // Database is reachable again: parked punches go back to the head of the queue
+            while (!parked.isEmpty()) {
+                queue.addFirst(parked.pollLast());
+            }
+            Set<String> requeued = new HashSet<>();
+            for (Punch punch : unapplied) {
+                if (punch.direction() == Direction.OUT
+                        && findPending(Direction.IN, punch.employeeId(), punch.attendanceDate()) != null) {
+                    // Still journaled: the journal is only truncated once the queue is empty
+                    queue.add(punch);
+                    requeued.add(punch.idempotencyKey());
+                } else {
+                    rejected.add(punch);
+                }
+            }
+            for (Punch punch : batch) {
+                if (!requeued.contains(punch.idempotencyKey())) {
+                    pendingKeys.remove(punch.idempotencyKey());
+                }
+            }
+            if (queue.isEmpty()) {
+                truncateJournal();
+            } else {
+                notEmpty.signal();
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (Punch punch : rejected) {
+            log.error("Attendance punch {} changed no record ({}), set aside", punch.idempotencyKey(),
+                    punch.direction() == Direction.IN ? "already clocked in" : "no open clock-in");
+            recordRejected(punch);
+        }
+        return true;
+    }
+
+    /**
+     * Set a batch aside after the database stayed unavailable; it keeps its idempotency keys and
+     * stays in the journal (not truncated while anything is parked) until a later flush succeeds
+     */
+    private void park(List<Punch> batch, DataAccessException e) {
+        log.error("Attendance batch of {} still failing after {} ms, parked in journal: {}",
+                batch.size(), maxRetryMillis, e.getMessage());
+        lock.lock();
+        try {
+            inFlight = List.of();
+            parked.addAll(batch);
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write punches directly in the caller's transaction, bypassing the queue (bulk sync)
+     * Clock-ins are inserted before clock-outs are applied
+     *
+     * @return Punches that changed no record (clock-in already present, no open clock-in to close)
+     */
+    public List<Punch> write(List<Punch> punches) {
+        return writeBatch(punches);
+    }
+
+    private List<Punch> writeBatch(List<Punch> batch) {
+        List<Punch> clockIns = new ArrayList<>();
+        List<Punch> clockOuts = new ArrayList<>();
+        for (Punch punch : batch) {
+            (punch.direction() == Direction.IN ? clockIns : clockOuts).add(punch);
+        }
+
+        List<Punch> unapplied = new ArrayList<>();
+        if (!clockIns.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_CLOCK_IN_SQL,
+                    clockIns.stream().map(this::clockInParams).toList());
+            collectUnapplied(clockIns, counts, unapplied);
+        }
+        if (!clockOuts.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_CLOCK_OUT_SQL,
+                    clockOuts.stream().map(this::clockOutParams).toList());
+            collectUnapplied(clockOuts, counts, unapplied);
+        }
+        attendanceSummaryService.recordChanges(batch.stream()
+                .map(p -> new AttendanceSummaryService.PeriodKey(p.employeeId(), YearMonth.from(p.attendanceDate())))
+                .distinct()
+                .toList());
+        return unapplied;
+    }
+
+    /**
+     * Punches whose statement changed no row; SUCCESS_NO_INFO (rewritten batch) counts as applied
+     */
+    private static void collectUnapplied(List<Punch> punches, int[] counts, List<Punch> unapplied) {
+        for (int i = 0; i < punches.size(); i++) {
+            if (i < counts.length && counts[i] == 0) {
+                unapplied.add(punches.get(i));
+            }
+        }
+    }
+
+    /**
+     * Write each punch in its own transaction, clock-ins first
+     *
+     * @return Punches that changed no record; punches rejected by the database are recorded directly
+     */
+    private List<Punch> writeIndividually(List<Punch> batch) {
+        List<Punch> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparing(Punch::direction));
+
+        List<Punch> unapplied = new ArrayList<>();
+        for (Punch punch : ordered) {
+            try {
+                unapplied.addAll(transactionTemplate.execute(status -> writeBatch(List.of(punch))));
+            } catch (DataAccessException e) {
+                log.error("Attendance punch {} rejected by database: {}", punch.idempotencyKey(), e.getMessage());
+                recordRejected(punch);
+            }
+        }
+        return unapplied;
+    }
+
+    private void recordRejected(Punch punch) {
+        rejectedCount.incrementAndGet();
+        try (BufferedWriter writer = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(objectMapper.writeValueAsString(punch));
+            writer.newLine();
+        } catch (IOException e) {
+            log.error("Failed to record rejected punch {}: {}", punch.idempotencyKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * Called with lock held and nothing queued, parked or in flight; skipped while a punch is journaled
+     * but not queued yet, otherwise every journaled punch is in the database
+     */
+    private void truncateJournal() {
+        journalLock.lock();
+        try {
+            if (unqueued.get() > 0) {
+                return;
+            }
+            journalChannel.truncate(0);
+            journalChannel.force(true);
+        } catch (IOException e) {
+            // Safe to keep: replay is idempotent
+            log.warn("Failed to truncate attendance journal: {}", e.getMessage());
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private Object[] clockInParams(Punch p) {
+        return new Object[]{
+                p.employeeId(), Date.valueOf(p.attendanceDate()), Time.valueOf(p.time()),
+                p.latitude(), p.longitude(), p.deviceInfo(), p.photoPath(),
+                p.workingHoursId(), p.shiftPatternId(), p.late(), p.lateMinutes(), p.lateDeduction(),
+                p.requiredWorkMinutes(), p.status() != null ? p.status().name() : AttendanceStatus.PRESENT.name(), p.wfh(),
+                p.employeeId(), Date.valueOf(p.attendanceDate())
+        };
+    }
+
+    private Object[] clockOutParams(Punch p) {
+        return new Object[]{
+                Time.valueOf(p.time()), p.latitude(), p.longitude(), p.deviceInfo(), p.photoPath(),
+                p.earlyLeaveMinutes() > 0, p.earlyLeaveMinutes(), p.overtimeMinutes() > 0, p.overtimeMinutes(),
+                p.actualWorkMinutes(), p.underworkMinutes(), p.underworkDeduction(),
+                p.employeeId(), Date.valueOf(p.attendanceDate())
+        };
+    }
+
+    private static String key(Long employeeId, LocalDate date, Direction direction) {
+        return employeeId + ":" + date + ":" + direction;
+    }
+
+    // =====================================================
+    // PUNCH
+    // =====================================================
+
+    public enum Direction {
+        IN, OUT
+    }
+
+    /**
+     * Validated clock-in or clock-out, with all computed figures (journal format)
+     */
+    public record Punch(Direction direction,
+                        Long employeeId,
+                        LocalDate attendanceDate,
+                        LocalTime time,
+                        BigDecimal latitude,
+                        BigDecimal longitude,
+                        String deviceInfo,
+                        String photoPath,
+                        // Clock-in
+                        Long workingHoursId,
+                        Long shiftPatternId,
+                        boolean late,
+                        int lateMinutes,
+                        BigDecimal lateDeduction,
+                        int requiredWorkMinutes,
+                        AttendanceStatus status,
+                        boolean wfh,
+                        // Clock-out
+                        int earlyLeaveMinutes,
+                        int overtimeMinutes,
+                        int actualWorkMinutes,
+                        int underworkMinutes,
+                        BigDecimal underworkDeduction) {
+
+        public String idempotencyKey() {
+            return key(employeeId, attendanceDate, direction);
+        }
+
+        boolean matches(Direction direction, Long employeeId, LocalDate attendanceDate) {
+            return this.direction == direction && this.employeeId.equals(employeeId)
+                    && this.attendanceDate.equals(attendanceDate);
+        }
+    }
+}
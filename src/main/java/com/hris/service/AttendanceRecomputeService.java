@@ -0,0 +1,359 @@
+package com.hris.service;
+
+import com.hris.model.AttendanceRecomputeJob;
+import com.hris.model.enums.AttendanceStatus;
+import com.hris.repository.AttendanceRecomputeJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Attendance Recompute Service
+ * Rekalkulasi attendance record setelah perubahan shift retroaktif (bulk assign, override schedule)
+ *
+ * - Job dicatat di attendance_recompute_jobs dan dijalankan di background setelah commit, sesudah
+ *   ShiftResolutionEngine membuang timeline lama (afterCompletion engine berjalan lebih dulu)
+ * - Record dibaca per chunk dengan keyset (id > checkpoint); tiap record di-resolve dari snapshot
+ *   ShiftResolutionEngine (batch load timeline) dan dihitung dengan AttendanceCalculator.compute,
+ *   paralel di dalam chunk
+ * - Hasil ditulis dengan JDBC batch update; checkpoint & progress disimpan di transaksi yang sama
+ *   sehingga job yang terputus (restart) dilanjutkan dari chunk berikutnya
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceRecomputeService {
+
+    static final int CHUNK_SIZE = 2000;
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM attendance_records WHERE employee_id IN (%s) " +
+            "AND attendance_date BETWEEN ? AND ? AND deleted_at IS NULL";
+
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT id, employee_id, attendance_date, clock_in_time, clock_out_time FROM attendance_records " +
+            "WHERE employee_id IN (%s) AND attendance_date BETWEEN ? AND ? AND deleted_at IS NULL AND id > ? " +
+            "ORDER BY id LIMIT " + CHUNK_SIZE;
+
+    // Only PRESENT/LATE are derived from the clock-in; manual statuses (LEAVE, SICK, ...) are kept
+    private static final String UPDATE_CLOCK_IN_SQL =
+            "UPDATE attendance_records SET working_hours_id = ?, shift_pattern_id = ?, is_late = ?, " +
+            "late_duration_minutes = ?, late_deduction_amount = ?, required_work_minutes = ?, " +
+            "status = CASE WHEN status IN ('PRESENT', 'LATE') THEN ? ELSE status END, updated_at = NOW() " +
+            "WHERE id = ?";
+
+    private static final String UPDATE_FULL_SQL =
+            "UPDATE attendance_records SET working_hours_id = ?, shift_pattern_id = ?, is_late = ?, " +
+            "late_duration_minutes = ?, late_deduction_amount = ?, required_work_minutes = ?, " +
+            "status = CASE WHEN status IN ('PRESENT', 'LATE') THEN ? ELSE status END, " +
+            "is_early_leave = ?, early_leave_duration_minutes = ?, is_overtime = ?, overtime_duration_minutes = ?, " +
+            "actual_work_minutes = ?, underwork_minutes = ?, underwork_deduction_amount = ?, updated_at = NOW() " +
+            "WHERE id = ? AND clock_out_time = ?";
+
+    private static final String CLAIM_SQL =
+            "UPDATE attendance_recompute_jobs SET status = 'RUNNING', started_at = COALESCE(started_at, NOW()), " +
+            "error_message = NULL WHERE id = ? AND status IN ('PENDING', 'RUNNING')";
+
+    private static final String TOTAL_SQL =
+            "UPDATE attendance_recompute_jobs SET total_records = ? WHERE id = ?";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE attendance_recompute_jobs SET last_record_id = ?, processed_records = ? WHERE id = ?";
+
+    private static final String FINISH_SQL =
+            "UPDATE attendance_recompute_jobs SET status = ?, finished_at = NOW(), error_message = ? WHERE id = ?";
+
+    private final AttendanceRecomputeJobRepository attendanceRecomputeJobRepository;
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final AttendanceCalculator attendanceCalculator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    // Jobs run one at a time; the records of a chunk are computed in parallel
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-recompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // =====================================================
+    // SCHEDULING
+    // =====================================================
+
+    /**
+     * Schedule recomputation of attendance records for employees in a date range
+     * The job is persisted in the caller's transaction and started after it commits and the
+     * engine has evicted the employees' timelines, so it sees the new shift settings
+     *
+     * @return Created job, or null if the range has no past dates
+     */
+    public AttendanceRecomputeJob scheduleRecompute(Collection<Long> employeeIds, LocalDate startDate,
+                                                    LocalDate endDate, String reason, Long createdBy) {
+        LocalDate today = LocalDate.now();
+        LocalDate end = endDate == null || endDate.isAfter(today) ? today : endDate;
+        if (employeeIds.isEmpty() || startDate == null || startDate.isAfter(end)) {
+            return null;
+        }
+
+        AttendanceRecomputeJob job = AttendanceRecomputeJob.builder()
+                .startDate(startDate)
+                .endDate(end)
+                .reason(reason)
+                .createdBy(createdBy)
+                .build();
+        job.setEmployeeIdList(new LinkedHashSet<>(employeeIds));
+        AttendanceRecomputeJob saved = attendanceRecomputeJobRepository.save(job);
+        log.info("Scheduled attendance recompute job {} for {} employees, {} to {}",
+                saved.getId(), employeeIds.size(), startDate, end);
+
+        Long jobId = saved.getId();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // afterCompletion, not afterCommit: the engine evicts timelines in its own (earlier ordered)
+            // afterCompletion, which runs after every afterCommit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        submit(jobId);
+                    }
+                }
+            });
+        } else {
+            submit(jobId);
+        }
+        return saved;
+    }
+
+    /**
+     * Resume jobs interrupted by a shutdown
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<AttendanceRecomputeJob> unfinished = attendanceRecomputeJobRepository.findByStatusInOrderByIdAsc(
+                List.of(AttendanceRecomputeJob.STATUS_PENDING, AttendanceRecomputeJob.STATUS_RUNNING));
+        for (AttendanceRecomputeJob job : unfinished) {
+            log.info("Resuming attendance recompute job {} from record {}", job.getId(), job.getLastRecordId());
+            submit(job.getId());
+        }
+    }
+
+    /**
+     * Restart a failed job from its last checkpoint
+     */
+    public AttendanceRecomputeJob retryJob(Long jobId) {
+        AttendanceRecomputeJob job = getJob(jobId);
+        if (!AttendanceRecomputeJob.STATUS_FAILED.equals(job.getStatus())) {
+            throw new IllegalStateException("Hanya job yang gagal yang dapat diulang");
+        }
+        job.setStatus(AttendanceRecomputeJob.STATUS_PENDING);
+        job.setFinishedAt(null);
+        AttendanceRecomputeJob saved = attendanceRecomputeJobRepository.save(job);
+        submit(jobId);
+        return saved;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running job keeps its checkpoint and is resumed on next startup
+        executor.shutdownNow();
+    }
+
+    private void submit(Long jobId) {
+        executor.submit(() -> runJob(jobId));
+    }
+
+    // =====================================================
+    // PROGRESS
+    // =====================================================
+
+    /**
+     * Get job by ID
+     */
+    public AttendanceRecomputeJob getJob(Long jobId) {
+        return attendanceRecomputeJobRepository.findById(jobId)
+                .orElseThrow(() -> new IllegalArgumentException("Recompute job tidak ditemukan"));
+    }
+
+    /**
+     * Get latest jobs (newest first)
+     */
+    public List<AttendanceRecomputeJob> getRecentJobs() {
+        return attendanceRecomputeJobRepository.findTop20ByOrderByIdDesc();
+    }
+
+    // =====================================================
+    // EXECUTION
+    // =====================================================
+
+    private void runJob(Long jobId) {
+        AttendanceRecomputeJob job = attendanceRecomputeJobRepository.findById(jobId).orElse(null);
+        if (job == null || jdbcTemplate.update(CLAIM_SQL, jobId) == 0) {
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        try {
+            List<Long> employeeIds = job.getEmployeeIdList();
+            String placeholders = String.join(",", Collections.nCopies(employeeIds.size(), "?"));
+            String selectSql = String.format(SELECT_CHUNK_SQL, placeholders);
+
+            if (job.getLastRecordId() == 0) {
+                Integer total = jdbcTemplate.queryForObject(String.format(COUNT_SQL, placeholders), Integer.class,
+                        params(employeeIds, job.getStartDate(), job.getEndDate()));
+                jdbcTemplate.update(TOTAL_SQL, total != null ? total : 0, jobId);
+            }
+
+            long cursor = job.getLastRecordId();
+            int processed = job.getProcessedRecords();
+            while (!Thread.currentThread().isInterrupted()) {
+                List<RecordRow> rows = jdbcTemplate.query(selectSql, (rs, i) -> new RecordRow(
+                                rs.getLong("id"),
+                                rs.getLong("employee_id"),
+                                rs.getDate("attendance_date").toLocalDate(),
+                                toLocalTime(rs.getTime("clock_in_time")),
+                                toLocalTime(rs.getTime("clock_out_time"))),
+                        params(employeeIds, job.getStartDate(), job.getEndDate(), cursor));
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<RecordUpdate> updates = computeChunk(rows);
+                long lastId = rows.get(rows.size() - 1).id();
+                int processedAfter = processed + rows.size();
+                transactionTemplate.executeWithoutResult(status -> {
+                    writeUpdates(updates);
+                    jdbcTemplate.update(CHECKPOINT_SQL, lastId, processedAfter, jobId);
+                    attendanceSummaryService.recordChanges(rows.stream()
+                            .map(row -> new AttendanceSummaryService.PeriodKey(row.employeeId(),
+                                    YearMonth.from(row.attendanceDate())))
+                            .distinct()
+                            .toList());
+                });
+                cursor = lastId;
+                processed = processedAfter;
+                log.debug("Recompute job {}: {} records processed", jobId, processed);
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Recompute job {} interrupted at record {}, will resume on restart", jobId, cursor);
+                return;
+            }
+            jdbcTemplate.update(FINISH_SQL, AttendanceRecomputeJob.STATUS_COMPLETED, null, jobId);
+            log.info("Recompute job {} completed: {} records in {} ms",
+                    jobId, processed, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Recompute job {} stopped by shutdown, will resume on restart", jobId);
+                return;
+            }
+            log.error("Recompute job {} failed", jobId, e);
+            jdbcTemplate.update(FINISH_SQL, AttendanceRecomputeJob.STATUS_FAILED, e.getMessage(), jobId);
+        }
+    }
+
+    /**
+     * Re-resolve shift and compute all figures for a chunk in parallel (one snapshot, batched timelines)
+     */
+    private List<RecordUpdate> computeChunk(List<RecordRow> rows) {
+        ShiftResolutionEngine.CatalogSnapshot catalog = shiftResolutionEngine.getCatalog();
+        Map<Long, ShiftResolutionEngine.EmployeeTimeline> timelines = shiftResolutionEngine.getTimelines(
+                rows.stream().map(RecordRow::employeeId).distinct().toList());
+
+        return rows.parallelStream()
+                .map(row -> {
+                    AttendanceCalculator.DayInput day = AttendanceCalculator.DayInput.of(
+                            shiftResolutionEngine.resolve(catalog, timelines.get(row.employeeId()), row.attendanceDate()),
+                            row.attendanceDate(), row.clockInTime(), row.clockOutTime());
+                    AttendanceCalculator.DayResult result = attendanceCalculator.compute(day);
+                    return new RecordUpdate(row, day.shift(), result.late(), result.clockOut());
+                })
+                .toList();
+    }
+
+    private void writeUpdates(List<RecordUpdate> updates) {
+        List<Object[]> clockInOnly = new ArrayList<>();
+        List<Object[]> full = new ArrayList<>();
+        for (RecordUpdate u : updates) {
+            EmployeeShiftService.ShiftAssignmentResult shift = u.shift();
+            int lateMinutes = u.late().lateMinutes();
+            Object[] common = {
+                    shift.getWorkingHours() != null ? shift.getWorkingHours().id() : null,
+                    shift.getShiftPattern() != null ? shift.getShiftPattern().id() : null,
+                    lateMinutes > 0, lateMinutes, u.late().lateDeduction(),
+                    shift.getWorkingHours() != null ? shift.getWorkingHours().netWorkDurationMinutes() : 0,
+                    (lateMinutes > 0 ? AttendanceStatus.LATE : AttendanceStatus.PRESENT).name()
+            };
+
+            AttendanceCalculator.ClockOutResult out = u.clockOut();
+            if (out == null) {
+                clockInOnly.add(concat(common, u.row().id()));
+            } else {
+                // Guarded by clock_out_time so a concurrent correction is not overwritten with stale figures
+                full.add(concat(common,
+                        out.earlyLeaveMinutes() > 0, out.earlyLeaveMinutes(),
+                        out.overtimeMinutes() > 0, out.overtimeMinutes(),
+                        out.actualWorkMinutes(), out.underworkMinutes(), out.underworkDeduction(),
+                        u.row().id(), Time.valueOf(u.row().clockOutTime())));
+            }
+        }
+        if (!clockInOnly.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_CLOCK_IN_SQL, clockInOnly);
+        }
+        if (!full.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_FULL_SQL, full);
+        }
+    }
+
+    private static Object[] params(List<Long> employeeIds, Object... trailing) {
+        Object[] params = new Object[employeeIds.size() + trailing.length];
+        for (int i = 0; i < employeeIds.size(); i++) {
+            params[i] = employeeIds.get(i);
+        }
+        for (int i = 0; i < trailing.length; i++) {
+            Object value = trailing[i];
+            params[employeeIds.size() + i] = value instanceof LocalDate date ? Date.valueOf(date) : value;
+        }
+        return params;
+    }
+
+    private static Object[] concat(Object[] head, Object... tail) {
+        Object[] result = new Object[head.length + tail.length];
+        System.arraycopy(head, 0, result, 0, head.length);
+        System.arraycopy(tail, 0, result, head.length, tail.length);
+        return result;
+    }
+
+    private static LocalTime toLocalTime(Time time) {
+        return time != null ? time.toLocalTime() : null;
+    }
+
+    private record RecordRow(long id, long employeeId, LocalDate attendanceDate,
+                             LocalTime clockInTime, LocalTime clockOutTime) {
+    }
+
+    private record RecordUpdate(RecordRow row, EmployeeShiftService.ShiftAssignmentResult shift,
+                                AttendanceCalculator.LateResult late, AttendanceCalculator.ClockOutResult clockOut) {
+    }
+}
@@ -0,0 +1,463 @@
+package com.hris.service;
+
+import com.hris.dto.AttendanceReportRow;
+import com.hris.model.enums.AttendanceStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Attendance Report Service
+ * Laporan attendance seluruh perusahaan per periode
+ *
+ * - Filter: department (termasuk sub-department), employee, status, late, overtime, WFH
+ *   (semantik sama dengan query findBy...AttendanceDateBetween di AttendanceRecordRepository)
+ * - Keyset pagination pada (attendance_date, id) memakai idx_attendance_date
+ * - Export CSV/XLSX di-stream per halaman keyset dengan JDBC streaming cursor (fetch size
+ *   Integer.MIN_VALUE untuk MySQL), sehingga memori tetap datar berapa pun jumlah barisnya
+ */
+@Slf4j
+@Service
+public class AttendanceReportService {
+
+    static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_PAGE_SIZE = 10_000;
+    private static final int XLSX_MAX_DATA_ROWS = 1_048_575;
+
+    private static final String SELECT_SQL =
+            "SELECT a.id, a.attendance_date, a.employee_id, e.nik, e.full_name, d.name AS department_name, " +
+            "a.clock_in_time, a.clock_out_time, a.status, a.is_late, a.late_duration_minutes, " +
+            "a.is_early_leave, a.early_leave_duration_minutes, a.is_overtime, a.overtime_duration_minutes, " +
+            "a.actual_work_minutes, a.underwork_minutes, a.is_wfh, a.late_deduction_amount, a.underwork_deduction_amount " +
+            "FROM attendance_records a " +
+            "JOIN employees e ON e.id = a.employee_id " +
+            "LEFT JOIN departments d ON d.id = e.department_id " +
+            "WHERE a.attendance_date BETWEEN ? AND ? AND a.deleted_at IS NULL";
+
+    private static final String[] HEADERS = {
+            "Tanggal", "NIK", "Nama", "Department", "Clock In", "Clock Out", "Status",
+            "Terlambat (menit)", "Pulang Awal (menit)", "Lembur (menit)", "Jam Kerja (menit)",
+            "Kurang Jam (menit)", "WFH", "Potongan Terlambat", "Potongan Kurang Jam"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final DepartmentService departmentService;
+
+    public AttendanceReportService(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                                   DepartmentService departmentService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.departmentService = departmentService;
+        // MySQL Connector/J streams the result set row by row with this fetch size
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    // =====================================================
+    // PAGINATION
+    // =====================================================
+
+    /**
+     * Get one report page after the cursor (null = first page)
+     */
+    public ReportPage getPage(ReportFilter filter, Cursor after, int pageSize) {
+        validate(filter);
+        int size = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        List<Object> params = new ArrayList<>();
+        // Fetch one extra row to know whether there is a next page
+        String sql = buildQuery(filter, resolveDepartmentIds(filter), after, size + 1, params);
+        List<AttendanceReportRow> rows = jdbcTemplate.query(sql, (rs, i) -> mapRow(rs), params.toArray());
+
+        Cursor next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AttendanceReportRow last = rows.get(size - 1);
+            next = new Cursor(last.getAttendanceDate(), last.getId());
+        }
+        return new ReportPage(rows, next);
+    }
+
+    // =====================================================
+    // STREAMING EXPORT
+    // =====================================================
+
+    /**
+     * Stream every matching row to the handler, page by page (keyset) over a streaming cursor
+     *
+     * @return Number of rows streamed
+     */
+    public long stream(ReportFilter filter, RowHandler handler) throws IOException {
+        validate(filter);
+        List<Long> departmentIds = resolveDepartmentIds(filter);
+        Cursor cursor = null;
+        long total = 0;
+        try {
+            while (true) {
+                List<Object> params = new ArrayList<>();
+                String sql = buildQuery(filter, departmentIds, cursor, EXPORT_PAGE_SIZE, params);
+                PageState state = new PageState();
+                streamingJdbcTemplate.query(sql, rs -> {
+                    if (state.stopped) {
+                        // Remaining rows of the streamed page are drained without mapping
+                        return;
+                    }
+                    AttendanceReportRow row = mapRow(rs);
+                    try {
+                        if (!handler.handle(row)) {
+                            state.stopped = true;
+                            return;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    state.count++;
+                    state.lastDate = row.getAttendanceDate();
+                    state.lastId = row.getId();
+                }, params.toArray());
+
+                total += state.count;
+                if (state.stopped || state.count < EXPORT_PAGE_SIZE) {
+                    return total;
+                }
+                cursor = new Cursor(state.lastDate, state.lastId);
+            }
+        } catch (UncheckedIOException e) {
+            // Client went away: stop reading
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Write report as CSV
+     */
+    public long writeCsv(ReportFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write(String.join(",", HEADERS));
+        writer.write('\n');
+
+        long count = stream(filter, row -> {
+            String[] cells = cells(row);
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(CsvCells.of(cells[i]));
+            }
+            writer.write('\n');
+            return true;
+        });
+        writer.flush();
+        log.info("Attendance report CSV exported: {} rows ({} to {})", count, filter.startDate(), filter.endDate());
+        return count;
+    }
+
+    /**
+     * Reject an XLSX export whose rows would not fit in one sheet (checked before streaming starts)
+     */
+    public void checkXlsxLimit(ReportFilter filter) {
+        validate(filter);
+        List<Object> params = new ArrayList<>();
+        // Count stops one row past the sheet limit instead of scanning the whole period
+        String sql = "SELECT COUNT(*) FROM (" +
+                buildQuery(filter, resolveDepartmentIds(filter), null, XLSX_MAX_DATA_ROWS + 1, params) + ") t";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, params.toArray());
+        if (count != null && count > XLSX_MAX_DATA_ROWS) {
+            throw new IllegalArgumentException("Laporan melebihi batas " + XLSX_MAX_DATA_ROWS +
+                    " baris XLSX, gunakan export CSV atau persempit filter");
+        }
+    }
+
+    /**
+     * Write report as XLSX (single sheet, inline strings, streamed into the zip entry)
+     * Callers check {@link #checkXlsxLimit} first; rows beyond the sheet limit fail the export
+     */
+    public long writeXlsx(ReportFilter filter, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        writeZipEntry(zip, "[Content_Types].xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+                "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+                "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+                "<Override PartName=\"/xl/workbook.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>" +
+                "<Override PartName=\"/xl/worksheets/sheet1.xml\" " +
+                "ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>" +
+                "</Types>");
+        writeZipEntry(zip, "_rels/.rels",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" " +
+                "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" " +
+                "Target=\"xl/workbook.xml\"/></Relationships>");
+        writeZipEntry(zip, "xl/workbook.xml",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" " +
+                "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">" +
+                "<sheets><sheet name=\"Attendance\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+        writeZipEntry(zip, "xl/_rels/workbook.xml.rels",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" " +
+                "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" " +
+                "Target=\"worksheets/sheet1.xml\"/></Relationships>");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        writeXlsxRow(writer, HEADERS, null);
+
+        long[] written = {0};
+        stream(filter, row -> {
+            if (written[0] >= XLSX_MAX_DATA_ROWS) {
+                // Rows arrived after the limit check: abort so the client gets a broken download, not a short file
+                throw new IllegalStateException("Laporan melebihi batas " + XLSX_MAX_DATA_ROWS + " baris XLSX");
+            }
+            writeXlsxRow(writer, cells(row), row);
+            written[0]++;
+            return true;
+        });
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+
+        log.info("Attendance report XLSX exported: {} rows ({} to {})", written[0], filter.startDate(), filter.endDate());
+        return written[0];
+    }
+
+    // =====================================================
+    // QUERY
+    // =====================================================
+
+    private void validate(ReportFilter filter) {
+        if (filter.startDate() == null || filter.endDate() == null) {
+            throw new IllegalArgumentException("Periode laporan wajib diisi");
+        }
+        if (filter.endDate().isBefore(filter.startDate())) {
+            throw new IllegalArgumentException("Tanggal akhir tidak boleh sebelum tanggal awal");
+        }
+    }
+
+    private List<Long> resolveDepartmentIds(ReportFilter filter) {
+        if (filter.departmentId() == null) {
+            return null;
+        }
+        List<Long> ids = departmentService.getDepartmentAndDescendantIds(filter.departmentId());
+        return ids.isEmpty() ? List.of(filter.departmentId()) : ids;
+    }
+
+    private String buildQuery(ReportFilter filter, List<Long> departmentIds, Cursor after, int limit,
+                              List<Object> params) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        params.add(Date.valueOf(filter.startDate()));
+        params.add(Date.valueOf(filter.endDate()));
+
+        if (departmentIds != null) {
+            sql.append(" AND e.department_id IN (")
+                    .append(String.join(",", Collections.nCopies(departmentIds.size(), "?")))
+                    .append(')');
+            params.addAll(departmentIds);
+        }
+        if (filter.employeeId() != null) {
+            sql.append(" AND a.employee_id = ?");
+            params.add(filter.employeeId());
+        }
+        if (filter.status() != null) {
+            sql.append(" AND a.status = ?");
+            params.add(filter.status().name());
+        }
+        if (filter.late() != null) {
+            sql.append(" AND a.is_late = ?");
+            params.add(filter.late());
+        }
+        if (filter.overtime() != null) {
+            sql.append(" AND a.is_overtime = ?");
+            params.add(filter.overtime());
+        }
+        if (filter.wfh() != null) {
+            sql.append(" AND a.is_wfh = ?");
+            params.add(filter.wfh());
+        }
+        if (after != null) {
+            sql.append(" AND (a.attendance_date > ? OR (a.attendance_date = ? AND a.id > ?))");
+            params.add(Date.valueOf(after.date()));
+            params.add(Date.valueOf(after.date()));
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY a.attendance_date ASC, a.id ASC LIMIT ").append(limit);
+        return sql.toString();
+    }
+
+    private static AttendanceReportRow mapRow(ResultSet rs) throws SQLException {
+        String status = rs.getString("status");
+        Time clockIn = rs.getTime("clock_in_time");
+        Time clockOut = rs.getTime("clock_out_time");
+        return new AttendanceReportRow(
+                rs.getLong("id"),
+                rs.getDate("attendance_date").toLocalDate(),
+                rs.getLong("employee_id"),
+                rs.getString("nik"),
+                rs.getString("full_name"),
+                rs.getString("department_name"),
+                clockIn != null ? clockIn.toLocalTime() : null,
+                clockOut != null ? clockOut.toLocalTime() : null,
+                status != null ? AttendanceStatus.valueOf(status) : null,
+                rs.getBoolean("is_late"),
+                rs.getInt("late_duration_minutes"),
+                rs.getBoolean("is_early_leave"),
+                rs.getInt("early_leave_duration_minutes"),
+                rs.getBoolean("is_overtime"),
+                rs.getInt("overtime_duration_minutes"),
+                rs.getInt("actual_work_minutes"),
+                rs.getInt("underwork_minutes"),
+                rs.getBoolean("is_wfh"),
+                rs.getBigDecimal("late_deduction_amount"),
+                rs.getBigDecimal("underwork_deduction_amount"));
+    }
+
+    // =====================================================
+    // FORMATTING
+    // =====================================================
+
+    private static String[] cells(AttendanceReportRow row) {
+        return new String[]{
+                row.getAttendanceDate().toString(),
+                row.getEmployeeNik(),
+                row.getEmployeeName(),
+                row.getDepartmentName(),
+                row.getClockInTime() != null ? row.getClockInTime().toString() : "",
+                row.getClockOutTime() != null ? row.getClockOutTime().toString() : "",
+                row.getStatus() != null ? row.getStatus().name() : "",
+                String.valueOf(row.getLateDurationMinutes()),
+                String.valueOf(row.getEarlyLeaveDurationMinutes()),
+                String.valueOf(row.getOvertimeDurationMinutes()),
+                String.valueOf(row.getActualWorkMinutes()),
+                String.valueOf(row.getUnderworkMinutes()),
+                Boolean.TRUE.equals(row.getIsWfh()) ? "Ya" : "Tidak",
+                plain(row.getLateDeductionAmount()),
+                plain(row.getUnderworkDeductionAmount())
+        };
+    }
+
+    // Columns 7..11 and 13..14 are numeric in the sheet
+    private static boolean isNumericColumn(int column) {
+        return (column >= 7 && column <= 11) || column >= 13;
+    }
+
+    private static void writeXlsxRow(Writer writer, String[] cells, AttendanceReportRow row) throws IOException {
+        writer.write("<row>");
+        for (int i = 0; i < cells.length; i++) {
+            String value = cells[i] != null ? cells[i] : "";
+            if (row != null && isNumericColumn(i) && !value.isEmpty()) {
+                writer.write("<c><v>");
+                writer.write(value);
+                writer.write("</v></c>");
+            } else {
+                writer.write("<c t=\"inlineStr\"><is><t>");
+                writer.write(xml(value));
+                writer.write("</t></is></c>");
+            }
+        }
+        writer.write("</row>");
+    }
+
+    private static void writeZipEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "0";
+    }
+
+    private static String xml(String value) {
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> c < 0x20 && c != '\t' && c != '\n' && c != '\r' ? "" : null;
+            };
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            if (sb != null) {
+                if (replacement != null) {
+                    sb.append(replacement);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb != null ? sb.toString() : value;
+    }
+
+    // =====================================================
+    // TYPES
+    // =====================================================
+
+    /**
+     * Report filter (null = no filter on that field)
+     */
+    public record ReportFilter(LocalDate startDate,
+                               LocalDate endDate,
+                               Long departmentId,
+                               Long employeeId,
+                               AttendanceStatus status,
+                               Boolean late,
+                               Boolean overtime,
+                               Boolean wfh) {
+    }
+
+    /**
+     * Keyset position: last (attendance date, record id) of the previous page
+     */
+    public record Cursor(LocalDate date, long id) {
+    }
+
+    /**
+     * One report page; next is null on the last page
+     */
+    public record ReportPage(List<AttendanceReportRow> rows, Cursor next) {
+    }
+
+    /**
+     * Receives streamed rows; return false to stop
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        boolean handle(AttendanceReportRow row) throws IOException;
+    }
+
+    private static final class PageState {
+        private long count;
+        private boolean stopped;
+        private LocalDate lastDate;
+        private long lastId;
+    }
+}
@@ -4,17 +4,24 @@ import com.hris.dto.ClockInRequest;
 import com.hris.dto.ClockOutRequest;
 import com.hris.model.*;
 import com.hris.model.enums.AttendanceStatus;
+import com.hris.model.enums.EmployeeStatus;
 import com.hris.model.enums.RequestStatus;
 import com.hris.repository.AttendanceRecordRepository;
+import com.hris.repository.EmployeeRepository;
+import com.hris.repository.ShiftPatternRepository;
+import com.hris.repository.WorkingHoursRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Attendance Service
@@ -33,12 +40,25 @@ import java.time.temporal.ChronoUnit;
 @RequiredArgsConstructor
 public class AttendanceService {
 
+    // Unique key of V35: one active attendance record per employee per day
+    private static final String ACTIVE_DAY_KEY = "uk_attendance_employee_date_active";
+
     private final AttendanceRecordRepository attendanceRecordRepository;
     private final EmployeeShiftService employeeShiftService;
     private final WfhRequestService wfhRequestService;
-    private final CompanyService companyService;
+    private final GeofenceService geofenceService;
     private final EmployeeService employeeService;
     private final HolidayService holidayService;
+    private final EmployeeRepository employeeRepository;
+    private final WorkingHoursRepository workingHoursRepository;
+    private final ShiftPatternRepository shiftPatternRepository;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
+    private final AttendanceIngestionService attendanceIngestionService;
+    private final AttendanceCalculator attendanceCalculator;
+    private final AttendanceSummaryService attendanceSummaryService;
+
+    @Value("${app.attendance.clock-in-fast-path:true}")
+    private boolean clockInFastPathEnabled;
 
     // =====================================================
     // CLOCK IN
@@ -46,12 +66,77 @@ public class AttendanceService {
 
     /**
      * Clock in with location validation
+     * Uses the precomputed daily context when available, otherwise the database path
      *
      * @param request Clock in request with location data
      * @return Created attendance record
      */
     @Transactional
     public AttendanceRecord clockIn(ClockInRequest request) {
+        long started = System.nanoTime();
+        LocalDate attendanceDate = request.getClockInDateTime().toLocalDate();
+
+        DailyAttendanceContextService.DailyContext context = clockInFastPathEnabled
+                ? dailyAttendanceContextService.getContext(attendanceDate) : null;
+        DailyAttendanceContextService.EmployeeDayContext employeeContext = context != null
+                ? dailyAttendanceContextService.getEmployeeContext(request.getEmployeeId(), attendanceDate) : null;
+
+        AttendanceRecord saved = employeeContext != null
+                ? clockInFromContext(request, context, employeeContext)
+                : clockInFromDatabase(request);
+
+        dailyAttendanceContextService.recordClockInLatency(employeeContext != null, System.nanoTime() - started);
+        return saved;
+    }
+
+    /**
+     * Fast path: validation against the daily context in memory + one insert
+     */
+    private AttendanceRecord clockInFromContext(ClockInRequest request,
+                                                DailyAttendanceContextService.DailyContext context,
+                                                DailyAttendanceContextService.EmployeeDayContext employeeContext) {
+        Long employeeId = request.getEmployeeId();
+        EmployeeShiftService.ShiftAssignmentResult shift = employeeContext.shift();
+
+        if (!shift.isWorkingDay()) {
+            throw new IllegalStateException("Cannot clock-in on non-working day");
+        }
+        if (!employeeContext.holidayClockInAllowed()) {
+            throw new IllegalStateException("Cannot clock-in on holiday (no override)");
+        }
+        validateBeforeShiftEnd(shift, request.getClockInDateTime());
+
+        boolean isWfh = isWfhShift(shift);
+        if (isWfh && !context.hasApprovedWfh(employeeId)) {
+            throw new IllegalStateException("Shift allows WFH but no approved WFH request found. Please submit WFH request first.");
+        }
+        if (!isWfh) {
+            validateLocation(request.getLatitude(), request.getLongitude(), employeeContext.departmentId());
+        }
+
+        // Reserve last so a rejected clock-in does not hold the slot
+        if (!dailyAttendanceContextService.reserveClockIn(context, employeeId)) {
+            // The context only learns clock-ins: confirm with the database before refusing, since
+            // today's record may have been deleted or corrected after it was recorded
+            LocalDate attendanceDate = context.date();
+            if (attendanceRecordRepository.hasClockedInToday(employeeId, attendanceDate)
+                    || attendanceIngestionService.isPending(employeeId, attendanceDate,
+                            AttendanceIngestionService.Direction.IN)
+                    || !dailyAttendanceContextService.reserveStaleClockIn(context, employeeId)) {
+                throw new IllegalStateException("Already clocked in today");
+            }
+        }
+
+        AttendanceRecord record = buildClockInRecord(request, employeeRepository.getReferenceById(employeeId), shift, isWfh);
+        AttendanceRecord saved = persistClockIn(request, record);
+        log.debug("Clock in successful (context): {}", saved.getId());
+        return saved;
+    }
+
+    /**
+     * Database path: used for dates other than today or employees not in the daily context
+     */
+    private AttendanceRecord clockInFromDatabase(ClockInRequest request) {
         log.info("Clock in for employee: {} at {}", request.getEmployeeId(), request.getClockInDateTime());
 
         // 1. Get employee
@@ -59,12 +144,16 @@ public class AttendanceService {
         if (employee == null) {
             throw new IllegalArgumentException("Employee not found");
         }
+        if (employee.getStatus() != EmployeeStatus.ACTIVE) {
+            throw new IllegalStateException("Employee is not active");
+        }
 
         LocalDate attendanceDate = request.getClockInDateTime().toLocalDate();
-        LocalTime clockInTime = request.getClockInDateTime().toLocalTime();
 
         // 2. Check if already clocked in
-        if (attendanceRecordRepository.hasClockedInToday(request.getEmployeeId(), attendanceDate)) {
+        if (attendanceRecordRepository.hasClockedInToday(request.getEmployeeId(), attendanceDate)
+                || attendanceIngestionService.isPending(request.getEmployeeId(), attendanceDate,
+                        AttendanceIngestionService.Direction.IN)) {
             throw new IllegalStateException("Already clocked in today");
         }
 
@@ -83,18 +172,11 @@ public class AttendanceService {
         }
 
         // 6. Check if current time is past shift end time
-        if (shift.getEndTime() != null) {
-            if (clockInTime.isAfter(shift.getEndTime())) {
-                throw new IllegalStateException(
-                    String.format("Tidak dapat clock-in. Waktu saat ini (%s) sudah melewati jam shift keluar (%s).",
-                        clockInTime, shift.getEndTime())
-                );
-            }
-        }
+        validateBeforeShiftEnd(shift, request.getClockInDateTime());
 
         // 7. Validate location (if not WFH)
         boolean isWfh = false;
-        if (shift.getShiftPattern() != null && Boolean.TRUE.equals(shift.getShiftPattern().getIsWfhAllowed())) {
+        if (isWfhShift(shift)) {
             // Check if has approved WFH request
             isWfh = wfhRequestService.hasApprovedWfhForDate(request.getEmployeeId(), attendanceDate);
             if (!isWfh) {
@@ -103,52 +185,135 @@ public class AttendanceService {
         }
 
         if (!isWfh) {
-            validateLocation(request.getLatitude(), request.getLongitude());
+            validateLocation(request.getLatitude(), request.getLongitude(),
+                    employee.getDepartment() != null ? employee.getDepartment().getId() : null);
         }
 
-        // 8. Calculate late
-        int lateMinutes = 0;
-        BigDecimal lateDeduction = BigDecimal.ZERO;
-        ShiftPattern pattern = shift.getShiftPattern();
+        // 8. Calculate late & create record
+        AttendanceRecord saved = persistClockIn(request, buildClockInRecord(request, employee, shift, isWfh));
+        dailyAttendanceContextService.markClockedIn(request.getEmployeeId(), attendanceDate);
+        log.info("Clock in successful: {}", saved.getId());
+        return saved;
+    }
 
-        if (shift.getStartTime() != null && pattern != null) {
-            LocalTime effectiveStartTime = shift.getStartTime();
-            Integer tolerance = shift.getLateToleranceMinutes();
-            if (tolerance != null && tolerance > 0) {
-                effectiveStartTime = shift.getStartTime().plusMinutes(tolerance);
+    /**
+     * Insert clock-in record, or queue it in write-behind mode (returned record has no ID yet)
+     * The unique key on (employee_id, attendance_date) for active records rejects a concurrent
+     * second clock-in that passed the in-memory / database checks
+     */
+    private AttendanceRecord persistClockIn(ClockInRequest request, AttendanceRecord record) {
+        if (attendanceIngestionService.isEnabled()) {
+            attendanceIngestionService.enqueue(toClockInPunch(request.getEmployeeId(), record));
+            return record;
+        }
+        AttendanceRecord saved;
+        try {
+            saved = attendanceRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            if (!isDuplicateDay(e)) {
+                throw e;
             }
+            throw new IllegalStateException("Already clocked in today");
+        }
+        attendanceSummaryService.recordChange(request.getEmployeeId(), saved.getAttendanceDate());
+        return saved;
+    }
 
-            if (clockInTime.isAfter(effectiveStartTime)) {
-                lateMinutes = (int) ChronoUnit.MINUTES.between(effectiveStartTime, clockInTime);
-                // Use existing deduction method from ShiftPattern
-                if (pattern != null) {
-                    lateDeduction = pattern.calculateLateDeduction(lateMinutes);
-                }
-            }
+    /**
+     * Whether the violation is the one-active-record-per-day unique key (other constraint
+     * violations are real errors, not a second clock-in)
+     */
+    private static boolean isDuplicateDay(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().endsWith(ACTIVE_DAY_KEY);
+    }
+
+    private AttendanceIngestionService.Punch toClockInPunch(Long employeeId, AttendanceRecord r) {
+        return new AttendanceIngestionService.Punch(
+                AttendanceIngestionService.Direction.IN, employeeId, r.getAttendanceDate(), r.getClockInTime(),
+                r.getClockInLatitude(), r.getClockInLongitude(), r.getClockInDeviceInfo(), r.getClockInPhotoPath(),
+                r.getWorkingHours() != null ? r.getWorkingHours().getId() : null,
+                r.getShiftPattern() != null ? r.getShiftPattern().getId() : null,
+                Boolean.TRUE.equals(r.getIsLate()), r.getLateDurationMinutes(), r.getLateDeductionAmount(),
+                r.getRequiredWorkMinutes(), r.getStatus(), Boolean.TRUE.equals(r.getIsWfh()),
+                0, 0, 0, 0, BigDecimal.ZERO);
+    }
+
+    private AttendanceIngestionService.Punch toClockOutPunch(Long employeeId, AttendanceRecord r) {
+        return new AttendanceIngestionService.Punch(
+                AttendanceIngestionService.Direction.OUT, employeeId, r.getAttendanceDate(), r.getClockOutTime(),
+                r.getClockOutLatitude(), r.getClockOutLongitude(), r.getClockOutDeviceInfo(), r.getClockOutPhotoPath(),
+                null, null, false, 0, BigDecimal.ZERO, 0, null, false,
+                r.getEarlyLeaveDurationMinutes(), r.getOvertimeDurationMinutes(), r.getActualWorkMinutes(),
+                r.getUnderworkMinutes(), r.getUnderworkDeductionAmount());
+    }
+
+    /**
+     * Attendance date for a clock-out: the previous day if it has an open record (or queued clock-in)
+     * for an overnight shift that this clock-out falls into, otherwise the clock-out date
+     */
+    private LocalDate resolveClockOutDate(Long employeeId, LocalDateTime clockOutAt) {
+        LocalDate previousDay = clockOutAt.toLocalDate().minusDays(1);
+        return attendanceCalculator.resolveClockOutDate(
+                employeeShiftService.getShiftAssignment(employeeId, previousDay), clockOutAt,
+                () -> attendanceRecordRepository
+                        .findByEmployeeIdAndAttendanceDateAndDeletedAtIsNull(employeeId, previousDay)
+                        .map(record -> record.getClockOutTime() == null)
+                        .orElse(false)
+                        || attendanceIngestionService.findPendingClockIn(employeeId, previousDay) != null);
+    }
+
+    private boolean isWfhShift(EmployeeShiftService.ShiftAssignmentResult shift) {
+        return shift.getShiftPattern() != null && shift.getShiftPattern().isWfhAllowed();
+    }
+
+    private void validateBeforeShiftEnd(EmployeeShiftService.ShiftAssignmentResult shift, LocalDateTime clockIn) {
+        // Overnight shifts end on the next day
+        if (attendanceCalculator.isAfterShiftEnd(shift, clockIn.toLocalDate(), clockIn)) {
+            throw new IllegalStateException(
+                String.format("Tidak dapat clock-in. Waktu saat ini (%s) sudah melewati jam shift keluar (%s).",
+                    clockIn.toLocalTime(), shift.getEndTime())
+            );
         }
+    }
+
+    /**
+     * Calculate late and build the clock-in record
+     */
+    private AttendanceRecord buildClockInRecord(ClockInRequest request, Employee employee,
+                                                EmployeeShiftService.ShiftAssignmentResult shift, boolean isWfh) {
+        LocalTime clockInTime = request.getClockInDateTime().toLocalTime();
+        AttendanceCalculator.LateResult late = attendanceCalculator.calculateLate(
+                shift, request.getClockInDateTime().toLocalDate(), request.getClockInDateTime());
+        int lateMinutes = late.lateMinutes();
 
-        // 8. Create record
-        AttendanceRecord record = AttendanceRecord.builder()
+        return AttendanceRecord.builder()
                 .employee(employee)
-                .attendanceDate(attendanceDate)
+                .attendanceDate(request.getClockInDateTime().toLocalDate())
                 .clockInTime(clockInTime)
                 .clockInLatitude(request.getLatitude())
                 .clockInLongitude(request.getLongitude())
                 .clockInDeviceInfo(request.getDeviceInfo())
-                .workingHours(shift.getWorkingHours())
-                .shiftPattern(pattern)
+                .workingHours(shift.getWorkingHours() != null
+                        ? workingHoursRepository.getReferenceById(shift.getWorkingHours().id()) : null)
+                .shiftPattern(shift.getShiftPattern() != null
+                        ? shiftPatternRepository.getReferenceById(shift.getShiftPattern().id()) : null)
                 .isLate(lateMinutes > 0)
                 .lateDurationMinutes(lateMinutes)
-                .lateDeductionAmount(lateDeduction)
+                .lateDeductionAmount(late.lateDeduction())
                 .requiredWorkMinutes(shift.getWorkingHours() != null ?
-                        shift.getWorkingHours().getNetWorkDurationMinutes() : 0)
+                        shift.getWorkingHours().netWorkDurationMinutes() : 0)
                 .status(lateMinutes > 0 ? AttendanceStatus.LATE : AttendanceStatus.PRESENT)
                 .isWfh(isWfh)
                 .build();
+    }
 
-        AttendanceRecord saved = attendanceRecordRepository.save(record);
-        log.info("Clock in successful: {}", saved.getId());
-        return saved;
+    /**
+     * Get clock-in throughput and latency (fast path vs database path)
+     */
+    public java.util.Map<String, DailyAttendanceContextService.LatencyStats.Summary> getClockInStats() {
+        return dailyAttendanceContextService.getClockInStats();
     }
 
     // =====================================================
@@ -159,90 +324,66 @@ public class AttendanceService {
      * Clock out with overtime calculation
      *
      * @param request Clock out request with location data
-     * @return Updated attendance record
+     * @return Updated attendance record (not yet persisted in write-behind mode)
      */
     @Transactional
     public AttendanceRecord clockOut(ClockOutRequest request) {
         log.info("Clock out for employee: {} at {}", request.getEmployeeId(), request.getClockOutDateTime());
 
-        LocalDate attendanceDate = request.getClockOutDateTime().toLocalDate();
-        LocalTime clockOutTime = request.getClockOutDateTime().toLocalTime();
+        LocalDateTime clockOutAt = request.getClockOutDateTime();
+        LocalTime clockOutTime = clockOutAt.toLocalTime();
+        // Overnight shift: clock-out after midnight belongs to the previous day's record
+        LocalDate attendanceDate = resolveClockOutDate(request.getEmployeeId(), clockOutAt);
 
-        // 1. Get existing record
+        // 1. Get existing record (or clock-in still queued for writing)
         AttendanceRecord record = attendanceRecordRepository
                 .findByEmployeeIdAndAttendanceDateAndDeletedAtIsNull(request.getEmployeeId(), attendanceDate)
-                .orElseThrow(() -> new IllegalStateException("No clock-in record found"));
+                .orElse(null);
+        AttendanceIngestionService.Punch pendingClockIn = record == null
+                ? attendanceIngestionService.findPendingClockIn(request.getEmployeeId(), attendanceDate) : null;
+        if (record == null && pendingClockIn == null) {
+            throw new IllegalStateException("No clock-in record found");
+        }
 
         // 2. Check if already clocked out
-        if (record.getClockOutTime() != null) {
+        if ((record != null && record.getClockOutTime() != null)
+                || attendanceIngestionService.isPending(request.getEmployeeId(), attendanceDate,
+                        AttendanceIngestionService.Direction.OUT)) {
             throw new IllegalStateException("Already clocked out");
         }
+        LocalTime clockInTime = record != null ? record.getClockInTime() : pendingClockIn.time();
 
         // 3. Get shift assignment
         EmployeeShiftService.ShiftAssignmentResult shift =
                 employeeShiftService.getShiftAssignment(request.getEmployeeId(), attendanceDate);
 
-        // 4. Calculate early leave
-        int earlyLeaveMinutes = 0;
-        ShiftPattern pattern = shift.getShiftPattern();
-        WorkingHours wh = shift.getWorkingHours();
-
-        if (wh != null && wh.getEndTime() != null && pattern != null) {
-            LocalTime effectiveEndTime = wh.getEndTime();
-            Integer tolerance = pattern.getEarlyLeaveToleranceMinutes();
-            if (tolerance != null && tolerance > 0) {
-                effectiveEndTime = effectiveEndTime.minusMinutes(tolerance);
-            }
-
-            if (clockOutTime.isBefore(effectiveEndTime)) {
-                earlyLeaveMinutes = (int) ChronoUnit.MINUTES.between(clockOutTime, effectiveEndTime);
-            }
+        // 4. Calculate early leave, overtime, work duration & underwork
+        AttendanceCalculator.ClockOutResult figures = attendanceCalculator.calculateClockOut(shift, attendanceDate,
+                clockInTime != null ? LocalDateTime.of(attendanceDate, clockInTime) : null, clockOutAt);
+
+        // 5. Update record (write-behind: queue it and leave the managed entity untouched)
+        AttendanceRecord target = attendanceIngestionService.isEnabled() ? new AttendanceRecord() : record;
+        target.setAttendanceDate(attendanceDate);
+        target.setClockInTime(clockInTime);
+        target.setClockOutTime(clockOutTime);
+        target.setClockOutLatitude(request.getLatitude());
+        target.setClockOutLongitude(request.getLongitude());
+        target.setClockOutDeviceInfo(request.getDeviceInfo());
+        target.setIsEarlyLeave(figures.earlyLeaveMinutes() > 0);
+        target.setEarlyLeaveDurationMinutes(figures.earlyLeaveMinutes());
+        target.setIsOvertime(figures.overtimeMinutes() > 0);
+        target.setOvertimeDurationMinutes(figures.overtimeMinutes());
+        target.setActualWorkMinutes(figures.actualWorkMinutes());
+        target.setUnderworkMinutes(figures.underworkMinutes());
+        target.setUnderworkDeductionAmount(figures.underworkDeduction());
+
+        if (attendanceIngestionService.isEnabled()) {
+            attendanceIngestionService.enqueue(toClockOutPunch(request.getEmployeeId(), target));
+            return target;
         }
 
-        // 5. Calculate overtime
-        int overtimeMinutes = 0;
-        if (wh != null && wh.getEndTime() != null && pattern != null) {
-            // Check if overtime allowed
-            if (Boolean.TRUE.equals(pattern.getIsOvertimeAllowed())) {
-                if (clockOutTime.isAfter(wh.getEndTime())) {
-                    overtimeMinutes = (int) ChronoUnit.MINUTES.between(wh.getEndTime(), clockOutTime);
-                }
-            }
-        }
-
-        // 6. Calculate work duration & underwork
-        int actualWorkMinutes = 0;
-        int underworkMinutes = 0;
-        BigDecimal underworkDeduction = BigDecimal.ZERO;
-
-        if (record.getClockInTime() != null && wh != null) {
-            actualWorkMinutes = (int) ChronoUnit.MINUTES.between(
-                    record.getClockInTime(), clockOutTime);
-
-            int requiredMinutes = wh.getNetWorkDurationMinutes();
-            if (actualWorkMinutes < requiredMinutes) {
-                underworkMinutes = requiredMinutes - actualWorkMinutes;
-                // Use existing deduction method from ShiftPattern
-                if (pattern != null) {
-                    underworkDeduction = pattern.calculateUnderworkDeduction(underworkMinutes);
-                }
-            }
-        }
-
-        // 7. Update record
-        record.setClockOutTime(clockOutTime);
-        record.setClockOutLatitude(request.getLatitude());
-        record.setClockOutLongitude(request.getLongitude());
-        record.setClockOutDeviceInfo(request.getDeviceInfo());
-        record.setIsEarlyLeave(earlyLeaveMinutes > 0);
-        record.setEarlyLeaveDurationMinutes(earlyLeaveMinutes);
-        record.setIsOvertime(overtimeMinutes > 0);
-        record.setOvertimeDurationMinutes(overtimeMinutes);
-        record.setActualWorkMinutes(actualWorkMinutes);
-        record.setUnderworkMinutes(underworkMinutes);
-        record.setUnderworkDeductionAmount(underworkDeduction);
-
-        AttendanceRecord saved = attendanceRecordRepository.save(record);
+        AttendanceRecord saved = attendanceRecordRepository.save(target);
+        attendanceSummaryService.recordChange(request.getEmployeeId(), attendanceDate);
         log.info("Clock out successful: {}", saved.getId());
         return saved;
     }
@@ -285,57 +426,20 @@ public class AttendanceService {
     // =====================================================
 
     /**
-     * Validate clock-in location against office location
+     * Validate clock-in location against the office geofences applicable to the employee
      */
-    private void validateLocation(BigDecimal latitude, BigDecimal longitude) {
-        Company company = companyService.getCompany();
-        if (company == null) {
-            throw new IllegalStateException("Company not found");
-        }
-
-        if (company.getOfficeLatitude() == null || company.getOfficeLongitude() == null) {
+    private void validateLocation(BigDecimal latitude, BigDecimal longitude, Long departmentId) {
+        GeofenceService.GeofenceResult result = geofenceService.match(departmentId, latitude, longitude);
+        if (result == null || !result.configured()) {
             log.warn("Office location not set, skipping location validation");
             return;
         }
 
-        double distance = calculateDistance(
-                latitude.doubleValue(),
-                longitude.doubleValue(),
-                company.getOfficeLatitude().doubleValue(),
-                company.getOfficeLongitude().doubleValue()
-        );
-
-        int maxRadius = company.getAttendanceLocationRadius() != null ?
-                company.getAttendanceLocationRadius() : 100;
-
-        if (distance > maxRadius) {
-            throw new IllegalStateException(
-                    String.format("Location validation failed. You are %d meters from office (max: %d meters)",
-                            (int) distance, maxRadius));
+        if (!result.inside()) {
+            throw new IllegalStateException(result.message());
         }
 
-        log.info("Location validation successful: {} meters from office", (int) distance);
-    }
-
-    /**
-     * Calculate distance between two coordinates using Haversine formula
-     * Returns distance in meters
-     */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371_000; // Earth radius in meters
-
-        double lat1Rad = Math.toRadians(lat1);
-        double lat2Rad = Math.toRadians(lat2);
-        double deltaLat = Math.toRadians(lat2 - lat1);
-        double deltaLon = Math.toRadians(lon2 - lon1);
-
-        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
-                Math.cos(lat1Rad) * Math.cos(lat2Rad) *
-                        Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-
-        return R * c;
+        log.debug("Location validation successful: {} meters from {}", result.distanceMeters(), result.officeName());
     }
 
     /**
@@ -344,27 +448,7 @@ public class AttendanceService {
     private boolean shouldAllowClockIn(EmployeeShiftService.ShiftAssignmentResult shift,
                                        LocalDate date, Employee employee) {
         // Check if this date is a holiday
-        Holiday holiday = holidayService.getHolidayByDate(date).orElse(null);
-        if (holiday == null) {
-            return true; // Not a holiday, allow clock-in
-        }
-
-        ShiftPattern pattern = shift.getShiftPattern();
-        if (pattern == null) {
-            return false; // No pattern, default to holiday rule
-        }
-
-        // Check holiday override settings from ShiftPattern
-        if (holiday.isNationalHoliday() && Boolean.TRUE.equals(pattern.getOverrideNationalHoliday())) {
-            return true;
-        }
-        if (holiday.isCompanyHoliday() && Boolean.TRUE.equals(pattern.getOverrideCompanyHoliday())) {
-            return true;
-        }
-        if (holiday.isCollectiveLeave() && Boolean.TRUE.equals(pattern.getOverrideJointLeave())) {
-            return true;
-        }
-
-        return false; // Holiday and no override, reject clock-in
+        HolidayCalendar.HolidayEntry holiday = holidayService.getHolidayByDate(date).orElse(null);
+        return DailyAttendanceContextService.isHolidayClockInAllowed(shift, holiday);
     }
 }
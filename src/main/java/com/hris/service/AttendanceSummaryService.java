@@ -0,0 +1,291 @@
+package com.hris.service;
+
+import com.hris.model.AttendanceMonthlySummary;
+import com.hris.repository.AttendanceMonthlySummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attendance Summary Service
+ * Ringkasan attendance per employee per bulan (attendance_monthly_summaries)
+ *
+ * - Setiap penulisan attendance (clock-in/out, ingestion, sync, recompute) mencatat
+ *   (employee, bulan) yang berubah; setelah commit baris ringkasan bulan itu dihitung ulang
+ *   dengan satu upsert agregat (range scan index employee_id + attendance_date, maks 31 baris)
+ * - Upsert bersifat idempotent sehingga urutan/duplikasi refresh tidak menimbulkan drift
+ * - Verifier malam membandingkan ringkasan bulan berjalan & sebelumnya dengan agregat
+ *   attendance_records dan memperbaiki baris yang berbeda
+ */
+@Slf4j
+@Service
+public class AttendanceSummaryService {
+
+    private static final String AGGREGATE_COLUMNS =
+            "COUNT(*) AS record_count, " +
+            "COALESCE(SUM(clock_in_time IS NOT NULL), 0) AS present_days, " +
+            "COALESCE(SUM(is_late = TRUE), 0) AS late_days, " +
+            "COALESCE(SUM(is_wfh = TRUE), 0) AS wfh_days, " +
+            "COALESCE(SUM(is_overtime = TRUE), 0) AS overtime_days, " +
+            "COALESCE(SUM(is_early_leave = TRUE), 0) AS early_leave_days, " +
+            "COALESCE(SUM(late_duration_minutes), 0) AS late_minutes, " +
+            "COALESCE(SUM(early_leave_duration_minutes), 0) AS early_leave_minutes, " +
+            "COALESCE(SUM(overtime_duration_minutes), 0) AS overtime_minutes, " +
+            "COALESCE(SUM(underwork_minutes), 0) AS underwork_minutes, " +
+            "COALESCE(SUM(actual_work_minutes), 0) AS actual_work_minutes, " +
+            "COALESCE(SUM(late_deduction_amount), 0) AS late_deduction_total, " +
+            "COALESCE(SUM(early_leave_deduction_amount), 0) AS early_leave_deduction_total, " +
+            "COALESCE(SUM(underwork_deduction_amount), 0) AS underwork_deduction_total";
+
+    private static final String SUMMARY_COLUMNS =
+            "record_count, present_days, late_days, wfh_days, overtime_days, early_leave_days, " +
+            "late_minutes, early_leave_minutes, overtime_minutes, underwork_minutes, actual_work_minutes, " +
+            "late_deduction_total, early_leave_deduction_total, underwork_deduction_total";
+
+    // Aggregate without GROUP BY always yields one row, so a month whose records were all removed resets to zero
+    private static final String REFRESH_SQL =
+            "INSERT INTO attendance_monthly_summaries (employee_id, period_year, period_month, " + SUMMARY_COLUMNS +
+            ", created_at, updated_at) " +
+            "SELECT ?, ?, ?, " + AGGREGATE_COLUMNS + ", NOW(), NOW() FROM attendance_records " +
+            "WHERE employee_id = ? AND attendance_date BETWEEN ? AND ? AND deleted_at IS NULL " +
+            "ON DUPLICATE KEY UPDATE record_count = VALUES(record_count), present_days = VALUES(present_days), " +
+            "late_days = VALUES(late_days), wfh_days = VALUES(wfh_days), overtime_days = VALUES(overtime_days), " +
+            "early_leave_days = VALUES(early_leave_days), late_minutes = VALUES(late_minutes), " +
+            "early_leave_minutes = VALUES(early_leave_minutes), overtime_minutes = VALUES(overtime_minutes), " +
+            "underwork_minutes = VALUES(underwork_minutes), actual_work_minutes = VALUES(actual_work_minutes), " +
+            "late_deduction_total = VALUES(late_deduction_total), " +
+            "early_leave_deduction_total = VALUES(early_leave_deduction_total), " +
+            "underwork_deduction_total = VALUES(underwork_deduction_total), updated_at = NOW()";
+
+    private static final String ACTUAL_BY_EMPLOYEE_SQL =
+            "SELECT employee_id, " + AGGREGATE_COLUMNS + " FROM attendance_records " +
+            "WHERE attendance_date BETWEEN ? AND ? AND deleted_at IS NULL GROUP BY employee_id";
+
+    private static final String STORED_BY_EMPLOYEE_SQL =
+            "SELECT employee_id, " + SUMMARY_COLUMNS + " FROM attendance_monthly_summaries " +
+            "WHERE period_year = ? AND period_month = ?";
+
+    private static final RowMapper<Totals> TOTALS_MAPPER = (rs, i) -> new Totals(
+            rs.getInt("record_count"), rs.getInt("present_days"), rs.getInt("late_days"), rs.getInt("wfh_days"),
+            rs.getInt("overtime_days"), rs.getInt("early_leave_days"), rs.getInt("late_minutes"),
+            rs.getInt("early_leave_minutes"), rs.getInt("overtime_minutes"), rs.getInt("underwork_minutes"),
+            rs.getInt("actual_work_minutes"), money(rs.getBigDecimal("late_deduction_total")),
+            money(rs.getBigDecimal("early_leave_deduction_total")), money(rs.getBigDecimal("underwork_deduction_total")));
+
+    private final AttendanceMonthlySummaryRepository attendanceMonthlySummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate refreshTemplate;
+
+    public AttendanceSummaryService(AttendanceMonthlySummaryRepository attendanceMonthlySummaryRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.attendanceMonthlySummaryRepository = attendanceMonthlySummaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Refresh runs after the writing transaction committed, so it needs its own
+        this.refreshTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // =====================================================
+    // INCREMENTAL MAINTENANCE
+    // =====================================================
+
+    /**
+     * Record that an employee's attendance on a date changed
+     */
+    public void recordChange(Long employeeId, LocalDate attendanceDate) {
+        recordChanges(List.of(new PeriodKey(employeeId, YearMonth.from(attendanceDate))));
+    }
+
+    /**
+     * Record changed (employee, month) pairs; refreshed once after the current transaction commits
+     * (immediately when called outside a transaction)
+     */
+    public void recordChanges(Collection<PeriodKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(keys);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<PeriodKey> pending = (Set<PeriodKey>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<PeriodKey> created = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        refresh(created);
+                    } catch (RuntimeException e) {
+                        // Nightly verifier repairs it
+                        log.warn("Failed to refresh {} attendance summaries: {}", created.size(), e.getMessage());
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AttendanceSummaryService.this);
+                }
+            });
+            pending = created;
+        }
+        pending.addAll(keys);
+    }
+
+    /**
+     * Recompute summary rows for (employee, month) pairs with one batched upsert
+     */
+    public void refresh(Collection<PeriodKey> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<Object[]> params = new ArrayList<>(keys.size());
+        for (PeriodKey key : keys) {
+            YearMonth month = key.month();
+            params.add(new Object[]{
+                    key.employeeId(), month.getYear(), month.getMonthValue(),
+                    key.employeeId(), Date.valueOf(month.atDay(1)), Date.valueOf(month.atEndOfMonth())
+            });
+        }
+        refreshTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(REFRESH_SQL, params));
+        log.debug("Refreshed {} attendance summaries", keys.size());
+    }
+
+    // =====================================================
+    // VERIFICATION
+    // =====================================================
+
+    /**
+     * Nightly drift check for the previous and current month
+     */
+    @Scheduled(cron = "${app.attendance.summary.verify-cron:0 30 1 * * *}")
+    public void verifyRecentMonths() {
+        YearMonth current = YearMonth.now();
+        verify(current.minusMonths(1));
+        verify(current);
+    }
+
+    /**
+     * Compare stored summaries of a month with the attendance records and repair differences
+     *
+     * @return Number of repaired summary rows
+     */
+    public int verify(YearMonth month) {
+        long started = System.currentTimeMillis();
+
+        Map<Long, Totals> actual = new HashMap<>();
+        jdbcTemplate.query(ACTUAL_BY_EMPLOYEE_SQL, rs -> {
+            actual.put(rs.getLong("employee_id"), TOTALS_MAPPER.mapRow(rs, 0));
+        }, Date.valueOf(month.atDay(1)), Date.valueOf(month.atEndOfMonth()));
+
+        Map<Long, Totals> stored = new HashMap<>();
+        jdbcTemplate.query(STORED_BY_EMPLOYEE_SQL, rs -> {
+            stored.put(rs.getLong("employee_id"), TOTALS_MAPPER.mapRow(rs, 0));
+        }, month.getYear(), month.getMonthValue());
+
+        Set<Long> employeeIds = new HashSet<>(actual.keySet());
+        employeeIds.addAll(stored.keySet());
+        List<PeriodKey> drifted = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            if (!actual.getOrDefault(employeeId, Totals.EMPTY).equals(stored.getOrDefault(employeeId, Totals.EMPTY))) {
+                drifted.add(new PeriodKey(employeeId, month));
+            }
+        }
+
+        refresh(drifted);
+        if (drifted.isEmpty()) {
+            log.info("Attendance summaries for {} verified: {} employees, no drift ({} ms)",
+                    month, employeeIds.size(), System.currentTimeMillis() - started);
+        } else {
+            log.warn("Attendance summaries for {} verified: repaired {} of {} employees ({} ms)",
+                    month, drifted.size(), employeeIds.size(), System.currentTimeMillis() - started);
+        }
+        return drifted.size();
+    }
+
+    // =====================================================
+    // QUERY METHODS
+    // =====================================================
+
+    /**
+     * Get summary of employee for a month (zero summary if there is no attendance)
+     */
+    public AttendanceMonthlySummary getMonthlySummary(Long employeeId, YearMonth month) {
+        return attendanceMonthlySummaryRepository
+                .findByEmployeeIdAndPeriodYearAndPeriodMonth(employeeId, month.getYear(), month.getMonthValue())
+                .orElseGet(() -> {
+                    AttendanceMonthlySummary empty = new AttendanceMonthlySummary();
+                    empty.setEmployeeId(employeeId);
+                    empty.setPeriodYear(month.getYear());
+                    empty.setPeriodMonth(month.getMonthValue());
+                    return empty;
+                });
+    }
+
+    /**
+     * Get summaries of all employees for a month (payroll, company report)
+     */
+    public List<AttendanceMonthlySummary> getMonthlySummaries(YearMonth month) {
+        return attendanceMonthlySummaryRepository
+                .findByPeriodYearAndPeriodMonthOrderByEmployeeIdAsc(month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Get summaries of employee for the months covering a date range
+     */
+    public List<AttendanceMonthlySummary> getMonthlySummaries(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return attendanceMonthlySummaryRepository.findByEmployeeIdAndPeriodRange(employeeId,
+                periodIndex(YearMonth.from(startDate)), periodIndex(YearMonth.from(endDate)));
+    }
+
+    private static int periodIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue();
+    }
+
+    private static BigDecimal money(BigDecimal value) {
+        return (value != null ? value : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Employee + month whose summary must be refreshed
+     */
+    public record PeriodKey(Long employeeId, YearMonth month) {
+    }
+
+    /**
+     * Summary figures (comparison between stored and actual aggregates)
+     */
+    private record Totals(int recordCount, int presentDays, int lateDays, int wfhDays, int overtimeDays,
+                          int earlyLeaveDays, int lateMinutes, int earlyLeaveMinutes, int overtimeMinutes,
+                          int underworkMinutes, int actualWorkMinutes, BigDecimal lateDeductionTotal,
+                          BigDecimal earlyLeaveDeductionTotal, BigDecimal underworkDeductionTotal) {
+
+        static final Totals EMPTY = new Totals(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                money(null), money(null), money(null));
+    }
+}
@@ -0,0 +1,582 @@
+package com.hris.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hris.dto.OfflinePunchRequest;
+import com.hris.model.AttendanceRecord;
+import com.hris.model.enums.AttendanceStatus;
+import com.hris.model.enums.EmployeeStatus;
+import com.hris.repository.AttendanceRecordRepository;
+import com.hris.repository.EmployeeRepository;
+import com.hris.repository.WfhRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Attendance Sync Service
+ * Rekonsiliasi punch offline (kiosk / device lapangan) secara bulk
+ *
+ * Alur:
+ * 1. Parse NDJSON per baris (baris invalid langsung REJECTED)
+ * 2. Load shift, holiday, WFH, record existing dan geofence sekali untuk seluruh upload
+ * 3. Group per employee per tanggal attendance (clock-out shift malam ikut hari sebelumnya),
+ *    urutkan waktu, pasangkan IN dengan OUT
+ * 4. Validasi + hitung late/early leave/overtime/underwork di memory
+ * 5. Simpan dengan JDBC batch per chunk (satu transaksi per chunk)
+ *
+ * Upload diproses per window WINDOW_SIZE punch: hasil window dikirim ke ResultSink setelah window
+ * tersebut ditulis, sehingga memori hanya menampung satu window berapa pun ukuran upload
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceSyncService {
+
+    // Punches parsed, reconciled and answered together: the memory bound of one upload
+    static final int WINDOW_SIZE = 5_000;
+    static final int WRITE_CHUNK_SIZE = 500;
+    // An offline punch is well under 1 KB; longer lines are rejected without being buffered
+    static final int MAX_LINE_LENGTH = 4_096;
+
+    private final ObjectMapper objectMapper;
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final HolidayService holidayService;
+    private final GeofenceService geofenceService;
+    private final AttendanceCalculator attendanceCalculator;
+    private final AttendanceIngestionService attendanceIngestionService;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
+    private final EmployeeRepository employeeRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final WfhRequestRepository wfhRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Reconcile an NDJSON upload of offline punches, one window of WINDOW_SIZE punches at a time
+     * Results of a window go to the sink once the window is written
+     *
+     * @param input              NDJSON stream, one OfflinePunchRequest per line
+     * @param allowedEmployeeId  If not null, punches of other employees are rejected
+     * @param sink               Receives one result per non-blank input line, in input order
+     */
+    public void sync(InputStream input, Long allowedEmployeeId, ResultSink sink) throws IOException {
+        long started = System.nanoTime();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        StringBuilder line = new StringBuilder();
+        List<Entry> window = new ArrayList<>(WINDOW_SIZE);
+        int lineNumber = 0;
+        long total = 0;
+
+        while (true) {
+            // 1. Parse
+            window.clear();
+            while (window.size() < WINDOW_SIZE && readLine(reader, line)) {
+                lineNumber++;
+                Entry entry = parse(lineNumber, line, allowedEmployeeId);
+                if (entry != null) {
+                    window.add(entry);
+                }
+            }
+            if (window.isEmpty()) {
+                break;
+            }
+
+            reconcile(window);
+
+            List<PunchResult> results = new ArrayList<>(window.size());
+            for (Entry entry : window) {
+                results.add(entry.result);
+            }
+            sink.accept(results);
+            total += window.size();
+        }
+
+        log.info("Synced {} offline punches in {} ms", total, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Reconcile and write one window
+     * Punches of one employee split across windows meet through the records the earlier window wrote
+     */
+    private void reconcile(List<Entry> entries) {
+        // 2. Bulk load reference data (from the day before: overnight shifts)
+        Set<Long> employeeIds = new HashSet<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        for (Entry entry : entries) {
+            if (entry.result != null) {
+                continue;
+            }
+            LocalDate date = entry.punch.getTimestamp().toLocalDate();
+            employeeIds.add(entry.punch.getEmployeeId());
+            minDate = minDate == null || date.isBefore(minDate) ? date : minDate;
+            maxDate = maxDate == null || date.isAfter(maxDate) ? date : maxDate;
+        }
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        ReferenceData ref = loadReferenceData(employeeIds, minDate.minusDays(1), maxDate);
+
+        // 3. Group per employee per attendance date
+        Set<String> possibleClockIns = new HashSet<>();
+        for (Entry entry : entries) {
+            if (entry.result == null && entry.direction != AttendanceIngestionService.Direction.OUT) {
+                possibleClockIns.add(key(entry.punch.getEmployeeId(), entry.punch.getTimestamp().toLocalDate()));
+            }
+        }
+        Map<Long, Map<LocalDate, List<Entry>>> grouped = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.result != null) {
+                continue;
+            }
+            grouped.computeIfAbsent(entry.punch.getEmployeeId(), k -> new TreeMap<>())
+                    .computeIfAbsent(attendanceDate(entry, ref, possibleClockIns), k -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        // 4. Pair, validate, compute; 5. write in chunks
+        List<AttendanceIngestionService.Punch> chunk = new ArrayList<>();
+        List<Entry> chunkEntries = new ArrayList<>();
+        for (Map.Entry<Long, Map<LocalDate, List<Entry>>> byEmployee : grouped.entrySet()) {
+            for (Map.Entry<LocalDate, List<Entry>> byDate : byEmployee.getValue().entrySet()) {
+                List<Entry> day = byDate.getValue();
+                day.sort(Comparator.comparing(e -> e.punch.getTimestamp()));
+                reconcileDay(byEmployee.getKey(), byDate.getKey(), day, ref, chunk, chunkEntries);
+            }
+            if (chunk.size() >= WRITE_CHUNK_SIZE) {
+                flush(chunk, chunkEntries);
+            }
+        }
+        flush(chunk, chunkEntries);
+    }
+
+    // =====================================================
+    // PARSE
+    // =====================================================
+
+    /**
+     * Parse one input line; null for a blank line
+     */
+    private Entry parse(int lineNumber, StringBuilder line, Long allowedEmployeeId) {
+        Entry entry = new Entry(lineNumber);
+        if (line.length() > MAX_LINE_LENGTH) {
+            entry.reject("Baris melebihi " + MAX_LINE_LENGTH + " karakter");
+            return entry;
+        }
+        String text = line.toString();
+        if (text.isBlank()) {
+            return null;
+        }
+
+        try {
+            entry.punch = objectMapper.readValue(text, OfflinePunchRequest.class);
+        } catch (JsonProcessingException e) {
+            entry.reject("Format punch tidak valid: " + e.getOriginalMessage());
+            return entry;
+        }
+
+        OfflinePunchRequest p = entry.punch;
+        if (p.getEmployeeId() == null || p.getTimestamp() == null) {
+            entry.reject("employeeId dan timestamp wajib diisi");
+        } else if (allowedEmployeeId != null && !allowedEmployeeId.equals(p.getEmployeeId())) {
+            entry.reject("Tidak diizinkan mengirim punch untuk employee lain");
+        } else if (p.getDirection() != null) {
+            try {
+                entry.direction = AttendanceIngestionService.Direction.valueOf(p.getDirection().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                entry.reject("Direction harus IN atau OUT");
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Read the next line into buffer without its line break; false at end of input
+     * At most MAX_LINE_LENGTH + 1 characters are kept, the rest of a longer line is skipped
+     */
+    private static boolean readLine(BufferedReader reader, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != -1 && c != '\n') {
+            if (buffer.length() <= MAX_LINE_LENGTH) {
+                buffer.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (buffer.length() > 0 && buffer.length() <= MAX_LINE_LENGTH
+                && buffer.charAt(buffer.length() - 1) == '\r') {
+            buffer.setLength(buffer.length() - 1);
+        }
+        return true;
+    }
+
+    // =====================================================
+    // RECONCILE
+    // =====================================================
+
+    private ReferenceData loadReferenceData(Set<Long> employeeIds, LocalDate minDate, LocalDate maxDate) {
+        Map<Long, Long> departments = new HashMap<>();
+        Set<Long> inactive = new HashSet<>();
+        for (Object[] row : employeeRepository.findDepartmentIdsAndStatusByEmployeeIds(employeeIds)) {
+            departments.put((Long) row[0], (Long) row[1]);
+            if (row[2] != EmployeeStatus.ACTIVE) {
+                inactive.add((Long) row[0]);
+            }
+        }
+
+        Set<String> approvedWfh = new HashSet<>();
+        for (Object[] row : wfhRequestRepository.findApprovedByEmployeeIdsAndDateRange(employeeIds, minDate, maxDate)) {
+            approvedWfh.add(key((Long) row[0], (LocalDate) row[1]));
+        }
+
+        Map<String, AttendanceRecord> existing = new HashMap<>();
+        for (AttendanceRecord record : attendanceRecordRepository
+                .findByEmployeeIdInAndAttendanceDateBetweenAndDeletedAtIsNull(employeeIds, minDate, maxDate)) {
+            existing.put(key(record.getEmployeeId(), record.getAttendanceDate()), record);
+        }
+
+        return new ReferenceData(
+                shiftResolutionEngine.getCatalog(),
+                shiftResolutionEngine.getTimelines(employeeIds),
+                holidayService.getHolidayMapBetween(minDate, maxDate),
+                departments,
+                inactive,
+                approvedWfh,
+                existing,
+                geofenceService.getIndex());
+    }
+
+    /**
+     * Attendance date of a punch: a non-IN punch follows the clock-out rule of AttendanceService
+     * (previous day's overnight shift with an open clock-in). The previous day is open if its record
+     * has no clock-out yet, or without a record if this upload or the write-behind queue has a clock-in
+     */
+    private LocalDate attendanceDate(Entry entry, ReferenceData ref, Set<String> possibleClockIns) {
+        LocalDateTime at = entry.punch.getTimestamp();
+        if (entry.direction == AttendanceIngestionService.Direction.IN) {
+            return at.toLocalDate();
+        }
+        Long employeeId = entry.punch.getEmployeeId();
+        LocalDate previousDay = at.toLocalDate().minusDays(1);
+        EmployeeShiftService.ShiftAssignmentResult previousShift = shiftResolutionEngine.resolve(
+                ref.catalog(), ref.timelines().get(employeeId), previousDay);
+        return attendanceCalculator.resolveClockOutDate(previousShift, at, () -> {
+            AttendanceRecord record = ref.existing().get(key(employeeId, previousDay));
+            if (record != null) {
+                return record.getClockInTime() != null && record.getClockOutTime() == null;
+            }
+            return possibleClockIns.contains(key(employeeId, previousDay))
+                    || attendanceIngestionService.findPendingClockIn(employeeId, previousDay) != null;
+        });
+    }
+
+    /**
+     * Pair and validate the punches of one employee on one date
+     */
+    private void reconcileDay(Long employeeId, LocalDate date, List<Entry> day, ReferenceData ref,
+                              List<AttendanceIngestionService.Punch> out, List<Entry> outEntries) {
+        if (!ref.departments().containsKey(employeeId)) {
+            day.forEach(e -> e.reject("Employee not found"));
+            return;
+        }
+
+        // Pair: first IN (or first punch without direction) / last OUT after it (or last punch)
+        Entry in = null;
+        Entry clockOut = null;
+        for (Entry e : day) {
+            if (in == null && e.direction != AttendanceIngestionService.Direction.OUT) {
+                in = e;
+            }
+        }
+        for (int i = day.size() - 1; i >= 0; i--) {
+            Entry e = day.get(i);
+            if (e == in) {
+                break;
+            }
+            if (e.direction != AttendanceIngestionService.Direction.IN) {
+                clockOut = e;
+                break;
+            }
+        }
+        if (in != null) {
+            in.direction = AttendanceIngestionService.Direction.IN;
+        }
+        if (clockOut != null) {
+            clockOut.direction = AttendanceIngestionService.Direction.OUT;
+        }
+        for (Entry e : day) {
+            if (e != in && e != clockOut) {
+                e.ignore("Punch tambahan di hari yang sama diabaikan");
+            }
+        }
+
+        AttendanceRecord existing = ref.existing().get(key(employeeId, date));
+        EmployeeShiftService.ShiftAssignmentResult shift = shiftResolutionEngine.resolve(
+                ref.catalog(), ref.timelines().get(employeeId), date);
+
+        // Clock-in
+        LocalDateTime clockInAt = null;
+        if (in != null) {
+            if (existing != null && existing.getClockInTime() != null) {
+                in.duplicate("Already clocked in today");
+                clockInAt = LocalDateTime.of(date, existing.getClockInTime());
+            } else {
+                String error = validateClockIn(employeeId, date, in.punch, shift, ref);
+                if (error != null) {
+                    in.reject(error);
+                } else {
+                    AttendanceIngestionService.Punch punch = toClockInPunch(employeeId, in.punch, shift,
+                            ref.approvedWfh().contains(key(employeeId, date)) && isWfhShift(shift));
+                    in.accept(punch.lateMinutes(), 0, 0, 0);
+                    out.add(punch);
+                    outEntries.add(in);
+                    clockInAt = in.punch.getTimestamp();
+                }
+            }
+        } else if (existing != null && existing.getClockInTime() != null) {
+            clockInAt = LocalDateTime.of(date, existing.getClockInTime());
+        }
+
+        // Clock-out
+        if (clockOut != null) {
+            if (existing != null && existing.getClockOutTime() != null) {
+                clockOut.duplicate("Already clocked out");
+            } else if (clockInAt == null) {
+                clockOut.reject("No clock-in record found");
+            } else {
+                AttendanceCalculator.ClockOutResult figures = attendanceCalculator.calculateClockOut(
+                        shift, date, clockInAt, clockOut.punch.getTimestamp());
+                clockOut.accept(0, figures.earlyLeaveMinutes(), figures.overtimeMinutes(), figures.underworkMinutes());
+                out.add(toClockOutPunch(employeeId, date, clockOut.punch, figures));
+                outEntries.add(clockOut);
+            }
+        }
+    }
+
+    /**
+     * Same rules as AttendanceService.clockIn, against preloaded data
+     */
+    private String validateClockIn(Long employeeId, LocalDate date, OfflinePunchRequest punch,
+                                   EmployeeShiftService.ShiftAssignmentResult shift, ReferenceData ref) {
+        if (ref.inactiveEmployees().contains(employeeId)) {
+            return "Employee is not active";
+        }
+        if (!shift.isWorkingDay()) {
+            return "Cannot clock-in on non-working day";
+        }
+        HolidayCalendar.HolidayEntry holiday = ref.holidays().get(date);
+        if (!DailyAttendanceContextService.isHolidayClockInAllowed(shift, holiday)) {
+            return "Cannot clock-in on holiday (no override)";
+        }
+        if (attendanceCalculator.isAfterShiftEnd(shift, date, punch.getTimestamp())) {
+            return String.format("Tidak dapat clock-in. Waktu (%s) sudah melewati jam shift keluar (%s).",
+                    punch.getTimestamp().toLocalTime(), shift.getEndTime());
+        }
+
+        if (isWfhShift(shift)) {
+            return ref.approvedWfh().contains(key(employeeId, date)) ? null
+                    : "Shift allows WFH but no approved WFH request found. Please submit WFH request first.";
+        }
+
+        GeofenceService.GeofenceIndex geofences = ref.geofences();
+        if (!geofences.companyPresent()) {
+            return "Company not found";
+        }
+        if (geofences.fences().length == 0) {
+            return null;
+        }
+        if (punch.getLatitude() == null || punch.getLongitude() == null) {
+            return "Lokasi (latitude/longitude) wajib diisi";
+        }
+        GeofenceService.GeofenceResult location = geofences.match(ref.departments().get(employeeId),
+                punch.getLatitude().doubleValue(), punch.getLongitude().doubleValue());
+        return location.inside() ? null : location.message();
+    }
+
+    private boolean isWfhShift(EmployeeShiftService.ShiftAssignmentResult shift) {
+        ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+        return pattern != null && pattern.isWfhAllowed();
+    }
+
+    private AttendanceIngestionService.Punch toClockInPunch(Long employeeId, OfflinePunchRequest p,
+                                                            EmployeeShiftService.ShiftAssignmentResult shift,
+                                                            boolean isWfh) {
+        AttendanceCalculator.LateResult late = attendanceCalculator.calculateLate(
+                shift, p.getTimestamp().toLocalDate(), p.getTimestamp());
+        return new AttendanceIngestionService.Punch(
+                AttendanceIngestionService.Direction.IN, employeeId, p.getTimestamp().toLocalDate(),
+                p.getTimestamp().toLocalTime(), p.getLatitude(), p.getLongitude(), deviceInfo(p), null,
+                shift.getWorkingHours() != null ? shift.getWorkingHours().id() : null,
+                shift.getShiftPattern() != null ? shift.getShiftPattern().id() : null,
+                late.lateMinutes() > 0, late.lateMinutes(), late.lateDeduction(),
+                shift.getWorkingHours() != null ? shift.getWorkingHours().netWorkDurationMinutes() : 0,
+                late.lateMinutes() > 0 ? AttendanceStatus.LATE : AttendanceStatus.PRESENT, isWfh,
+                0, 0, 0, 0, BigDecimal.ZERO);
+    }
+
+    private AttendanceIngestionService.Punch toClockOutPunch(Long employeeId, LocalDate attendanceDate,
+                                                             OfflinePunchRequest p,
+                                                             AttendanceCalculator.ClockOutResult figures) {
+        return new AttendanceIngestionService.Punch(
+                AttendanceIngestionService.Direction.OUT, employeeId, attendanceDate,
+                p.getTimestamp().toLocalTime(), p.getLatitude(), p.getLongitude(), deviceInfo(p), null,
+                null, null, false, 0, BigDecimal.ZERO, 0, null, false,
+                figures.earlyLeaveMinutes(), figures.overtimeMinutes(), figures.actualWorkMinutes(),
+                figures.underworkMinutes(), figures.underworkDeduction());
+    }
+
+    private String deviceInfo(OfflinePunchRequest p) {
+        if (p.getDeviceId() == null) {
+            return p.getDeviceInfo();
+        }
+        return p.getDeviceInfo() == null ? p.getDeviceId() : p.getDeviceId() + " - " + p.getDeviceInfo();
+    }
+
+    // =====================================================
+    // WRITE
+    // =====================================================
+
+    private void flush(List<AttendanceIngestionService.Punch> chunk, List<Entry> chunkEntries) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<AttendanceIngestionService.Punch> unapplied =
+                    transactionTemplate.execute(status -> attendanceIngestionService.write(chunk));
+            Set<AttendanceIngestionService.Punch> notWritten = Collections.newSetFromMap(new IdentityHashMap<>());
+            notWritten.addAll(unapplied);
+
+            // chunk and chunkEntries are parallel: a punch that changed no record was written concurrently
+            for (int i = 0; i < chunk.size(); i++) {
+                AttendanceIngestionService.Punch punch = chunk.get(i);
+                Entry entry = chunkEntries.get(i);
+                if (notWritten.contains(punch)) {
+                    if (punch.direction() == AttendanceIngestionService.Direction.IN) {
+                        entry.duplicate("Already clocked in today");
+                    } else {
+                        entry.ignore("No open clock-in record to close");
+                    }
+                } else if (punch.direction() == AttendanceIngestionService.Direction.IN) {
+                    dailyAttendanceContextService.markClockedIn(punch.employeeId(), punch.attendanceDate());
+                }
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to write offline punch chunk of {}: {}", chunk.size(), e.getMessage());
+            for (Entry entry : chunkEntries) {
+                entry.result = entry.result.withFailure("Gagal menyimpan: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        chunk.clear();
+        chunkEntries.clear();
+    }
+
+    private static String key(Long employeeId, LocalDate date) {
+        return employeeId + ":" + date;
+    }
+
+    // =====================================================
+    // STRUCTURES
+    // =====================================================
+
+    /**
+     * Receives the results of each window as soon as it is written
+     */
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(List<PunchResult> results) throws IOException;
+    }
+
+    public enum SyncStatus {
+        ACCEPTED, DUPLICATE, IGNORED, REJECTED
+    }
+
+    /**
+     * Result for one input line
+     */
+    public record PunchResult(int line,
+                              Long employeeId,
+                              LocalDateTime timestamp,
+                              AttendanceIngestionService.Direction direction,
+                              SyncStatus status,
+                              String message,
+                              int lateMinutes,
+                              int earlyLeaveMinutes,
+                              int overtimeMinutes,
+                              int underworkMinutes) {
+
+        PunchResult withFailure(String failure) {
+            return new PunchResult(line, employeeId, timestamp, direction, SyncStatus.REJECTED, failure, 0, 0, 0, 0);
+        }
+    }
+
+    private record ReferenceData(ShiftResolutionEngine.CatalogSnapshot catalog,
+                                 Map<Long, ShiftResolutionEngine.EmployeeTimeline> timelines,
+                                 Map<LocalDate, HolidayCalendar.HolidayEntry> holidays,
+                                 Map<Long, Long> departments,
+                                 Set<Long> inactiveEmployees,
+                                 Set<String> approvedWfh,
+                                 Map<String, AttendanceRecord> existing,
+                                 GeofenceService.GeofenceIndex geofences) {
+    }
+
+    /**
+     * Parsed input line with its (eventual) result
+     */
+    private static final class Entry {
+        final int line;
+        OfflinePunchRequest punch;
+        AttendanceIngestionService.Direction direction;
+        PunchResult result;
+
+        Entry(int line) {
+            this.line = line;
+        }
+
+        void reject(String message) {
+            result = result(SyncStatus.REJECTED, message, 0, 0, 0, 0);
+        }
+
+        void ignore(String message) {
+            result = result(SyncStatus.IGNORED, message, 0, 0, 0, 0);
+        }
+
+        void duplicate(String message) {
+            result = result(SyncStatus.DUPLICATE, message, 0, 0, 0, 0);
+        }
+
+        void accept(int late, int earlyLeave, int overtime, int underwork) {
+            result = result(SyncStatus.ACCEPTED, null, late, earlyLeave, overtime, underwork);
+        }
+
+        private PunchResult result(SyncStatus status, String message, int late, int earlyLeave, int overtime, int underwork) {
+            return new PunchResult(line,
+                    punch != null ? punch.getEmployeeId() : null,
+                    punch != null ? punch.getTimestamp() : null,
+                    direction, status, message, late, earlyLeave, overtime, underwork);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.hris.service;
+
+import com.hris.dto.BulkApprovalRequest;
+import com.hris.dto.BulkApprovalResult;
+import com.hris.model.Employee;
+import com.hris.model.LeaveRequest;
+import com.hris.model.OvertimeRequest;
+import com.hris.model.WfhRequest;
+import com.hris.model.enums.ApprovalAction;
+import com.hris.repository.LeaveRequestRepository;
+import com.hris.repository.OvertimeRequestRepository;
+import com.hris.repository.WfhRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk Approval Service
+ * Approve/reject banyak pengajuan cuti, WFH atau lembur sekaligus (antrian akhir bulan)
+ *
+ * - Pengajuan + requester dimuat (dan di-lock) dengan satu query; approver dimuat sekali
+ * - Supervisor (rantai approval) dibaca dari SupervisorIndex, tanpa walk hierarchy per pengajuan
+ * - Level mengikuti status tiap pengajuan (PENDING_SUPERVISOR / PENDING_HR), sama seperti endpoint satuan
+ * - Potongan saldo cuti saat approval HR dijalankan dalam satu batch
+ * - Partial failure: pengajuan yang gagal validasi atau saldonya kurang tidak diubah dan
+ *   dilaporkan per item (seperti BulkAssignShiftResult); sisanya tetap diproses
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkApprovalService {
+
+    private final LeaveRequestRepository leaveRequestRepository;
+    private final WfhRequestRepository wfhRequestRepository;
+    private final OvertimeRequestRepository overtimeRequestRepository;
+    private final ApprovalService approvalService;
+    private final EmployeeService employeeService;
+    private final LeaveBalanceService leaveBalanceService;
+    private final LeaveIntervalIndex leaveIntervalIndex;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
+
+    /**
+     * Approve or reject requests in bulk
+     *
+     * @param approverId Employee acting as supervisor or HR
+     */
+    @Transactional
+    public BulkApprovalResult process(BulkApprovalRequest request, Long approverId) {
+        if (request.getRequestType() == null || request.getAction() == null) {
+            throw new IllegalArgumentException("Request type and action are required");
+        }
+        if (request.getRequestIds() == null || request.getRequestIds().isEmpty()) {
+            throw new IllegalArgumentException("No requests selected");
+        }
+
+        Employee approver = employeeService.getEmployeeById(approverId);
+        if (approver == null) {
+            throw new IllegalArgumentException("Approver not found");
+        }
+
+        BulkApprovalResult result = BulkApprovalResult.builder()
+                .requestType(request.getRequestType())
+                .action(request.getAction())
+                .build();
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Long id : request.getRequestIds()) {
+            if (id != null && !ids.add(id)) {
+                result.getSkippedList().add(BulkApprovalResult.SkippedItem.builder()
+                        .requestId(id)
+                        .skipReason("DUPLICATE_ID")
+                        .build());
+            }
+        }
+
+        switch (request.getRequestType()) {
+            case LEAVE -> processLeave(ids, request, approver, result);
+            case WFH -> processWfh(ids, request, approver, result);
+            case OVERTIME -> processOvertime(ids, request, approver, result);
+        }
+
+        log.info("Bulk {} {} by {}: {} success, {} failed, {} skipped",
+                request.getAction(), request.getRequestType(), approverId,
+                result.getSuccessCount(), result.getFailureCount(), result.getSkippedCount());
+        return result;
+    }
+
+    // =====================================================
+    // PER TYPE
+    // =====================================================
+
+    private void processLeave(Set<Long> ids, BulkApprovalRequest request, Employee approver,
+                              BulkApprovalResult result) {
+        Handler<LeaveRequest> handler = new Handler<>(LeaveRequest::getId, LeaveRequest::getEmployee,
+                r -> r.getStatus().name(),
+                LeaveRequest::approveBySupervisor, LeaveRequest::rejectBySupervisor,
+                LeaveRequest::approveByHr, LeaveRequest::rejectByHr);
+
+        List<LeaveRequest> accepted = validate(ids, leaveRequestRepository.lockAllWithEmployeeByIdIn(ids),
+                handler, request.getAction(), approver, result);
+
+        // Final approval deducts balance: recalculate working days and deduct in one batch
+        Map<Long, Double> deducted = new HashMap<>();
+        if (request.getAction() == ApprovalAction.APPROVE) {
+            List<LeaveBalanceService.Deduction> deductions = new ArrayList<>();
+            for (LeaveRequest leave : accepted) {
+                if (!leave.isPendingHr()) {
+                    continue;
+                }
+                Long employeeId = leave.getEmployee().getId();
+                double days = leaveBalanceService.calculateLeaveDays(employeeId, leave.getStartDate(), leave.getEndDate());
+                leave.setWorkingDays(days);
+                if (leaveBalanceService.requiresBalanceDeduction(leave.getLeaveType())) {
+                    deductions.add(new LeaveBalanceService.Deduction(
+                            leave.getId(), employeeId, leave.getStartDate().getYear(), days));
+                    deducted.put(leave.getId(), days);
+                }
+            }
+
+            Set<Long> refused = leaveBalanceService.deductBalances(deductions);
+            accepted.removeIf(leave -> {
+                if (!refused.contains(leave.getId())) {
+                    return false;
+                }
+                result.getFailureList().add(failure(leave.getId(), leave.getEmployee(), "INSUFFICIENT_BALANCE",
+                        String.format("Insufficient leave balance for %.1f days", deducted.remove(leave.getId()))));
+                return true;
+            });
+        }
+
+        apply(accepted, handler, request, approver, result, deducted);
+        leaveRequestRepository.saveAll(accepted);
+        accepted.forEach(leaveIntervalIndex::track);
+    }
+
+    private void processWfh(Set<Long> ids, BulkApprovalRequest request, Employee approver,
+                            BulkApprovalResult result) {
+        Handler<WfhRequest> handler = new Handler<>(WfhRequest::getId, WfhRequest::getEmployee,
+                r -> r.getStatus().name(),
+                WfhRequest::approveBySupervisor, WfhRequest::rejectBySupervisor,
+                WfhRequest::approveByHr, WfhRequest::rejectByHr);
+
+        List<WfhRequest> accepted = validate(ids, wfhRequestRepository.lockAllWithEmployeeByIdIn(ids),
+                handler, request.getAction(), approver, result);
+        apply(accepted, handler, request, approver, result, Map.of());
+        wfhRequestRepository.saveAll(accepted);
+        accepted.forEach(wfh -> dailyAttendanceContextService.refreshWfh(wfh.getEmployeeId(), wfh.getRequestDate()));
+    }
+
+    private void processOvertime(Set<Long> ids, BulkApprovalRequest request, Employee approver,
+                                 BulkApprovalResult result) {
+        Handler<OvertimeRequest> handler = new Handler<>(OvertimeRequest::getId, OvertimeRequest::getEmployee,
+                r -> r.getStatus().name(),
+                OvertimeRequest::approveBySupervisor, OvertimeRequest::rejectBySupervisor,
+                OvertimeRequest::approveByHr, OvertimeRequest::rejectByHr);
+
+        List<OvertimeRequest> accepted = validate(ids, overtimeRequestRepository.lockAllWithEmployeeByIdIn(ids),
+                handler, request.getAction(), approver, result);
+        apply(accepted, handler, request, approver, result, Map.of());
+        overtimeRequestRepository.saveAll(accepted);
+    }
+
+    // =====================================================
+    // SHARED STEPS
+    // =====================================================
+
+    /**
+     * Check existence, status and approver authority; returns requests that may be decided
+     * Supervisor lookup is an in-memory SupervisorIndex read, not a hierarchy walk
+     */
+    private <T> List<T> validate(Set<Long> ids, List<T> loaded, Handler<T> handler, ApprovalAction action,
+                                 Employee approver, BulkApprovalResult result) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : loaded) {
+            byId.put(handler.id().apply(item), item);
+        }
+
+        List<T> accepted = new ArrayList<>();
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item == null) {
+                result.getFailureList().add(failure(id, null, "NOT_FOUND", "Request not found"));
+                continue;
+            }
+
+            Employee requester = handler.requester().apply(item);
+            String status = handler.status().apply(item);
+            if (!"PENDING_SUPERVISOR".equals(status) && !"PENDING_HR".equals(status)) {
+                result.getFailureList().add(failure(id, requester, "INVALID_STATUS",
+                        "Request is no longer pending (" + status + ")"));
+                continue;
+            }
+
+            if (!approvalService.canApprove(requester, status, approver)) {
+                result.getFailureList().add(failure(id, requester, "NOT_AUTHORIZED",
+                        "You are not authorized to " + action.name().toLowerCase() + " this request"));
+                continue;
+            }
+            accepted.add(item);
+        }
+        return accepted;
+    }
+
+    /**
+     * Apply decision at the level of each request's current status
+     */
+    private <T> void apply(List<T> accepted, Handler<T> handler, BulkApprovalRequest request, Employee approver,
+                           BulkApprovalResult result, Map<Long, Double> deducted) {
+        boolean approve = request.getAction() == ApprovalAction.APPROVE;
+        for (T item : accepted) {
+            String previous = handler.status().apply(item);
+            boolean supervisorLevel = "PENDING_SUPERVISOR".equals(previous);
+            Decision<T> decision = supervisorLevel
+                    ? (approve ? handler.approveBySupervisor() : handler.rejectBySupervisor())
+                    : (approve ? handler.approveByHr() : handler.rejectByHr());
+            decision.apply(item, approver, request.getNote());
+
+            Employee requester = handler.requester().apply(item);
+            Long id = handler.id().apply(item);
+            result.getSuccessList().add(BulkApprovalResult.SuccessItem.builder()
+                    .requestId(id)
+                    .employeeId(requester.getId())
+                    .employeeName(requester.getFullName())
+                    .previousStatus(previous)
+                    .newStatus(handler.status().apply(item))
+                    .deductedDays(deducted.get(id))
+                    .build());
+        }
+    }
+
+    private BulkApprovalResult.FailureItem failure(Long requestId, Employee requester, String errorType,
+                                                   String errorMessage) {
+        return BulkApprovalResult.FailureItem.builder()
+                .requestId(requestId)
+                .employeeId(requester != null ? requester.getId() : null)
+                .employeeName(requester != null ? requester.getFullName() : null)
+                .errorType(errorType)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    /**
+     * Approve/reject method of a request entity, e.g. LeaveRequest::approveByHr
+     */
+    @FunctionalInterface
+    private interface Decision<T> {
+        void apply(T request, Employee approver, String note);
+    }
+
+    /**
+     * Accessors and decisions of one request type (leave, WFH and overtime share the workflow, not a supertype)
+     */
+    private record Handler<T>(Function<T, Long> id,
+                              Function<T, Employee> requester,
+                              Function<T, String> status,
+                              Decision<T> approveBySupervisor,
+                              Decision<T> rejectBySupervisor,
+                              Decision<T> approveByHr,
+                              Decision<T> rejectByHr) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.hris.service;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache Version
+ * Versi invalidasi untuk cache in-memory yang dimuat lazy dari database
+ *
+ * - Loader membaca versi sebelum query, lalu publish hasilnya hanya jika versi belum berubah;
+ *   setelah publish versi dibaca ulang dan hasil ditarik kembali (compareAndSet / remove(key, value))
+ *   jika invalidasi masuk di antara cek dan publish
+ * - Invalidasi menaikkan versi dulu baru mengosongkan cache, sehingga load yang sedang berjalan
+ *   tidak pernah meninggalkan data lama di cache
+ * - Satu pola publish untuk ShiftResolutionEngine (catalog, timeline), HolidayCalendar,
+ *   LeaveIntervalIndex dan SupervisorIndex
+ */
+final class CacheVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Current version; read before loading and pass to publish
+     */
+    long current() {
+        return version.get();
+    }
+
+    /**
+     * Discard loads started before now (caller updates the cached value itself)
+     */
+    void bump() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Bump and clear single-value cache
+     */
+    <T> void evict(AtomicReference<T> cache) {
+        bump();
+        cache.set(null);
+    }
+
+    /**
+     * Bump and remove one entry of keyed cache
+     */
+    <K, V> void evict(Map<K, V> cache, K key) {
+        bump();
+        cache.remove(key);
+    }
+
+    /**
+     * Publish loaded value unless the cache was invalidated since loadVersion
+     */
+    <T> void publish(AtomicReference<T> cache, long loadVersion, T loaded) {
+        if (version.get() == loadVersion && cache.compareAndSet(null, loaded) && version.get() != loadVersion) {
+            cache.compareAndSet(loaded, null);
+        }
+    }
+
+    /**
+     * Publish loaded entry unless the cache was invalidated since loadVersion
+     */
+    <K, V> void publish(Map<K, V> cache, K key, long loadVersion, V loaded) {
+        if (version.get() == loadVersion && cache.putIfAbsent(key, loaded) == null && version.get() != loadVersion) {
+            cache.remove(key, loaded);
+        }
+    }
+}
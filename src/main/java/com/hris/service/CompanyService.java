@@ -25,6 +25,7 @@ import java.util.UUID;
 public class CompanyService {
 
     private final CompanyRepository companyRepository;
+    private final GeofenceService geofenceService;
 
     private static final String LOGO_UPLOAD_DIR = "uploads/company/logo/";
     private static final String STAMP_UPLOAD_DIR = "uploads/company/stamp/";
@@ -80,6 +81,7 @@ public class CompanyService {
         }
 
         Company saved = companyRepository.save(company);
+        geofenceService.invalidate();
         log.info("Company saved successfully: {}", saved.getId());
         return saved;
     }
@@ -151,6 +153,7 @@ public class CompanyService {
         // Note: logo_path and stamp_path are updated separately via upload methods
 
         Company saved = companyRepository.save(existing);
+        geofenceService.invalidate();
         log.info("Company updated successfully: {}", saved.getId());
         return saved;
     }
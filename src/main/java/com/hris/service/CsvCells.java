@@ -0,0 +1,35 @@
+package com.hris.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * CSV Cells
+ * Penulisan cell CSV untuk export (attendance report, roster shift)
+ *
+ * - Teks diawali =, +, -, @ (atau tab / CR) diberi prefix ' agar aplikasi spreadsheet tidak
+ *   mengevaluasinya sebagai formula; angka biasa (mis. -15) ditulis apa adanya
+ * - Cell yang berisi koma, kutip atau baris baru dibungkus tanda kutip
+ */
+public final class CsvCells {
+
+    private static final Pattern NUMBER = Pattern.compile("[+-]?\\d+(\\.\\d+)?");
+
+    private CsvCells() {
+    }
+
+    /**
+     * Quoted and formula-neutralized cell value; null is written as an empty cell
+     */
+    public static String of(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0 && !NUMBER.matcher(value).matches()) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
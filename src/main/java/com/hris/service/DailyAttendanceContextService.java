@@ -0,0 +1,399 @@
+package com.hris.service;
+
+import com.hris.repository.AttendanceRecordRepository;
+import com.hris.repository.EmployeeRepository;
+import com.hris.repository.WfhRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Daily Attendance Context Service
+ * Context harian (hari ini) untuk clock-in yang di-precompute jam 00:00
+ *
+ * Per employee menyimpan: shift yang sudah di-resolve, apakah boleh clock-in di hari libur,
+ * flag WFH approved, department (untuk geofence), serta sudah clock-in atau belum.
+ * Dengan context ini clock-in cukup validasi di memory + satu insert.
+ *
+ * Refresh:
+ * - Shift berubah: terdeteksi otomatis dari versi ShiftResolutionEngine
+ * - WFH request berubah: refreshWfh() dari WfhRequestService
+ * - Holiday berubah: invalidate() dari HolidayService
+ * - Employee dihapus / non-aktif / pindah department: refreshEmployee() dari EmployeeService
+ * - Record clock-in hari ini dihapus/dikoreksi: clock-in berikutnya yang tertolak di memory dicek
+ *   ke database, dan slot yang basi dilepas (reserveStaleClockIn)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyAttendanceContextService {
+
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final EmployeeRepository employeeRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final WfhRequestRepository wfhRequestRepository;
+    private final HolidayCalendar holidayCalendar;
+
+    private final AtomicReference<DailyContext> current = new AtomicReference<>();
+    private final LatencyStats fastPathStats = new LatencyStats();
+    private final LatencyStats legacyPathStats = new LatencyStats();
+
+    // =====================================================
+    // BUILD
+    // =====================================================
+
+    /**
+     * Precompute context for the new day at midnight
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rebuildAtMidnight() {
+        rebuild(LocalDate.now());
+    }
+
+    /**
+     * Warm up context on startup so the first clock-in burst does not pay for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild(LocalDate.now());
+        } catch (Exception e) {
+            log.warn("Failed to warm up daily attendance context: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Build context for date from database (a handful of bulk queries)
+     */
+    public synchronized DailyContext rebuild(LocalDate date) {
+        long started = System.nanoTime();
+
+        Map<Long, Long> departmentIds = new HashMap<>();
+        for (Object[] row : employeeRepository.findActiveIdsWithDepartmentId()) {
+            departmentIds.put((Long) row[0], (Long) row[1]);
+        }
+
+        Set<Long> clockedIn = ConcurrentHashMap.newKeySet();
+        clockedIn.addAll(attendanceRecordRepository.findClockedInEmployeeIdsByDate(date));
+
+        Set<Long> approvedWfh = ConcurrentHashMap.newKeySet();
+        approvedWfh.addAll(wfhRequestRepository.findApprovedEmployeeIdsByDate(date));
+
+        HolidayCalendar.HolidayEntry holiday = holidayCalendar.getHoliday(date);
+
+        ShiftResolutionEngine.CatalogSnapshot snapshot = shiftResolutionEngine.getCatalog();
+        Map<Long, ShiftResolutionEngine.EmployeeTimeline> timelines = shiftResolutionEngine.getTimelines(departmentIds.keySet());
+
+        Map<Long, EmployeeDayContext> entries = new ConcurrentHashMap<>();
+        for (Map.Entry<Long, ShiftResolutionEngine.EmployeeTimeline> e : timelines.entrySet()) {
+            entries.put(e.getKey(), buildEntry(snapshot, e.getValue(), date, holiday, departmentIds.get(e.getKey())));
+        }
+
+        DailyContext context = new DailyContext(date, holiday, departmentIds, clockedIn, approvedWfh, entries);
+        current.set(context);
+
+        log.info("Built daily attendance context for {}: {} employees, {} clocked in, {} WFH in {} ms",
+                date, departmentIds.size(), clockedIn.size(), approvedWfh.size(),
+                (System.nanoTime() - started) / 1_000_000);
+        return context;
+    }
+
+    private EmployeeDayContext buildEntry(ShiftResolutionEngine.CatalogSnapshot snapshot,
+                                          ShiftResolutionEngine.EmployeeTimeline timeline,
+                                          LocalDate date, HolidayCalendar.HolidayEntry holiday, Long departmentId) {
+        EmployeeShiftService.ShiftAssignmentResult shift = shiftResolutionEngine.resolve(snapshot, timeline, date);
+        return new EmployeeDayContext(shift, isHolidayClockInAllowed(shift, holiday), departmentId,
+                snapshot.version(), timeline);
+    }
+
+    /**
+     * Check if clock-in is allowed considering holiday override settings
+     */
+    public static boolean isHolidayClockInAllowed(EmployeeShiftService.ShiftAssignmentResult shift, HolidayCalendar.HolidayEntry holiday) {
+        if (holiday == null) {
+            return true; // Not a holiday, allow clock-in
+        }
+
+        ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+        if (pattern == null) {
+            return false; // No pattern, default to holiday rule
+        }
+
+        // Check holiday override settings from ShiftPattern
+        if (holiday.isNationalHoliday() && pattern.overrideNationalHoliday()) {
+            return true;
+        }
+        if (holiday.isCompanyHoliday() && pattern.overrideCompanyHoliday()) {
+            return true;
+        }
+        if (holiday.isCollectiveLeave() && pattern.overrideJointLeave()) {
+            return true;
+        }
+
+        return false; // Holiday and no override, reject clock-in
+    }
+
+    // =====================================================
+    // LOOKUP
+    // =====================================================
+
+    /**
+     * Get context for date if it is today, building it on demand
+     * Returns null for any other date (caller should use the database path)
+     */
+    public DailyContext getContext(LocalDate date) {
+        DailyContext context = current.get();
+        if (context != null && context.date().equals(date)) {
+            return context;
+        }
+        if (!date.equals(LocalDate.now())) {
+            return null;
+        }
+        synchronized (this) {
+            context = current.get();
+            if (context != null && context.date().equals(date)) {
+                return context;
+            }
+            return rebuild(date);
+        }
+    }
+
+    /**
+     * Get employee context for date, or null when not available (unknown employee or other date)
+     * Re-resolves the shift if the shift snapshot or employee timeline changed since it was built
+     */
+    public EmployeeDayContext getEmployeeContext(Long employeeId, LocalDate date) {
+        DailyContext context = getContext(date);
+        if (context == null || !context.departmentIds().containsKey(employeeId)) {
+            return null;
+        }
+
+        ShiftResolutionEngine.CatalogSnapshot snapshot = shiftResolutionEngine.getCatalog();
+        ShiftResolutionEngine.EmployeeTimeline timeline = shiftResolutionEngine.getTimeline(employeeId);
+        EmployeeDayContext entry = context.entries().get(employeeId);
+        if (entry == null || entry.catalogVersion() != snapshot.version() || entry.timeline() != timeline) {
+            entry = buildEntry(snapshot, timeline, date, context.holiday(), context.departmentIds().get(employeeId));
+            context.entries().put(employeeId, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Reserve the clock-in slot for employee today
+     * Returns false if already clocked in. Released automatically if the transaction rolls back.
+     */
+    public boolean reserveClockIn(DailyContext context, Long employeeId) {
+        if (!context.clockedIn().add(employeeId)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        context.clockedIn().remove(employeeId);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Reserve the clock-in slot again after the caller found no clock-in for today in the database
+     * (record deleted or corrected since it was recorded here); the unique key on active records
+     * still rejects a concurrent clock-in whose transaction had not committed yet
+     */
+    public boolean reserveStaleClockIn(DailyContext context, Long employeeId) {
+        context.clockedIn().remove(employeeId);
+        log.debug("Daily attendance context: dropped stale clock-in of employee {}", employeeId);
+        return reserveClockIn(context, employeeId);
+    }
+
+    /**
+     * Record a clock-in made through the database path
+     */
+    public void markClockedIn(Long employeeId, LocalDate date) {
+        DailyContext context = current.get();
+        if (context != null && context.date().equals(date)) {
+            context.clockedIn().add(employeeId);
+        }
+    }
+
+    // =====================================================
+    // REFRESH
+    // =====================================================
+
+    /**
+     * Refresh WFH flag for employee after a WFH request changes (applied after commit)
+     */
+    public void refreshWfh(Long employeeId, LocalDate date) {
+        afterCommit(() -> {
+            DailyContext context = current.get();
+            if (context == null || !context.date().equals(date)) {
+                return;
+            }
+            if (wfhRequestRepository.hasApprovedWfhForDate(employeeId, date)) {
+                context.approvedWfh().add(employeeId);
+            } else {
+                context.approvedWfh().remove(employeeId);
+            }
+        });
+    }
+
+    /**
+     * Refresh employee membership and department after the employee changes (applied after commit)
+     * Deleted or non-active employees are dropped so they can no longer clock in through the context
+     */
+    public void refreshEmployee(Long employeeId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                DailyContext context = current.get();
+                if (context == null) {
+                    return;
+                }
+                List<Object[]> rows = employeeRepository.findActiveIdWithDepartmentId(employeeId);
+
+                // Maps are shared by in-flight clock-ins holding the old context, so publish modified copies
+                Map<Long, Long> departmentIds = new HashMap<>(context.departmentIds());
+                if (rows.isEmpty()) {
+                    departmentIds.remove(employeeId);
+                } else {
+                    departmentIds.put(employeeId, (Long) rows.get(0)[1]);
+                }
+                Map<Long, EmployeeDayContext> entries = new ConcurrentHashMap<>(context.entries());
+                entries.remove(employeeId);
+                current.set(new DailyContext(context.date(), context.holiday(), departmentIds,
+                        context.clockedIn(), context.approvedWfh(), entries));
+            }
+        });
+    }
+
+    /**
+     * Drop the whole context (holiday changed); rebuilt on next access
+     */
+    public void invalidate() {
+        current.set(null);
+        afterCommit(() -> current.set(null));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // =====================================================
+    // CLOCK-IN METRICS
+    // =====================================================
+
+    /**
+     * Record clock-in latency for fast (context) or legacy (database) path
+     */
+    public void recordClockInLatency(boolean fastPath, long elapsedNanos) {
+        (fastPath ? fastPathStats : legacyPathStats).record(elapsedNanos);
+    }
+
+    /**
+     * Get clock-in throughput and latency percentiles for both paths
+     */
+    public Map<String, LatencyStats.Summary> getClockInStats() {
+        return Map.of("fastPath", fastPathStats.summary(), "legacyPath", legacyPathStats.summary());
+    }
+
+    // =====================================================
+    // CONTEXT STRUCTURES
+    // =====================================================
+
+    /**
+     * Context for one day
+     */
+    public record DailyContext(LocalDate date,
+                               HolidayCalendar.HolidayEntry holiday,
+                               Map<Long, Long> departmentIds,
+                               Set<Long> clockedIn,
+                               Set<Long> approvedWfh,
+                               Map<Long, EmployeeDayContext> entries) {
+
+        public boolean hasApprovedWfh(Long employeeId) {
+            return approvedWfh.contains(employeeId);
+        }
+    }
+
+    /**
+     * Precomputed clock-in data for one employee on the context date
+     */
+    public record EmployeeDayContext(EmployeeShiftService.ShiftAssignmentResult shift,
+                                     boolean holidayClockInAllowed,
+                                     Long departmentId,
+                                     long catalogVersion,
+                                     ShiftResolutionEngine.EmployeeTimeline timeline) {
+    }
+
+    /**
+     * Rolling latency window (last WINDOW samples) with throughput since start
+     */
+    public static class LatencyStats {
+
+        private static final int WINDOW = 8192;
+
+        private final long[] samples = new long[WINDOW];
+        private final long startedAt = System.nanoTime();
+        private long count;
+
+        public synchronized void record(long elapsedNanos) {
+            samples[(int) (count % WINDOW)] = elapsedNanos;
+            count++;
+        }
+
+        public Summary summary() {
+            long[] copy;
+            long total;
+            synchronized (this) {
+                total = count;
+                copy = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+            }
+            Arrays.sort(copy);
+
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            return new Summary(
+                    total,
+                    seconds > 0 ? total / seconds : 0,
+                    percentileMillis(copy, 0.50),
+                    percentileMillis(copy, 0.99),
+                    copy.length > 0 ? copy[copy.length - 1] / 1_000_000.0 : 0);
+        }
+
+        private static double percentileMillis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        public record Summary(long count, double perSecond, double p50Millis, double p99Millis, double maxMillis) {
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final EmployeeRepository employeeRepository;
+    private final SupervisorIndex supervisorIndex;
 
     // =====================================================
     // CRUD OPERATIONS
@@ -107,6 +108,7 @@ public class DepartmentService {
         }
 
         Department saved = departmentRepository.save(department);
+        supervisorIndex.departmentChanged(saved.getId());
         log.info("Department created successfully with ID: {}", saved.getId());
         return saved;
     }
@@ -163,6 +165,7 @@ public class DepartmentService {
         }
 
         Department saved = departmentRepository.save(existing);
+        supervisorIndex.departmentChanged(saved.getId());
         log.info("Department updated successfully: {}", saved.getId());
         return saved;
     }
@@ -193,6 +196,7 @@ public class DepartmentService {
 
         department.setDeletedAt(java.time.LocalDateTime.now());
         departmentRepository.save(department);
+        supervisorIndex.departmentChanged(id);
 
         log.info("Department deleted successfully: {}", id);
     }
@@ -228,6 +232,43 @@ public class DepartmentService {
         return roots;
     }
 
+    /**
+     * Get IDs of a department and all of its descendants
+     * Walks the tree from getDepartmentTree
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getDepartmentAndDescendantIds(Long departmentId) {
+        List<Long> ids = new ArrayList<>();
+        for (Department root : getDepartmentTree()) {
+            Department node = findInTree(root, departmentId);
+            if (node != null) {
+                collectIds(node, ids);
+                break;
+            }
+        }
+        return ids;
+    }
+
+    private Department findInTree(Department node, Long departmentId) {
+        if (node.getId().equals(departmentId)) {
+            return node;
+        }
+        for (Department child : node.getChildren()) {
+            Department found = findInTree(child, departmentId);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private void collectIds(Department node, List<Long> ids) {
+        ids.add(node.getId());
+        for (Department child : node.getChildren()) {
+            collectIds(child, ids);
+        }
+    }
+
     /**
      * Get parent chain for a department
      * @Transactional ensures all parent relationships are loaded within the same session
@@ -277,6 +318,7 @@ public class DepartmentService {
 
         department.setHead(head);
         departmentRepository.save(department);
+        supervisorIndex.departmentChanged(departmentId);
 
         log.info("Department head set successfully");
     }
@@ -39,6 +39,8 @@ public class EmployeeService {
     private final EmployeeJobHistoryService jobHistoryService;
     private final SalaryHistoryService salaryHistoryService;
     private final ContractHistoryService contractHistoryService;
+    private final SupervisorIndex supervisorIndex;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
 
     private static final String UPLOAD_DIR = "uploads/photos/";
     private static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
@@ -146,6 +148,7 @@ public class EmployeeService {
         }
 
         Employee saved = employeeRepository.save(employee);
+        supervisorIndex.employeeChanged(saved.getId());
         log.info("Employee created successfully with ID: {}", saved.getId());
 
         // Record initial employment status in contract history
@@ -273,6 +276,7 @@ public class EmployeeService {
         }
 
         Employee saved = employeeRepository.save(existing);
+        supervisorIndex.employeeChanged(saved.getId());
         log.info("Employee updated successfully: {}", saved.getId());
 
         // Record history based on changes
@@ -283,6 +287,11 @@ public class EmployeeService {
         Long newDepartmentId = saved.getDepartment() != null ? saved.getDepartment().getId() : null;
         Long newPositionId = saved.getPosition() != null ? saved.getPosition().getId() : null;
 
+        // Clock-in context caches status and department (geofence)
+        if (oldStatus != saved.getStatus() || !java.util.Objects.equals(oldDepartmentId, newDepartmentId)) {
+            dailyAttendanceContextService.refreshEmployee(saved.getId());
+        }
+
         if (!java.util.Objects.equals(oldDepartmentId, newDepartmentId) ||
             !java.util.Objects.equals(oldPositionId, newPositionId)) {
 
@@ -382,6 +391,8 @@ public class EmployeeService {
 
         employee.setDeletedAt(LocalDateTime.now());
         employeeRepository.save(employee);
+        supervisorIndex.employeeChanged(id);
+        dailyAttendanceContextService.refreshEmployee(id);
 
         log.info("Employee deleted successfully: {}", id);
     }
@@ -20,7 +20,9 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Employee Shift Service
@@ -34,11 +36,13 @@ public class EmployeeShiftService {
     private final EmployeeShiftSettingRepository employeeShiftSettingRepository;
     private final EmployeeShiftScheduleRepository employeeShiftScheduleRepository;
     private final ShiftPatternService shiftPatternService;
-    private final ShiftPackageService shiftPackageService;
     private final WorkingHoursService workingHoursService;
     private final EmployeeService employeeService;
     private final DepartmentService departmentService;
-    private final CompanyService companyService;
+    private final WorkingDayCalculator workingDayCalculator;
+    private final HolidayService holidayService;
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final AttendanceRecomputeService attendanceRecomputeService;
 
     // =====================================================
     // SHIFT ASSIGNMENT
@@ -80,6 +84,10 @@ public class EmployeeShiftService {
                 .build();
 
         EmployeeShiftSetting saved = employeeShiftSettingRepository.save(setting);
+        shiftResolutionEngine.invalidateEmployee(employeeId);
+        // Retroactive: recompute attendance already recorded under the old shift
+        attendanceRecomputeService.scheduleRecompute(List.of(employeeId), effectiveFrom, LocalDate.now(),
+                "Assign shift pattern " + shiftPatternId, createdBy);
         log.info("Shift pattern assigned successfully: {}", saved.getId());
         return saved;
     }
@@ -88,19 +96,15 @@ public class EmployeeShiftService {
      * Get current active shift pattern for employee
      */
     @Transactional(readOnly = true)
-    public ShiftPattern getActiveShiftPattern(Long employeeId) {
+    public ShiftResolutionEngine.PatternEntry getActiveShiftPattern(Long employeeId) {
         return getActiveShiftPattern(employeeId, LocalDate.now());
     }
 
     /**
      * Get active shift pattern for employee on specific date
      */
-    @Transactional(readOnly = true)
-    public ShiftPattern getActiveShiftPattern(Long employeeId, LocalDate date) {
-        return employeeShiftSettingRepository.findActiveByEmployeeAndDate(employeeId, date)
-                .map(EmployeeShiftSetting::getShiftPatternId)
-                .map(shiftPatternService::getShiftPatternById)
-                .orElse(null);
+    public ShiftResolutionEngine.PatternEntry getActiveShiftPattern(Long employeeId, LocalDate date) {
+        return shiftResolutionEngine.getActiveShiftPattern(employeeId, date);
     }
 
     /**
@@ -154,7 +158,10 @@ public class EmployeeShiftService {
             existing.setOverrideIsOvertimeAllowed(overrideIsOvertimeAllowed);
             existing.setOverrideAttendanceMandatory(overrideAttendanceMandatory);
             existing.setNotes(notes);
-            return employeeShiftScheduleRepository.save(existing);
+            EmployeeShiftSchedule updated = employeeShiftScheduleRepository.save(existing);
+            shiftResolutionEngine.invalidateEmployee(employeeId);
+            recomputeOverrideDate(employeeId, scheduleDate, createdBy);
+            return updated;
         }
 
         // Create new
@@ -170,6 +177,8 @@ public class EmployeeShiftService {
                 .build();
 
         EmployeeShiftSchedule saved = employeeShiftScheduleRepository.save(schedule);
+        shiftResolutionEngine.invalidateEmployee(employeeId);
+        recomputeOverrideDate(employeeId, scheduleDate, createdBy);
         log.info("Override schedule created successfully: {}", saved.getId());
         return saved;
     }
@@ -188,10 +197,20 @@ public class EmployeeShiftService {
 
         schedule.softDelete(null);
         employeeShiftScheduleRepository.save(schedule);
+        shiftResolutionEngine.invalidateEmployee(schedule.getEmployeeId());
+        recomputeOverrideDate(schedule.getEmployeeId(), schedule.getScheduleDate(), null);
 
         log.info("Override schedule deleted successfully: {}", scheduleId);
     }
 
+    /**
+     * Recompute attendance on an override date that already passed (no-op for future dates)
+     */
+    private void recomputeOverrideDate(Long employeeId, LocalDate scheduleDate, Long createdBy) {
+        attendanceRecomputeService.scheduleRecompute(List.of(employeeId), scheduleDate, scheduleDate,
+                "Override schedule " + scheduleDate, createdBy);
+    }
+
     /**
      * Get override schedule for employee on specific date
      */
@@ -226,13 +245,11 @@ public class EmployeeShiftService {
         List<DayScheduleDTO> currentWeek = new ArrayList<>();
         int weekNumber = 1;
 
-        LocalDate currentDate = startDate;
-        LocalDate weekStart = currentDate;
+        LocalDate weekStart = startDate;
 
-        while (!currentDate.isAfter(endDate)) {
-            ShiftAssignmentResult assignment = getShiftAssignment(employeeId, currentDate);
-            DayScheduleDTO dayDTO = buildDayScheduleDTO(currentDate, assignment);
-            currentWeek.add(dayDTO);
+        for (ResolvedShiftDay day : resolveShifts(employeeId, startDate, endDate)) {
+            LocalDate currentDate = day.getDate();
+            currentWeek.add(buildDayScheduleDTO(day));
 
             // If it's Sunday or last day, create a week
             if (currentDate.getDayOfWeek() == DayOfWeek.SUNDAY || currentDate.equals(endDate)) {
@@ -243,15 +260,15 @@ public class EmployeeShiftService {
                 weekNumber++;
                 weekStart = currentDate.plusDays(1);
             }
-
-            currentDate = currentDate.plusDays(1);
         }
 
         log.info("Generated {} weeks of schedule data", weeks.size());
         return weeks;
     }
 
-    private DayScheduleDTO buildDayScheduleDTO(LocalDate date, ShiftAssignmentResult assignment) {
+    private DayScheduleDTO buildDayScheduleDTO(ResolvedShiftDay day) {
+        LocalDate date = day.getDate();
+        ShiftAssignmentResult assignment = day.getAssignment();
         String shiftName = null;
         String shiftColor = null;
         String workingHours = null;
@@ -259,8 +276,8 @@ public class EmployeeShiftService {
         // Get shift pattern info regardless of working day or off day
         // This shows the assigned shift pattern even for weekly off days
         if (assignment.getShiftPattern() != null) {
-            shiftName = assignment.getShiftPattern().getName();
-            shiftColor = assignment.getShiftPattern().getColor();
+            shiftName = assignment.getShiftPattern().name();
+            shiftColor = assignment.getShiftPattern().color();
         }
 
         // Only show working hours if it's a working day
@@ -269,26 +286,18 @@ public class EmployeeShiftService {
         }
 
         // Determine if this is a weekly leave (non-working day based on company settings)
-        boolean isWeeklyLeave = false;
-        if (!assignment.isWorkingDay()) {
-            var company = companyService.getCompany();
-            if (company != null) {
-                DayOfWeek dayOfWeek = date.getDayOfWeek();
-                // Check if this day is NOT in the company's working days
-                isWeeklyLeave = !company.isWorkingDay(dayOfWeek);
-            }
-        }
+        boolean isWeeklyLeave = !assignment.isWorkingDay() && day.isWeeklyLeave();
 
         return new DayScheduleDTO(
                 date.toString(),
                 getDayName(date, date.getDayOfWeek()),
                 assignment.isWorkingDay(),
-                false,  // isHoliday - TODO: implement holiday check
+                day.isHoliday(),
                 isWeeklyLeave,
                 shiftName,
                 shiftColor,
                 workingHours,
-                null  // holidayName
+                day.getHoliday() != null ? day.getHoliday().name() : null
         );
     }
 
@@ -318,16 +327,16 @@ public class EmployeeShiftService {
         return start + " - " + end;
     }
 
-    private String formatWorkingHours(WorkingHours wh) {
+    private String formatWorkingHours(ShiftResolutionEngine.WorkingHoursEntry wh) {
         if (wh == null) {
             return "";
         }
         StringBuilder sb = new StringBuilder();
-        if (wh.getStartTime() != null) {
-            sb.append(wh.getStartTime().toString());
+        if (wh.startTime() != null) {
+            sb.append(wh.startTime().toString());
         }
-        if (wh.getEndTime() != null) {
-            sb.append(" - ").append(wh.getEndTime().toString());
+        if (wh.endTime() != null) {
+            sb.append(" - ").append(wh.endTime().toString());
         }
         return sb.toString();
     }
@@ -339,96 +348,37 @@ public class EmployeeShiftService {
     /**
      * Get shift assignment for employee on specific date
      * This is the main method that combines pattern and override
+     * Resolved from in-memory snapshot (see ShiftResolutionEngine), no transaction needed
      */
-    @Transactional(readOnly = true)
     public ShiftAssignmentResult getShiftAssignment(Long employeeId, LocalDate date) {
-        // 1. Check override first
-        EmployeeShiftSchedule override = getOverrideSchedule(employeeId, date);
-        if (override != null) {
-            return buildFromOverride(override, date);
-        }
-
-        // 2. Get from pattern
-        ShiftPattern pattern = getActiveShiftPattern(employeeId, date);
-        if (pattern == null) {
-            return ShiftAssignmentResult.builder()
-                    .employeeId(employeeId)
-                    .date(date)
-                    .isWorkingDay(false)
-                    .isOffDay(true)
-                    .build();
-        }
-
-        return buildFromPattern(pattern, date);
+        return shiftResolutionEngine.resolve(employeeId, date);
     }
 
-    private ShiftAssignmentResult buildFromOverride(EmployeeShiftSchedule override, LocalDate date) {
-        WorkingHours wh = null;
-        if (override.getWorkingHoursId() != null) {
-            wh = workingHoursService.getWorkingHoursById(override.getWorkingHoursId());
-        }
-
-        Boolean isWfh = override.getOverrideIsWfh();
-        Boolean isOvertimeAllowed = override.getOverrideIsOvertimeAllowed();
-        Boolean isAttendanceMandatory = override.getOverrideAttendanceMandatory();
-
-        // If override values are null, get from pattern
-        if (isWfh == null || isOvertimeAllowed == null || isAttendanceMandatory == null) {
-            ShiftPattern pattern = getActiveShiftPattern(override.getEmployeeId(), date);
-            if (pattern != null) {
-                if (isWfh == null) isWfh = pattern.getIsWfhAllowed();
-                if (isOvertimeAllowed == null) isOvertimeAllowed = pattern.getIsOvertimeAllowed();
-                if (isAttendanceMandatory == null) isAttendanceMandatory = pattern.getIsAttendanceMandatory();
-            }
+    /**
+     * Resolve shift for every day in range in one pass
+     * Settings/overrides, holidays and company working days are loaded once per range
+     */
+    @Transactional(readOnly = true)
+    public List<ResolvedShiftDay> resolveShifts(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            return new ArrayList<>();
         }
 
-        return ShiftAssignmentResult.builder()
-                .employeeId(override.getEmployeeId())
-                .date(date)
-                .workingHours(wh)
-                .isWorkingDay(wh != null && !wh.isOff())
-                .isOffDay(wh == null || wh.isOff())
-                .isOverride(true)
-                .isWfh(isWfh != null && isWfh)
-                .isOvertimeAllowed(isOvertimeAllowed != null && isOvertimeAllowed)
-                .isAttendanceMandatory(isAttendanceMandatory != null && isAttendanceMandatory)
-                .overrideNotes(override.getNotes())
-                .build();
-    }
+        ShiftResolutionEngine.CatalogSnapshot snapshot = shiftResolutionEngine.getCatalog();
+        ShiftResolutionEngine.EmployeeTimeline timeline = shiftResolutionEngine.getTimeline(employeeId);
+        Map<LocalDate, HolidayCalendar.HolidayEntry> holidays = holidayService.getHolidayMapBetween(startDate, endDate);
+        Set<DayOfWeek> companyWorkingDays = workingDayCalculator.getCompanyWorkingDays();
 
-    private ShiftAssignmentResult buildFromPattern(ShiftPattern pattern, LocalDate date) {
-        ShiftPackage pkg = shiftPackageService.getShiftPackageByIdWithWorkingHours(pattern.getShiftPackageId());
-        if (pkg == null) {
-            return ShiftAssignmentResult.builder()
+        List<ResolvedShiftDay> days = new ArrayList<>((int) ChronoUnit.DAYS.between(startDate, endDate) + 1);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            days.add(ResolvedShiftDay.builder()
                     .date(date)
-                    .isWorkingDay(false)
-                    .isOffDay(true)
-                    .build();
-        }
-
-        DayOfWeek day = date.getDayOfWeek();
-        Long workingHoursId = pkg.getWorkingHoursIdByDay(day);
-
-        WorkingHours wh = null;
-        if (workingHoursId != null) {
-            wh = workingHoursService.getWorkingHoursById(workingHoursId);
+                    .assignment(shiftResolutionEngine.resolve(snapshot, timeline, date))
+                    .holiday(holidays.get(date))
+                    .isWeeklyLeave(!companyWorkingDays.contains(date.getDayOfWeek()))
+                    .build());
         }
-
-        boolean isOffDay = (wh == null || wh.isOff());
-
-        return ShiftAssignmentResult.builder()
-                .date(date)
-                .shiftPattern(pattern)
-                .shiftPackage(pkg)
-                .workingHours(wh)
-                .isWorkingDay(!isOffDay)
-                .isOffDay(isOffDay)
-                .isOverride(false)
-                .isWfh(pattern.getIsWfhAllowed() != null && pattern.getIsWfhAllowed())
-                .isOvertimeAllowed(pattern.getIsOvertimeAllowed() != null && pattern.getIsOvertimeAllowed())
-                .isAttendanceMandatory(pattern.getIsAttendanceMandatory() != null && pattern.getIsAttendanceMandatory())
-                .lateToleranceMinutes(pattern.getLateToleranceMinutes())
-                .build();
+        return days;
     }
 
     // =====================================================
@@ -468,6 +418,17 @@ public class EmployeeShiftService {
         log.info("Bulk assignment completed: {} success, {} failed, {} skipped",
                 result.getSuccessCount(), result.getFailureCount(), result.getSkippedCount());
 
+        // Retroactive: one recompute job for all reassigned employees
+        List<Long> assignedIds = result.getSuccessList().stream()
+                .map(BulkAssignShiftResult.SuccessItem::getEmployeeId)
+                .toList();
+        if (!assignedIds.isEmpty()) {
+            AttendanceRecomputeJob job = attendanceRecomputeService.scheduleRecompute(assignedIds,
+                    request.getEffectiveFrom(), LocalDate.now(),
+                    "Bulk assign shift pattern " + request.getShiftPatternId(), currentUserId);
+            result.setRecomputeJobId(job != null ? job.getId() : null);
+        }
+
         return result;
     }
 
@@ -530,6 +491,7 @@ public class EmployeeShiftService {
                 .build();
 
         EmployeeShiftSetting saved = employeeShiftSettingRepository.save(newSetting);
+        shiftResolutionEngine.invalidateEmployee(employeeId);
 
         // 6. Add to success list
         result.getSuccessList().add(BulkAssignShiftResult.SuccessItem.builder()
@@ -579,6 +541,22 @@ public class EmployeeShiftService {
                 .build();
     }
 
+    /**
+     * DTO for one day of a resolved shift range
+     */
+    @Data
+    @Builder
+    public static class ResolvedShiftDay {
+        private LocalDate date;
+        private ShiftAssignmentResult assignment;
+        private HolidayCalendar.HolidayEntry holiday;
+        private boolean isWeeklyLeave;
+
+        public boolean isHoliday() {
+            return holiday != null;
+        }
+    }
+
     /**
      * DTO for Shift Assignment Result
      */
@@ -587,9 +565,9 @@ public class EmployeeShiftService {
     public static class ShiftAssignmentResult {
         private Long employeeId;
         private LocalDate date;
-        private ShiftPattern shiftPattern;
-        private ShiftPackage shiftPackage;
-        private WorkingHours workingHours;
+        private ShiftResolutionEngine.PatternEntry shiftPattern;
+        private ShiftResolutionEngine.PackageEntry shiftPackage;
+        private ShiftResolutionEngine.WorkingHoursEntry workingHours;
         private boolean isWorkingDay;
         private boolean isOffDay;
         private boolean isOverride;
@@ -610,8 +588,8 @@ public class EmployeeShiftService {
          * Get start time for clock in
          */
         public java.time.LocalTime getStartTime() {
-            if (workingHours != null && workingHours.getStartTime() != null) {
-                return workingHours.getStartTime();
+            if (workingHours != null && workingHours.startTime() != null) {
+                return workingHours.startTime();
             }
             return null;
         }
@@ -620,17 +598,17 @@ public class EmployeeShiftService {
          * Get end time for clock out
          */
         public java.time.LocalTime getEndTime() {
-            if (workingHours != null && workingHours.getEndTime() != null) {
-                return workingHours.getEndTime();
+            if (workingHours != null && workingHours.endTime() != null) {
+                return workingHours.endTime();
             }
             return null;
         }
 
         /**
-         * Check if shift is overnight
+         * Check if shift is overnight (ends on the next day)
          */
         public boolean isOvernight() {
-            return workingHours != null && workingHours.getIsOvernight() != null && workingHours.getIsOvernight();
+            return workingHours != null && workingHours.endsNextDay();
         }
     }
 }
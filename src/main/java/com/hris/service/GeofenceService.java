@@ -0,0 +1,515 @@
+package com.hris.service;
+
+import com.hris.dto.GeofenceCheckRequest;
+import com.hris.dto.OfficeLocationRequest;
+import com.hris.model.Company;
+import com.hris.model.OfficeLocation;
+import com.hris.model.enums.GeofenceShape;
+import com.hris.repository.CompanyRepository;
+import com.hris.repository.EmployeeRepository;
+import com.hris.repository.OfficeLocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Geofence Service
+ * Validasi lokasi attendance terhadap kantor utama (Company) + office_locations
+ *
+ * Semua geofence aktif disimpan di memory sebagai grid index (sel ~1 km);
+ * satu punch hanya dicek terhadap geofence di sel yang sama.
+ * Jarak dihitung dengan proyeksi equirectangular (akurat untuk radius kantor).
+ * Index dibangun ulang saat office location atau company berubah.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GeofenceService {
+
+    static final double CELL_DEGREES = 0.01;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+    private static final int MAX_CELLS_PER_FENCE = 4096;
+    private static final int DEFAULT_RADIUS_METERS = 100;
+
+    private final OfficeLocationRepository officeLocationRepository;
+    private final CompanyRepository companyRepository;
+    private final EmployeeRepository employeeRepository;
+
+    private final AtomicReference<GeofenceIndex> index = new AtomicReference<>();
+
+    // =====================================================
+    // CRUD OPERATIONS
+    // =====================================================
+
+    /**
+     * Get all office locations
+     */
+    @Transactional(readOnly = true)
+    public List<OfficeLocation> getAllOfficeLocations() {
+        return officeLocationRepository.findByDeletedAtIsNullOrderByName();
+    }
+
+    /**
+     * Get office location by ID
+     */
+    @Transactional(readOnly = true)
+    public OfficeLocation getOfficeLocationById(Long id) {
+        return officeLocationRepository.findById(id)
+                .filter(location -> location.getDeletedAt() == null)
+                .orElseThrow(() -> new IllegalArgumentException("Office location not found with id: " + id));
+    }
+
+    /**
+     * Create office location
+     */
+    @Transactional
+    public OfficeLocation createOfficeLocation(OfficeLocationRequest request) {
+        Company company = companyRepository.findFirstByDeletedAtIsNullOrderByCreatedAtDesc()
+                .orElseThrow(() -> new IllegalStateException("Company not found"));
+        OfficeLocation location = new OfficeLocation();
+        location.setCompanyId(company.getId());
+        applyRequest(location, request);
+
+        if (officeLocationRepository.existsByCompanyIdAndNameAndDeletedAtIsNull(location.getCompanyId(), location.getName())) {
+            throw new IllegalArgumentException("Office location with name " + location.getName() + " already exists");
+        }
+        validateShape(location);
+
+        OfficeLocation saved = officeLocationRepository.save(location);
+        invalidate();
+        log.info("Created office location: {} ({})", saved.getName(), saved.getShapeType());
+        return saved;
+    }
+
+    /**
+     * Update office location
+     */
+    @Transactional
+    public OfficeLocation updateOfficeLocation(Long id, OfficeLocationRequest request) {
+        OfficeLocation location = getOfficeLocationById(id);
+
+        if (officeLocationRepository.existsByCompanyIdAndNameAndDeletedAtIsNullAndIdNot(
+                location.getCompanyId(), request.getName(), id)) {
+            throw new IllegalArgumentException("Another office location with name " + request.getName() + " already exists");
+        }
+
+        applyRequest(location, request);
+        validateShape(location);
+
+        OfficeLocation updated = officeLocationRepository.save(location);
+        invalidate();
+        log.info("Updated office location: {}", updated.getName());
+        return updated;
+    }
+
+    /**
+     * Delete office location (soft delete)
+     */
+    @Transactional
+    public void deleteOfficeLocation(Long id) {
+        OfficeLocation location = getOfficeLocationById(id);
+        location.setDeletedAt(java.time.LocalDateTime.now());
+        officeLocationRepository.save(location);
+        invalidate();
+        log.info("Deleted office location: {}", location.getName());
+    }
+
+    /**
+     * Copy the editable fields of a request onto the entity
+     */
+    private void applyRequest(OfficeLocation location, OfficeLocationRequest request) {
+        location.setName(request.getName());
+        location.setDepartmentId(request.getDepartmentId());
+        location.setShapeType(request.getShapeType());
+        location.setLatitude(request.getLatitude());
+        location.setLongitude(request.getLongitude());
+        location.setRadiusMeters(request.getRadiusMeters());
+        location.setPolygonPoints(request.getPolygonPoints());
+        location.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
+    }
+
+    private void validateShape(OfficeLocation location) {
+        if (location.getName() == null || location.getName().isBlank()) {
+            throw new IllegalArgumentException("Nama lokasi kantor wajib diisi");
+        }
+        if (location.getShapeType() == null) {
+            location.setShapeType(GeofenceShape.RADIUS);
+        }
+        if (location.isPolygon()) {
+            if (location.getPolygonVertices().size() < 3) {
+                throw new IllegalArgumentException("Polygon minimal terdiri dari 3 titik");
+            }
+        } else {
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                throw new IllegalArgumentException("Latitude dan longitude wajib diisi untuk geofence radius");
+            }
+            if (location.getRadiusMeters() == null || location.getRadiusMeters() <= 0) {
+                throw new IllegalArgumentException("Radius harus lebih dari 0 meter");
+            }
+        }
+    }
+
+    // =====================================================
+    // VALIDATION
+    // =====================================================
+
+    /**
+     * Match a location against the geofences applicable to a department
+     *
+     * @param departmentId Employee department (null = only company-wide geofences)
+     * @return Match result (not configured if no geofence applies to the department),
+     *         or null if no geofence is configured at all
+     */
+    public GeofenceResult match(Long departmentId, BigDecimal latitude, BigDecimal longitude) {
+        GeofenceIndex current = getIndex();
+        if (!current.companyPresent()) {
+            throw new IllegalStateException("Company not found");
+        }
+        if (current.fences().length == 0) {
+            return null;
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Lokasi (latitude/longitude) wajib diisi");
+        }
+        return current.match(departmentId, latitude.doubleValue(), longitude.doubleValue());
+    }
+
+    /**
+     * Validate many locations at once (offline device uploads)
+     * Employee departments are loaded in one query
+     */
+    @Transactional(readOnly = true)
+    public List<GeofenceResult> validateBatch(List<GeofenceCheckRequest> checks) {
+        Set<Long> employeeIds = new HashSet<>();
+        for (GeofenceCheckRequest check : checks) {
+            if (check.getDepartmentId() == null && check.getEmployeeId() != null) {
+                employeeIds.add(check.getEmployeeId());
+            }
+        }
+        Map<Long, Long> departments = new HashMap<>();
+        if (!employeeIds.isEmpty()) {
+            for (Object[] row : employeeRepository.findDepartmentIdsByEmployeeIds(employeeIds)) {
+                departments.put((Long) row[0], (Long) row[1]);
+            }
+        }
+
+        GeofenceIndex current = getIndex();
+        List<GeofenceResult> results = new ArrayList<>(checks.size());
+        for (GeofenceCheckRequest check : checks) {
+            Long departmentId = check.getDepartmentId() != null
+                    ? check.getDepartmentId() : departments.get(check.getEmployeeId());
+            if (check.getLatitude() == null || check.getLongitude() == null) {
+                results.add(GeofenceResult.invalid("Lokasi (latitude/longitude) wajib diisi"));
+            } else if (current.fences().length == 0) {
+                results.add(GeofenceResult.notConfigured());
+            } else {
+                results.add(current.match(departmentId,
+                        check.getLatitude().doubleValue(), check.getLongitude().doubleValue()));
+            }
+        }
+        return results;
+    }
+
+    // =====================================================
+    // INDEX
+    // =====================================================
+
+    /**
+     * Get current index, building it on first use
+     */
+    public GeofenceIndex getIndex() {
+        GeofenceIndex current = index.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = index.get();
+            if (current == null) {
+                current = buildIndex();
+                index.set(current);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Drop the index (office locations or company geotag changed); rebuilt on next access
+     */
+    public void invalidate() {
+        index.set(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.set(null);
+                }
+            });
+        }
+    }
+
+    private GeofenceIndex buildIndex() {
+        List<Fence> fences = new ArrayList<>();
+
+        Company company = companyRepository.findFirstByDeletedAtIsNullOrderByCreatedAtDesc().orElse(null);
+        if (company != null && company.getOfficeLatitude() != null && company.getOfficeLongitude() != null) {
+            fences.add(Fence.radius(null, company.getName(), null,
+                    company.getOfficeLatitude().doubleValue(), company.getOfficeLongitude().doubleValue(),
+                    company.getAttendanceLocationRadius() != null
+                            ? company.getAttendanceLocationRadius() : DEFAULT_RADIUS_METERS));
+        }
+
+        for (OfficeLocation location : officeLocationRepository.findByIsActiveTrueAndDeletedAtIsNull()) {
+            try {
+                if (location.isPolygon()) {
+                    fences.add(Fence.polygon(location.getId(), location.getName(), location.getDepartmentId(),
+                            location.getPolygonVertices()));
+                } else if (location.getLatitude() != null && location.getLongitude() != null) {
+                    fences.add(Fence.radius(location.getId(), location.getName(), location.getDepartmentId(),
+                            location.getLatitude().doubleValue(), location.getLongitude().doubleValue(),
+                            location.getRadiusMeters() != null ? location.getRadiusMeters() : DEFAULT_RADIUS_METERS));
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Skipping office location {}: {}", location.getId(), e.getMessage());
+            }
+        }
+
+        GeofenceIndex built = GeofenceIndex.of(company != null, fences.toArray(new Fence[0]));
+        log.info("Built geofence index: {} geofences, {} grid cells", fences.size(), built.cells().size());
+        return built;
+    }
+
+    // =====================================================
+    // INDEX STRUCTURES
+    // =====================================================
+
+    /**
+     * Result of matching one location
+     */
+    public record GeofenceResult(boolean inside,
+                                 boolean configured,
+                                 Long officeLocationId,
+                                 String officeName,
+                                 int distanceMeters,
+                                 Integer radiusMeters,
+                                 String message) {
+
+        static GeofenceResult notConfigured() {
+            return new GeofenceResult(true, false, null, null, 0, null, "Office location not set");
+        }
+
+        static GeofenceResult invalid(String message) {
+            return new GeofenceResult(false, true, null, null, 0, null, message);
+        }
+    }
+
+    /**
+     * Immutable grid index: cell key -> indexes into fences
+     * Fences too large for the grid are checked for every location
+     */
+    public record GeofenceIndex(boolean companyPresent, Fence[] fences, Map<Long, int[]> cells, int[] wideFences) {
+
+        static GeofenceIndex of(boolean companyPresent, Fence[] fences) {
+            Map<Long, List<Integer>> grid = new HashMap<>();
+            List<Integer> wide = new ArrayList<>();
+            for (int i = 0; i < fences.length; i++) {
+                Fence f = fences[i];
+                long minLatCell = cell(f.minLat()), maxLatCell = cell(f.maxLat());
+                long minLonCell = cell(f.minLon()), maxLonCell = cell(f.maxLon());
+                if ((maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1) > MAX_CELLS_PER_FENCE) {
+                    wide.add(i);
+                    continue;
+                }
+                for (long la = minLatCell; la <= maxLatCell; la++) {
+                    for (long lo = minLonCell; lo <= maxLonCell; lo++) {
+                        grid.computeIfAbsent(key(la, lo), k -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+            Map<Long, int[]> cells = new HashMap<>(grid.size() * 2);
+            grid.forEach((k, v) -> cells.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+            return new GeofenceIndex(companyPresent, fences, cells,
+                    wide.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        /**
+         * Find the geofence containing the location; on miss, report the nearest one
+         */
+        public GeofenceResult match(Long departmentId, double lat, double lon) {
+            int[] candidates = cells.get(key(cell(lat), cell(lon)));
+            if (candidates != null) {
+                for (int i : candidates) {
+                    GeofenceResult hit = test(fences[i], departmentId, lat, lon);
+                    if (hit != null) {
+                        return hit;
+                    }
+                }
+            }
+            for (int i : wideFences) {
+                GeofenceResult hit = test(fences[i], departmentId, lat, lon);
+                if (hit != null) {
+                    return hit;
+                }
+            }
+            return nearestMiss(departmentId, lat, lon);
+        }
+
+        private GeofenceResult test(Fence f, Long departmentId, double lat, double lon) {
+            if (!f.appliesTo(departmentId) || !f.contains(lat, lon)) {
+                return null;
+            }
+            int distance = f.polygon() ? 0 : (int) f.distanceToCenter(lat, lon);
+            return new GeofenceResult(true, true, f.id(), f.name(), distance,
+                    f.polygon() ? null : (int) f.radius(), null);
+        }
+
+        private GeofenceResult nearestMiss(Long departmentId, double lat, double lon) {
+            Fence nearest = null;
+            double nearestGap = Double.MAX_VALUE;
+            for (Fence f : fences) {
+                if (!f.appliesTo(departmentId)) {
+                    continue;
+                }
+                double gap = f.distanceOutside(lat, lon);
+                if (gap < nearestGap) {
+                    nearestGap = gap;
+                    nearest = f;
+                }
+            }
+            if (nearest == null) {
+                // Only other departments' geofences exist: nothing to validate against for this employee
+                return GeofenceResult.notConfigured();
+            }
+            if (nearest.polygon()) {
+                return new GeofenceResult(false, true, nearest.id(), nearest.name(), (int) nearestGap, null,
+                        String.format("Location validation failed. You are %d meters outside %s",
+                                (int) nearestGap, nearest.name()));
+            }
+            int distance = (int) nearest.distanceToCenter(lat, lon);
+            return new GeofenceResult(false, true, nearest.id(), nearest.name(), distance, (int) nearest.radius(),
+                    String.format("Location validation failed. You are %d meters from office (max: %d meters)",
+                            distance, (int) nearest.radius()));
+        }
+
+        static long cell(double degrees) {
+            return (long) Math.floor(degrees / CELL_DEGREES);
+        }
+
+        static long key(long latCell, long lonCell) {
+            return (latCell << 32) ^ (lonCell & 0xffffffffL);
+        }
+    }
+
+    /**
+     * One geofence, precomputed for fast containment tests
+     * Polygon vertices are kept as projected meters relative to the first vertex
+     */
+    public record Fence(Long id, String name, Long departmentId, boolean polygon,
+                        double lat, double lon, double cosLat, double radius,
+                        double[] xs, double[] ys,
+                        double minLat, double maxLat, double minLon, double maxLon) {
+
+        static Fence radius(Long id, String name, Long departmentId, double lat, double lon, int radiusMeters) {
+            double cosLat = Math.cos(Math.toRadians(lat));
+            double dLat = radiusMeters / METERS_PER_DEGREE;
+            double dLon = radiusMeters / (METERS_PER_DEGREE * Math.max(cosLat, 1e-6));
+            return new Fence(id, name, departmentId, false, lat, lon, cosLat, radiusMeters, null, null,
+                    lat - dLat, lat + dLat, lon - dLon, lon + dLon);
+        }
+
+        static Fence polygon(Long id, String name, Long departmentId, List<double[]> vertices) {
+            if (vertices.size() < 3) {
+                throw new IllegalArgumentException("Polygon minimal terdiri dari 3 titik");
+            }
+            double lat0 = vertices.get(0)[0];
+            double lon0 = vertices.get(0)[1];
+            double cosLat = Math.cos(Math.toRadians(lat0));
+            double[] xs = new double[vertices.size()];
+            double[] ys = new double[vertices.size()];
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            for (int i = 0; i < vertices.size(); i++) {
+                double[] v = vertices.get(i);
+                xs[i] = (v[1] - lon0) * cosLat * METERS_PER_DEGREE;
+                ys[i] = (v[0] - lat0) * METERS_PER_DEGREE;
+                minLat = Math.min(minLat, v[0]);
+                maxLat = Math.max(maxLat, v[0]);
+                minLon = Math.min(minLon, v[1]);
+                maxLon = Math.max(maxLon, v[1]);
+            }
+            return new Fence(id, name, departmentId, true, lat0, lon0, cosLat, 0, xs, ys,
+                    minLat, maxLat, minLon, maxLon);
+        }
+
+        boolean appliesTo(Long employeeDepartmentId) {
+            return departmentId == null || departmentId.equals(employeeDepartmentId);
+        }
+
+        boolean contains(double pointLat, double pointLon) {
+            if (pointLat < minLat || pointLat > maxLat || pointLon < minLon || pointLon > maxLon) {
+                return false;
+            }
+            if (!polygon) {
+                double dx = (pointLon - lon) * cosLat * METERS_PER_DEGREE;
+                double dy = (pointLat - lat) * METERS_PER_DEGREE;
+                return dx * dx + dy * dy <= radius * radius;
+            }
+            // Ray casting in projected meters
+            double px = (pointLon - lon) * cosLat * METERS_PER_DEGREE;
+            double py = (pointLat - lat) * METERS_PER_DEGREE;
+            boolean inside = false;
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                if ((ys[i] > py) != (ys[j] > py)
+                        && px < (xs[j] - xs[i]) * (py - ys[i]) / (ys[j] - ys[i]) + xs[i]) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        double distanceToCenter(double pointLat, double pointLon) {
+            double dx = (pointLon - lon) * cosLat * METERS_PER_DEGREE;
+            double dy = (pointLat - lat) * METERS_PER_DEGREE;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+
+        /**
+         * Distance from the location to the geofence boundary (0 if inside)
+         */
+        double distanceOutside(double pointLat, double pointLon) {
+            if (!polygon) {
+                return Math.max(0, distanceToCenter(pointLat, pointLon) - radius);
+            }
+            if (contains(pointLat, pointLon)) {
+                return 0;
+            }
+            double px = (pointLon - lon) * cosLat * METERS_PER_DEGREE;
+            double py = (pointLat - lat) * METERS_PER_DEGREE;
+            double best = Double.MAX_VALUE;
+            for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+                best = Math.min(best, segmentDistance(px, py, xs[j], ys[j], xs[i], ys[i]));
+            }
+            return best;
+        }
+
+        private static double segmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+            double dx = bx - ax, dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+            double cx = ax + t * dx - px, cy = ay + t * dy - py;
+            return Math.sqrt(cx * cx + cy * cy);
+        }
+    }
+}
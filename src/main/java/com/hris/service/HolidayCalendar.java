@@ -0,0 +1,322 @@
+package com.hris.service;
+
+import com.hris.model.Holiday;
+import com.hris.model.enums.HolidayType;
+import com.hris.repository.HolidayRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holiday Calendar
+ * Cache kalender hari libur aktif untuk lookup per tanggal tanpa query
+ *
+ * - Snapshot berisi semua holiday aktif (satu query) dan dibangun ulang utuh setelah
+ *   create/update/delete holiday (invalidate sekarang + setelah commit); dipublish lewat CacheVersion
+ *   sehingga load yang balapan dengan invalidasi ditarik kembali
+ * - Entity Holiday disalin ke HolidayEntry immutable saat dimuat; pemanggil tidak pernah
+ *   menerima entity yang di-cache
+ * - Per tahun: satu BitSet per HolidayType (index = day of year - 1) dan array HolidayEntry
+ *   sebagai side map untuk nama; dibangun lazy per tahun dari snapshot
+ * - Holiday repeatAnnually diekspansi ke tahun-tahun berikutnya pada tanggal yang sama
+ *   (29 Feb hanya di tahun kabisat); holiday eksplisit menang atas ekspansi di tanggal yang sama
+ * - Per tahun juga prefix sum jumlah holiday per HolidayType per hari dalam minggu,
+ *   sehingga hitung holiday di rentang tanggal O(1) per tahun (dipakai WorkingDayCalculator);
+ *   holiday tanpa HolidayType dihitung di bucket tersendiri (type = null)
+ * - Cache per tahun dibatasi ke rentang tahun holiday yang dimuat (dan tahun ini) plus
+ *   CACHED_YEARS_AHEAD; tahun di luar rentang dibangun tanpa disimpan
+ */
+@Slf4j
+@Service
+public class HolidayCalendar {
+
+    // Years after the last loaded holiday year (or this year) that are still cached
+    static final int CACHED_YEARS_AHEAD = 10;
+
+    private final HolidayRepository holidayRepository;
+    private final TransactionTemplate loadTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final CacheVersion version = new CacheVersion();
+
+    public HolidayCalendar(HolidayRepository holidayRepository, PlatformTransactionManager transactionManager) {
+        this.holidayRepository = holidayRepository;
+        // Load in a separate read-only transaction so cached entities are never
+        // attached to (and mutated by) a caller's persistence context
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    // =====================================================
+    // LOOKUP
+    // =====================================================
+
+    /**
+     * Get active holiday on date (null if none)
+     */
+    public HolidayEntry getHoliday(LocalDate date) {
+        return yearOf(date.getYear()).holidays[date.getDayOfYear() - 1];
+    }
+
+    /**
+     * Check if date is an active holiday of any type
+     */
+    public boolean isHoliday(LocalDate date) {
+        return yearOf(date.getYear()).any.get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Check if date is an active holiday of the given type
+     */
+    public boolean isHoliday(LocalDate date, HolidayType type) {
+        BitSet days = yearOf(date.getYear()).byType.get(type);
+        return days != null && days.get(date.getDayOfYear() - 1);
+    }
+
+    /**
+     * Get active holidays in date range keyed by date
+     */
+    public Map<LocalDate, HolidayEntry> getHolidaysBetween(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, HolidayEntry> result = new HashMap<>();
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            YearCalendar calendar = yearOf(year);
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() - 1 : 0;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() - 1 : calendar.holidays.length - 1;
+            for (int day = calendar.any.nextSetBit(from); day >= 0 && day <= to; day = calendar.any.nextSetBit(day + 1)) {
+                result.put(LocalDate.ofYearDay(year, day + 1), calendar.holidays[day]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Count active holidays of type in date range (inclusive) falling on day of week
+     *
+     * @param type Holiday type, or null for holidays without a type
+     */
+    public int countHolidays(LocalDate startDate, LocalDate endDate, HolidayType type, DayOfWeek dayOfWeek) {
+        int count = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            int[] prefix = yearOf(year).prefix(type, dayOfWeek);
+            if (prefix == null) {
+                continue;
+            }
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() - 1 : 0;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() : prefix.length - 1;
+            count += prefix[to] - prefix[from];
+        }
+        return count;
+    }
+
+    // =====================================================
+    // SNAPSHOT
+    // =====================================================
+
+    /**
+     * Calendar of year; years outside the cached window (e.g. a far future date from a request)
+     * are built on each call instead of growing the cache
+     */
+    private YearCalendar yearOf(int year) {
+        Snapshot current = getSnapshot();
+        if (year < current.firstCachedYear || year > current.lastCachedYear) {
+            return current.build(year);
+        }
+        return current.years.computeIfAbsent(year, current::build);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+
+        long loadVersion = version.current();
+        List<Holiday> holidays = loadTemplate.execute(status -> holidayRepository.findByIsActiveTrueAndDeletedAtIsNullOrderByDate());
+        Snapshot loaded = new Snapshot(holidays, LocalDate.now().getYear());
+        version.publish(snapshot, loadVersion, loaded);
+        log.debug("Loaded holiday calendar: {} explicit, {} recurring", holidays.size(), loaded.recurring.size());
+        return loaded;
+    }
+
+    /**
+     * Invalidate calendar (holiday created, updated or deleted)
+     * Evicted immediately and again after the surrounding transaction commits,
+     * so a reload that raced with the uncommitted write is never kept
+     */
+    public void invalidate() {
+        evict();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict();
+                }
+            });
+        }
+    }
+
+    private void evict() {
+        version.evict(snapshot);
+    }
+
+    /**
+     * All active holidays; per-year calendars are built on first use
+     */
+    private static final class Snapshot {
+        private final Map<Integer, List<HolidayEntry>> explicitByYear = new HashMap<>();
+        private final List<HolidayEntry> recurring = new ArrayList<>();
+        private final Map<Integer, YearCalendar> years = new ConcurrentHashMap<>();
+        private final int firstCachedYear;
+        private final int lastCachedYear;
+
+        private Snapshot(List<Holiday> holidays, int currentYear) {
+            int first = currentYear;
+            int last = currentYear;
+            for (Holiday holiday : holidays) {
+                HolidayEntry entry = HolidayEntry.of(holiday);
+                int year = entry.date().getYear();
+                explicitByYear.computeIfAbsent(year, k -> new ArrayList<>()).add(entry);
+                if (Boolean.TRUE.equals(holiday.getRepeatAnnually())) {
+                    recurring.add(entry);
+                }
+                first = Math.min(first, year);
+                last = Math.max(last, year);
+            }
+            this.firstCachedYear = first;
+            this.lastCachedYear = last + CACHED_YEARS_AHEAD;
+        }
+
+        private YearCalendar build(int year) {
+            YearCalendar calendar = new YearCalendar(year);
+            for (HolidayEntry holiday : recurring) {
+                LocalDate origin = holiday.date();
+                MonthDay monthDay = MonthDay.from(origin);
+                if (year > origin.getYear() && monthDay.isValidYear(year)) {
+                    calendar.put(holiday.on(monthDay.atYear(year)));
+                }
+            }
+            // Explicit entries last so they win over expanded recurring ones
+            for (HolidayEntry holiday : explicitByYear.getOrDefault(year, List.of())) {
+                calendar.put(holiday);
+            }
+            calendar.buildPrefixSums();
+            return calendar;
+        }
+    }
+
+    /**
+     * Holidays of one year indexed by day of year
+     */
+    private static final class YearCalendar {
+        private final int year;
+        private final BitSet any;
+        private final Map<HolidayType, BitSet> byType = new EnumMap<>(HolidayType.class);
+        private final HolidayEntry[] holidays;
+        // prefixByType[type][dayOfWeek - 1][i] = holidays of type on that weekday before day index i
+        private final Map<HolidayType, int[][]> prefixByType = new EnumMap<>(HolidayType.class);
+        // Holidays without a type (EnumMap cannot hold a null key)
+        private final BitSet untyped;
+        private int[][] untypedPrefix;
+
+        private YearCalendar(int year) {
+            int days = LocalDate.of(year, 12, 31).getDayOfYear();
+            this.year = year;
+            this.any = new BitSet(days);
+            this.untyped = new BitSet(days);
+            this.holidays = new HolidayEntry[days];
+        }
+
+        /**
+         * Prefix array of length days + 1, or null when the year has no holiday of type
+         */
+        private int[] prefix(HolidayType type, DayOfWeek dayOfWeek) {
+            int[][] byDay = type != null ? prefixByType.get(type) : untypedPrefix;
+            return byDay != null ? byDay[dayOfWeek.getValue() - 1] : null;
+        }
+
+        private void buildPrefixSums() {
+            for (Map.Entry<HolidayType, BitSet> e : byType.entrySet()) {
+                if (!e.getValue().isEmpty()) {
+                    prefixByType.put(e.getKey(), prefixSums(e.getValue()));
+                }
+            }
+            if (!untyped.isEmpty()) {
+                untypedPrefix = prefixSums(untyped);
+            }
+        }
+
+        private int[][] prefixSums(BitSet days) {
+            int jan1 = LocalDate.of(year, 1, 1).getDayOfWeek().getValue() - 1;
+            int[][] byDay = new int[7][holidays.length + 1];
+            for (int i = 0; i < holidays.length; i++) {
+                int dow = (jan1 + i) % 7;
+                for (int d = 0; d < 7; d++) {
+                    byDay[d][i + 1] = byDay[d][i];
+                }
+                if (days.get(i)) {
+                    byDay[dow][i + 1]++;
+                }
+            }
+            return byDay;
+        }
+
+        private void put(HolidayEntry holiday) {
+            int index = holiday.date().getDayOfYear() - 1;
+            HolidayEntry previous = holidays[index];
+            if (previous != null) {
+                (previous.holidayType() != null ? byType.get(previous.holidayType()) : untyped).clear(index);
+            }
+            holidays[index] = holiday;
+            any.set(index);
+            if (holiday.holidayType() != null) {
+                byType.computeIfAbsent(holiday.holidayType(), k -> new BitSet(holidays.length)).set(index);
+            } else {
+                untyped.set(index);
+            }
+        }
+    }
+
+    /**
+     * Holiday values copied from Holiday; date is the day it falls on (expanded for recurring holidays)
+     */
+    public record HolidayEntry(Long id, String name, LocalDate date, HolidayType holidayType, String description) {
+
+        public static HolidayEntry of(Holiday holiday) {
+            return new HolidayEntry(holiday.getId(), holiday.getName(), holiday.getDate(),
+                    holiday.getHolidayType(), holiday.getDescription());
+        }
+
+        public boolean isNationalHoliday() {
+            return holidayType == HolidayType.NATIONAL;
+        }
+
+        public boolean isCompanyHoliday() {
+            return holidayType == HolidayType.COMPANY;
+        }
+
+        public boolean isCollectiveLeave() {
+            return holidayType == HolidayType.COLLECTIVE_LEAVE;
+        }
+
+        private HolidayEntry on(LocalDate day) {
+            return new HolidayEntry(id, name, day, holidayType, description);
+        }
+    }
+}
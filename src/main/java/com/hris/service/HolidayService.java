@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.Month;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -24,6 +25,8 @@ import java.util.Optional;
 public class HolidayService {
 
     private final HolidayRepository holidayRepository;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
+    private final HolidayCalendar holidayCalendar;
 
     /**
      * Get all holidays ordered by date
@@ -49,10 +52,18 @@ public class HolidayService {
     }
 
     /**
-     * Get holiday by date
+     * Get active holiday by date (including repeat-annually holidays), from the holiday calendar
      */
-    public Optional<Holiday> getHolidayByDate(LocalDate date) {
-        return holidayRepository.findByDateAndDeletedAtIsNull(date);
+    public Optional<HolidayCalendar.HolidayEntry> getHolidayByDate(LocalDate date) {
+        return Optional.ofNullable(holidayCalendar.getHoliday(date));
+    }
+
+    /**
+     * Get holidays in date range keyed by date
+     * Range counterpart of getHolidayByDate, for day-by-day loops
+     */
+    public Map<LocalDate, HolidayCalendar.HolidayEntry> getHolidayMapBetween(LocalDate startDate, LocalDate endDate) {
+        return holidayCalendar.getHolidaysBetween(startDate, endDate);
     }
 
     /**
@@ -101,6 +112,8 @@ public class HolidayService {
         }
 
         Holiday saved = holidayRepository.save(holiday);
+        holidayCalendar.invalidate();
+        dailyAttendanceContextService.invalidate();
         log.info("Created new holiday: {} on {}", saved.getName(), saved.getDate());
         return saved;
     }
@@ -131,6 +144,8 @@ public class HolidayService {
         holiday.setRepeatAnnually(holidayDetails.getRepeatAnnually() != null ? holidayDetails.getRepeatAnnually() : false);
 
         Holiday updated = holidayRepository.save(holiday);
+        holidayCalendar.invalidate();
+        dailyAttendanceContextService.invalidate();
         log.info("Updated holiday: {} on {}", updated.getName(), updated.getDate());
         return updated;
     }
@@ -145,6 +160,8 @@ public class HolidayService {
 
         holiday.setDeletedAt(java.time.LocalDateTime.now());
         holidayRepository.save(holiday);
+        holidayCalendar.invalidate();
+        dailyAttendanceContextService.invalidate();
         log.info("Deleted holiday: {} on {}", holiday.getName(), holiday.getDate());
     }
 
@@ -152,34 +169,28 @@ public class HolidayService {
      * Check if date is a holiday
      */
     public boolean isHoliday(LocalDate date) {
-        return holidayRepository.isHoliday(date);
+        return holidayCalendar.isHoliday(date);
     }
 
     /**
      * Check if date is a national holiday
      */
     public boolean isNationalHoliday(LocalDate date) {
-        return holidayRepository.findByDateAndDeletedAtIsNull(date)
-                .map(Holiday::isNationalHoliday)
-                .orElse(false);
+        return holidayCalendar.isHoliday(date, HolidayType.NATIONAL);
     }
 
     /**
      * Check if date is a company holiday
      */
     public boolean isCompanyHoliday(LocalDate date) {
-        return holidayRepository.findByDateAndDeletedAtIsNull(date)
-                .map(Holiday::isCompanyHoliday)
-                .orElse(false);
+        return holidayCalendar.isHoliday(date, HolidayType.COMPANY);
     }
 
     /**
      * Check if date is collective leave
      */
     public boolean isCollectiveLeave(LocalDate date) {
-        return holidayRepository.findByDateAndDeletedAtIsNull(date)
-                .map(Holiday::isCollectiveLeave)
-                .orElse(false);
+        return holidayCalendar.isHoliday(date, HolidayType.COLLECTIVE_LEAVE);
     }
 
     /**
@@ -1,22 +1,43 @@
 package com.hris.service;
 
+import com.hris.dto.LowLeaveBalanceRow;
 import com.hris.model.Employee;
 import com.hris.model.LeaveBalance;
+import com.hris.model.LeaveLedgerEntry;
+import com.hris.model.enums.LeaveLedgerEntryType;
 import com.hris.model.enums.LeaveType;
 import com.hris.repository.EmployeeRepository;
 import com.hris.repository.LeaveBalanceRepository;
+import com.hris.repository.LeaveLedgerEntryRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service untuk LeaveBalance Entity
  * Menangani pengelolaan saldo cuti karyawan
+ *
+ * Setiap mutasi saldo dicatat sebagai entry append-only di leave_balance_ledger;
+ * leave_balances adalah proyeksi yang diupdate dengan UPDATE kondisional atomik
+ * (tanpa read-modify-write), sehingga approval paralel tidak kehilangan deduction.
+ * Entry DEDUCTION/REIMBURSEMENT unik per leave request (approve dua kali ditolak database).
  */
 @Service
 @RequiredArgsConstructor
@@ -25,6 +46,65 @@ public class LeaveBalanceService {
 
     private final LeaveBalanceRepository leaveBalanceRepository;
     private final EmployeeRepository employeeRepository;
+    private final WorkingDayCalculator workingDayCalculator;
+    private final LeaveLedgerEntryRepository leaveLedgerEntryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    static final String INSERT_ENTRY_SQL =
+            "INSERT INTO leave_balance_ledger (employee_id, year, entry_type, days, leave_request_id, note) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Upsert on uk_employee_year: 1 row = inserted, 2 = already there (the version bump changes the row,
+    // so the count tells the cases apart). The duplicate path takes an exclusive row lock, so concurrent
+    // first deductions queue behind each other instead of deadlocking on shared locks
+    private static final String INIT_BALANCE_SQL =
+            "INSERT INTO leave_balances (employee_id, year, annual_quota, balance, used, carried_forward, " +
+            "expired_balance, total_deduction) VALUES (?, ?, 12, 12, 0, 0, 0, 0) " +
+            "ON DUPLICATE KEY UPDATE version = version + 1";
+
+    // Deduct/reimburse lock the row through uk_employee_year like INIT_BALANCE_SQL does, so all paths
+    // take the locks in the same order (the optimizer may otherwise pick idx_leave_balance_year)
+    private static final String DEDUCT_SQL =
+            "UPDATE leave_balances FORCE INDEX (uk_employee_year) SET used = used + ?, version = version + 1, updated_at = NOW() " +
+            "WHERE employee_id = ? AND year = ? AND deleted_at IS NULL AND balance - used >= ?";
+
+    private static final String REIMBURSE_SQL =
+            "UPDATE leave_balances FORCE INDEX (uk_employee_year) SET used = used - ?, version = version + 1, updated_at = NOW() " +
+            "WHERE employee_id = ? AND year = ? AND deleted_at IS NULL AND used >= ?";
+
+    private static final String ADJUST_SQL =
+            "UPDATE leave_balances SET balance = balance + ?, " +
+            "notes = CASE WHEN notes IS NULL OR notes = '' THEN ? ELSE CONCAT(notes, '; ', ?) END, " +
+            "version = version + 1, updated_at = NOW() " +
+            "WHERE id = ? AND deleted_at IS NULL AND balance + ? >= used";
+
+    // Unused carried forward days: carry is consumed first, never more than what remains
+    private static final String EXPIRING_DAYS =
+            "LEAST(GREATEST(carried_forward - used, 0), GREATEST(balance - used, 0))";
+
+    private static final String EXPIRED_WHERE =
+            " WHERE carried_forward > 0 AND carried_forward_expiry_date < CURDATE() AND deleted_at IS NULL";
+
+    private static final String LOCK_EXPIRED_SQL =
+            "SELECT id, version FROM leave_balances" + EXPIRED_WHERE + " FOR UPDATE";
+
+    // Both statements apply only to the (id, version) read under the lock
+    private static final String INSERT_EXPIRY_ENTRY_SQL =
+            "INSERT INTO leave_balance_ledger (employee_id, year, entry_type, days, note) " +
+            "SELECT employee_id, year, 'EXPIRY', -" + EXPIRING_DAYS + ", 'Carry forward kadaluarsa' " +
+            "FROM leave_balances" + EXPIRED_WHERE + " AND id = ? AND version = ? AND " + EXPIRING_DAYS + " > 0";
+
+    // MySQL evaluates single-table SET assignments left to right: carried_forward must be reset last
+    private static final String EXPIRE_SQL =
+            "UPDATE leave_balances SET expired_balance = COALESCE(expired_balance, 0) + " + EXPIRING_DAYS + ", " +
+            "balance = balance - " + EXPIRING_DAYS + ", carried_forward = 0, " +
+            "version = version + 1, updated_at = NOW()" + EXPIRED_WHERE + " AND id = ? AND version = ?";
+
+    private static final String EXISTING_EMPLOYEES_SQL =
+            "SELECT employee_id FROM leave_balances WHERE year = ? AND deleted_at IS NULL AND employee_id IN (%s)";
+
+    private static final String REMAINING_SQL =
+            "SELECT balance - used FROM leave_balances WHERE employee_id = ? AND year = ? AND deleted_at IS NULL";
 
     /**
      * Get leave balance for employee in specific year
@@ -95,16 +175,59 @@ public class LeaveBalanceService {
         leaveBalance.setTotalDeduction(0.0);
 
         LeaveBalance saved = leaveBalanceRepository.save(leaveBalance);
+        appendEntry(employeeId, year, LeaveLedgerEntryType.GRANT, 12.0, null, "Jatah tahunan");
         log.info("Initialized leave balance for employee {} in year {}", employeeId, year);
         return saved;
     }
 
     /**
-     * Create or update leave balance
+     * Create or update leave balance (admin form)
+     * Differences to the stored values are recorded as ledger entries; the edit is rejected
+     * if the balance changed since the form was loaded (version) or while saving (@Version)
      */
     @Transactional
     public LeaveBalance saveLeaveBalance(LeaveBalance leaveBalance) {
-        return leaveBalanceRepository.save(leaveBalance);
+        if (leaveBalance.getId() == null) {
+            LeaveBalance saved = leaveBalanceRepository.save(leaveBalance);
+            Long employeeId = saved.getEmployee().getId();
+            double carriedForward = valueOf(saved.getCarriedForward());
+            appendEntry(employeeId, saved.getYear(), LeaveLedgerEntryType.GRANT,
+                    valueOf(saved.getBalance()) - carriedForward, null, "Input manual");
+            appendEntry(employeeId, saved.getYear(), LeaveLedgerEntryType.CARRY_FORWARD,
+                    carriedForward, null, "Input manual");
+            appendEntry(employeeId, saved.getYear(), LeaveLedgerEntryType.DEDUCTION,
+                    -valueOf(saved.getUsed()), null, "Input manual");
+            return saved;
+        }
+
+        LeaveBalance existing = leaveBalanceRepository.findById(leaveBalance.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Leave balance not found with id: " + leaveBalance.getId()));
+        if (leaveBalance.getVersion() != null && !leaveBalance.getVersion().equals(existing.getVersion())) {
+            throw new IllegalStateException("Leave balance was changed by another transaction, please reload and try again");
+        }
+
+        Long employeeId = existing.getEmployee().getId();
+        Integer year = existing.getYear();
+        double carryDelta = valueOf(leaveBalance.getCarriedForward()) - valueOf(existing.getCarriedForward());
+        double balanceDelta = valueOf(leaveBalance.getBalance()) - valueOf(existing.getBalance());
+        double usedDelta = valueOf(leaveBalance.getUsed()) - valueOf(existing.getUsed());
+
+        appendEntry(employeeId, year, LeaveLedgerEntryType.CARRY_FORWARD, carryDelta, null, "Edit manual");
+        appendEntry(employeeId, year, LeaveLedgerEntryType.ADJUSTMENT, balanceDelta - carryDelta, null, "Edit manual");
+        appendEntry(employeeId, year, usedDelta > 0 ? LeaveLedgerEntryType.DEDUCTION : LeaveLedgerEntryType.REIMBURSEMENT,
+                -usedDelta, null, "Edit manual");
+
+        existing.setAnnualQuota(leaveBalance.getAnnualQuota());
+        existing.setBalance(leaveBalance.getBalance());
+        existing.setUsed(leaveBalance.getUsed());
+        existing.setCarriedForward(leaveBalance.getCarriedForward());
+        existing.setExpiredBalance(leaveBalance.getExpiredBalance());
+        existing.setTotalDeduction(leaveBalance.getTotalDeduction());
+        existing.setNotes(leaveBalance.getNotes());
+        if (leaveBalance.getCarriedForwardExpiryDate() != null) {
+            existing.setCarriedForwardExpiryDate(leaveBalance.getCarriedForwardExpiryDate());
+        }
+        return leaveBalanceRepository.save(existing);
     }
 
     /**
@@ -112,28 +235,94 @@ public class LeaveBalanceService {
      */
     @Transactional
     public void deductBalance(Long employeeId, Integer year, double days) {
-        LeaveBalance leaveBalance = getCurrentLeaveBalance(employeeId);
+        deductBalance(employeeId, year, days, null);
+    }
+
+    /**
+     * Deduct balance for leave request (atomic, at most once per leave request)
+     * Initializes the year's balance if it does not exist yet
+     */
+    @Transactional
+    public void deductBalance(Long employeeId, Integer year, double days, Long leaveRequestId) {
+        ensureBalance(employeeId, year);
+
+        // Ledger first: the unique key rejects a second deduction for the same request
+        appendRequestEntry(employeeId, year, LeaveLedgerEntryType.DEDUCTION, -days, leaveRequestId);
 
-        if (!leaveBalance.hasSufficientBalance(days)) {
+        if (jdbcTemplate.update(DEDUCT_SQL, days, employeeId, year, days) == 0) {
             throw new IllegalArgumentException(
                     String.format("Insufficient leave balance. Requested: %.1f, Available: %.1f",
-                            days, leaveBalance.getTotalAvailableBalance())
+                            days, getRemaining(employeeId, year))
             );
         }
-
-        leaveBalance.deductBalance(days);
-        leaveBalanceRepository.save(leaveBalance);
         log.info("Deducted {} days from leave balance for employee {} in year {}", days, employeeId, year);
     }
 
+    /**
+     * Deduct balances for many leave requests in one batch (bulk HR approval)
+     * Conditional updates run in list order, so requests of the same employee see each other's
+     * deductions; ledger entries are written only for deductions that were applied
+     *
+     * @return leave request ids refused for insufficient balance (nothing written for them)
+     */
+    @Transactional
+    public Set<Long> deductBalances(List<Deduction> deductions) {
+        if (deductions.isEmpty()) {
+            return Set.of();
+        }
+        initializeMissingBalances(deductions);
+
+        List<Object[]> updateArgs = new ArrayList<>(deductions.size());
+        for (Deduction d : deductions) {
+            updateArgs.add(new Object[]{d.days(), d.employeeId(), d.year(), d.days()});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(DEDUCT_SQL, updateArgs);
+
+        Set<Long> refused = new HashSet<>();
+        List<Object[]> entryArgs = new ArrayList<>(deductions.size());
+        for (int i = 0; i < deductions.size(); i++) {
+            Deduction d = deductions.get(i);
+            if (counts[i] == 0) {
+                refused.add(d.leaveRequestId());
+            } else {
+                entryArgs.add(new Object[]{d.employeeId(), d.year(), LeaveLedgerEntryType.DEDUCTION.name(),
+                        -d.days(), d.leaveRequestId(), "Leave request #" + d.leaveRequestId()});
+            }
+        }
+
+        if (!entryArgs.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entryArgs);
+            } catch (DuplicateKeyException e) {
+                throw new IllegalStateException("A leave request in the batch already has a DEDUCTION entry");
+            }
+        }
+        log.info("Batch deducted leave balance for {} leave requests ({} refused)",
+                entryArgs.size(), refused.size());
+        return refused;
+    }
+
     /**
      * Reimburse leave balance (for cancelled leave requests)
      */
     @Transactional
     public void reimburseBalance(Long employeeId, Integer year, double days) {
-        LeaveBalance leaveBalance = getCurrentLeaveBalance(employeeId);
-        leaveBalance.addBalance(days);
-        leaveBalanceRepository.save(leaveBalance);
+        reimburseBalance(employeeId, year, days, null);
+    }
+
+    /**
+     * Reimburse leave balance (atomic, at most once per leave request)
+     */
+    @Transactional
+    public void reimburseBalance(Long employeeId, Integer year, double days, Long leaveRequestId) {
+        appendRequestEntry(employeeId, year, LeaveLedgerEntryType.REIMBURSEMENT, days, leaveRequestId);
+
+        if (jdbcTemplate.update(REIMBURSE_SQL, days, employeeId, year, days) == 0) {
+            throw new IllegalStateException(
+                    "Cannot reimburse " + days + " days for employee " + employeeId + " in year " + year
+                            + ": no leave balance with that many used days"
+            );
+        }
         log.info("Reimbursed {} days to leave balance for employee {} in year {}", days, employeeId, year);
     }
 
@@ -163,23 +352,44 @@ public class LeaveBalanceService {
         newBalance.setAnnualQuota(previousBalance.getAnnualQuota());
 
         // Calculate carried forward
-        double unusedPreviousYear = previousBalance.getRemainingBalance();
-        double maxCarryForward = previousBalance.getAnnualQuota() / 2.0; // Half of annual quota
-        double actualCarryForward = Math.min(unusedPreviousYear, maxCarryForward);
-        double expired = Math.max(0, unusedPreviousYear - maxCarryForward);
+        CarryForward carry = computeCarryForward(previousBalance.getAnnualQuota(), previousBalance.getRemainingBalance());
+        double actualCarryForward = carry.carried();
+        double expired = carry.expired();
 
         newBalance.setCarriedForward(actualCarryForward);
-        newBalance.setCarriedForwardExpiryDate(LocalDate.of(currentYear, 6, 30)); // Expires on June 30
+        newBalance.setCarriedForwardExpiryDate(carryForwardExpiryDate(currentYear));
         newBalance.setExpiredBalance(expired);
         newBalance.setBalance((double) previousBalance.getAnnualQuota() + actualCarryForward);
         newBalance.setUsed(0.0);
         newBalance.setTotalDeduction(0.0);
+        newBalance.setRolledOverAt(LocalDateTime.now());
 
         leaveBalanceRepository.save(newBalance);
+        appendEntry(employeeId, currentYear, LeaveLedgerEntryType.GRANT,
+                (double) previousBalance.getAnnualQuota(), null, "Jatah tahunan");
+        appendEntry(employeeId, currentYear, LeaveLedgerEntryType.CARRY_FORWARD,
+                actualCarryForward, null, "Carry forward dari " + previousYear);
         log.info("Reset leave balance for employee {} for year {}. Carried forward: {}, Expired: {}",
                 employeeId, currentYear, actualCarryForward, expired);
     }
 
+    /**
+     * Carry forward rule (PP No. 35 Tahun 2021): at most half of the annual quota is carried
+     * into the new year, the rest of the unused balance expires
+     */
+    public static CarryForward computeCarryForward(int annualQuota, double unusedPreviousYear) {
+        double maxCarryForward = annualQuota / 2.0; // Half of annual quota
+        double unused = Math.max(0, unusedPreviousYear);
+        return new CarryForward(Math.min(unused, maxCarryForward), Math.max(0, unused - maxCarryForward));
+    }
+
+    /**
+     * Carried forward days expire on June 30 of the new year
+     */
+    public static LocalDate carryForwardExpiryDate(int year) {
+        return LocalDate.of(year, 6, 30);
+    }
+
     /**
      * Check if leave type requires balance deduction
      */
@@ -199,14 +409,22 @@ public class LeaveBalanceService {
 
     /**
      * Calculate actual leave days excluding holidays
+     * With excludeHolidays only company working days that are not holidays count
      */
     public double calculateActualLeaveDays(LocalDate startDate, LocalDate endDate, boolean excludeHolidays) {
         if (!excludeHolidays) {
             return calculateLeaveDays(startDate, endDate);
         }
 
-        // TODO: Implement holiday exclusion using HolidayService
-        return calculateLeaveDays(startDate, endDate);
+        return workingDayCalculator.countCompanyWorkingDays(startDate, endDate, true);
+    }
+
+    /**
+     * Calculate deductible leave days for employee
+     * Only the employee's working days (resolved shift) that are not holidays count
+     */
+    public double calculateLeaveDays(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        return workingDayCalculator.countLeaveDays(employeeId, startDate, endDate);
     }
 
     /**
@@ -229,32 +447,42 @@ public class LeaveBalanceService {
 
     /**
      * Check for expiring carried forward balances and process them
+     * Lock expired rows with their version, then write EXPIRY ledger entries and update balances in
+     * two batches guarded by that version; a row changed in between rolls the whole run back
+     *
+     * @return Number of balances whose carried forward days expired
      */
     @Transactional
-    public void processExpiredCarriedForwardBalances() {
-        List<LeaveBalance> expiringBalances = leaveBalanceRepository.findExpiringCarriedForwardBalances();
-        LocalDate today = LocalDate.now();
-
-        for (LeaveBalance balance : expiringBalances) {
-            if (balance.isCarriedForwardExpired()) {
-                double expiredAmount = balance.getCarriedForward();
-                balance.expireCarriedForward();
-                leaveBalanceRepository.save(balance);
-                log.info("Expired {} carried forward days for employee {} in year {}",
-                        expiredAmount, balance.getEmployee().getId(), balance.getYear());
+    public int processExpiredCarriedForwardBalances() {
+        List<Object[]> locked = jdbcTemplate.query(LOCK_EXPIRED_SQL,
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getLong("version")});
+        if (locked.isEmpty()) {
+            return 0;
+        }
+
+        int entries = 0;
+        for (int count : jdbcTemplate.batchUpdate(INSERT_EXPIRY_ENTRY_SQL, locked)) {
+            entries += Math.max(count, 0);
+        }
+        int[] counts = jdbcTemplate.batchUpdate(EXPIRE_SQL, locked);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new IllegalStateException("Leave balance " + locked.get(i)[0]
+                        + " was changed while expiring carried forward days");
             }
         }
+        log.info("Expired carried forward days on {} leave balances ({} ledger entries)", locked.size(), entries);
+        return locked.size();
     }
 
     /**
-     * Get employees with low leave balance
+     * Get employees with low leave balance (remaining below threshold)
+     * Index-backed query returning lightweight rows, optionally filtered by department
      */
-    public List<LeaveBalance> getLowBalanceEmployees(double threshold) {
-        // Return balances with remaining less than threshold
-        return leaveBalanceRepository.findAll().stream()
-                .filter(lb -> lb.getDeletedAt() == null)
-                .filter(lb -> lb.getRemainingBalance() < threshold)
-                .toList();
+    public Page<LowLeaveBalanceRow> getLowBalanceEmployees(double threshold, Integer year, Long departmentId,
+                                                           Pageable pageable) {
+        int targetYear = year != null ? year : LocalDate.now().getYear();
+        return leaveBalanceRepository.findLowBalances(targetYear, threshold, departmentId, pageable);
     }
 
     /**
@@ -262,26 +490,100 @@ public class LeaveBalanceService {
      */
     @Transactional
     public LeaveBalance adjustLeaveBalance(Long balanceId, double adjustment, String reason) {
-        LeaveBalance balance = leaveBalanceRepository.findById(balanceId)
-                .orElseThrow(() -> new IllegalArgumentException("Leave balance not found with id: " + balanceId));
-
-        double newBalance = balance.getBalance() + adjustment;
-        if (newBalance < 0) {
+        if (jdbcTemplate.update(ADJUST_SQL, adjustment, reason, reason, balanceId, adjustment) == 0) {
+            if (!leaveBalanceRepository.existsById(balanceId)) {
+                throw new IllegalArgumentException("Leave balance not found with id: " + balanceId);
+            }
             throw new IllegalArgumentException("Balance cannot be negative");
         }
 
-        balance.setBalance(newBalance);
-        if (balance.getNotes() == null) {
-            balance.setNotes(reason);
-        } else {
-            balance.setNotes(balance.getNotes() + "; " + reason);
+        // Loaded after the update so the returned entity reflects it
+        LeaveBalance balance = leaveBalanceRepository.findById(balanceId).orElseThrow();
+        appendEntry(balance.getEmployeeId(), balance.getYear(), LeaveLedgerEntryType.ADJUSTMENT, adjustment, null, reason);
+        log.info("Adjusted leave balance {} by {}. New balance: {}", balanceId, adjustment, balance.getBalance());
+        return balance;
+    }
+
+    /**
+     * Get ledger entries of employee in year (oldest first)
+     */
+    public List<LeaveLedgerEntry> getLedgerEntries(Long employeeId, Integer year) {
+        return leaveLedgerEntryRepository.findByEmployeeIdAndYearOrderByIdAsc(employeeId, year);
+    }
+
+    // =====================================================
+    // LEDGER HELPERS
+    // =====================================================
+
+    private void appendRequestEntry(Long employeeId, Integer year, LeaveLedgerEntryType type,
+                                    double days, Long leaveRequestId) {
+        try {
+            jdbcTemplate.update(INSERT_ENTRY_SQL, employeeId, year, type.name(), days, leaveRequestId,
+                    leaveRequestId != null ? "Leave request #" + leaveRequestId : null);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException(
+                    "Leave request " + leaveRequestId + " already has a " + type.name() + " entry");
         }
+    }
 
-        LeaveBalance saved = leaveBalanceRepository.save(balance);
-        log.info("Adjusted leave balance {} by {}. New balance: {}", balanceId, adjustment, newBalance);
-        return saved;
+    private void appendEntry(Long employeeId, Integer year, LeaveLedgerEntryType type,
+                             double days, Long leaveRequestId, String note) {
+        if (days == 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_ENTRY_SQL, employeeId, year, type.name(), days, leaveRequestId, note);
     }
 
+    private void initializeMissingBalances(List<Deduction> deductions) {
+        Map<Integer, Set<Long>> employeesByYear = new HashMap<>();
+        for (Deduction d : deductions) {
+            employeesByYear.computeIfAbsent(d.year(), k -> new LinkedHashSet<>()).add(d.employeeId());
+        }
+        employeesByYear.forEach((year, employeeIds) -> {
+            List<Object> args = new ArrayList<>(employeeIds.size() + 1);
+            args.add(year);
+            args.addAll(employeeIds);
+            String sql = String.format(EXISTING_EMPLOYEES_SQL, String.join(",", Collections.nCopies(employeeIds.size(), "?")));
+            employeeIds.removeAll(jdbcTemplate.queryForList(sql, Long.class, args.toArray()));
+            for (Long employeeId : employeeIds) {
+                ensureBalance(employeeId, year);
+            }
+        });
+    }
+
+    /**
+     * Create the year's balance with the annual grant unless it exists
+     * Idempotent under concurrency: a second creator waits for the first one's row and inserts nothing
+     */
+    private void ensureBalance(Long employeeId, Integer year) {
+        if (leaveBalanceRepository.existsByEmployeeIdAndYearAndDeletedAtIsNull(employeeId, year)) {
+            return;
+        }
+        if (jdbcTemplate.update(INIT_BALANCE_SQL, employeeId, year) == 1) {
+            appendEntry(employeeId, year, LeaveLedgerEntryType.GRANT, 12.0, null, "Jatah tahunan");
+            log.info("Initialized leave balance for employee {} in year {}", employeeId, year);
+        }
+    }
+
+    private double getRemaining(Long employeeId, Integer year) {
+        List<Double> remaining = jdbcTemplate.queryForList(REMAINING_SQL, Double.class, employeeId, year);
+        return remaining.isEmpty() || remaining.get(0) == null ? 0.0 : remaining.get(0);
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    /**
+     * Balance deduction of one leave request in a batch
+     */
+    public record Deduction(Long leaveRequestId, Long employeeId, Integer year, double days) {}
+
+    /**
+     * Carried forward and expired days of a year-end rollover
+     */
+    public record CarryForward(double carried, double expired) {}
+
     /**
      * DTO for leave balance statistics
      */
@@ -0,0 +1,345 @@
+package com.hris.service;
+
+import com.hris.model.LeaveRequest;
+import com.hris.model.enums.LeaveRequestStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Leave Interval Index
+ * Index in-memory leave request aktif (PENDING_SUPERVISOR, PENDING_HR, APPROVED; belum di-soft delete)
+ * untuk cek overlap dan "sedang cuti" tanpa query
+ *
+ * - Per employee: augmented interval tree immutable (BST seimbang implisit di atas array urut start
+ *   date, tiap node menyimpan max end date subtree-nya); subtree yang max end < start atau node yang
+ *   start > end dilewati: tanpa hasil O(log n), dengan k hasil O(k log n), bukan O(n)
+ * - Global: interval tree APPROVED semua employee dengan struktur yang sama untuk
+ *   batch "siapa cuti pada tanggal X" (dashboard, roster); dibangun ulang lazy setelah ada perubahan
+ * - Dimuat saat startup (satu query) dan disinkronkan setelah commit create/update/approve/
+ *   reject/cancel/reimburse (copy-on-write per employee)
+ */
+@Slf4j
+@Service
+public class LeaveIntervalIndex {
+
+    private static final String LOAD_SQL =
+            "SELECT id, employee_id, start_date, end_date, status FROM leave_requests " +
+            "WHERE status IN ('PENDING_SUPERVISOR', 'PENDING_HR', 'APPROVED') AND deleted_at IS NULL";
+
+    private static final Comparator<Interval> BY_START =
+            Comparator.comparingLong(Interval::start).thenComparingLong(Interval::id);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTemplate;
+
+    private final AtomicReference<Map<Long, IntervalSet>> byEmployee = new AtomicReference<>();
+    private final AtomicReference<IntervalSet> approved = new AtomicReference<>();
+    private final CacheVersion version = new CacheVersion();
+
+    public LeaveIntervalIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Load in a separate read-only transaction so a caller's uncommitted writes never leak into the index
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    // =====================================================
+    // LOOKUP
+    // =====================================================
+
+    /**
+     * Check if employee has an active leave request overlapping date range (inclusive)
+     * excludeId: leave request to ignore (the one being updated), may be null
+     */
+    public boolean hasOverlap(Long employeeId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+        IntervalSet set = getIndex().get(employeeId);
+        return set != null && set.anyOverlap(startDate.toEpochDay(), endDate.toEpochDay(), excludeId, false);
+    }
+
+    /**
+     * Ids of active leave requests of employee overlapping date range (inclusive)
+     */
+    public List<Long> findOverlapping(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        IntervalSet set = getIndex().get(employeeId);
+        List<Long> ids = new ArrayList<>();
+        if (set != null) {
+            set.collect(startDate.toEpochDay(), endDate.toEpochDay(), false, interval -> ids.add(interval.id()));
+        }
+        return ids;
+    }
+
+    /**
+     * Check if employee has approved leave on date
+     */
+    public boolean isOnLeave(Long employeeId, LocalDate date) {
+        IntervalSet set = getIndex().get(employeeId);
+        long day = date.toEpochDay();
+        return set != null && set.anyOverlap(day, day, null, true);
+    }
+
+    /**
+     * Employees with approved leave on date, keyed by employee id (value: leave request id)
+     */
+    public Map<Long, Long> getEmployeesOnLeave(LocalDate date) {
+        long day = date.toEpochDay();
+        Map<Long, Long> result = new HashMap<>();
+        getApproved().collect(day, day, true, interval -> result.putIfAbsent(interval.employeeId(), interval.id()));
+        return result;
+    }
+
+    // =====================================================
+    // SYNC
+    // =====================================================
+
+    /**
+     * Sync leave request into index after the surrounding transaction commits
+     * (applied immediately when there is no transaction)
+     * Status and dates are read at commit time, so later changes in the same transaction are included
+     */
+    public void track(LeaveRequest leaveRequest) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(leaveRequest);
+                }
+            });
+        } else {
+            apply(leaveRequest);
+        }
+    }
+
+    private void apply(LeaveRequest leaveRequest) {
+        Long id = leaveRequest.getId();
+        Long employeeId = leaveRequest.getEmployee() != null
+                ? leaveRequest.getEmployee().getId() : leaveRequest.getEmployeeId();
+        if (id == null || employeeId == null) {
+            return;
+        }
+
+        // Bump first: a load running concurrently is discarded instead of published stale
+        version.evict(approved);
+        Map<Long, IntervalSet> index = byEmployee.get();
+        if (index == null) {
+            return;
+        }
+
+        Interval interval = isActive(leaveRequest.getStatus()) && leaveRequest.getDeletedAt() == null
+                ? new Interval(id, employeeId, leaveRequest.getStartDate().toEpochDay(),
+                        leaveRequest.getEndDate().toEpochDay(), leaveRequest.getStatus() == LeaveRequestStatus.APPROVED)
+                : null;
+        index.compute(employeeId, (k, current) -> {
+            IntervalSet updated = (current != null ? current : IntervalSet.EMPTY).with(id, interval);
+            return updated.isEmpty() ? null : updated;
+        });
+        // Bump again after the change so an approved index built from the old state is not kept
+        version.evict(approved);
+    }
+
+    /**
+     * Warm up index on startup so the first leave submission does not pay for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            getIndex();
+        } catch (Exception e) {
+            log.warn("Failed to warm up leave interval index: {}", e.getMessage());
+        }
+    }
+
+    // =====================================================
+    // SNAPSHOT
+    // =====================================================
+
+    private Map<Long, IntervalSet> getIndex() {
+        Map<Long, IntervalSet> current = byEmployee.get();
+        if (current != null) {
+            return current;
+        }
+
+        long loadVersion = version.current();
+        List<Interval> intervals = loadTemplate.execute(status -> jdbcTemplate.query(LOAD_SQL, (rs, i) -> new Interval(
+                rs.getLong("id"),
+                rs.getLong("employee_id"),
+                rs.getDate("start_date").toLocalDate().toEpochDay(),
+                rs.getDate("end_date").toLocalDate().toEpochDay(),
+                LeaveRequestStatus.APPROVED.name().equals(rs.getString("status")))));
+
+        Map<Long, List<Interval>> grouped = new HashMap<>();
+        for (Interval interval : intervals) {
+            grouped.computeIfAbsent(interval.employeeId(), k -> new ArrayList<>()).add(interval);
+        }
+        Map<Long, IntervalSet> loaded = new ConcurrentHashMap<>();
+        grouped.forEach((employeeId, list) -> loaded.put(employeeId, IntervalSet.of(list)));
+
+        version.publish(byEmployee, loadVersion, loaded);
+        log.debug("Loaded leave interval index: {} leave requests for {} employees", intervals.size(), loaded.size());
+        return loaded;
+    }
+
+    private IntervalSet getApproved() {
+        IntervalSet current = approved.get();
+        if (current != null) {
+            return current;
+        }
+
+        long buildVersion = version.current();
+        List<Interval> intervals = new ArrayList<>();
+        for (IntervalSet set : getIndex().values()) {
+            for (Interval interval : set.intervals) {
+                if (interval.approved()) {
+                    intervals.add(interval);
+                }
+            }
+        }
+        IntervalSet built = IntervalSet.of(intervals);
+        version.publish(approved, buildVersion, built);
+        return built;
+    }
+
+    private static boolean isActive(LeaveRequestStatus status) {
+        return status != null && (status.isPending() || status.isApproved());
+    }
+
+    /**
+     * Leave request date range as epoch days (inclusive)
+     */
+    record Interval(long id, long employeeId, long start, long end, boolean approved) {
+    }
+
+    /**
+     * Immutable augmented interval tree: intervals sorted by start form an implicit balanced BST
+     * (root of range [lo, hi) is its middle element), maxEnd[i] = max end in the subtree rooted at i
+     * (separately for all intervals and approved only)
+     */
+    static final class IntervalSet {
+        static final IntervalSet EMPTY = new IntervalSet(new Interval[0]);
+
+        private final Interval[] intervals;
+        private final long[] maxEnd;
+        private final long[] maxApprovedEnd;
+
+        private IntervalSet(Interval[] sorted) {
+            this.intervals = sorted;
+            this.maxEnd = new long[sorted.length];
+            this.maxApprovedEnd = new long[sorted.length];
+            build(0, sorted.length);
+        }
+
+        static IntervalSet of(List<Interval> intervals) {
+            Interval[] sorted = intervals.toArray(new Interval[0]);
+            Arrays.sort(sorted, BY_START);
+            return new IntervalSet(sorted);
+        }
+
+        /**
+         * Fill subtree max ends of range [lo, hi); returns the root index, or -1 for an empty range
+         */
+        private int build(int lo, int hi) {
+            if (lo >= hi) {
+                return -1;
+            }
+            int mid = (lo + hi) >>> 1;
+            int left = build(lo, mid);
+            int right = build(mid + 1, hi);
+            long all = intervals[mid].end();
+            long approvedOnly = intervals[mid].approved() ? intervals[mid].end() : Long.MIN_VALUE;
+            if (left >= 0) {
+                all = Math.max(all, maxEnd[left]);
+                approvedOnly = Math.max(approvedOnly, maxApprovedEnd[left]);
+            }
+            if (right >= 0) {
+                all = Math.max(all, maxEnd[right]);
+                approvedOnly = Math.max(approvedOnly, maxApprovedEnd[right]);
+            }
+            maxEnd[mid] = all;
+            maxApprovedEnd[mid] = approvedOnly;
+            return mid;
+        }
+
+        boolean isEmpty() {
+            return intervals.length == 0;
+        }
+
+        /**
+         * Copy with interval id replaced (or removed when interval is null)
+         */
+        IntervalSet with(long id, Interval interval) {
+            List<Interval> list = new ArrayList<>(intervals.length + 1);
+            for (Interval existing : intervals) {
+                if (existing.id() != id) {
+                    list.add(existing);
+                }
+            }
+            if (interval != null) {
+                list.add(interval);
+            }
+            return of(list);
+        }
+
+        boolean anyOverlap(long start, long end, Long excludeId, boolean approvedOnly) {
+            return search(0, intervals.length, start, end, approvedOnly,
+                    interval -> excludeId == null || interval.id() != excludeId);
+        }
+
+        /**
+         * Visit intervals overlapping [start, end]
+         */
+        void collect(long start, long end, boolean approvedOnly, Consumer<Interval> action) {
+            search(0, intervals.length, start, end, approvedOnly, interval -> {
+                action.accept(interval);
+                return false;
+            });
+        }
+
+        /**
+         * Walk subtree [lo, hi) in start order, skipping subtrees that end before start and
+         * everything after the first node that starts after end
+         *
+         * @param stop Called per overlapping interval; returning true ends the search
+         * @return true if the search was stopped
+         */
+        private boolean search(int lo, int hi, long start, long end, boolean approvedOnly, Predicate<Interval> stop) {
+            if (lo >= hi) {
+                return false;
+            }
+            int mid = (lo + hi) >>> 1;
+            if ((approvedOnly ? maxApprovedEnd : maxEnd)[mid] < start) {
+                return false;
+            }
+            if (search(lo, mid, start, end, approvedOnly, stop)) {
+                return true;
+            }
+            Interval interval = intervals[mid];
+            if (interval.start() > end) {
+                return false;
+            }
+            if (interval.end() >= start && (!approvedOnly || interval.approved()) && stop.test(interval)) {
+                return true;
+            }
+            return search(mid + 1, hi, start, end, approvedOnly, stop);
+        }
+    }
+}
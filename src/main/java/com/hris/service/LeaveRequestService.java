@@ -4,6 +4,7 @@ import com.hris.model.Employee;
 import com.hris.model.LeaveRequest;
 import com.hris.model.enums.LeaveRequestStatus;
 import com.hris.model.enums.LeaveType;
+import com.hris.repository.EmployeeRepository;
 import com.hris.repository.LeaveRequestRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +14,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service untuk LeaveRequest Entity
@@ -35,6 +38,8 @@ public class LeaveRequestService {
     private final LeaveBalanceService leaveBalanceService;
     private final ApprovalService approvalService;
     private final EmployeeService employeeService;
+    private final LeaveIntervalIndex leaveIntervalIndex;
+    private final EmployeeRepository employeeRepository;
 
     // =====================================================
     // QUERY METHODS
@@ -75,6 +80,14 @@ public class LeaveRequestService {
         return leaveRequestRepository.findPendingSupervisorRequests();
     }
 
+    /**
+     * Get pending supervisor requests of the supervisor's team (via SupervisorIndex, no full scan)
+     */
+    public List<LeaveRequest> getTeamPendingSupervisorRequests(Long supervisorId) {
+        Set<Long> team = approvalService.getSubordinateIds(supervisorId);
+        return team.isEmpty() ? List.of() : leaveRequestRepository.findPendingSupervisorRequestsByEmployeeIds(team);
+    }
+
     /**
      * Get pending HR requests (for HR approval page)
      */
@@ -101,22 +114,16 @@ public class LeaveRequestService {
             throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
 
-        // Check for overlapping leave requests
-        List<LeaveRequest> overlapping = leaveRequestRepository.findOverlappingLeaveRequests(
-                employee.getId(),
-                leaveRequest.getStartDate(),
-                leaveRequest.getEndDate()
-        );
+        // Check for overlapping leave requests (in-memory interval index, then locked re-check)
+        checkNoOverlap(employee.getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate(), null);
 
-        if (!overlapping.isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Employee already has a leave request during this period"
-            );
-        }
+        // Working days only: weekends/shift off-days and holidays are not deducted
+        double duration = leaveBalanceService.calculateLeaveDays(
+                employee.getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        leaveRequest.setWorkingDays(duration);
 
         // Check balance if leave type requires deduction
         if (leaveBalanceService.requiresBalanceDeduction(leaveRequest.getLeaveType())) {
-            double duration = leaveRequest.getDurationDays();
             int year = leaveRequest.getStartDate().getYear();
 
             // Check if employee has sufficient balance
@@ -144,8 +151,14 @@ public class LeaveRequestService {
         String initialStatus = approvalService.getInitialStatus(requester);
         leaveRequest.setStatus(LeaveRequestStatus.valueOf(initialStatus));
 
+        // Record the supervisor assigned at submission (as WFH/overtime do)
+        if (leaveRequest.getStatus() == LeaveRequestStatus.PENDING_SUPERVISOR) {
+            leaveRequest.setSupervisor(approvalService.determineSupervisor(requester));
+        }
+
         // Save leave request
         LeaveRequest saved = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(saved);
         log.info("Created leave request {} for employee {} from {} to {} with status {}",
                 saved.getId(), saved.getEmployee().getId(),
                 saved.getStartDate(), saved.getEndDate(), saved.getStatus());
@@ -168,15 +181,21 @@ public class LeaveRequestService {
             );
         }
 
+        checkNoOverlap(leaveRequest.getEmployee().getId(),
+                leaveRequestDetails.getStartDate(), leaveRequestDetails.getEndDate(), id);
+
         // Update fields
         leaveRequest.setLeaveType(leaveRequestDetails.getLeaveType());
         leaveRequest.setStartDate(leaveRequestDetails.getStartDate());
         leaveRequest.setEndDate(leaveRequestDetails.getEndDate());
         leaveRequest.setReason(leaveRequestDetails.getReason());
 
+        double duration = leaveBalanceService.calculateLeaveDays(
+                leaveRequest.getEmployee().getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        leaveRequest.setWorkingDays(duration);
+
         // Re-validate balance if applicable
         if (leaveBalanceService.requiresBalanceDeduction(leaveRequest.getLeaveType())) {
-            double duration = leaveRequest.getDurationDays();
             int year = leaveRequest.getStartDate().getYear();
 
             var balanceOpt = leaveBalanceService.getLeaveBalance(
@@ -190,10 +209,31 @@ public class LeaveRequestService {
         }
 
         LeaveRequest updated = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(updated);
         log.info("Updated leave request {}", id);
         return updated;
     }
 
+    /**
+     * Reject a date range overlapping another active leave request of the employee
+     * The index is only updated after commit, so two concurrent submissions could both pass it:
+     * the employee row lock serializes them and the locking read sees the other's committed request
+     */
+    private void checkNoOverlap(Long employeeId, LocalDate startDate, LocalDate endDate, Long excludeId) {
+        if (leaveIntervalIndex.hasOverlap(employeeId, startDate, endDate, excludeId)) {
+            throw new IllegalArgumentException("Employee already has a leave request during this period");
+        }
+
+        employeeRepository.lockById(employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("Employee not found with id: " + employeeId));
+        boolean overlaps = leaveRequestRepository.lockOverlappingLeaveRequests(employeeId, startDate, endDate)
+                .stream()
+                .anyMatch(other -> !other.getId().equals(excludeId));
+        if (overlaps) {
+            throw new IllegalArgumentException("Employee already has a leave request during this period");
+        }
+    }
+
     // =====================================================
     // APPROVAL METHODS (2-LEVEL)
     // =====================================================
@@ -229,6 +269,7 @@ public class LeaveRequestService {
         leaveRequest.approveBySupervisor(supervisor, note);
 
         LeaveRequest approved = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(approved);
         log.info("Approved leave request {} by supervisor {}", id, supervisorId);
         return approved;
     }
@@ -264,6 +305,7 @@ public class LeaveRequestService {
         leaveRequest.rejectBySupervisor(supervisor, reason);
 
         LeaveRequest rejected = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(rejected);
         log.info("Rejected leave request {} by supervisor {}. Reason: {}", id, supervisorId, reason);
         return rejected;
     }
@@ -298,20 +340,26 @@ public class LeaveRequestService {
         // Approve at HR level (final approval)
         leaveRequest.approveByHr(hr, note);
 
+        // Recalculate at approval time: shifts or holidays may have changed since submission
+        double duration = leaveBalanceService.calculateLeaveDays(
+                leaveRequest.getEmployee().getId(), leaveRequest.getStartDate(), leaveRequest.getEndDate());
+        leaveRequest.setWorkingDays(duration);
+
         // Deduct balance if applicable
         if (leaveBalanceService.requiresBalanceDeduction(leaveRequest.getLeaveType())) {
-            double duration = leaveRequest.getDurationDays();
             int year = leaveRequest.getStartDate().getYear();
             leaveBalanceService.deductBalance(
                     leaveRequest.getEmployee().getId(),
                     year,
-                    duration
+                    duration,
+                    leaveRequest.getId()
             );
             log.info("Deducted {} days from leave balance for employee {}",
                     duration, leaveRequest.getEmployee().getId());
         }
 
         LeaveRequest approved = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(approved);
         log.info("Approved leave request {} by HR {}", id, hrId);
         return approved;
     }
@@ -347,6 +395,7 @@ public class LeaveRequestService {
         leaveRequest.rejectByHr(hr, reason);
 
         LeaveRequest rejected = leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(rejected);
         log.info("Rejected leave request {} by HR {}. Reason: {}", id, hrId, reason);
         return rejected;
     }
@@ -380,6 +429,7 @@ public class LeaveRequestService {
         // Soft delete
         leaveRequest.setDeletedAt(LocalDateTime.now());
         leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(leaveRequest);
 
         log.info("Cancelled leave request {} by employee {}", id, employee.getId());
         return leaveRequest;
@@ -399,14 +449,15 @@ public class LeaveRequestService {
             );
         }
 
-        // Reimburse balance if applicable
+        // Reimburse balance if applicable (exactly what was deducted on approval)
         if (leaveBalanceService.requiresBalanceDeduction(leaveRequest.getLeaveType())) {
-            double duration = leaveRequest.getDurationDays();
+            double duration = leaveRequest.getDeductibleDays();
             int year = leaveRequest.getStartDate().getYear();
             leaveBalanceService.reimburseBalance(
                     leaveRequest.getEmployee().getId(),
                     year,
-                    duration
+                    duration,
+                    leaveRequest.getId()
             );
             log.info("Reimbursed {} days to leave balance for employee {}",
                     duration, leaveRequest.getEmployee().getId());
@@ -415,6 +466,7 @@ public class LeaveRequestService {
         // Soft delete
         leaveRequest.setDeletedAt(LocalDateTime.now());
         leaveRequestRepository.save(leaveRequest);
+        leaveIntervalIndex.track(leaveRequest);
 
         log.info("Reimbursed and cancelled leave request {}", id);
         return leaveRequest;
@@ -428,10 +480,15 @@ public class LeaveRequestService {
      * Check if employee is on leave on specific date
      */
     public boolean isEmployeeOnLeave(Long employeeId, LocalDate date) {
-        List<LeaveRequest> approvedLeaves = leaveRequestRepository.findApprovedLeaveInDateRange(
-                employeeId, date, date);
+        return leaveIntervalIndex.isOnLeave(employeeId, date);
+    }
 
-        return !approvedLeaves.isEmpty();
+    /**
+     * Employees on approved leave on date (employee id -> leave request id)
+     * Batch lookup for dashboards and rosters
+     */
+    public Map<Long, Long> getEmployeesOnLeave(LocalDate date) {
+        return leaveIntervalIndex.getEmployeesOnLeave(date);
     }
 
     /**
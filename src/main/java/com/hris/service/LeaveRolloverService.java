@@ -0,0 +1,478 @@
+package com.hris.service;
+
+import com.hris.model.enums.LeaveLedgerEntryType;
+import com.hris.model.enums.LeaveType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Leave Rollover Service
+ * Rollover saldo cuti akhir tahun untuk semua employee aktif (carry forward PP No. 35 Tahun 2021)
+ *
+ * - Employee dibagi ke beberapa partisi (rentang id) yang diproses paralel
+ * - Tiap partisi membaca employee per chunk dengan keyset (id > checkpoint); saldo tahun lalu dibaca
+ *   satu query per chunk, saldo baru + ledger GRANT/CARRY_FORWARD ditulis dengan JDBC batch insert
+ * - Checkpoint partisi disimpan di transaksi yang sama dengan chunk, sehingga rollover yang terputus
+ *   dilanjutkan dari chunk berikutnya
+ * - Employee yang sudah punya saldo tahun target (misal dibuat saat cuti diajukan) mendapat carry
+ *   forward lewat UPDATE; rolled_over_at menandai saldo yang sudah di-rollover sehingga hanya sekali
+ * - Partisi diklaim hanya jika PENDING/FAILED, atau RUNNING tanpa checkpoint selama lease (instance mati)
+ */
+@Slf4j
+@Service
+public class LeaveRolloverService {
+
+    static final String STATUS_COMPLETED = "COMPLETED";
+    static final String STATUS_FAILED = "FAILED";
+
+    private static final String ID_RANGE_SQL =
+            "SELECT MIN(id), MAX(id) FROM employees WHERE deleted_at IS NULL";
+
+    private static final String INSERT_PARTITION_SQL =
+            "INSERT IGNORE INTO leave_rollover_partitions (target_year, partition_no, range_start, range_end) " +
+            "VALUES (?, ?, ?, ?)";
+
+    private static final String SELECT_PARTITIONS_SQL =
+            "SELECT id, partition_no, range_start, range_end, status, last_employee_id, processed_employees, " +
+            "created_balances, carried_forward_days, expired_days, started_at, finished_at, error_message " +
+            "FROM leave_rollover_partitions WHERE target_year = ? ORDER BY partition_no";
+
+    private static final String UNFINISHED_YEARS_SQL =
+            "SELECT DISTINCT target_year FROM leave_rollover_partitions WHERE status IN ('PENDING', 'RUNNING')";
+
+    // updated_at is the lease heartbeat: set on claim and on every checkpoint
+    private static final String CLAIM_SQL =
+            "UPDATE leave_rollover_partitions SET status = 'RUNNING', started_at = COALESCE(started_at, NOW()), " +
+            "finished_at = NULL, error_message = NULL, updated_at = NOW() WHERE id = ? " +
+            "AND (status IN ('PENDING', 'FAILED') OR (status = 'RUNNING' AND updated_at < NOW() - INTERVAL ? SECOND))";
+
+    private static final String CHECKPOINT_OF_SQL =
+            "SELECT last_employee_id FROM leave_rollover_partitions WHERE id = ?";
+
+    private static final String CHECKPOINT_SQL =
+            "UPDATE leave_rollover_partitions SET last_employee_id = ?, processed_employees = processed_employees + ?, " +
+            "created_balances = created_balances + ?, carried_forward_days = carried_forward_days + ?, " +
+            "expired_days = expired_days + ?, updated_at = NOW() WHERE id = ?";
+
+    // Interrupted by shutdown: hand the partition back so the next run claims it without waiting for the lease
+    private static final String RELEASE_SQL =
+            "UPDATE leave_rollover_partitions SET status = 'PENDING' WHERE id = ? AND status = 'RUNNING'";
+
+    private static final String FINISH_SQL =
+            "UPDATE leave_rollover_partitions SET status = ?, finished_at = NOW(), error_message = ? WHERE id = ?";
+
+    // Active = not deleted and not resigned/fired/inactive
+    private static final String SELECT_EMPLOYEES_SQL =
+            "SELECT id FROM employees WHERE id > ? AND id <= ? AND deleted_at IS NULL " +
+            "AND (status IS NULL OR status = 'ACTIVE') ORDER BY id LIMIT ?";
+
+    private static final String SELECT_PREVIOUS_SQL =
+            "SELECT employee_id, annual_quota, balance - used AS remaining FROM leave_balances " +
+            "WHERE year = ? AND deleted_at IS NULL AND employee_id IN (%s)";
+
+    private static final String SELECT_EXISTING_SQL =
+            "SELECT employee_id, rolled_over_at IS NOT NULL AS rolled_over FROM leave_balances " +
+            "WHERE year = ? AND deleted_at IS NULL AND employee_id IN (%s)";
+
+    private static final String INSERT_BALANCE_SQL =
+            "INSERT INTO leave_balances (employee_id, year, annual_quota, balance, used, carried_forward, " +
+            "carried_forward_expiry_date, expired_balance, total_deduction, rolled_over_at, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, 0, ?, ?, ?, 0, NOW(), 0, NOW(), NOW())";
+
+    // Existing target-year balance: add the carry once (rolled_over_at guard)
+    private static final String APPLY_CARRY_SQL =
+            "UPDATE leave_balances SET carried_forward = COALESCE(carried_forward, 0) + ?, " +
+            "carried_forward_expiry_date = ?, expired_balance = COALESCE(expired_balance, 0) + ?, " +
+            "balance = balance + ?, rolled_over_at = NOW(), version = version + 1, updated_at = NOW() " +
+            "WHERE employee_id = ? AND year = ? AND deleted_at IS NULL AND rolled_over_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaveBalanceService leaveBalanceService;
+    private final int partitionCount;
+    private final int chunkSize;
+    private final int leaseSeconds;
+
+    private final ExecutorService partitionExecutor;
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leave-rollover");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LeaveRolloverService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                LeaveBalanceService leaveBalanceService,
+                                @Value("${app.leave.rollover.partitions:4}") int partitionCount,
+                                @Value("${app.leave.rollover.chunk-size:1000}") int chunkSize,
+                                @Value("${app.leave.rollover.lease-seconds:600}") int leaseSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaveBalanceService = leaveBalanceService;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.partitionExecutor = Executors.newFixedThreadPool(this.partitionCount, runnable -> {
+            Thread thread = new Thread(runnable, "leave-rollover-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // =====================================================
+    // SCHEDULING
+    // =====================================================
+
+    /**
+     * Roll over all balances into the new year (January 1st)
+     */
+    @Scheduled(cron = "${app.leave.rollover.cron:0 5 0 1 1 *}")
+    public void rolloverNewYear() {
+        try {
+            runRollover(LocalDate.now().getYear());
+        } catch (Exception e) {
+            log.error("Scheduled leave rollover failed", e);
+        }
+    }
+
+    /**
+     * Expire carried forward days past their expiry date (daily, set-based)
+     */
+    @Scheduled(cron = "${app.leave.expiry-cron:0 15 0 * * *}")
+    public void expireCarriedForward() {
+        try {
+            leaveBalanceService.processExpiredCarriedForwardBalances();
+        } catch (Exception e) {
+            log.error("Failed to expire carried forward leave balances", e);
+        }
+    }
+
+    /**
+     * Resume rollovers interrupted by a shutdown, or whose instance died (lease expired)
+     * Failed partitions are only restarted by an explicit run
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.leave.rollover.resume-interval-ms:300000}",
+            fixedDelayString = "${app.leave.rollover.resume-interval-ms:300000}")
+    public void resumeUnfinished() {
+        for (Integer year : jdbcTemplate.queryForList(UNFINISHED_YEARS_SQL, Integer.class)) {
+            log.info("Resuming leave rollover for {}", year);
+            startRollover(year);
+        }
+    }
+
+    /**
+     * Start rollover in the background
+     *
+     * @return false if a rollover is already running
+     */
+    public boolean startRollover(int targetYear) {
+        if (running.get()) {
+            return false;
+        }
+        coordinator.submit(() -> {
+            try {
+                runRollover(targetYear);
+            } catch (Exception e) {
+                log.error("Leave rollover for {} failed", targetYear, e);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running partitions keep their checkpoint and are resumed on next startup
+        coordinator.shutdownNow();
+        partitionExecutor.shutdownNow();
+    }
+
+    // =====================================================
+    // EXECUTION
+    // =====================================================
+
+    /**
+     * Roll over previous year balances of all active employees into targetYear
+     * Safe to re-run: completed partitions are skipped, others continue from their checkpoint
+     */
+    public RolloverResult runRollover(int targetYear) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Leave rollover is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            createPartitions(targetYear);
+
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (PartitionStatus partition : getStatus(targetYear)) {
+                if (!STATUS_COMPLETED.equals(partition.status())) {
+                    futures.add(partitionExecutor.submit(() -> runPartition(targetYear, partition)));
+                }
+            }
+
+            int processed = 0;
+            int failed = 0;
+            for (Future<Integer> future : futures) {
+                try {
+                    processed += future.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - started;
+            double throughput = processed * 1000.0 / Math.max(1, elapsed);
+            log.info("Leave rollover {}: {} employees in {} ms ({} employees/s) over {} partitions, {} failed",
+                    targetYear, processed, elapsed, String.format("%.0f", throughput), futures.size(), failed);
+            return new RolloverResult(targetYear, processed, elapsed, throughput, failed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get partition progress of a rollover
+     */
+    public List<PartitionStatus> getStatus(int targetYear) {
+        return jdbcTemplate.query(SELECT_PARTITIONS_SQL, (rs, i) -> new PartitionStatus(
+                rs.getLong("id"),
+                rs.getInt("partition_no"),
+                rs.getLong("range_start"),
+                rs.getLong("range_end"),
+                rs.getString("status"),
+                rs.getLong("last_employee_id"),
+                rs.getInt("processed_employees"),
+                rs.getInt("created_balances"),
+                rs.getDouble("carried_forward_days"),
+                rs.getDouble("expired_days"),
+                rs.getTimestamp("started_at") != null ? rs.getTimestamp("started_at").toLocalDateTime() : null,
+                rs.getTimestamp("finished_at") != null ? rs.getTimestamp("finished_at").toLocalDateTime() : null,
+                rs.getString("error_message")), targetYear);
+    }
+
+    /**
+     * Split employee ids into contiguous ranges once per target year
+     * The last range is open-ended so employees created during the run are included
+     */
+    private void createPartitions(int targetYear) {
+        if (!getStatus(targetYear).isEmpty()) {
+            return;
+        }
+
+        long[] range = jdbcTemplate.queryForObject(ID_RANGE_SQL, (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        long lower = range != null ? range[0] - 1 : 0;
+        long upper = range != null ? range[1] : 0;
+        long step = Math.max(1, (upper - lower + partitionCount - 1) / partitionCount);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int p = 0; p < partitionCount; p++) {
+            long start = lower + p * step;
+            long end = p == partitionCount - 1 ? Long.MAX_VALUE : start + step;
+            rows.add(new Object[]{targetYear, p, start, end});
+        }
+        jdbcTemplate.batchUpdate(INSERT_PARTITION_SQL, rows);
+    }
+
+    private int runPartition(int targetYear, PartitionStatus partition) {
+        if (jdbcTemplate.update(CLAIM_SQL, partition.id(), leaseSeconds) == 0) {
+            return 0;
+        }
+
+        // Checkpoint read after the claim: a taken-over partition may have advanced since getStatus
+        Long checkpoint = jdbcTemplate.queryForObject(CHECKPOINT_OF_SQL, Long.class, partition.id());
+        long cursor = Math.max(checkpoint != null ? checkpoint : 0, partition.rangeStart());
+        int processed = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> employeeIds = jdbcTemplate.queryForList(SELECT_EMPLOYEES_SQL, Long.class,
+                        cursor, partition.rangeEnd(), chunkSize);
+                if (employeeIds.isEmpty()) {
+                    break;
+                }
+
+                transactionTemplate.executeWithoutResult(status -> rolloverChunk(targetYear, partition.id(), employeeIds));
+                cursor = employeeIds.get(employeeIds.size() - 1);
+                processed += employeeIds.size();
+            }
+
+            if (Thread.currentThread().isInterrupted()) {
+                log.info("Leave rollover {} partition {} interrupted at employee {}, will resume on restart",
+                        targetYear, partition.partitionNo(), cursor);
+                release(partition.id());
+                return processed;
+            }
+            jdbcTemplate.update(FINISH_SQL, STATUS_COMPLETED, null, partition.id());
+            return processed;
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                release(partition.id());
+                return processed;
+            }
+            log.error("Leave rollover {} partition {} failed at employee {}", targetYear, partition.partitionNo(), cursor, e);
+            jdbcTemplate.update(FINISH_SQL, STATUS_FAILED, e.getMessage(), partition.id());
+            throw e;
+        }
+    }
+
+    /**
+     * Best effort: if the database is unreachable during shutdown the lease expires instead
+     */
+    private void release(long partitionId) {
+        try {
+            jdbcTemplate.update(RELEASE_SQL, partitionId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release leave rollover partition {}: {}", partitionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Create new-year balances (or add the carry to existing ones not rolled over yet) and ledger
+     * entries for one chunk, then advance the checkpoint
+     */
+    private void rolloverChunk(int targetYear, long partitionId, List<Long> employeeIds) {
+        String placeholders = String.join(",", Collections.nCopies(employeeIds.size(), "?"));
+        int previousYear = targetYear - 1;
+
+        Map<Long, PreviousBalance> previous = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_PREVIOUS_SQL, placeholders), rs -> {
+            previous.put(rs.getLong("employee_id"), new PreviousBalance(rs.getInt("annual_quota"), rs.getDouble("remaining")));
+        }, params(previousYear, employeeIds));
+        Map<Long, Boolean> existing = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_EXISTING_SQL, placeholders), rs -> {
+            existing.put(rs.getLong("employee_id"), rs.getBoolean("rolled_over"));
+        }, params(targetYear, employeeIds));
+
+        Date expiryDate = Date.valueOf(LeaveBalanceService.carryForwardExpiryDate(targetYear));
+        List<Object[]> balances = new ArrayList<>();
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> carryUpdates = new ArrayList<>();
+        List<Long> carryEmployees = new ArrayList<>();
+        List<LeaveBalanceService.CarryForward> carries = new ArrayList<>();
+        double carriedTotal = 0;
+        double expiredTotal = 0;
+
+        for (Long employeeId : employeeIds) {
+            Boolean rolledOver = existing.get(employeeId);
+            if (Boolean.TRUE.equals(rolledOver)) {
+                continue;
+            }
+
+            PreviousBalance prev = previous.get(employeeId);
+            int quota = prev != null ? prev.annualQuota() : LeaveType.ANNUAL.getDefaultQuotaDays();
+            LeaveBalanceService.CarryForward carry = prev != null
+                    ? LeaveBalanceService.computeCarryForward(quota, prev.remaining())
+                    : new LeaveBalanceService.CarryForward(0, 0);
+
+            if (rolledOver != null) {
+                // Already granted when the balance was created; only the carry is missing
+                carryUpdates.add(new Object[]{carry.carried(), expiryDate, carry.expired(), carry.carried(),
+                        employeeId, targetYear});
+                carryEmployees.add(employeeId);
+                carries.add(carry);
+                continue;
+            }
+
+            balances.add(new Object[]{employeeId, targetYear, quota, quota + carry.carried(),
+                    carry.carried(), expiryDate, carry.expired()});
+            entries.add(new Object[]{employeeId, targetYear, LeaveLedgerEntryType.GRANT.name(),
+                    (double) quota, null, "Jatah tahunan"});
+            if (carry.carried() > 0) {
+                entries.add(new Object[]{employeeId, targetYear, LeaveLedgerEntryType.CARRY_FORWARD.name(),
+                        carry.carried(), null, "Carry forward dari " + previousYear});
+            }
+            carriedTotal += carry.carried();
+            expiredTotal += carry.expired();
+        }
+
+        if (!carryUpdates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(APPLY_CARRY_SQL, carryUpdates);
+            for (int i = 0; i < counts.length; i++) {
+                // 0 = rolled over concurrently (e.g. manual reset) after it was read
+                if (counts[i] == 0) {
+                    continue;
+                }
+                LeaveBalanceService.CarryForward carry = carries.get(i);
+                if (carry.carried() > 0) {
+                    entries.add(new Object[]{carryEmployees.get(i), targetYear, LeaveLedgerEntryType.CARRY_FORWARD.name(),
+                            carry.carried(), null, "Carry forward dari " + previousYear});
+                }
+                carriedTotal += carry.carried();
+                expiredTotal += carry.expired();
+            }
+        }
+
+        if (!balances.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BALANCE_SQL, balances);
+        }
+        if (!entries.isEmpty()) {
+            jdbcTemplate.batchUpdate(LeaveBalanceService.INSERT_ENTRY_SQL, entries);
+        }
+        jdbcTemplate.update(CHECKPOINT_SQL, employeeIds.get(employeeIds.size() - 1), employeeIds.size(),
+                balances.size(), carriedTotal, expiredTotal, partitionId);
+    }
+
+    private static Object[] params(int year, List<Long> employeeIds) {
+        Object[] params = new Object[employeeIds.size() + 1];
+        params[0] = year;
+        for (int i = 0; i < employeeIds.size(); i++) {
+            params[i + 1] = employeeIds.get(i);
+        }
+        return params;
+    }
+
+    private record PreviousBalance(int annualQuota, double remaining) {}
+
+    /**
+     * Progress of one rollover partition
+     */
+    public record PartitionStatus(long id,
+                                  int partitionNo,
+                                  long rangeStart,
+                                  long rangeEnd,
+                                  String status,
+                                  long lastEmployeeId,
+                                  int processedEmployees,
+                                  int createdBalances,
+                                  double carriedForwardDays,
+                                  double expiredDays,
+                                  LocalDateTime startedAt,
+                                  LocalDateTime finishedAt,
+                                  String errorMessage) {}
+
+    /**
+     * Outcome of a rollover run (processed in this run only)
+     */
+    public record RolloverResult(int targetYear,
+                                 int processedEmployees,
+                                 long elapsedMillis,
+                                 double employeesPerSecond,
+                                 int failedPartitions) {}
+}
@@ -0,0 +1,481 @@
+package com.hris.service;
+
+import com.hris.model.LecturerSalary;
+import com.hris.model.LecturerSalaryDetail;
+import com.hris.model.PublicationStaging;
+import com.hris.model.ResearchStaging;
+import com.hris.model.TeachingAttendanceStaging;
+import com.hris.model.TeachingScheduleStaging;
+import com.hris.model.ThesisExaminationStaging;
+import com.hris.model.ThesisGuidanceStaging;
+import com.hris.model.enums.LecturerEmploymentStatus;
+import com.hris.model.enums.LecturerRank;
+import com.hris.model.enums.LecturerWorkStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lecturer Payroll Run Service
+ * Hitung gaji semua dosen aktif untuk satu periode sekaligus
+ *
+ * - Profil dosen, salary yang sudah ada, tarif dan keenam tabel staging dibaca sekali
+ *   (satu query per tabel) lalu dikelompokkan per dosen, tanpa query per dosen
+ * - Perhitungan memakai LecturerSalaryService.computeSalary (sama dengan hitung per dosen) dan
+ *   dijalankan paralel per partisi
+ * - Tiap chunk ditulis dalam satu transaksi: header + detail dengan JDBC batch insert, staging yang
+ *   dipakai ditandai per tabel berdasarkan source id; jika ada staging yang sudah dipakai proses lain
+ *   chunk di-rollback lalu disimpan ulang satu per satu sehingga hanya dosen yang bentrok dilaporkan gagal
+ * - Hanya dosen dengan work_status ACTIVE yang dihitung; dosen Pensiun/Cuti dilaporkan sebagai skipped
+ * - Unique key (lecturer_profile_id, period, active_key) menolak gaji kedua untuk periode yang sama;
+ *   dosen yang sudah dihitung run lain setelah daftar dibaca dilaporkan sebagai Failure
+ */
+@Slf4j
+@Service
+public class LecturerPayrollRunService {
+
+    private static final String PROFILES_SQL =
+            "SELECT id, lecturer_rank, employment_status, work_status FROM lecturer_profiles " +
+            "WHERE deleted_at IS NULL ORDER BY id";
+
+    private static final String EXISTING_SQL =
+            "SELECT lecturer_profile_id FROM lecturer_salaries WHERE period = ? AND deleted_at IS NULL";
+
+    private static final String SCHEDULES_SQL =
+            "SELECT id, lecturer_id, course_code, course_name, sks, teaching_mode FROM teaching_schedule_staging " +
+            "WHERE payroll_period_used IS NULL AND deleted_at IS NULL ORDER BY id";
+
+    private static final String ATTENDANCES_SQL =
+            "SELECT id, lecturer_id, course_code, course_name, sks, teaching_mode FROM teaching_attendance_staging " +
+            "WHERE attendance_date BETWEEN ? AND ? AND attendance_status = 'HADIR' " +
+            "AND payroll_period_used IS NULL AND deleted_at IS NULL ORDER BY id";
+
+    private static final String GUIDANCE_SQL =
+            "SELECT id, lecturer_id, student_name, thesis_type, guidance_mode FROM thesis_guidance_staging " +
+            "WHERE payroll_period_used IS NULL AND deleted_at IS NULL ORDER BY id";
+
+    private static final String EXAMINATIONS_SQL =
+            "SELECT id, lecturer_id, student_name, thesis_type, examination_role, examination_mode " +
+            "FROM thesis_examination_staging WHERE payroll_period_used IS NULL AND deleted_at IS NULL ORDER BY id";
+
+    private static final String RESEARCH_SQL =
+            "SELECT id, lecturer_id, research_title FROM research_staging " +
+            "WHERE is_processed = FALSE AND deleted_at IS NULL ORDER BY id";
+
+    private static final String PUBLICATIONS_SQL =
+            "SELECT id, lecturer_id, publication_title, sinta_level, is_scopus_indexed, scopus_quartile " +
+            "FROM publication_staging WHERE is_processed = FALSE AND deleted_at IS NULL ORDER BY id";
+
+    private static final String INSERT_SALARY_SQL =
+            "INSERT INTO lecturer_salaries (lecturer_profile_id, period, lecturer_type, academic_rank, basic_salary, " +
+            "functional_allowance, teaching_honor_offline, teaching_honor_online, total_teaching_honor, " +
+            "thesis_guidance_honor_offline, thesis_guidance_honor_online, thesis_examination_honor_offline, " +
+            "thesis_examination_honor_online, research_honor, publication_honor, other_allowances, total_salary, " +
+            "status, calculated_at, rate_version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+    private static final String INSERT_DETAIL_SQL =
+            "INSERT INTO lecturer_salary_details (lecturer_salary_id, component_type, component_code, description, " +
+            "quantity, rate, amount, source_reference_id, source_table, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, NOW(), NOW())";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate loadTemplate;
+    private final LecturerSalaryService salaryService;
+    private final LecturerSalaryRateService rateService;
+    private final LecturerStagingMarker stagingMarker;
+    private final int partitionCount;
+    private final int chunkSize;
+
+    private final ExecutorService partitionExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LecturerPayrollRunService(JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     LecturerSalaryService salaryService,
+                                     LecturerSalaryRateService rateService,
+                                     LecturerStagingMarker stagingMarker,
+                                     @Value("${app.lecturer-payroll.partitions:4}") int partitionCount,
+                                     @Value("${app.lecturer-payroll.chunk-size:200}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // Staging tables are read in one read-only transaction so all six see the same snapshot
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setReadOnly(true);
+        this.salaryService = salaryService;
+        this.rateService = rateService;
+        this.stagingMarker = stagingMarker;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.chunkSize = Math.max(1, chunkSize);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.partitionExecutor = Executors.newFixedThreadPool(this.partitionCount, runnable -> {
+            Thread thread = new Thread(runnable, "lecturer-payroll-" + threadNo.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionExecutor.shutdownNow();
+    }
+
+    // =====================================================
+    // EXECUTION
+    // =====================================================
+
+    /**
+     * Calculate salaries of all active lecturers for a period (YYYY-MM)
+     * Lecturers that already have a salary for the period are skipped, so a partially failed run can be re-run;
+     * lecturers whose work status is not ACTIVE (retired, on leave) are skipped as well
+     */
+    public RunResult runPayroll(String period) {
+        YearMonth month = LecturerSalaryService.parsePeriod(period);
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Lecturer payroll run is already running");
+        }
+        try {
+            long started = System.currentTimeMillis();
+
+            List<Lecturer> lecturers = jdbcTemplate.query(PROFILES_SQL, (rs, i) -> new Lecturer(
+                    rs.getLong("id"),
+                    rs.getString("lecturer_rank") != null ? LecturerRank.valueOf(rs.getString("lecturer_rank")) : null,
+                    rs.getString("employment_status") != null
+                            ? LecturerEmploymentStatus.valueOf(rs.getString("employment_status")) : null,
+                    LecturerWorkStatus.ACTIVE.name().equals(rs.getString("work_status"))));
+            Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(EXISTING_SQL, Long.class, period));
+            int inactive = (int) lecturers.stream().filter(l -> !l.active()).count();
+            List<Lecturer> pending = lecturers.stream()
+                    .filter(l -> l.active() && !existing.contains(l.id()))
+                    .toList();
+
+            // One snapshot for the whole run: every salary of the run uses the same rate version
+            LecturerRateTable rates = rateService.getRateTable();
+            Staging staging = loadTemplate.execute(status -> loadStaging(month));
+
+            List<Future<PartitionOutcome>> futures = new ArrayList<>();
+            int step = Math.max(1, (pending.size() + partitionCount - 1) / partitionCount);
+            for (int from = 0; from < pending.size(); from += step) {
+                List<Lecturer> slice = pending.subList(from, Math.min(from + step, pending.size()));
+                futures.add(partitionExecutor.submit(() -> runPartition(period, slice, rates, staging)));
+            }
+
+            int calculated = 0;
+            BigDecimal totalAmount = BigDecimal.ZERO;
+            List<Failure> failures = new ArrayList<>();
+            for (Future<PartitionOutcome> future : futures) {
+                try {
+                    PartitionOutcome outcome = future.get();
+                    calculated += outcome.calculated();
+                    totalAmount = totalAmount.add(outcome.totalAmount());
+                    failures.addAll(outcome.failures());
+                } catch (ExecutionException e) {
+                    log.error("Lecturer payroll {} partition failed", period, e.getCause());
+                    failures.add(new Failure(null, "Partition failed: " + e.getCause().getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            long elapsed = System.currentTimeMillis() - started;
+            int skipped = lecturers.size() - pending.size();
+            log.info("Lecturer payroll {}: {} calculated, {} skipped ({} not active), {} failed in {} ms over {} partitions",
+                    period, calculated, skipped, inactive, failures.size(), elapsed, futures.size());
+            return new RunResult(period, lecturers.size(), calculated, skipped, inactive, failures, totalAmount, elapsed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PartitionOutcome runPartition(String period, List<Lecturer> lecturers,
+                                          LecturerRateTable rates, Staging staging) {
+        int calculated = 0;
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        List<Failure> failures = new ArrayList<>();
+
+        for (int from = 0; from < lecturers.size() && !Thread.currentThread().isInterrupted(); from += chunkSize) {
+            List<LecturerSalary> salaries = new ArrayList<>();
+            for (Lecturer lecturer : lecturers.subList(from, Math.min(from + chunkSize, lecturers.size()))) {
+                try {
+                    salaries.add(compute(period, lecturer, rates, staging));
+                } catch (IllegalArgumentException e) {
+                    failures.add(new Failure(lecturer.id(), e.getMessage()));
+                }
+            }
+            if (salaries.isEmpty()) {
+                continue;
+            }
+
+            List<LecturerSalary> saved = new ArrayList<>();
+            try {
+                transactionTemplate.executeWithoutResult(status -> persistChunk(period, salaries));
+                saved.addAll(salaries);
+            } catch (DuplicateKeyException | IllegalStateException e) {
+                // Another run or a single calculation saved one of them first (unique active salary per
+                // period) or already used one of their staging rows: save the chunk one by one so only
+                // the conflicting lecturers are reported
+                log.warn("Lecturer payroll {}: chunk of {} lecturers hit a conflict ({}), saving one by one",
+                        period, salaries.size(), e.getMessage());
+                for (LecturerSalary salary : salaries) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> persistChunk(period, List.of(salary)));
+                        saved.add(salary);
+                    } catch (DuplicateKeyException duplicate) {
+                        failures.add(new Failure(salary.getLecturerProfileId(),
+                                "Salary for period " + period + " already exists"));
+                    } catch (RuntimeException single) {
+                        failures.add(new Failure(salary.getLecturerProfileId(), "Failed to save: " + single.getMessage()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.error("Lecturer payroll {}: chunk of {} lecturers failed", period, salaries.size(), e);
+                for (LecturerSalary salary : salaries) {
+                    failures.add(new Failure(salary.getLecturerProfileId(), "Failed to save: " + e.getMessage()));
+                }
+            }
+
+            calculated += saved.size();
+            for (LecturerSalary salary : saved) {
+                totalAmount = totalAmount.add(salary.getTotalSalary());
+            }
+        }
+        return new PartitionOutcome(calculated, totalAmount, failures);
+    }
+
+    /**
+     * Same validation as the single lecturer calculation
+     */
+    private LecturerSalary compute(String period, Lecturer lecturer, LecturerRateTable rates,
+                                   Staging staging) {
+        if (lecturer.employmentStatus() == null) {
+            throw new IllegalArgumentException("Employment status not set for lecturer");
+        }
+        if (lecturer.rank() == null) {
+            throw new IllegalArgumentException("Academic rank not set for lecturer");
+        }
+
+        Long id = lecturer.id();
+        boolean permanent = lecturer.employmentStatus() == LecturerEmploymentStatus.DOSEN_TETAP;
+        LecturerSalaryService.StagingData data = new LecturerSalaryService.StagingData(
+                permanent ? staging.schedules().getOrDefault(id, List.of()) : List.of(),
+                permanent ? List.of() : staging.attendances().getOrDefault(id, List.of()),
+                staging.guidance().getOrDefault(id, List.of()),
+                staging.examinations().getOrDefault(id, List.of()),
+                staging.research().getOrDefault(id, List.of()),
+                staging.publications().getOrDefault(id, List.of()));
+        return salaryService.computeSalary(id, period, lecturer.employmentStatus(), lecturer.rank(), rates, data);
+    }
+
+    // =====================================================
+    // PERSISTENCE
+    // =====================================================
+
+    /**
+     * Insert headers (batch, generated ids), then details, then mark the staging rows they used
+     */
+    private void persistChunk(String period, List<LecturerSalary> salaries) {
+        List<Object[]> headers = new ArrayList<>();
+        for (LecturerSalary salary : salaries) {
+            headers.add(new Object[]{salary.getLecturerProfileId(), salary.getPeriod(), salary.getLecturerType().name(),
+                    salary.getAcademicRank().name(), salary.getBasicSalary(), salary.getFunctionalAllowance(),
+                    salary.getTeachingHonorOffline(), salary.getTeachingHonorOnline(), salary.getTotalTeachingHonor(),
+                    salary.getThesisGuidanceHonorOffline(), salary.getThesisGuidanceHonorOnline(),
+                    salary.getThesisExaminationHonorOffline(), salary.getThesisExaminationHonorOnline(),
+                    salary.getResearchHonor(), salary.getPublicationHonor(), salary.getOtherAllowances(),
+                    salary.getTotalSalary(), salary.getStatus().name(), Timestamp.valueOf(salary.getCalculatedAt()),
+                    salary.getRateVersion()});
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SALARY_SQL, Statement.RETURN_GENERATED_KEYS),
+                rows(headers), keys);
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        if (keyList.size() != salaries.size()) {
+            throw new IllegalStateException("Expected " + salaries.size() + " generated ids, got " + keyList.size());
+        }
+
+        List<Object[]> details = new ArrayList<>();
+        List<LecturerSalaryDetail> used = new ArrayList<>();
+        for (int i = 0; i < salaries.size(); i++) {
+            LecturerSalary salary = salaries.get(i);
+            salary.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+            for (LecturerSalaryDetail detail : salary.getDetails()) {
+                details.add(new Object[]{salary.getId(), detail.getComponentType().name(), detail.getComponentCode(),
+                        detail.getDescription(), detail.getQuantity(), detail.getRate(), detail.getAmount(),
+                        detail.getSourceReferenceId(), detail.getSourceTable()});
+                used.add(detail);
+            }
+        }
+        if (!details.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DETAIL_SQL, details);
+        }
+
+        stagingMarker.mark(period, used);
+    }
+
+    private static BatchPreparedStatementSetter rows(List<Object[]> rows) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Object[] row = rows.get(i);
+                for (int column = 0; column < row.length; column++) {
+                    ps.setObject(column + 1, row[column]);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        };
+    }
+
+    // =====================================================
+    // STAGING
+    // =====================================================
+
+    private Staging loadStaging(YearMonth month) {
+        Map<Long, List<TeachingScheduleStaging>> schedules = new HashMap<>();
+        jdbcTemplate.query(SCHEDULES_SQL, rs -> {
+            TeachingScheduleStaging row = new TeachingScheduleStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setCourseCode(rs.getString("course_code"));
+            row.setCourseName(rs.getString("course_name"));
+            row.setSks(rs.getBigDecimal("sks"));
+            row.setTeachingMode(rs.getString("teaching_mode"));
+            schedules.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        });
+
+        Map<Long, List<TeachingAttendanceStaging>> attendances = new HashMap<>();
+        jdbcTemplate.query(ATTENDANCES_SQL, rs -> {
+            TeachingAttendanceStaging row = new TeachingAttendanceStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setCourseCode(rs.getString("course_code"));
+            row.setCourseName(rs.getString("course_name"));
+            row.setSks(rs.getBigDecimal("sks"));
+            row.setTeachingMode(rs.getString("teaching_mode"));
+            attendances.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        }, Date.valueOf(month.atDay(1)), Date.valueOf(month.atEndOfMonth()));
+
+        Map<Long, List<ThesisGuidanceStaging>> guidance = new HashMap<>();
+        jdbcTemplate.query(GUIDANCE_SQL, rs -> {
+            ThesisGuidanceStaging row = new ThesisGuidanceStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setStudentName(rs.getString("student_name"));
+            row.setThesisType(rs.getString("thesis_type"));
+            row.setGuidanceMode(rs.getString("guidance_mode"));
+            guidance.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        });
+
+        Map<Long, List<ThesisExaminationStaging>> examinations = new HashMap<>();
+        jdbcTemplate.query(EXAMINATIONS_SQL, rs -> {
+            ThesisExaminationStaging row = new ThesisExaminationStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setStudentName(rs.getString("student_name"));
+            row.setThesisType(rs.getString("thesis_type"));
+            row.setExaminationRole(rs.getString("examination_role"));
+            row.setExaminationMode(rs.getString("examination_mode"));
+            examinations.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        });
+
+        Map<Long, List<ResearchStaging>> research = new HashMap<>();
+        jdbcTemplate.query(RESEARCH_SQL, rs -> {
+            ResearchStaging row = new ResearchStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setResearchTitle(rs.getString("research_title"));
+            research.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        });
+
+        Map<Long, List<PublicationStaging>> publications = new HashMap<>();
+        jdbcTemplate.query(PUBLICATIONS_SQL, rs -> {
+            PublicationStaging row = new PublicationStaging();
+            row.setId(rs.getLong("id"));
+            row.setLecturerId(rs.getLong("lecturer_id"));
+            row.setPublicationTitle(rs.getString("publication_title"));
+            row.setSintaLevel(rs.getString("sinta_level"));
+            row.setIsScopusIndexed(getBoolean(rs, "is_scopus_indexed"));
+            row.setScopusQuartile(rs.getString("scopus_quartile"));
+            publications.computeIfAbsent(row.getLecturerId(), k -> new ArrayList<>()).add(row);
+        });
+
+        return new Staging(schedules, attendances, guidance, examinations, research, publications);
+    }
+
+    private static Boolean getBoolean(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private record Lecturer(Long id, LecturerRank rank, LecturerEmploymentStatus employmentStatus, boolean active) {}
+
+    /**
+     * Unprocessed staging rows of all lecturers, grouped by lecturer id
+     */
+    private record Staging(Map<Long, List<TeachingScheduleStaging>> schedules,
+                           Map<Long, List<TeachingAttendanceStaging>> attendances,
+                           Map<Long, List<ThesisGuidanceStaging>> guidance,
+                           Map<Long, List<ThesisExaminationStaging>> examinations,
+                           Map<Long, List<ResearchStaging>> research,
+                           Map<Long, List<PublicationStaging>> publications) {}
+
+    private record PartitionOutcome(int calculated, BigDecimal totalAmount, List<Failure> failures) {}
+
+    /**
+     * Lecturer that could not be calculated (lecturerProfileId is null when a whole partition failed)
+     */
+    public record Failure(Long lecturerProfileId, String reason) {}
+
+    /**
+     * Summary of a period payroll run
+     * skipped counts lecturers already calculated for the period plus the inactive ones
+     */
+    public record RunResult(String period,
+                            int totalLecturers,
+                            int calculated,
+                            int skipped,
+                            int inactive,
+                            List<Failure> failures,
+                            BigDecimal totalAmount,
+                            long elapsedMillis) {
+        public int failed() {
+            return failures.size();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.hris.service;
+
+import com.hris.model.LecturerSalaryRate;
+import com.hris.model.enums.LecturerRank;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lecturer Rate Table
+ * Snapshot immutable tarif gaji dosen: baris per LecturerRank (ordinal), kolom per komponen (slot tetap)
+ *
+ * - Tiap jenjang menyimpan riwayat tarif berlaku [valid_from, valid_to] urut valid_from; tarif pada
+ *   tanggal tertentu dicari dengan binary search (O(log n)), tanpa query
+ * - Dibangun dari lecturer_salary_rates aktif; perubahan tarif membangun snapshot baru, snapshot lama
+ *   tidak pernah diubah sehingga satu perhitungan selalu melihat tarif yang konsisten
+ * - version = nilai lecturer_rate_version_counter saat snapshot dibaca (dibaca bersama baris tarif
+ *   dalam satu transaksi), disimpan di LecturerSalary sebagai rate_version
+ * - Sejak V38 versi tabel tarif bukan lagi MAX(rate_version) seperti tertulis di komentar V32;
+ *   rate_version pada lecturer_salary_rates hanya mencatat versi perubahan terakhir baris itu
+ */
+public final class LecturerRateTable {
+
+    /**
+     * Rate component; ordinal is the slot in a rate row
+     */
+    public enum RateComponent {
+        BASIC_SALARY,
+        FUNCTIONAL_ALLOWANCE,
+        CONTRACT_SKS_OFFLINE,
+        CONTRACT_SKS_ONLINE,
+        OVERTIME_SKS_OFFLINE,
+        OVERTIME_SKS_ONLINE,
+        THESIS_GUIDANCE_OFFLINE,
+        THESIS_GUIDANCE_ONLINE,
+        THESIS_EXAMINATION_OFFLINE,
+        THESIS_EXAMINATION_ONLINE,
+        RESEARCH_HONOR,
+        PUBLICATION_HONOR
+    }
+
+    private static final int COMPONENTS = RateComponent.values().length;
+
+    private final long version;
+    private final History[] histories;
+
+    LecturerRateTable(long version, Collection<LecturerSalaryRate> rows) {
+        this.version = version;
+
+        List<List<LecturerSalaryRate>> byRank = new ArrayList<>();
+        for (int i = 0; i < LecturerRank.values().length; i++) {
+            byRank.add(new ArrayList<>());
+        }
+        for (LecturerSalaryRate row : rows) {
+            byRank.get(row.getAcademicRank().ordinal()).add(row);
+        }
+
+        this.histories = new History[byRank.size()];
+        for (int i = 0; i < histories.length; i++) {
+            List<LecturerSalaryRate> ranked = byRank.get(i);
+            if (!ranked.isEmpty()) {
+                ranked.sort(Comparator.comparing(LecturerSalaryRate::getValidFrom));
+                histories[i] = new History(ranked);
+            }
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isConfigured(LecturerRank rank, LocalDate date) {
+        return find(rank, date) != null;
+    }
+
+    /**
+     * Rates of a rank valid on a date
+     *
+     * @throws IllegalArgumentException if no rate is configured for the rank on that date
+     */
+    public Rates ratesAt(LecturerRank rank, LocalDate date) {
+        BigDecimal[] slots = find(rank, date);
+        if (slots == null) {
+            throw new IllegalArgumentException("No rate configured for academic rank: " + rank + " on " + date);
+        }
+        return new Rates(slots);
+    }
+
+    /**
+     * Rate of one component for a rank on a date
+     */
+    public BigDecimal get(LecturerRank rank, LocalDate date, RateComponent component) {
+        return ratesAt(rank, date).get(component);
+    }
+
+    private BigDecimal[] find(LecturerRank rank, LocalDate date) {
+        History history = rank != null ? histories[rank.ordinal()] : null;
+        return history != null ? history.find(date.toEpochDay()) : null;
+    }
+
+    /**
+     * One rate row (read-only view)
+     */
+    public static final class Rates {
+        private final BigDecimal[] slots;
+
+        private Rates(BigDecimal[] slots) {
+            this.slots = slots;
+        }
+
+        public BigDecimal get(RateComponent component) {
+            return slots[component.ordinal()];
+        }
+    }
+
+    /**
+     * Rate rows of one rank sorted by validFrom (epoch days), validTo = Long.MAX_VALUE when open-ended
+     */
+    private static final class History {
+        private final long[] validFrom;
+        private final long[] validTo;
+        private final BigDecimal[][] slots;
+
+        private History(List<LecturerSalaryRate> rows) {
+            this.validFrom = new long[rows.size()];
+            this.validTo = new long[rows.size()];
+            this.slots = new BigDecimal[rows.size()][];
+            for (int i = 0; i < rows.size(); i++) {
+                LecturerSalaryRate row = rows.get(i);
+                validFrom[i] = row.getValidFrom().toEpochDay();
+                validTo[i] = row.getValidTo() != null ? row.getValidTo().toEpochDay() : Long.MAX_VALUE;
+                slots[i] = toSlots(row);
+            }
+        }
+
+        /**
+         * Last row starting on or before day, if it has not ended yet
+         */
+        private BigDecimal[] find(long day) {
+            int low = 0;
+            int high = validFrom.length - 1;
+            int match = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (validFrom[mid] <= day) {
+                    match = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return match >= 0 && day <= validTo[match] ? slots[match] : null;
+        }
+
+        private static BigDecimal[] toSlots(LecturerSalaryRate row) {
+            BigDecimal[] slots = new BigDecimal[COMPONENTS];
+            slots[RateComponent.BASIC_SALARY.ordinal()] = row.getBasicSalary();
+            slots[RateComponent.FUNCTIONAL_ALLOWANCE.ordinal()] = row.getFunctionalAllowance();
+            slots[RateComponent.CONTRACT_SKS_OFFLINE.ordinal()] = row.getContractSksRateOffline();
+            slots[RateComponent.CONTRACT_SKS_ONLINE.ordinal()] = row.getContractSksRateOnline();
+            slots[RateComponent.OVERTIME_SKS_OFFLINE.ordinal()] = row.getOvertimeSksRateOffline();
+            slots[RateComponent.OVERTIME_SKS_ONLINE.ordinal()] = row.getOvertimeSksRateOnline();
+            slots[RateComponent.THESIS_GUIDANCE_OFFLINE.ordinal()] = row.getThesisGuidanceRateOffline();
+            slots[RateComponent.THESIS_GUIDANCE_ONLINE.ordinal()] = row.getThesisGuidanceRateOnline();
+            slots[RateComponent.THESIS_EXAMINATION_OFFLINE.ordinal()] = row.getThesisExaminationRateOffline();
+            slots[RateComponent.THESIS_EXAMINATION_ONLINE.ordinal()] = row.getThesisExaminationRateOnline();
+            slots[RateComponent.RESEARCH_HONOR.ordinal()] = row.getResearchHonor();
+            slots[RateComponent.PUBLICATION_HONOR.ordinal()] = row.getPublicationHonor();
+            for (int i = 0; i < COMPONENTS; i++) {
+                if (slots[i] == null) {
+                    slots[i] = BigDecimal.ZERO;
+                }
+            }
+            return slots;
+        }
+    }
+}
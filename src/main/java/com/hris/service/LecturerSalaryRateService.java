@@ -3,20 +3,64 @@ package com.hris.service;
 import com.hris.model.LecturerSalaryRate;
 import com.hris.model.enums.LecturerRank;
 import com.hris.repository.LecturerSalaryRateRepository;
+import com.hris.repository.LecturerSalaryRepository;
 import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lecturer Salary Rate Service
+ * Master tarif gaji dosen per jenjang
+ *
+ * - Tarif berlaku per tanggal (valid_from, valid_to): perubahan tarif mulai tanggal tertentu menutup
+ *   versi lama dan menambah versi baru, sehingga gaji periode lama tetap dihitung dengan tarif lamanya
+ * - Lookup tarif dibaca dari LecturerRateTable (snapshot immutable di memori), bukan query per komponen
+ * - Setiap create/update/delete mengambil rate_version berikutnya dari lecturer_rate_version_counter
+ *   (UPDATE satu baris, terkunci sampai commit): perubahan tarif berurutan, versi unik, dan snapshot
+ *   dengan versi lebih tinggi selalu memuat semua perubahan versi sebelumnya
+ * - Snapshot baru dimuat setelah commit; snapshot lama tidak pernah menggantikan yang lebih baru
+ */
+@Slf4j
 @Service
 public class LecturerSalaryRateService {
 
     @Autowired
     private LecturerSalaryRateRepository repository;
 
+    @Autowired
+    private LecturerSalaryRepository salaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String INCREMENT_VERSION_SQL =
+            "UPDATE lecturer_rate_version_counter SET version = version + 1 WHERE id = 1";
+
+    private static final String CURRENT_VERSION_SQL =
+            "SELECT version FROM lecturer_rate_version_counter WHERE id = 1";
+
+    private final AtomicReference<LecturerRateTable> rateTable = new AtomicReference<>();
+
     public List<LecturerSalaryRate> getAllRates() {
         return repository.findAllOrderByAcademicRank();
     }
@@ -30,125 +74,216 @@ public class LecturerSalaryRateService {
     }
 
     public Optional<LecturerSalaryRate> getRateByLecturerRank(LecturerRank academicRank) {
-        return repository.findByAcademicRankAndDeletedAtIsNull(academicRank);
+        return repository.findFirstByAcademicRankAndDeletedAtIsNullOrderByValidFromDesc(academicRank);
     }
 
     @Transactional
     public LecturerSalaryRate createRate(LecturerSalaryRate rate) {
         validateRate(rate);
-        return repository.save(rate);
+        if (rate.getValidFrom() == null) {
+            rate.setValidFrom(LocalDate.now().withDayOfMonth(1));
+        }
+        rate.setValidTo(null);
+        rate.setRateVersion(nextRateVersion());
+        LecturerSalaryRate saved = repository.save(rate);
+        reloadAfterCommit();
+        return saved;
     }
 
+    /**
+     * Update a rate version
+     * - Same effective date: correct the version in place, only while no salary was calculated with it
+     * - Later effective date within the version: close the version the day before and add a new
+     *   version from that date, so salaries of earlier periods keep their rates; only while no salary
+     *   from that date on was calculated with the old rate
+     */
     @Transactional
     public LecturerSalaryRate updateRate(Long id, LecturerSalaryRate rate) {
         LecturerSalaryRate existing = repository.findById(id)
+                .filter(r -> r.getDeletedAt() == null)
                 .orElseThrow(() -> new IllegalArgumentException("LecturerSalaryRate not found with id: " + id));
 
-        // Check if academic rank is being changed to one that already exists
-        if (!existing.getAcademicRank().equals(rate.getAcademicRank())) {
-            if (repository.existsByAcademicRankAndDeletedAtIsNull(rate.getAcademicRank())) {
-                throw new IllegalArgumentException("Rate already exists for academic rank: " + rate.getAcademicRank());
-            }
+        // Academic rank is part of the history key; a rate for another rank is added as a new rate
+        if (rate.getAcademicRank() != null && !existing.getAcademicRank().equals(rate.getAcademicRank())) {
+            throw new IllegalArgumentException("Academic rank of a rate cannot be changed");
         }
+        rate.setAcademicRank(existing.getAcademicRank());
 
         validateRate(rate);
 
-        existing.setAcademicRank(rate.getAcademicRank());
-        existing.setBasicSalary(rate.getBasicSalary());
-        existing.setFunctionalAllowance(rate.getFunctionalAllowance());
-        existing.setContractSksRateOffline(rate.getContractSksRateOffline());
-        existing.setContractSksRateOnline(rate.getContractSksRateOnline());
-        existing.setOvertimeSksRateOffline(rate.getOvertimeSksRateOffline());
-        existing.setOvertimeSksRateOnline(rate.getOvertimeSksRateOnline());
-        existing.setThesisGuidanceRateOffline(rate.getThesisGuidanceRateOffline());
-        existing.setThesisGuidanceRateOnline(rate.getThesisGuidanceRateOnline());
-        existing.setThesisExaminationRateOffline(rate.getThesisExaminationRateOffline());
-        existing.setThesisExaminationRateOnline(rate.getThesisExaminationRateOnline());
-        existing.setResearchHonor(rate.getResearchHonor());
-        existing.setPublicationHonor(rate.getPublicationHonor());
+        LocalDate validFrom = rate.getValidFrom() != null ? rate.getValidFrom() : existing.getValidFrom();
+        long version = nextRateVersion();
+        LecturerSalaryRate target;
+        if (validFrom.equals(existing.getValidFrom())) {
+            if (isUsedBySalaries(existing)) {
+                throw new IllegalArgumentException("Rate is already used by calculated salaries; "
+                        + "set a later effective date to add a new rate version");
+            }
+            target = existing;
+        } else if (validFrom.isAfter(existing.getValidFrom()) && existing.isValidOn(validFrom)) {
+            if (isUsedBySalaries(existing.getAcademicRank(), validFrom, existing.getValidTo())) {
+                throw new IllegalArgumentException("Salaries from " + validFrom + " were already calculated with "
+                        + "this rate; set an effective date after the last calculated period");
+            }
+            target = new LecturerSalaryRate();
+            target.setAcademicRank(existing.getAcademicRank());
+            target.setValidFrom(validFrom);
+            target.setValidTo(existing.getValidTo());
+
+            existing.setValidTo(validFrom.minusDays(1));
+            existing.setRateVersion(version);
+            repository.save(existing);
+        } else {
+            throw new IllegalArgumentException("Effective date must be within " + existing.getValidFrom() + " - "
+                    + (existing.getValidTo() != null ? existing.getValidTo() : "now"));
+        }
 
-        return repository.save(existing);
+        target.setBasicSalary(rate.getBasicSalary());
+        target.setFunctionalAllowance(rate.getFunctionalAllowance());
+        target.setContractSksRateOffline(rate.getContractSksRateOffline());
+        target.setContractSksRateOnline(rate.getContractSksRateOnline());
+        target.setOvertimeSksRateOffline(rate.getOvertimeSksRateOffline());
+        target.setOvertimeSksRateOnline(rate.getOvertimeSksRateOnline());
+        target.setThesisGuidanceRateOffline(rate.getThesisGuidanceRateOffline());
+        target.setThesisGuidanceRateOnline(rate.getThesisGuidanceRateOnline());
+        target.setThesisExaminationRateOffline(rate.getThesisExaminationRateOffline());
+        target.setThesisExaminationRateOnline(rate.getThesisExaminationRateOnline());
+        target.setResearchHonor(rate.getResearchHonor());
+        target.setPublicationHonor(rate.getPublicationHonor());
+        target.setRateVersion(version);
+
+        LecturerSalaryRate saved = repository.save(target);
+        reloadAfterCommit();
+        return saved;
     }
 
+    /**
+     * Delete a rate version without leaving a gap: the previous version of the rank takes over its
+     * validity range, or for the earliest version the next version starts from its effective date
+     * Only while no salary was calculated with it, so reruns and audits of those periods stay exact
+     */
     @Transactional
     public void deleteRate(Long id) {
         LecturerSalaryRate rate = repository.findById(id)
+                .filter(r -> r.getDeletedAt() == null)
                 .orElseThrow(() -> new IllegalArgumentException("LecturerSalaryRate not found with id: " + id));
-
-        rate.setDeletedAt(java.time.LocalDateTime.now());
-        repository.save(rate);
-    }
-
-    public BigDecimal getContractSksRate(LecturerRank academicRank, boolean isOnline) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+        if (isUsedBySalaries(rate)) {
+            throw new IllegalArgumentException("Rate is already used by calculated salaries and cannot be deleted");
         }
 
-        LecturerSalaryRate rate = rateOpt.get();
-        return isOnline ? rate.getContractSksRateOnline() : rate.getContractSksRateOffline();
-    }
-
-    public BigDecimal getOvertimeSksRate(LecturerRank academicRank, boolean isOnline) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+        long version = nextRateVersion();
+        List<LecturerSalaryRate> history = repository.findByAcademicRankAndDeletedAtIsNullOrderByValidFrom(rate.getAcademicRank());
+        int index = 0;
+        while (index < history.size() && !history.get(index).getId().equals(rate.getId())) {
+            index++;
         }
+        LecturerSalaryRate previous = index > 0 ? history.get(index - 1) : null;
+        LecturerSalaryRate next = index + 1 < history.size() ? history.get(index + 1) : null;
+
+        // Flushed first: the next version may move onto this version's effective date (unique per rank and date)
+        rate.setDeletedAt(LocalDateTime.now());
+        rate.setRateVersion(version);
+        repository.saveAndFlush(rate);
+
+        if (previous != null) {
+            previous.setValidTo(rate.getValidTo());
+            previous.setRateVersion(version);
+            repository.save(previous);
+        } else if (next != null) {
+            next.setValidFrom(rate.getValidFrom());
+            next.setRateVersion(version);
+            repository.save(next);
+        }
+        reloadAfterCommit();
+    }
 
-        LecturerSalaryRate rate = rateOpt.get();
-        return isOnline ? rate.getOvertimeSksRateOnline() : rate.getOvertimeSksRateOffline();
+    /**
+     * Some active salary was calculated with this rate version (rates apply on the first day of the period)
+     */
+    private boolean isUsedBySalaries(LecturerSalaryRate rate) {
+        return isUsedBySalaries(rate.getAcademicRank(), rate.getValidFrom(), rate.getValidTo());
     }
 
-    public BigDecimal getThesisGuidanceRate(LecturerRank academicRank, boolean isOnline) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+    /**
+     * Some active salary of the rank has a period starting within [from, to] (to null = open-ended)
+     */
+    private boolean isUsedBySalaries(LecturerRank academicRank, LocalDate from, LocalDate to) {
+        YearMonth first = YearMonth.from(from);
+        if (from.getDayOfMonth() > 1) {
+            first = first.plusMonths(1);
         }
-
-        LecturerSalaryRate rate = rateOpt.get();
-        return isOnline ? rate.getThesisGuidanceRateOnline() : rate.getThesisGuidanceRateOffline();
+        String last = to != null ? YearMonth.from(to).toString() : "9999-12";
+        return salaryRepository.existsByAcademicRankAndPeriodBetweenAndDeletedAtIsNull(
+                academicRank, first.toString(), last);
     }
 
-    public BigDecimal getThesisExaminationRate(LecturerRank academicRank, boolean isOnline) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
-        }
+    // =====================================================
+    // RATE TABLE
+    // =====================================================
 
-        LecturerSalaryRate rate = rateOpt.get();
-        return isOnline ? rate.getThesisExaminationRateOnline() : rate.getThesisExaminationRateOffline();
+    /**
+     * Current rate table snapshot; callers that need consistent rates for many lecturers keep one snapshot
+     */
+    public LecturerRateTable getRateTable() {
+        LecturerRateTable table = rateTable.get();
+        return table != null ? table : reload();
     }
 
-    public BigDecimal getResearchHonor(LecturerRank academicRank) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+    /**
+     * Warm up rate table on startup so the first salary calculation does not pay for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            getRateTable();
+        } catch (Exception e) {
+            log.warn("Failed to warm up lecturer rate table: {}", e.getMessage());
         }
-        return rateOpt.get().getResearchHonor();
     }
 
-    public BigDecimal getPublicationHonor(LecturerRank academicRank) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+    /**
+     * Allocate the next rate table version; the counter row stays locked until the caller commits,
+     * so concurrent rate changes wait for each other instead of reading the same MAX(rate_version)
+     * Must run in the transaction that saves the rate rows
+     */
+    private long nextRateVersion() {
+        if (jdbcTemplate.update(INCREMENT_VERSION_SQL) == 0) {
+            throw new IllegalStateException("Lecturer rate version counter is missing");
         }
-        return rateOpt.get().getPublicationHonor();
+        return jdbcTemplate.queryForObject(CURRENT_VERSION_SQL, Long.class);
     }
 
-    public BigDecimal getBasicSalary(LecturerRank academicRank) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
-        }
-        return rateOpt.get().getBasicSalary();
+    /**
+     * Load rates in a separate read-only transaction; an older snapshot never replaces a newer one
+     * Counter and rows are read from one snapshot, and versions commit in order, so the same version
+     * always means the same rows
+     */
+    private LecturerRateTable reload() {
+        TransactionTemplate loadTemplate = new TransactionTemplate(transactionManager);
+        loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTemplate.setReadOnly(true);
+        LecturerRateTable loaded = loadTemplate.execute(status -> {
+            Long version = jdbcTemplate.queryForObject(CURRENT_VERSION_SQL, Long.class);
+            return new LecturerRateTable(version, repository.findAllByDeletedAtIsNull());
+        });
+
+        LecturerRateTable current = rateTable.accumulateAndGet(loaded, (previous, next) ->
+                previous == null || next.getVersion() > previous.getVersion() ? next : previous);
+        log.debug("Lecturer rate table version {}", current.getVersion());
+        return current;
     }
 
-    public BigDecimal getFunctionalAllowance(LecturerRank academicRank) {
-        Optional<LecturerSalaryRate> rateOpt = getRateByLecturerRank(academicRank);
-        if (rateOpt.isEmpty()) {
-            throw new IllegalArgumentException("No rate configured for academic rank: " + academicRank);
+    private void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
         }
-        return rateOpt.get().getFunctionalAllowance();
     }
 
     private void validateRate(LecturerSalaryRate rate) {
@@ -185,8 +320,17 @@ public class LecturerSalaryRateService {
         }
     }
 
+    /**
+     * Every academic rank has a rate effective today
+     */
     public boolean hasAllRanksConfigured() {
-        long count = repository.findAllByDeletedAtIsNull().size();
-        return count == LecturerRank.values().length;
+        LecturerRateTable table = getRateTable();
+        LocalDate today = LocalDate.now();
+        for (LecturerRank rank : LecturerRank.values()) {
+            if (!table.isConfigured(rank, today)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
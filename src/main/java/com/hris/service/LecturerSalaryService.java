@@ -3,12 +3,14 @@ package com.hris.service;
 import com.hris.model.*;
 import com.hris.model.enums.*;
 import com.hris.repository.*;
+import com.hris.service.LecturerRateTable.RateComponent;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @Service
@@ -41,6 +43,9 @@ public class LecturerSalaryService {
     @Autowired
     private PublicationStagingRepository publicationStagingRepository;
 
+    @Autowired
+    private LecturerStagingMarker stagingMarker;
+
     // Teaching obligation SKS for permanent lecturers
     private static final BigDecimal TEACHING_OBLIGATION_WITH_POSITION = new BigDecimal("3"); // With structural position
     private static final BigDecimal TEACHING_OBLIGATION_WITHOUT_POSITION = new BigDecimal("12"); // Without structural position
@@ -90,36 +95,21 @@ public class LecturerSalaryService {
             throw new IllegalArgumentException("Academic rank not set for lecturer");
         }
 
-        LecturerSalary salary = new LecturerSalary(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TETAP);
-        salary.setAcademicRank(rank);
-
-        // Basic Salary & Functional Allowance
-        salary.setBasicSalary(rateService.getBasicSalary(rank));
-        salary.setFunctionalAllowance(rateService.getFunctionalAllowance(rank));
+        StagingData staging = new StagingData(
+                teachingScheduleStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                List.of(),
+                thesisGuidanceStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                thesisExaminationStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                researchStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                publicationStagingRepository.findUnprocessedByLecturerId(lecturerProfileId));
 
-        // Calculate overtime teaching honor
-        calculateOvertimeTeachingHonor(salary, lecturerProfileId, period);
-
-        // Calculate thesis guidance honor
-        calculateThesisGuidanceHonor(salary, lecturerProfileId);
-
-        // Calculate thesis examination honor
-        calculateThesisExaminationHonor(salary, lecturerProfileId);
-
-        // Calculate research honor
-        calculateResearchHonor(salary, lecturerProfileId);
-
-        // Calculate publication honor
-        calculatePublicationHonor(salary, lecturerProfileId);
-
-        // Calculate total
-        salary.calculateTotal();
-        salary.markAsCalculated();
+        LecturerSalary salary = computeSalary(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TETAP,
+                rank, rateService.getRateTable(), staging);
 
         LecturerSalary saved = salaryRepository.save(salary);
 
-        // Mark staging data as processed
-        markStagingDataAsProcessed(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TETAP);
+        // Mark the staging rows used by the details as processed
+        stagingMarker.mark(period, saved.getDetails());
 
         return saved;
     }
@@ -149,43 +139,85 @@ public class LecturerSalaryService {
             throw new IllegalArgumentException("Academic rank not set for lecturer");
         }
 
-        LecturerSalary salary = new LecturerSalary(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TIDAK_TETAP);
+        // Teaching attendance within the period month (YYYY-MM)
+        YearMonth month = parsePeriod(period);
+
+        StagingData staging = new StagingData(
+                List.of(),
+                teachingAttendanceStagingRepository.findPresentAttendanceByLecturerAndDateRange(
+                        lecturerProfileId, month.atDay(1), month.atEndOfMonth()),
+                thesisGuidanceStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                thesisExaminationStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                researchStagingRepository.findUnprocessedByLecturerId(lecturerProfileId),
+                publicationStagingRepository.findUnprocessedByLecturerId(lecturerProfileId));
+
+        LecturerSalary salary = computeSalary(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TIDAK_TETAP,
+                rank, rateService.getRateTable(), staging);
+
+        LecturerSalary saved = salaryRepository.save(salary);
+
+        // Mark the staging rows used by the details as processed
+        stagingMarker.mark(period, saved.getDetails());
+
+        return saved;
+    }
+
+    /**
+     * Build salary header + details from staging rows that are already loaded
+     * Pure calculation without queries, so the period payroll run can call it in parallel
+     * Rates are those effective on the first day of the period; the rate table version is recorded on the salary
+     */
+    LecturerSalary computeSalary(Long lecturerProfileId, String period, LecturerEmploymentStatus lecturerType,
+                                 LecturerRank rank, LecturerRateTable rates, StagingData staging) {
+        LecturerRateTable.Rates rate = rates.ratesAt(rank, parsePeriod(period).atDay(1));
+
+        LecturerSalary salary = new LecturerSalary(lecturerProfileId, period, lecturerType);
         salary.setAcademicRank(rank);
+        salary.setRateVersion(rates.getVersion());
+
+        if (lecturerType == LecturerEmploymentStatus.DOSEN_TETAP) {
+            // Basic Salary & Functional Allowance
+            salary.setBasicSalary(rate.get(RateComponent.BASIC_SALARY));
+            salary.setFunctionalAllowance(rate.get(RateComponent.FUNCTIONAL_ALLOWANCE));
 
-        // Calculate teaching honor based on attendance (per SKS)
-        calculateContractTeachingHonor(salary, lecturerProfileId, period);
+            // Calculate overtime teaching honor
+            calculateOvertimeTeachingHonor(salary, rate, staging.schedules());
+        } else {
+            // Calculate teaching honor based on attendance (per SKS)
+            calculateContractTeachingHonor(salary, rate, staging.attendances());
+        }
 
         // Calculate thesis guidance honor
-        calculateThesisGuidanceHonor(salary, lecturerProfileId);
+        calculateThesisGuidanceHonor(salary, rate, staging.guidance());
 
         // Calculate thesis examination honor
-        calculateThesisExaminationHonor(salary, lecturerProfileId);
+        calculateThesisExaminationHonor(salary, rate, staging.examinations());
 
         // Calculate research honor
-        calculateResearchHonor(salary, lecturerProfileId);
+        calculateResearchHonor(salary, rate, staging.research());
 
         // Calculate publication honor
-        calculatePublicationHonor(salary, lecturerProfileId);
+        calculatePublicationHonor(salary, rate, staging.publications());
 
         // Calculate total
         salary.calculateTotal();
         salary.markAsCalculated();
-
-        LecturerSalary saved = salaryRepository.save(salary);
-
-        // Mark staging data as processed
-        markStagingDataAsProcessed(lecturerProfileId, period, LecturerEmploymentStatus.DOSEN_TIDAK_TETAP);
-
-        return saved;
+        return salary;
     }
 
-    private void calculateOvertimeTeachingHonor(LecturerSalary salary, Long lecturerId, String period) {
-        LecturerRank rank = salary.getAcademicRank();
-
-        // Get teaching schedule for the period (academic year/semester)
-        List<TeachingScheduleStaging> schedules = teachingScheduleStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
+    /**
+     * Parse payroll period (YYYY-MM)
+     */
+    static YearMonth parsePeriod(String period) {
+        try {
+            return YearMonth.parse(period);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid period (expected YYYY-MM): " + period);
+        }
+    }
 
+    private void calculateOvertimeTeachingHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                                List<TeachingScheduleStaging> schedules) {
         BigDecimal totalSks = BigDecimal.ZERO;
         BigDecimal offlineSks = BigDecimal.ZERO;
         BigDecimal onlineSks = BigDecimal.ZERO;
@@ -216,8 +248,8 @@ public class LecturerSalaryService {
 
         if (overtimeSks.compareTo(BigDecimal.ZERO) > 0) {
             // Calculate overtime honor
-            BigDecimal offlineRate = rateService.getOvertimeSksRate(rank, false);
-            BigDecimal onlineRate = rateService.getOvertimeSksRate(rank, true);
+            BigDecimal offlineRate = rate.get(RateComponent.OVERTIME_SKS_OFFLINE);
+            BigDecimal onlineRate = rate.get(RateComponent.OVERTIME_SKS_ONLINE);
 
             salary.setTeachingHonorOffline(offlineSks.multiply(offlineRate));
             salary.setTeachingHonorOnline(onlineSks.multiply(onlineRate));
@@ -235,22 +267,8 @@ public class LecturerSalaryService {
         }
     }
 
-    private void calculateContractTeachingHonor(LecturerSalary salary, Long lecturerId, String period) {
-        // Parse period to get date range (YYYY-MM)
-        String[] parts = period.split("-");
-        int year = Integer.parseInt(parts[0]);
-        int month = Integer.parseInt(parts[1]);
-
-        // Get first and last day of the month
-        java.time.LocalDate startDate = java.time.LocalDate.of(year, month, 1);
-        java.time.LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-
-        LecturerRank rank = salary.getAcademicRank();
-
-        // Get teaching attendance for the period
-        List<TeachingAttendanceStaging> attendances = teachingAttendanceStagingRepository
-                .findPresentAttendanceByLecturerAndDateRange(lecturerId, startDate, endDate);
-
+    private void calculateContractTeachingHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                                List<TeachingAttendanceStaging> attendances) {
         BigDecimal offlineSks = BigDecimal.ZERO;
         BigDecimal onlineSks = BigDecimal.ZERO;
 
@@ -275,8 +293,8 @@ public class LecturerSalaryService {
         }
 
         // Calculate honor
-        BigDecimal offlineRate = rateService.getContractSksRate(rank, false);
-        BigDecimal onlineRate = rateService.getContractSksRate(rank, true);
+        BigDecimal offlineRate = rate.get(RateComponent.CONTRACT_SKS_OFFLINE);
+        BigDecimal onlineRate = rate.get(RateComponent.CONTRACT_SKS_ONLINE);
 
         salary.setTeachingHonorOffline(offlineSks.multiply(offlineRate));
         salary.setTeachingHonorOnline(onlineSks.multiply(onlineRate));
@@ -293,13 +311,10 @@ public class LecturerSalaryService {
         }
     }
 
-    private void calculateThesisGuidanceHonor(LecturerSalary salary, Long lecturerId) {
-        LecturerRank rank = salary.getAcademicRank();
-        BigDecimal offlineRate = rateService.getThesisGuidanceRate(rank, false);
-        BigDecimal onlineRate = rateService.getThesisGuidanceRate(rank, true);
-
-        List<ThesisGuidanceStaging> guidanceList = thesisGuidanceStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
+    private void calculateThesisGuidanceHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                              List<ThesisGuidanceStaging> guidanceList) {
+        BigDecimal offlineRate = rate.get(RateComponent.THESIS_GUIDANCE_OFFLINE);
+        BigDecimal onlineRate = rate.get(RateComponent.THESIS_GUIDANCE_ONLINE);
 
         long offlineCount = 0;
         long onlineCount = 0;
@@ -330,13 +345,10 @@ public class LecturerSalaryService {
         salary.setThesisGuidanceHonorOnline(new BigDecimal(onlineCount).multiply(onlineRate));
     }
 
-    private void calculateThesisExaminationHonor(LecturerSalary salary, Long lecturerId) {
-        LecturerRank rank = salary.getAcademicRank();
-        BigDecimal offlineRate = rateService.getThesisExaminationRate(rank, false);
-        BigDecimal onlineRate = rateService.getThesisExaminationRate(rank, true);
-
-        List<ThesisExaminationStaging> examinationList = thesisExaminationStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
+    private void calculateThesisExaminationHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                                 List<ThesisExaminationStaging> examinationList) {
+        BigDecimal offlineRate = rate.get(RateComponent.THESIS_EXAMINATION_OFFLINE);
+        BigDecimal onlineRate = rate.get(RateComponent.THESIS_EXAMINATION_ONLINE);
 
         long offlineCount = 0;
         long onlineCount = 0;
@@ -368,12 +380,9 @@ public class LecturerSalaryService {
         salary.setThesisExaminationHonorOnline(new BigDecimal(onlineCount).multiply(onlineRate));
     }
 
-    private void calculateResearchHonor(LecturerSalary salary, Long lecturerId) {
-        List<ResearchStaging> researchList = researchStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-
-        LecturerRank rank = salary.getAcademicRank();
-        BigDecimal researchHonor = rateService.getResearchHonor(rank);
+    private void calculateResearchHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                        List<ResearchStaging> researchList) {
+        BigDecimal researchHonor = rate.get(RateComponent.RESEARCH_HONOR);
 
         BigDecimal total = BigDecimal.ZERO;
 
@@ -394,12 +403,9 @@ public class LecturerSalaryService {
         salary.setResearchHonor(total);
     }
 
-    private void calculatePublicationHonor(LecturerSalary salary, Long lecturerId) {
-        List<PublicationStaging> publicationList = publicationStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-
-        LecturerRank rank = salary.getAcademicRank();
-        BigDecimal baseHonor = rateService.getPublicationHonor(rank);
+    private void calculatePublicationHonor(LecturerSalary salary, LecturerRateTable.Rates rate,
+                                           List<PublicationStaging> publicationList) {
+        BigDecimal baseHonor = rate.get(RateComponent.PUBLICATION_HONOR);
 
         BigDecimal total = BigDecimal.ZERO;
 
@@ -453,51 +459,6 @@ public class LecturerSalaryService {
         return baseHonor;
     }
 
-    private void markStagingDataAsProcessed(Long lecturerId, String period, LecturerEmploymentStatus lecturerType) {
-        // Mark teaching schedule/attendance as processed
-        if (lecturerType == LecturerEmploymentStatus.DOSEN_TETAP) {
-            List<TeachingScheduleStaging> schedules = teachingScheduleStagingRepository
-                    .findUnprocessedByLecturerId(lecturerId);
-            schedules.forEach(s -> s.setPayrollPeriodUsed(period));
-            teachingScheduleStagingRepository.saveAll(schedules);
-        } else {
-            List<TeachingAttendanceStaging> attendances = teachingAttendanceStagingRepository
-                    .findUnprocessedByLecturerId(lecturerId);
-            attendances.forEach(a -> a.setPayrollPeriodUsed(period));
-            teachingAttendanceStagingRepository.saveAll(attendances);
-        }
-
-        // Mark thesis guidance as processed
-        List<ThesisGuidanceStaging> guidance = thesisGuidanceStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-        guidance.forEach(g -> g.setPayrollPeriodUsed(period));
-        thesisGuidanceStagingRepository.saveAll(guidance);
-
-        // Mark thesis examination as processed
-        List<ThesisExaminationStaging> examinations = thesisExaminationStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-        examinations.forEach(e -> e.setPayrollPeriodUsed(period));
-        thesisExaminationStagingRepository.saveAll(examinations);
-
-        // Mark research as processed
-        List<ResearchStaging> research = researchStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-        research.forEach(r -> {
-            r.setPayrollPeriodUsed(period);
-            r.setIsProcessed(true);
-        });
-        researchStagingRepository.saveAll(research);
-
-        // Mark publications as processed
-        List<PublicationStaging> publications = publicationStagingRepository
-                .findUnprocessedByLecturerId(lecturerId);
-        publications.forEach(p -> {
-            p.setPayrollPeriodUsed(period);
-            p.setIsProcessed(true);
-        });
-        publicationStagingRepository.saveAll(publications);
-    }
-
     @Transactional
     public void markAsPaid(Long salaryId) {
         LecturerSalary salary = salaryRepository.findById(salaryId)
@@ -523,7 +484,19 @@ public class LecturerSalaryService {
         salary.setDeletedAt(LocalDateTime.now());
         salaryRepository.save(salary);
 
-        // Reset staging data payroll period
-        // This is a simplified approach - in production you might want more sophisticated tracking
+        // Release the staging rows used by the salary so the period can be recalculated
+        stagingMarker.unmark(salary.getPeriod(), salary.getDetails());
+    }
+
+    /**
+     * Unprocessed staging rows of one lecturer used for a salary calculation
+     * (schedules for permanent lecturers, attendances within the period for contract lecturers)
+     */
+    record StagingData(List<TeachingScheduleStaging> schedules,
+                       List<TeachingAttendanceStaging> attendances,
+                       List<ThesisGuidanceStaging> guidance,
+                       List<ThesisExaminationStaging> examinations,
+                       List<ResearchStaging> research,
+                       List<PublicationStaging> publications) {
     }
 }
@@ -0,0 +1,657 @@
+package com.hris.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Lecturer Staging Import Service
+ * Import bulk data staging dosen (Siakad, sistem penelitian & publikasi) dari CSV atau NDJSON
+ *
+ * - Input dibaca streaming per record; yang ditahan di memori hanya satu chunk (batch-size baris)
+ *   dan detail reject (maksimal MAX_REJECTS, jumlahnya tetap dihitung)
+ * - lecturer_id divalidasi terhadap set id lecturer_profiles aktif yang dimuat sekali per import
+ * - Dedupe pada source_id (id record di sistem sumber): duplikat dalam satu chunk diambil yang
+ *   terakhir, antar chunk diselesaikan oleh upsert
+ * - Satu INSERT multi-row ... ON DUPLICATE KEY UPDATE dan satu transaksi per chunk; baris yang
+ *   sudah dipakai payroll (payroll_period_used terisi) tidak diubah, baris yang di-soft-delete
+ *   dipulihkan karena source_id-nya dikirim lagi oleh sistem sumber
+ * - Record rusak (kutip tidak ditutup, melebihi MAX_RECORD_LENGTH) di-reject per record lalu
+ *   pembacaan dilanjutkan dari baris berikutnya
+ * - Chunk yang ditolak database ditulis ulang per baris sehingga reject tetap per baris
+ */
+@Slf4j
+@Service
+public class LecturerStagingImportService {
+
+    public static final int MAX_REJECTS = 1000;
+
+    // Guard against an unterminated CSV quote or a runaway line swallowing the rest of the file
+    static final int MAX_RECORD_LENGTH = 1_000_000;
+
+    private static final String LECTURER_IDS_SQL = "SELECT id FROM lecturer_profiles WHERE deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public LecturerStagingImportService(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        ObjectMapper objectMapper,
+                                        @Value("${app.lecturer-staging.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Import staging rows of one table
+     *
+     * @param input CSV with a header row (column names as in the staging table) or NDJSON with the same keys
+     * @throws IllegalArgumentException if the CSV header is malformed or lacks a required column
+     */
+    public ImportResult importRows(Target target, Format format, InputStream input) throws IOException {
+        long started = System.nanoTime();
+        Importer importer = new Importer(target,
+                new HashSet<>(jdbcTemplate.queryForList(LECTURER_IDS_SQL, Long.class)));
+
+        Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+        if (format == Format.CSV) {
+            readCsv(reader, importer);
+        } else {
+            readNdjson(new BufferedReader(reader), importer);
+        }
+        importer.flush();
+
+        ImportResult result = new ImportResult(target, importer.received, importer.written, importer.duplicates,
+                importer.rejected, importer.rejects, (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} staging: {} received, {} written, {} duplicates, {} rejected in {} ms",
+                target, result.received(), result.written(), result.duplicates(), result.rejected(),
+                result.elapsedMillis());
+        return result;
+    }
+
+    // =====================================================
+    // PARSE
+    // =====================================================
+
+    private void readCsv(Reader reader, Importer importer) throws IOException {
+        CsvParser parser = new CsvParser(reader);
+        List<String> header = parser.next();
+        if (header == null) {
+            return;
+        }
+        if (parser.error != null) {
+            throw new IllegalArgumentException("Header CSV tidak valid: " + parser.error);
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            columns.putIfAbsent(name, i);
+        }
+        for (Field field : importer.target.fields) {
+            if (field.required() && !columns.containsKey(field.name())) {
+                throw new IllegalArgumentException("Kolom wajib tidak ada di header CSV: " + field.name());
+            }
+        }
+
+        List<String> values;
+        while ((values = parser.next()) != null) {
+            if (parser.error != null) {
+                importer.malformed(parser.recordLine, parser.error);
+                continue;
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            List<String> record = values;
+            importer.accept(parser.recordLine, name -> {
+                Integer index = columns.get(name);
+                return index != null && index < record.size() ? record.get(index) : null;
+            });
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Importer importer) throws IOException {
+        StringBuilder buffer = new StringBuilder();
+        int lineNumber = 0;
+        while (readLine(reader, buffer)) {
+            lineNumber++;
+            if (buffer.length() > MAX_RECORD_LENGTH) {
+                importer.malformed(lineNumber, "Baris melebihi " + MAX_RECORD_LENGTH + " karakter");
+                continue;
+            }
+            String line = buffer.toString();
+            if (line.isBlank()) {
+                continue;
+            }
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                importer.malformed(lineNumber, "Format JSON tidak valid: " + e.getOriginalMessage());
+                continue;
+            }
+            if (!node.isObject()) {
+                importer.malformed(lineNumber, "Baris harus berupa object JSON");
+                continue;
+            }
+            importer.accept(lineNumber, name -> {
+                JsonNode value = node.get(name);
+                return value == null || value.isNull() ? null : value.asText();
+            });
+        }
+    }
+
+    /**
+     * Read the next line into buffer without its line break; false at end of input
+     * At most MAX_RECORD_LENGTH + 1 characters are kept, the rest of a longer line is skipped
+     */
+    private static boolean readLine(BufferedReader reader, StringBuilder buffer) throws IOException {
+        buffer.setLength(0);
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != -1 && c != '\n') {
+            if (buffer.length() <= MAX_RECORD_LENGTH) {
+                buffer.append((char) c);
+            }
+            c = reader.read();
+        }
+        if (buffer.length() > 0 && buffer.length() <= MAX_RECORD_LENGTH
+                && buffer.charAt(buffer.length() - 1) == '\r') {
+            buffer.setLength(buffer.length() - 1);
+        }
+        return true;
+    }
+
+    // =====================================================
+    // IMPORT
+    // =====================================================
+
+    /**
+     * State of one import run: current chunk (keyed by source_id) and counters
+     */
+    private final class Importer {
+        private final Target target;
+        private final Set<Long> lecturerIds;
+        private final Map<String, Row> chunk = new LinkedHashMap<>();
+        private final List<Reject> rejects = new ArrayList<>();
+        private long received;
+        private long written;
+        private long duplicates;
+        private long rejected;
+
+        private Importer(Target target, Set<Long> lecturerIds) {
+            this.target = target;
+            this.lecturerIds = lecturerIds;
+        }
+
+        private void accept(int line, Function<String, String> record) {
+            received++;
+            String sourceId = trimToNull(record.apply("source_id"));
+
+            Object[] values = new Object[target.fields.size()];
+            for (int i = 0; i < values.length; i++) {
+                Field field = target.fields.get(i);
+                try {
+                    values[i] = field.convert(record.apply(field.name()));
+                } catch (IllegalArgumentException e) {
+                    reject(line, sourceId, field.name() + ": " + e.getMessage());
+                    return;
+                }
+            }
+            if (!lecturerIds.contains((Long) values[1])) {
+                reject(line, sourceId, "Dosen tidak ditemukan: lecturer_id " + values[1]);
+                return;
+            }
+
+            if (chunk.put(sourceId, new Row(line, sourceId, values)) != null) {
+                duplicates++;
+            }
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private void malformed(int line, String message) {
+            received++;
+            reject(line, null, message);
+        }
+
+        private void reject(int line, String sourceId, String message) {
+            rejected++;
+            if (rejects.size() < MAX_REJECTS) {
+                rejects.add(new Reject(line, sourceId, message));
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Row> rows = new ArrayList<>(chunk.values());
+            chunk.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> upsert(rows));
+                written += rows.size();
+            } catch (DataAccessException e) {
+                log.warn("Staging import chunk of {} rejected ({}), writing rows individually",
+                        rows.size(), e.getMostSpecificCause().getMessage());
+                for (Row row : rows) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> upsert(List.of(row)));
+                        written++;
+                    } catch (DataAccessException ex) {
+                        reject(row.line(), row.sourceId(), "Gagal menyimpan: " + ex.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+
+        private void upsert(List<Row> rows) {
+            Object[] args = new Object[rows.size() * target.fields.size()];
+            int i = 0;
+            for (Row row : rows) {
+                for (Object value : row.values()) {
+                    args[i++] = value;
+                }
+            }
+            jdbcTemplate.update(target.upsertSql(rows.size()), args);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas, quotes ("") and newlines
+     * A malformed record is returned with error set; reading resumes on the line after the one it started on
+     */
+    private static final class CsvParser {
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        private int line = 1;
+        private int recordLine;
+        private String error;
+
+        // Characters of the current record, replayed after the first line when the record is malformed
+        private final StringBuilder raw = new StringBuilder();
+        private String replay;
+        private int replayPosition;
+
+        private CsvParser(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Next record, or null at end of input; recordLine is the line the record starts on
+         * error is set (and the fields are empty) when the record is malformed
+         */
+        private List<String> next() throws IOException {
+            error = null;
+            raw.setLength(0);
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        return malformed("Tanda kutip tidak ditutup pada record baris " + recordLine);
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next != '"') {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                        field.append('"');
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+
+                if (raw.length() > MAX_RECORD_LENGTH) {
+                    return malformed("Record baris " + recordLine + " melebihi " + MAX_RECORD_LENGTH + " karakter");
+                }
+                c = read();
+            }
+        }
+
+        /**
+         * Give up on the current record and resync on the line after the one it started on:
+         * characters already read past that line are replayed, otherwise the rest of the line is skipped
+         */
+        private List<String> malformed(String message) throws IOException {
+            error = message;
+            int lineEnd = raw.indexOf("\n");
+            if (lineEnd >= 0) {
+                String pending = replay != null ? replay.substring(replayPosition) : "";
+                replay = raw.substring(lineEnd + 1) + pending;
+                replayPosition = 0;
+            } else {
+                int c;
+                do {
+                    raw.setLength(0);
+                    c = read();
+                } while (c != -1 && c != '\n');
+            }
+            raw.setLength(0);
+            line = recordLine + 1;
+            return List.of();
+        }
+
+        private int read() throws IOException {
+            int c;
+            if (replay != null && replayPosition < replay.length()) {
+                c = replay.charAt(replayPosition++);
+            } else {
+                replay = null;
+                if (position == limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return -1;
+                    }
+                }
+                c = buffer[position++];
+            }
+            raw.append((char) c);
+            return c;
+        }
+    }
+
+    // =====================================================
+    // TARGETS
+    // =====================================================
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Staging table and its importable columns (field name = column name)
+     * Every target starts with source_id and lecturer_id
+     */
+    public enum Target {
+        TEACHING_SCHEDULE("teaching_schedule_staging",
+                Field.text("academic_year", 10, true),
+                Field.text("semester", 20, true),
+                Field.text("course_code", 50, true),
+                Field.text("course_name", 255, false),
+                Field.text("schedule_day", 20, false),
+                Field.text("schedule_time", 50, false),
+                Field.sks(),
+                Field.mode("teaching_mode")),
+        TEACHING_ATTENDANCE("teaching_attendance_staging",
+                Field.date("attendance_date", true),
+                Field.text("course_code", 50, true),
+                Field.text("course_name", 255, false),
+                Field.sks(),
+                Field.mode("teaching_mode"),
+                Field.choice("attendance_status", "HADIR", "HADIR", "TIDAK_HADIR")),
+        THESIS_GUIDANCE("thesis_guidance_staging",
+                Field.text("student_id", 50, false),
+                Field.text("student_name", 255, false),
+                Field.text("thesis_type", 50, false),
+                Field.mode("guidance_mode"),
+                Field.integer("guidance_session")),
+        THESIS_EXAMINATION("thesis_examination_staging",
+                Field.text("thesis_id", 50, false),
+                Field.text("student_id", 50, false),
+                Field.text("student_name", 255, false),
+                Field.text("thesis_type", 50, false),
+                Field.text("examination_role", 50, false),
+                Field.mode("examination_mode"),
+                Field.date("examination_date", false)),
+        RESEARCH("research_staging",
+                Field.text("research_title", 500, false),
+                Field.text("research_type", 100, false),
+                Field.text("research_tier", 50, false),
+                Field.integer("research_duration_months"),
+                Field.date("report_date", false)),
+        PUBLICATION("publication_staging",
+                Field.text("publication_title", 500, false),
+                Field.text("publication_type", 50, false),
+                Field.text("sinta_level", 20, false),
+                Field.bool("is_scopus_indexed"),
+                Field.text("scopus_quartile", 10, false),
+                Field.text("journal_name", 255, false),
+                Field.date("publication_date", false),
+                Field.text("doi", 255, false),
+                Field.text("authors", 65_535, false),
+                Field.date("report_date", false));
+
+        private final List<Field> fields;
+        private final String insertPrefix;
+        private final String valuesTuple;
+        private final String onDuplicate;
+
+        Target(String table, Field... columns) {
+            List<Field> all = new ArrayList<>();
+            all.add(Field.text("source_id", 100, true));
+            all.add(Field.id("lecturer_id"));
+            Collections.addAll(all, columns);
+            this.fields = List.copyOf(all);
+
+            List<String> names = new ArrayList<>();
+            List<String> updates = new ArrayList<>();
+            for (Field field : fields) {
+                names.add(field.name());
+                if (!"source_id".equals(field.name())) {
+                    updates.add(keepProcessed(field.name()));
+                }
+            }
+            updates.add(keepProcessed("sync_date"));
+            updates.add(restoreUnprocessed("deleted_at"));
+            updates.add(restoreUnprocessed("deleted_by"));
+            this.insertPrefix = "INSERT INTO " + table + " (" + String.join(", ", names) + ", sync_date) VALUES ";
+            this.valuesTuple = "(" + String.join(", ", Collections.nCopies(fields.size(), "?")) + ", NOW())";
+            this.onDuplicate = " ON DUPLICATE KEY UPDATE " + String.join(", ", updates);
+        }
+
+        /**
+         * Rows already used by a payroll keep their values
+         */
+        private static String keepProcessed(String column) {
+            return column + " = IF(payroll_period_used IS NULL, VALUES(" + column + "), " + column + ")";
+        }
+
+        /**
+         * A soft-deleted row sent again by the source system is restored, unless a payroll used it
+         */
+        private static String restoreUnprocessed(String column) {
+            return column + " = IF(payroll_period_used IS NULL, NULL, " + column + ")";
+        }
+
+        private String upsertSql(int rows) {
+            return insertPrefix + String.join(", ", Collections.nCopies(rows, valuesTuple)) + onDuplicate;
+        }
+    }
+
+    private enum FieldType {
+        TEXT, ID, INTEGER, DECIMAL, DATE, BOOLEAN
+    }
+
+    /**
+     * Importable column: type, whether required, max length (TEXT), default and allowed values
+     */
+    private record Field(String name, FieldType type, boolean required, int maxLength,
+                         Object defaultValue, Set<String> allowed) {
+
+        static Field text(String name, int maxLength, boolean required) {
+            return new Field(name, FieldType.TEXT, required, maxLength, null, null);
+        }
+
+        static Field choice(String name, String defaultValue, String... allowed) {
+            return new Field(name, FieldType.TEXT, false, 50, defaultValue, Set.of(allowed));
+        }
+
+        static Field mode(String name) {
+            return choice(name, "OFFLINE", "OFFLINE", "ONLINE");
+        }
+
+        static Field id(String name) {
+            return new Field(name, FieldType.ID, true, 0, null, null);
+        }
+
+        static Field integer(String name) {
+            return new Field(name, FieldType.INTEGER, false, 0, null, null);
+        }
+
+        // DECIMAL(3, 1)
+        static Field sks() {
+            return new Field("sks", FieldType.DECIMAL, true, 0, null, null);
+        }
+
+        static Field date(String name, boolean required) {
+            return new Field(name, FieldType.DATE, required, 0, null, null);
+        }
+
+        static Field bool(String name) {
+            return new Field(name, FieldType.BOOLEAN, false, 0, Boolean.FALSE, null);
+        }
+
+        /**
+         * Convert a raw value to its JDBC parameter
+         *
+         * @throws IllegalArgumentException if the value is missing or invalid
+         */
+        Object convert(String raw) {
+            String value = trimToNull(raw);
+            if (value == null) {
+                if (required) {
+                    throw new IllegalArgumentException("wajib diisi");
+                }
+                return defaultValue;
+            }
+            try {
+                return switch (type) {
+                    case TEXT -> {
+                        if (allowed != null) {
+                            String upper = value.toUpperCase(Locale.ROOT);
+                            if (!allowed.contains(upper)) {
+                                throw new IllegalArgumentException("harus salah satu dari " + allowed);
+                            }
+                            yield upper;
+                        }
+                        if (value.length() > maxLength) {
+                            throw new IllegalArgumentException("maksimal " + maxLength + " karakter");
+                        }
+                        yield value;
+                    }
+                    case ID -> Long.valueOf(value);
+                    case INTEGER -> Integer.valueOf(value);
+                    case DECIMAL -> {
+                        BigDecimal sks = new BigDecimal(value);
+                        if (sks.signum() < 0 || sks.compareTo(BigDecimal.valueOf(100)) >= 0 || sks.stripTrailingZeros().scale() > 1) {
+                            throw new IllegalArgumentException("harus antara 0 dan 99.9 dengan maksimal 1 desimal");
+                        }
+                        yield sks;
+                    }
+                    case DATE -> Date.valueOf(LocalDate.parse(value));
+                    case BOOLEAN -> {
+                        if ("true".equalsIgnoreCase(value) || "1".equals(value)) {
+                            yield Boolean.TRUE;
+                        }
+                        if ("false".equalsIgnoreCase(value) || "0".equals(value)) {
+                            yield Boolean.FALSE;
+                        }
+                        throw new IllegalArgumentException("harus true atau false");
+                    }
+                };
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("format tidak valid: " + value);
+            }
+        }
+    }
+
+    // =====================================================
+    // STRUCTURES
+    // =====================================================
+
+    private record Row(int line, String sourceId, Object[] values) {
+    }
+
+    /**
+     * Rejected input record
+     */
+    public record Reject(int line, String sourceId, String message) {
+    }
+
+    /**
+     * Import summary: received = written + duplicates + rejected
+     * Only the first MAX_REJECTS rejects are listed
+     */
+    public record ImportResult(Target target,
+                               long received,
+                               long written,
+                               long duplicates,
+                               long rejected,
+                               List<Reject> rejects,
+                               long elapsedMillis) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.hris.service;
+
+import com.hris.model.LecturerSalaryDetail;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lecturer Staging Marker
+ * Tandai / lepas baris staging yang dipakai gaji dosen, berdasarkan source id di LecturerSalaryDetail
+ *
+ * - Hanya baris yang benar-benar masuk detail gaji (sourceTable + sourceReferenceId) yang ditandai,
+ *   sehingga baris staging yang masuk setelah perhitungan tetap tersedia untuk periode berikutnya
+ * - Satu UPDATE ... WHERE id IN (...) per tabel (per MARK_CHUNK_SIZE id), bukan update per entity
+ * - mark hanya mengambil baris yang masih belum dipakai; jika jumlahnya kurang berarti perhitungan
+ *   lain sudah memakainya dan IllegalStateException membatalkan transaksi pemanggil
+ * - unmark (hapus gaji) hanya melepas baris yang masih tercatat untuk periode gaji tersebut
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LecturerStagingMarker {
+
+    static final int MARK_CHUNK_SIZE = 1000;
+
+    private static final Map<String, String> MARK_SQL = Map.of(
+            "teaching_schedule_staging",
+            "UPDATE teaching_schedule_staging SET payroll_period_used = ? " +
+            "WHERE payroll_period_used IS NULL AND id IN (%s)",
+            "teaching_attendance_staging",
+            "UPDATE teaching_attendance_staging SET payroll_period_used = ? " +
+            "WHERE payroll_period_used IS NULL AND id IN (%s)",
+            "thesis_guidance_staging",
+            "UPDATE thesis_guidance_staging SET payroll_period_used = ? " +
+            "WHERE payroll_period_used IS NULL AND id IN (%s)",
+            "thesis_examination_staging",
+            "UPDATE thesis_examination_staging SET payroll_period_used = ? " +
+            "WHERE payroll_period_used IS NULL AND id IN (%s)",
+            "research_staging",
+            "UPDATE research_staging SET payroll_period_used = ?, is_processed = TRUE " +
+            "WHERE is_processed = FALSE AND id IN (%s)",
+            "publication_staging",
+            "UPDATE publication_staging SET payroll_period_used = ?, is_processed = TRUE " +
+            "WHERE is_processed = FALSE AND id IN (%s)");
+
+    private static final Map<String, String> UNMARK_SQL = Map.of(
+            "teaching_schedule_staging",
+            "UPDATE teaching_schedule_staging SET payroll_period_used = NULL " +
+            "WHERE payroll_period_used = ? AND id IN (%s)",
+            "teaching_attendance_staging",
+            "UPDATE teaching_attendance_staging SET payroll_period_used = NULL " +
+            "WHERE payroll_period_used = ? AND id IN (%s)",
+            "thesis_guidance_staging",
+            "UPDATE thesis_guidance_staging SET payroll_period_used = NULL " +
+            "WHERE payroll_period_used = ? AND id IN (%s)",
+            "thesis_examination_staging",
+            "UPDATE thesis_examination_staging SET payroll_period_used = NULL " +
+            "WHERE payroll_period_used = ? AND id IN (%s)",
+            "research_staging",
+            "UPDATE research_staging SET payroll_period_used = NULL, is_processed = FALSE " +
+            "WHERE is_processed = TRUE AND payroll_period_used = ? AND id IN (%s)",
+            "publication_staging",
+            "UPDATE publication_staging SET payroll_period_used = NULL, is_processed = FALSE " +
+            "WHERE is_processed = TRUE AND payroll_period_used = ? AND id IN (%s)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Mark the staging rows used by salary details with the payroll period
+     * Must run in the transaction that saves the details
+     *
+     * @throws IllegalStateException if a row was already used by another calculation
+     */
+    public void mark(String period, Collection<LecturerSalaryDetail> details) {
+        for (Map.Entry<String, List<Long>> entry : groupBySource(details).entrySet()) {
+            List<Long> ids = entry.getValue();
+            int marked = update(MARK_SQL, entry.getKey(), period, ids);
+            if (marked != ids.size()) {
+                throw new IllegalStateException("Staging data in " + entry.getKey() +
+                        " was used by another calculation");
+            }
+        }
+    }
+
+    /**
+     * Release the staging rows used by salary details of a period (salary deleted)
+     *
+     * @return Number of rows released
+     */
+    public int unmark(String period, Collection<LecturerSalaryDetail> details) {
+        int released = 0;
+        for (Map.Entry<String, List<Long>> entry : groupBySource(details).entrySet()) {
+            released += update(UNMARK_SQL, entry.getKey(), period, entry.getValue());
+        }
+        log.debug("Released {} staging rows of period {}", released, period);
+        return released;
+    }
+
+    /**
+     * Distinct source ids per staging table
+     */
+    private Map<String, List<Long>> groupBySource(Collection<LecturerSalaryDetail> details) {
+        Map<String, Set<Long>> sources = new LinkedHashMap<>();
+        for (LecturerSalaryDetail detail : details) {
+            if (detail.hasSourceReference()) {
+                sources.computeIfAbsent(detail.getSourceTable(), k -> new LinkedHashSet<>())
+                        .add(detail.getSourceReferenceId());
+            }
+        }
+        Map<String, List<Long>> grouped = new LinkedHashMap<>();
+        sources.forEach((table, ids) -> grouped.put(table, new ArrayList<>(ids)));
+        return grouped;
+    }
+
+    private int update(Map<String, String> statements, String table, String period, List<Long> ids) {
+        String sql = statements.get(table);
+        if (sql == null) {
+            throw new IllegalStateException("Unknown staging table: " + table);
+        }
+
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += MARK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + MARK_CHUNK_SIZE, ids.size()));
+            Object[] params = new Object[chunk.size() + 1];
+            params[0] = period;
+            for (int i = 0; i < chunk.size(); i++) {
+                params[i + 1] = chunk.get(i);
+            }
+            updated += jdbcTemplate.update(
+                    String.format(sql, String.join(",", Collections.nCopies(chunk.size(), "?"))), params);
+        }
+        return updated;
+    }
+}
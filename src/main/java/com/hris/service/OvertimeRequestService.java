@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Overtime Request Service
@@ -198,6 +199,15 @@ public class OvertimeRequestService {
         return overtimeRequestRepository.findPendingSupervisorRequests();
     }
 
+    /**
+     * Get pending supervisor requests of the supervisor's team (via SupervisorIndex, no full scan)
+     */
+    @Transactional(readOnly = true)
+    public List<OvertimeRequest> getTeamPendingSupervisorRequests(Long supervisorId) {
+        Set<Long> team = approvalService.getSubordinateIds(supervisorId);
+        return team.isEmpty() ? List.of() : overtimeRequestRepository.findPendingSupervisorRequestsByEmployeeIds(team);
+    }
+
     /**
      * Get pending HR requests
      */
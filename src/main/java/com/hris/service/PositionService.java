@@ -21,6 +21,7 @@ import java.util.List;
 public class PositionService {
 
     private final PositionRepository positionRepository;
+    private final SupervisorIndex supervisorIndex;
 
     // =====================================================
     // CRUD OPERATIONS
@@ -96,6 +97,11 @@ public class PositionService {
             throw new IllegalArgumentException("Level position harus antara 1 dan 6");
         }
 
+        // Level decides who needs supervisor approval (Rektor level has none)
+        if (!position.getLevel().equals(existing.getLevel())) {
+            supervisorIndex.invalidate();
+        }
+
         // Update fields
         existing.setName(position.getName());
         existing.setDescription(position.getDescription());
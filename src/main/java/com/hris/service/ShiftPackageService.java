@@ -22,6 +22,7 @@ import java.util.Optional;
 public class ShiftPackageService {
 
     private final ShiftPackageRepository shiftPackageRepository;
+    private final ShiftResolutionEngine shiftResolutionEngine;
     private final WorkingHoursService workingHoursService;
 
     // =====================================================
@@ -88,6 +89,7 @@ public class ShiftPackageService {
         validateWorkingHours(shiftPackage);
 
         ShiftPackage saved = shiftPackageRepository.save(shiftPackage);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Shift package created successfully: {}", saved.getId());
         return saved;
     }
@@ -128,6 +130,7 @@ public class ShiftPackageService {
         existing.setColor(shiftPackage.getColor());
 
         ShiftPackage saved = shiftPackageRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Shift package updated successfully: {}", saved.getId());
         return saved;
     }
@@ -149,6 +152,7 @@ public class ShiftPackageService {
 
         existing.softDelete(null);
         shiftPackageRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
 
         log.info("Shift package deleted successfully: {}", id);
     }
@@ -22,6 +22,7 @@ import java.util.Optional;
 public class ShiftPatternService {
 
     private final ShiftPatternRepository shiftPatternRepository;
+    private final ShiftResolutionEngine shiftResolutionEngine;
     private final ShiftPackageService shiftPackageService;
 
     // =====================================================
@@ -100,6 +101,7 @@ public class ShiftPatternService {
         }
 
         ShiftPattern saved = shiftPatternRepository.save(shiftPattern);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Shift pattern created successfully: {}", saved.getId());
         return saved;
     }
@@ -165,6 +167,7 @@ public class ShiftPatternService {
         existing.setOverrideWeeklyLeave(shiftPattern.getOverrideWeeklyLeave());
 
         ShiftPattern saved = shiftPatternRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Shift pattern updated successfully: {}", saved.getId());
         return saved;
     }
@@ -186,6 +189,7 @@ public class ShiftPatternService {
 
         existing.softDelete(null);
         shiftPatternRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
 
         log.info("Shift pattern deleted successfully: {}", id);
     }
@@ -0,0 +1,689 @@
+package com.hris.service;
+
+import com.hris.model.EmployeeShiftSchedule;
+import com.hris.model.EmployeeShiftSetting;
+import com.hris.model.ShiftPackage;
+import com.hris.model.ShiftPattern;
+import com.hris.model.WorkingHours;
+import com.hris.repository.EmployeeShiftScheduleRepository;
+import com.hris.repository.EmployeeShiftSettingRepository;
+import com.hris.repository.ShiftPackageRepository;
+import com.hris.repository.ShiftPatternRepository;
+import com.hris.repository.WorkingHoursRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shift Resolution Engine
+ * Resolve shift (employee, tanggal) dari memory tanpa query ke database
+ *
+ * Terdiri dari dua bagian:
+ * - Catalog snapshot: shift pattern, shift package dan working hours (immutable, versioned); entity
+ *   disalin ke record immutable saat dimuat sehingga entity yang di-cache tidak pernah keluar dari engine
+ * - Employee timeline: index interval shift setting + override schedule per employee
+ * - Catalog dan timeline dipublish lewat CacheVersion: load yang balapan dengan invalidasi ditarik kembali
+ *
+ * Snapshot di-invalidate oleh ShiftPatternService, ShiftPackageService dan WorkingHoursService,
+ * timeline di-invalidate oleh method assignment/override di EmployeeShiftService.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftResolutionEngine {
+
+    private final ShiftPatternRepository shiftPatternRepository;
+    private final ShiftPackageRepository shiftPackageRepository;
+    private final WorkingHoursRepository workingHoursRepository;
+    private final EmployeeShiftSettingRepository employeeShiftSettingRepository;
+    private final EmployeeShiftScheduleRepository employeeShiftScheduleRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int BATCH_LOAD_SIZE = 1000;
+
+    // Batch timeline loads read plain columns: hydrating thousands of entities costs more than the queries
+    private static final String SETTINGS_SQL =
+            "SELECT employee_id, shift_pattern_id, effective_from, effective_to FROM employee_shift_settings " +
+            "WHERE employee_id IN (%s) AND deleted_at IS NULL";
+
+    private static final String SCHEDULES_SQL =
+            "SELECT employee_id, schedule_date, working_hours_id, override_is_wfh, override_is_overtime_allowed, " +
+            "override_attendance_mandatory, notes FROM employee_shift_schedules " +
+            "WHERE employee_id IN (%s) AND deleted_at IS NULL";
+
+    private final AtomicReference<CatalogSnapshot> catalog = new AtomicReference<>();
+    private final CacheVersion catalogVersion = new CacheVersion();
+    private final Map<Long, EmployeeTimeline> timelines = new ConcurrentHashMap<>();
+    private final CacheVersion timelineVersion = new CacheVersion();
+
+    // =====================================================
+    // RESOLUTION
+    // =====================================================
+
+    /**
+     * Resolve shift assignment for employee on specific date
+     */
+    public EmployeeShiftService.ShiftAssignmentResult resolve(Long employeeId, LocalDate date) {
+        return resolve(getCatalog(), getTimeline(employeeId), date);
+    }
+
+    /**
+     * Resolve shift assignment against an explicit snapshot and timeline
+     * Pure function - never touches the database
+     */
+    public EmployeeShiftService.ShiftAssignmentResult resolve(CatalogSnapshot snapshot, EmployeeTimeline timeline,
+                                                              LocalDate date) {
+        // 1. Check override first
+        OverrideEntry override = timeline.overrideOn(date);
+        if (override != null) {
+            return buildFromOverride(snapshot, timeline, override, date);
+        }
+
+        // 2. Get from pattern
+        PatternEntry pattern = snapshot.getPattern(timeline.patternIdOn(date));
+        if (pattern == null) {
+            return EmployeeShiftService.ShiftAssignmentResult.builder()
+                    .employeeId(timeline.getEmployeeId())
+                    .date(date)
+                    .isWorkingDay(false)
+                    .isOffDay(true)
+                    .build();
+        }
+
+        return buildFromPattern(snapshot, pattern, timeline.getEmployeeId(), date);
+    }
+
+    /**
+     * Get active shift pattern for employee on specific date
+     */
+    public PatternEntry getActiveShiftPattern(Long employeeId, LocalDate date) {
+        return getCatalog().getPattern(getTimeline(employeeId).patternIdOn(date));
+    }
+
+    private EmployeeShiftService.ShiftAssignmentResult buildFromOverride(CatalogSnapshot snapshot,
+                                                                         EmployeeTimeline timeline,
+                                                                         OverrideEntry override, LocalDate date) {
+        WorkingHoursEntry wh = snapshot.getWorkingHours(override.workingHoursId());
+
+        Boolean isWfh = override.isWfh();
+        Boolean isOvertimeAllowed = override.isOvertimeAllowed();
+        Boolean isAttendanceMandatory = override.isAttendanceMandatory();
+
+        // If override values are null, get from pattern
+        if (isWfh == null || isOvertimeAllowed == null || isAttendanceMandatory == null) {
+            PatternEntry pattern = snapshot.getPattern(timeline.patternIdOn(date));
+            if (pattern != null) {
+                if (isWfh == null) isWfh = pattern.isWfhAllowed();
+                if (isOvertimeAllowed == null) isOvertimeAllowed = pattern.isOvertimeAllowed();
+                if (isAttendanceMandatory == null) isAttendanceMandatory = pattern.isAttendanceMandatory();
+            }
+        }
+
+        return EmployeeShiftService.ShiftAssignmentResult.builder()
+                .employeeId(timeline.getEmployeeId())
+                .date(date)
+                .workingHours(wh)
+                .isWorkingDay(wh != null && !wh.isOff())
+                .isOffDay(wh == null || wh.isOff())
+                .isOverride(true)
+                .isWfh(isWfh != null && isWfh)
+                .isOvertimeAllowed(isOvertimeAllowed != null && isOvertimeAllowed)
+                .isAttendanceMandatory(isAttendanceMandatory != null && isAttendanceMandatory)
+                .overrideNotes(override.notes())
+                .build();
+    }
+
+    private EmployeeShiftService.ShiftAssignmentResult buildFromPattern(CatalogSnapshot snapshot, PatternEntry pattern,
+                                                                        Long employeeId, LocalDate date) {
+        PackageEntry pkg = snapshot.getPackage(pattern.shiftPackageId());
+        if (pkg == null) {
+            return EmployeeShiftService.ShiftAssignmentResult.builder()
+                    .employeeId(employeeId)
+                    .date(date)
+                    .isWorkingDay(false)
+                    .isOffDay(true)
+                    .build();
+        }
+
+        WorkingHoursEntry wh = snapshot.getWorkingHours(pkg.workingHoursIdByDay(date.getDayOfWeek()));
+        boolean isOffDay = (wh == null || wh.isOff());
+
+        return EmployeeShiftService.ShiftAssignmentResult.builder()
+                .employeeId(employeeId)
+                .date(date)
+                .shiftPattern(pattern)
+                .shiftPackage(pkg)
+                .workingHours(wh)
+                .isWorkingDay(!isOffDay)
+                .isOffDay(isOffDay)
+                .isOverride(false)
+                .isWfh(pattern.isWfhAllowed())
+                .isOvertimeAllowed(pattern.isOvertimeAllowed())
+                .isAttendanceMandatory(pattern.isAttendanceMandatory())
+                .lateToleranceMinutes(pattern.lateToleranceMinutes())
+                .build();
+    }
+
+    // =====================================================
+    // SNAPSHOT & TIMELINE ACCESS
+    // =====================================================
+
+    /**
+     * Get current catalog snapshot, loading it if it was invalidated
+     */
+    public CatalogSnapshot getCatalog() {
+        CatalogSnapshot current = catalog.get();
+        if (current != null) {
+            return current;
+        }
+
+        long version = catalogVersion.current();
+        CatalogSnapshot loaded = loadCatalog(version);
+        catalogVersion.publish(catalog, version, loaded);
+        return loaded;
+    }
+
+    /**
+     * Get timeline (settings + overrides) for employee, loading it if not cached
+     */
+    public EmployeeTimeline getTimeline(Long employeeId) {
+        EmployeeTimeline cached = timelines.get(employeeId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = timelineVersion.current();
+        EmployeeTimeline loaded = readOnlyTemplate().execute(status -> EmployeeTimeline.of(employeeId,
+                employeeShiftSettingRepository.findByEmployeeIdAndDeletedAtIsNullOrderByEffectiveFromDesc(employeeId),
+                employeeShiftScheduleRepository.findByEmployeeIdAndDeletedAtIsNullOrderByScheduleDateAsc(employeeId)));
+        timelineVersion.publish(timelines, employeeId, version, loaded);
+        return loaded;
+    }
+
+    /**
+     * Get timelines for many employees, loading all missing ones with batched queries
+     */
+    public Map<Long, EmployeeTimeline> getTimelines(Collection<Long> employeeIds) {
+        Map<Long, EmployeeTimeline> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            EmployeeTimeline cached = timelines.get(employeeId);
+            if (cached != null) {
+                result.put(employeeId, cached);
+            } else {
+                missing.add(employeeId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long version = timelineVersion.current();
+        Map<Long, List<EmployeeShiftSetting>> settingsByEmployee = new HashMap<>();
+        Map<Long, List<EmployeeShiftSchedule>> schedulesByEmployee = new HashMap<>();
+        readOnlyTemplate().executeWithoutResult(status -> {
+            for (int from = 0; from < missing.size(); from += BATCH_LOAD_SIZE) {
+                List<Long> chunk = missing.subList(from, Math.min(from + BATCH_LOAD_SIZE, missing.size()));
+                String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+                Object[] ids = chunk.toArray();
+                jdbcTemplate.query(String.format(SETTINGS_SQL, placeholders), rs -> {
+                    EmployeeShiftSetting setting = new EmployeeShiftSetting();
+                    setting.setEmployeeId(rs.getLong("employee_id"));
+                    setting.setShiftPatternId(rs.getLong("shift_pattern_id"));
+                    setting.setEffectiveFrom(rs.getDate("effective_from").toLocalDate());
+                    Date effectiveTo = rs.getDate("effective_to");
+                    setting.setEffectiveTo(effectiveTo != null ? effectiveTo.toLocalDate() : null);
+                    settingsByEmployee.computeIfAbsent(setting.getEmployeeId(), k -> new ArrayList<>()).add(setting);
+                }, ids);
+                jdbcTemplate.query(String.format(SCHEDULES_SQL, placeholders), rs -> {
+                    EmployeeShiftSchedule schedule = new EmployeeShiftSchedule();
+                    schedule.setEmployeeId(rs.getLong("employee_id"));
+                    schedule.setScheduleDate(rs.getDate("schedule_date").toLocalDate());
+                    schedule.setWorkingHoursId(getLong(rs, "working_hours_id"));
+                    schedule.setOverrideIsWfh(getBoolean(rs, "override_is_wfh"));
+                    schedule.setOverrideIsOvertimeAllowed(getBoolean(rs, "override_is_overtime_allowed"));
+                    schedule.setOverrideAttendanceMandatory(getBoolean(rs, "override_attendance_mandatory"));
+                    schedule.setNotes(rs.getString("notes"));
+                    schedulesByEmployee.computeIfAbsent(schedule.getEmployeeId(), k -> new ArrayList<>()).add(schedule);
+                }, ids);
+            }
+        });
+
+        for (Long employeeId : missing) {
+            EmployeeTimeline loaded = EmployeeTimeline.of(employeeId,
+                    settingsByEmployee.getOrDefault(employeeId, List.of()),
+                    schedulesByEmployee.getOrDefault(employeeId, List.of()));
+            result.put(employeeId, loaded);
+            timelineVersion.publish(timelines, employeeId, version, loaded);
+        }
+        log.debug("Batch loaded {} employee timelines ({} cached)", missing.size(), result.size() - missing.size());
+        return result;
+    }
+
+    /**
+     * Current catalog version (incremented on every invalidation)
+     */
+    public long getCatalogVersion() {
+        return catalogVersion.current();
+    }
+
+    /**
+     * Separate read-only transaction for cache loads, so cached entities are never
+     * attached to (and mutated by) a caller's persistence context and never see
+     * the caller's uncommitted writes
+     */
+    private TransactionTemplate readOnlyTemplate() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Boolean getBoolean(ResultSet rs, String column) throws SQLException {
+        boolean value = rs.getBoolean(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private CatalogSnapshot loadCatalog(long version) {
+        CatalogSnapshot snapshot = readOnlyTemplate().execute(status -> {
+            Map<Long, PatternEntry> patterns = new HashMap<>();
+            for (ShiftPattern pattern : shiftPatternRepository.findAllWithShiftPackage()) {
+                patterns.put(pattern.getId(), PatternEntry.of(pattern));
+            }
+            Map<Long, PackageEntry> packages = new HashMap<>();
+            for (ShiftPackage pkg : shiftPackageRepository.findAllWithWorkingHours()) {
+                packages.put(pkg.getId(), PackageEntry.of(pkg));
+            }
+            Map<Long, WorkingHoursEntry> workingHours = new HashMap<>();
+            for (WorkingHours wh : workingHoursRepository.findAllByDeletedAtIsNullOrderByDisplayOrderAscNameAsc()) {
+                workingHours.put(wh.getId(), WorkingHoursEntry.of(wh));
+            }
+            return new CatalogSnapshot(version, Map.copyOf(patterns), Map.copyOf(packages), Map.copyOf(workingHours));
+        });
+
+        log.info("Loaded shift catalog snapshot v{}: {} patterns, {} packages, {} working hours",
+                version, snapshot.patterns().size(), snapshot.packages().size(), snapshot.workingHours().size());
+        return snapshot;
+    }
+
+    // =====================================================
+    // INVALIDATION
+    // =====================================================
+
+    /**
+     * Invalidate catalog snapshot (pattern, package or working hours changed)
+     * Evicted immediately and again when the surrounding transaction completes (commit or
+     * rollback), so a reload that raced with the uncommitted write is never kept
+     */
+    public void invalidateCatalog() {
+        evictCatalog();
+        afterCompletion(this::evictCatalog);
+    }
+
+    /**
+     * Invalidate timeline for employee (shift setting or override changed)
+     */
+    public void invalidateEmployee(Long employeeId) {
+        evictEmployee(employeeId);
+        afterCompletion(() -> evictEmployee(employeeId));
+    }
+
+    private void evictCatalog() {
+        catalogVersion.evict(catalog);
+    }
+
+    private void evictEmployee(Long employeeId) {
+        timelineVersion.evict(timelines, employeeId);
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // Before other synchronizations of the transaction (recompute jobs) read the caches
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    // =====================================================
+    // SNAPSHOT STRUCTURES
+    // =====================================================
+
+    /**
+     * Immutable snapshot of shift patterns, packages and working hours (active only)
+     */
+    public record CatalogSnapshot(long version,
+                                  Map<Long, PatternEntry> patterns,
+                                  Map<Long, PackageEntry> packages,
+                                  Map<Long, WorkingHoursEntry> workingHours) {
+
+        public PatternEntry getPattern(Long id) {
+            return id != null ? patterns.get(id) : null;
+        }
+
+        public PackageEntry getPackage(Long id) {
+            return id != null ? packages.get(id) : null;
+        }
+
+        public WorkingHoursEntry getWorkingHours(Long id) {
+            return id != null ? workingHours.get(id) : null;
+        }
+    }
+
+    /**
+     * Shift pattern values copied from ShiftPattern
+     */
+    public record PatternEntry(Long id,
+                               String code,
+                               String name,
+                               String color,
+                               Long shiftPackageId,
+                               boolean isWfhAllowed,
+                               boolean isOvertimeAllowed,
+                               boolean isAttendanceMandatory,
+                               Integer lateToleranceMinutes,
+                               Integer earlyLeaveToleranceMinutes,
+                               BigDecimal lateDeductionPerMinute,
+                               BigDecimal lateDeductionMaxAmount,
+                               BigDecimal underworkDeductionPerMinute,
+                               BigDecimal underworkDeductionMaxAmount,
+                               boolean overrideNationalHoliday,
+                               boolean overrideCompanyHoliday,
+                               boolean overrideJointLeave) {
+
+        public static PatternEntry of(ShiftPattern pattern) {
+            return new PatternEntry(pattern.getId(), pattern.getCode(), pattern.getName(), pattern.getColor(),
+                    pattern.getShiftPackageId(),
+                    Boolean.TRUE.equals(pattern.getIsWfhAllowed()),
+                    Boolean.TRUE.equals(pattern.getIsOvertimeAllowed()),
+                    Boolean.TRUE.equals(pattern.getIsAttendanceMandatory()),
+                    pattern.getLateToleranceMinutes(),
+                    pattern.getEarlyLeaveToleranceMinutes(),
+                    pattern.getLateDeductionPerMinute(),
+                    pattern.getLateDeductionMaxAmount(),
+                    pattern.getUnderworkDeductionPerMinute(),
+                    pattern.getUnderworkDeductionMaxAmount(),
+                    Boolean.TRUE.equals(pattern.getOverrideNationalHoliday()),
+                    Boolean.TRUE.equals(pattern.getOverrideCompanyHoliday()),
+                    Boolean.TRUE.equals(pattern.getOverrideJointLeave()));
+        }
+
+        /**
+         * Same rule as ShiftPattern.calculateLateDeduction
+         */
+        public BigDecimal calculateLateDeduction(int lateMinutes) {
+            int billableMinutes = Math.max(0, lateMinutes - (lateToleranceMinutes != null ? lateToleranceMinutes : 0));
+            return ShiftPattern.cappedDeduction(lateDeductionPerMinute, lateDeductionMaxAmount, billableMinutes);
+        }
+
+        /**
+         * Same rule as ShiftPattern.calculateUnderworkDeduction
+         */
+        public BigDecimal calculateUnderworkDeduction(int underworkMinutes) {
+            return ShiftPattern.cappedDeduction(underworkDeductionPerMinute, underworkDeductionMaxAmount, underworkMinutes);
+        }
+    }
+
+    /**
+     * Working hours ID per day of week copied from ShiftPackage (null = OFF)
+     */
+    public record PackageEntry(Long id,
+                               Long mondayWorkingHoursId,
+                               Long tuesdayWorkingHoursId,
+                               Long wednesdayWorkingHoursId,
+                               Long thursdayWorkingHoursId,
+                               Long fridayWorkingHoursId,
+                               Long saturdayWorkingHoursId,
+                               Long sundayWorkingHoursId) {
+
+        public static PackageEntry of(ShiftPackage pkg) {
+            return new PackageEntry(pkg.getId(),
+                    pkg.getMondayWorkingHoursId(),
+                    pkg.getTuesdayWorkingHoursId(),
+                    pkg.getWednesdayWorkingHoursId(),
+                    pkg.getThursdayWorkingHoursId(),
+                    pkg.getFridayWorkingHoursId(),
+                    pkg.getSaturdayWorkingHoursId(),
+                    pkg.getSundayWorkingHoursId());
+        }
+
+        public Long workingHoursIdByDay(DayOfWeek day) {
+            return switch (day) {
+                case MONDAY -> mondayWorkingHoursId;
+                case TUESDAY -> tuesdayWorkingHoursId;
+                case WEDNESDAY -> wednesdayWorkingHoursId;
+                case THURSDAY -> thursdayWorkingHoursId;
+                case FRIDAY -> fridayWorkingHoursId;
+                case SATURDAY -> saturdayWorkingHoursId;
+                case SUNDAY -> sundayWorkingHoursId;
+            };
+        }
+    }
+
+    /**
+     * Working hours values copied from WorkingHours; derived values are taken from the entity's own rules
+     */
+    public record WorkingHoursEntry(Long id,
+                                    String code,
+                                    String name,
+                                    LocalTime startTime,
+                                    LocalTime endTime,
+                                    Integer breakDurationMinutes,
+                                    boolean isOff,
+                                    boolean endsNextDay,
+                                    int netWorkDurationMinutes) {
+
+        public static WorkingHoursEntry of(WorkingHours wh) {
+            return new WorkingHoursEntry(wh.getId(), wh.getCode(), wh.getName(), wh.getStartTime(), wh.getEndTime(),
+                    wh.getBreakDurationMinutes(), wh.isOff(), wh.endsNextDay(), wh.getNetWorkDurationMinutes());
+        }
+    }
+
+    /**
+     * Override schedule values copied from EmployeeShiftSchedule
+     */
+    public record OverrideEntry(Long workingHoursId,
+                                Boolean isWfh,
+                                Boolean isOvertimeAllowed,
+                                Boolean isAttendanceMandatory,
+                                String notes) {
+    }
+
+    /**
+     * Date range (inclusive) with one active shift pattern (null = no setting)
+     */
+    public record PatternSegment(LocalDate from, LocalDate to, Long patternId) {
+    }
+
+    /**
+     * Immutable interval index of shift settings and overrides for one employee
+     * Settings are stored as parallel arrays sorted by effective_from (epoch day),
+     * override dates also as a sorted array of epoch days for range lookups
+     */
+    public static final class EmployeeTimeline {
+
+        private static final long OPEN_END = Long.MAX_VALUE;
+
+        private final Long employeeId;
+        private final long[] settingFrom;
+        private final long[] settingTo;
+        private final Long[] settingPatternId;
+        private final Map<LocalDate, OverrideEntry> overrides;
+        private final long[] overrideDays;
+
+        private EmployeeTimeline(Long employeeId, long[] settingFrom, long[] settingTo,
+                                 Long[] settingPatternId, Map<LocalDate, OverrideEntry> overrides) {
+            this.employeeId = employeeId;
+            this.settingFrom = settingFrom;
+            this.settingTo = settingTo;
+            this.settingPatternId = settingPatternId;
+            this.overrides = overrides;
+            this.overrideDays = overrides.keySet().stream().mapToLong(LocalDate::toEpochDay).sorted().toArray();
+        }
+
+        /**
+         * Build timeline from (active) settings and override schedules
+         */
+        public static EmployeeTimeline of(Long employeeId, List<EmployeeShiftSetting> settings,
+                                          List<EmployeeShiftSchedule> schedules) {
+            List<EmployeeShiftSetting> sorted = new ArrayList<>(settings);
+            sorted.sort(Comparator.comparing(EmployeeShiftSetting::getEffectiveFrom));
+
+            int n = sorted.size();
+            long[] from = new long[n];
+            long[] to = new long[n];
+            Long[] patternIds = new Long[n];
+            for (int i = 0; i < n; i++) {
+                EmployeeShiftSetting s = sorted.get(i);
+                from[i] = s.getEffectiveFrom().toEpochDay();
+                to[i] = s.getEffectiveTo() != null ? s.getEffectiveTo().toEpochDay() : OPEN_END;
+                patternIds[i] = s.getShiftPatternId();
+            }
+
+            Map<LocalDate, OverrideEntry> overrides = new HashMap<>();
+            for (EmployeeShiftSchedule schedule : schedules) {
+                overrides.put(schedule.getScheduleDate(), new OverrideEntry(
+                        schedule.getWorkingHoursId(),
+                        schedule.getOverrideIsWfh(),
+                        schedule.getOverrideIsOvertimeAllowed(),
+                        schedule.getOverrideAttendanceMandatory(),
+                        schedule.getNotes()));
+            }
+
+            return new EmployeeTimeline(employeeId, from, to, patternIds, Map.copyOf(overrides));
+        }
+
+        public Long getEmployeeId() {
+            return employeeId;
+        }
+
+        /**
+         * Get override on date, or null
+         */
+        public OverrideEntry overrideOn(LocalDate date) {
+            return overrides.get(date);
+        }
+
+        /**
+         * Get shift pattern ID of the setting active on date, or null
+         * Same semantics as findActiveByEmployeeAndDate: latest effective_from wins
+         */
+        public Long patternIdOn(LocalDate date) {
+            return patternIdOn(date.toEpochDay());
+        }
+
+        /**
+         * Split date range (inclusive) into maximal segments with a constant active pattern
+         * Cost is O(settings) regardless of range length
+         */
+        public List<PatternSegment> patternSegmentsBetween(LocalDate startDate, LocalDate endDate) {
+            long start = startDate.toEpochDay();
+            long end = endDate.toEpochDay();
+
+            // Active pattern can only change where a setting starts or the day after one ends
+            TreeSet<Long> boundaries = new TreeSet<>();
+            boundaries.add(start);
+            for (int i = 0; i < settingFrom.length; i++) {
+                if (settingFrom[i] > start && settingFrom[i] <= end) {
+                    boundaries.add(settingFrom[i]);
+                }
+                if (settingTo[i] != OPEN_END && settingTo[i] + 1 > start && settingTo[i] + 1 <= end) {
+                    boundaries.add(settingTo[i] + 1);
+                }
+            }
+
+            List<PatternSegment> segments = new ArrayList<>();
+            long segmentStart = start;
+            Long segmentPattern = patternIdOn(start);
+            for (Long boundary : boundaries.tailSet(start, false)) {
+                Long patternId = patternIdOn(boundary);
+                if (!Objects.equals(patternId, segmentPattern)) {
+                    segments.add(new PatternSegment(LocalDate.ofEpochDay(segmentStart), LocalDate.ofEpochDay(boundary - 1), segmentPattern));
+                    segmentStart = boundary;
+                    segmentPattern = patternId;
+                }
+            }
+            segments.add(new PatternSegment(LocalDate.ofEpochDay(segmentStart), endDate, segmentPattern));
+            return segments;
+        }
+
+        /**
+         * Get override dates within date range (inclusive), in date order
+         * Cost is O(log overrides) plus the overrides in range
+         */
+        public List<LocalDate> overrideDatesBetween(LocalDate startDate, LocalDate endDate) {
+            long end = endDate.toEpochDay();
+            int i = Arrays.binarySearch(overrideDays, startDate.toEpochDay());
+            List<LocalDate> dates = new ArrayList<>();
+            for (i = i >= 0 ? i : -i - 1; i < overrideDays.length && overrideDays[i] <= end; i++) {
+                dates.add(LocalDate.ofEpochDay(overrideDays[i]));
+            }
+            return dates;
+        }
+
+        private Long patternIdOn(long day) {
+
+            // Binary search: last index with settingFrom <= day
+            int lo = 0;
+            int hi = settingFrom.length - 1;
+            int idx = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (settingFrom[mid] <= day) {
+                    idx = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+
+            for (int i = idx; i >= 0; i--) {
+                if (settingTo[i] >= day) {
+                    return settingPatternId[i];
+                }
+            }
+            return null;
+        }
+    }
+}
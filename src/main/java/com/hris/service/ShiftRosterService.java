@@ -0,0 +1,334 @@
+package com.hris.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hris.dto.RosterEmployeeRow;
+import com.hris.model.enums.EmployeeStatus;
+import com.hris.repository.EmployeeRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Shift Roster Service
+ * Hitung roster shift (employee x hari) untuk satu department (termasuk sub-department)
+ * atau seluruh employee aktif dalam satu periode
+ *
+ * Semua data (employee, timeline shift, holiday, company) di-load sekali per periode,
+ * lalu setiap baris employee dihitung paralel dari memory (ShiftResolutionEngine).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ShiftRosterService {
+
+    /**
+     * Maximum roster period (days)
+     */
+    public static final int MAX_ROSTER_DAYS = 366;
+
+    // Cell flags
+    public static final byte FLAG_WORKING_DAY = 1;
+    public static final byte FLAG_OVERRIDE = 1 << 1;
+    public static final byte FLAG_HOLIDAY = 1 << 2;
+    public static final byte FLAG_WEEKLY_LEAVE = 1 << 3;
+    public static final byte FLAG_WFH = 1 << 4;
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentService departmentService;
+    private final HolidayService holidayService;
+    private final WorkingDayCalculator workingDayCalculator;
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final ObjectMapper objectMapper;
+
+    // =====================================================
+    // ROSTER COMPUTATION
+    // =====================================================
+
+    /**
+     * Compute roster for a department (including descendants) or all active employees
+     *
+     * @param departmentId department ID, or null for all active employees
+     */
+    @Transactional(readOnly = true)
+    public RosterMatrix computeRoster(Long departmentId, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Tanggal mulai harus sebelum tanggal akhir");
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > MAX_ROSTER_DAYS) {
+            throw new IllegalArgumentException("Periode roster maksimal " + MAX_ROSTER_DAYS + " hari");
+        }
+
+        long started = System.nanoTime();
+
+        // 1. Employees in scope (id, name and department only)
+        List<RosterEmployeeRow> employees;
+        if (departmentId != null) {
+            List<Long> departmentIds = departmentService.getDepartmentAndDescendantIds(departmentId);
+            if (departmentIds.isEmpty()) {
+                throw new IllegalArgumentException("Department tidak ditemukan");
+            }
+            employees = employeeRepository.findRosterRowsByDepartmentIdsAndStatus(departmentIds, EmployeeStatus.ACTIVE);
+        } else {
+            employees = employeeRepository.findRosterRowsByStatus(EmployeeStatus.ACTIVE);
+        }
+
+        int n = employees.size();
+        long[] employeeIds = new long[n];
+        String[] employeeNames = new String[n];
+        String[] departmentNames = new String[n];
+        List<Long> idList = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            RosterEmployeeRow e = employees.get(i);
+            employeeIds[i] = e.getId();
+            employeeNames[i] = e.getFullName();
+            departmentNames[i] = e.getDepartmentName();
+            idList.add(e.getId());
+        }
+
+        // 2. Batch-load shift data, holidays and company calendar once
+        ShiftResolutionEngine.CatalogSnapshot snapshot = shiftResolutionEngine.getCatalog();
+        Map<Long, ShiftResolutionEngine.EmployeeTimeline> timelines = shiftResolutionEngine.getTimelines(idList);
+        Map<LocalDate, HolidayCalendar.HolidayEntry> holidays = holidayService.getHolidayMapBetween(startDate, endDate);
+
+        LocalDate[] dates = new LocalDate[days];
+        byte[] dayFlags = new byte[days];
+        Set<DayOfWeek> workingDays = workingDayCalculator.getCompanyWorkingDays();
+        for (int d = 0; d < days; d++) {
+            dates[d] = startDate.plusDays(d);
+            if (holidays.containsKey(dates[d])) {
+                dayFlags[d] |= FLAG_HOLIDAY;
+            }
+            if (!workingDays.contains(dates[d].getDayOfWeek())) {
+                dayFlags[d] |= FLAG_WEEKLY_LEAVE;
+            }
+        }
+
+        // 3. Legend indexes (0 = none)
+        List<ShiftResolutionEngine.PatternEntry> patterns = new ArrayList<>(snapshot.patterns().values());
+        List<ShiftResolutionEngine.WorkingHoursEntry> workingHours = new ArrayList<>(snapshot.workingHours().values());
+        Map<Long, Integer> patternIndex = new HashMap<>();
+        Map<Long, Integer> workingHoursIndex = new HashMap<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            patternIndex.put(patterns.get(i).id(), i + 1);
+        }
+        for (int i = 0; i < workingHours.size(); i++) {
+            workingHoursIndex.put(workingHours.get(i).id(), i + 1);
+        }
+
+        // 4. Evaluate rows in parallel - each row writes only its own slice
+        short[] patternCells = new short[n * days];
+        short[] workingHoursCells = new short[n * days];
+        byte[] flagCells = new byte[n * days];
+
+        IntStream.range(0, n).parallel().forEach(row -> {
+            ShiftResolutionEngine.EmployeeTimeline timeline = timelines.get(employeeIds[row]);
+            int offset = row * days;
+            for (int d = 0; d < days; d++) {
+                EmployeeShiftService.ShiftAssignmentResult shift =
+                        shiftResolutionEngine.resolve(snapshot, timeline, dates[d]);
+                int cell = offset + d;
+
+                if (shift.getShiftPattern() != null) {
+                    patternCells[cell] = patternIndex.getOrDefault(shift.getShiftPattern().id(), 0).shortValue();
+                }
+                if (shift.getWorkingHours() != null) {
+                    workingHoursCells[cell] = workingHoursIndex.getOrDefault(shift.getWorkingHours().id(), 0).shortValue();
+                }
+
+                byte flags = dayFlags[d];
+                if (shift.isWorkingDay()) flags |= FLAG_WORKING_DAY;
+                if (shift.isOverride()) flags |= FLAG_OVERRIDE;
+                if (shift.isWfh()) flags |= FLAG_WFH;
+                flagCells[cell] = flags;
+            }
+        });
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Computed roster {} employees x {} days (department: {}) in {} ms",
+                n, days, departmentId != null ? departmentId : "ALL", elapsedMs);
+
+        return new RosterMatrix(startDate, days, employeeIds, employeeNames, departmentNames,
+                patterns, workingHours, patternCells, workingHoursCells, flagCells, holidays);
+    }
+
+    // =====================================================
+    // STREAMING EXPORT
+    // =====================================================
+
+    /**
+     * Write roster as JSON directly to output stream
+     * Cells are encoded as [patternIndex, workingHoursIndex, flags] referring to legend arrays
+     */
+    public void writeJson(RosterMatrix roster, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("startDate", roster.getStartDate().toString());
+            gen.writeNumberField("days", roster.getDays());
+
+            gen.writeArrayFieldStart("dates");
+            for (int d = 0; d < roster.getDays(); d++) {
+                gen.writeString(roster.dateAt(d).toString());
+            }
+            gen.writeEndArray();
+
+            gen.writeObjectFieldStart("flags");
+            gen.writeNumberField("workingDay", FLAG_WORKING_DAY);
+            gen.writeNumberField("override", FLAG_OVERRIDE);
+            gen.writeNumberField("holiday", FLAG_HOLIDAY);
+            gen.writeNumberField("weeklyLeave", FLAG_WEEKLY_LEAVE);
+            gen.writeNumberField("wfh", FLAG_WFH);
+            gen.writeEndObject();
+
+            gen.writeArrayFieldStart("patterns");
+            for (int i = 0; i < roster.getPatterns().size(); i++) {
+                ShiftResolutionEngine.PatternEntry p = roster.getPatterns().get(i);
+                gen.writeStartObject();
+                gen.writeNumberField("index", i + 1);
+                gen.writeNumberField("id", p.id());
+                gen.writeStringField("code", p.code());
+                gen.writeStringField("name", p.name());
+                gen.writeStringField("color", p.color());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("workingHours");
+            for (int i = 0; i < roster.getWorkingHours().size(); i++) {
+                ShiftResolutionEngine.WorkingHoursEntry wh = roster.getWorkingHours().get(i);
+                gen.writeStartObject();
+                gen.writeNumberField("index", i + 1);
+                gen.writeNumberField("id", wh.id());
+                gen.writeStringField("code", wh.code());
+                gen.writeStringField("startTime", wh.startTime() != null ? wh.startTime().toString() : null);
+                gen.writeStringField("endTime", wh.endTime() != null ? wh.endTime().toString() : null);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("rows");
+            for (int row = 0; row < roster.getEmployeeCount(); row++) {
+                gen.writeStartObject();
+                gen.writeNumberField("employeeId", roster.getEmployeeIds()[row]);
+                gen.writeStringField("name", roster.getEmployeeNames()[row]);
+                gen.writeStringField("department", roster.getDepartmentNames()[row]);
+                gen.writeArrayFieldStart("cells");
+                int offset = row * roster.getDays();
+                for (int d = 0; d < roster.getDays(); d++) {
+                    int cell = offset + d;
+                    gen.writeStartArray();
+                    gen.writeNumber(roster.getPatternCells()[cell]);
+                    gen.writeNumber(roster.getWorkingHoursCells()[cell]);
+                    gen.writeNumber(roster.getFlagCells()[cell]);
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Write roster as CSV directly to output stream
+     * One row per employee, one column per day (working hours code, OFF, or LIBUR)
+     */
+    public void writeCsv(RosterMatrix roster, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        writer.write("Employee ID,Nama,Department");
+        for (int d = 0; d < roster.getDays(); d++) {
+            writer.write(',');
+            writer.write(roster.dateAt(d).toString());
+        }
+        writer.write('\n');
+
+        for (int row = 0; row < roster.getEmployeeCount(); row++) {
+            writer.write(Long.toString(roster.getEmployeeIds()[row]));
+            writer.write(',');
+            writer.write(CsvCells.of(roster.getEmployeeNames()[row]));
+            writer.write(',');
+            writer.write(CsvCells.of(roster.getDepartmentNames()[row]));
+
+            int offset = row * roster.getDays();
+            for (int d = 0; d < roster.getDays(); d++) {
+                int cell = offset + d;
+                writer.write(',');
+                if ((roster.getFlagCells()[cell] & FLAG_WORKING_DAY) != 0) {
+                    ShiftResolutionEngine.WorkingHoursEntry wh = roster.workingHoursAt(cell);
+                    writer.write(wh != null ? CsvCells.of(wh.code()) : "");
+                } else if ((roster.getFlagCells()[cell] & FLAG_HOLIDAY) != 0) {
+                    writer.write("LIBUR");
+                } else {
+                    writer.write("OFF");
+                }
+            }
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    // =====================================================
+    // ROSTER MATRIX
+    // =====================================================
+
+    /**
+     * Compact employee x day roster matrix
+     * Cells are flattened row-major: index = row * days + dayOffset
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class RosterMatrix {
+        private final LocalDate startDate;
+        private final int days;
+        private final long[] employeeIds;
+        private final String[] employeeNames;
+        private final String[] departmentNames;
+        private final List<ShiftResolutionEngine.PatternEntry> patterns;
+        private final List<ShiftResolutionEngine.WorkingHoursEntry> workingHours;
+        private final short[] patternCells;
+        private final short[] workingHoursCells;
+        private final byte[] flagCells;
+        private final Map<LocalDate, HolidayCalendar.HolidayEntry> holidays;
+
+        public int getEmployeeCount() {
+            return employeeIds.length;
+        }
+
+        public LocalDate dateAt(int dayOffset) {
+            return startDate.plusDays(dayOffset);
+        }
+
+        public ShiftResolutionEngine.PatternEntry patternAt(int cell) {
+            int index = patternCells[cell];
+            return index > 0 ? patterns.get(index - 1) : null;
+        }
+
+        public ShiftResolutionEngine.WorkingHoursEntry workingHoursAt(int cell) {
+            int index = workingHoursCells[cell];
+            return index > 0 ? workingHours.get(index - 1) : null;
+        }
+    }
+}
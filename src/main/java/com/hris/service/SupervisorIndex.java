@@ -0,0 +1,335 @@
+package com.hris.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Supervisor Index
+ * Peta employee id -> supervisor id + level approval, tanpa walk Employee -> Department -> head/parent
+ *
+ * - Dihitung dalam satu pass dari dua query (departments; employees + position level) dengan
+ *   aturan yang sama seperti ApprovalService (Rektor, head root department, head child department,
+ *   employee biasa)
+ * - Reverse index supervisor id -> bawahan untuk query "pending approval tim saya" tanpa full scan
+ * - Setelah commit perubahan department (head/parent) hanya employee department itu dan head
+ *   child department yang dihitung ulang; perubahan employee hanya employee itu;
+ *   perubahan level position membangun ulang seluruh index
+ * - Copy-on-write: refresh membangun State baru dari salinan lalu menukarnya sekaligus, sehingga
+ *   pembaca (tanpa lock) tidak pernah melihat department yang head-nya sedang diganti
+ * - Load dan invalidasi lewat CacheVersion: load yang balapan dengan perubahan tidak dipublish
+ */
+@Slf4j
+@Service
+public class SupervisorIndex {
+
+    // Same level as ApprovalService: Rektor and above have no supervisor
+    private static final int TOP_LEVEL = 6;
+
+    private static final String DEPARTMENTS_SQL = "SELECT id, parent_id, head_id FROM departments";
+
+    private static final String DEPARTMENT_SQL = "SELECT id, parent_id, head_id FROM departments WHERE id = ?";
+
+    private static final String EMPLOYEES_SQL =
+            "SELECT e.id, e.department_id, p.level FROM employees e " +
+            "LEFT JOIN positions p ON p.id = e.position_id WHERE e.deleted_at IS NULL";
+
+    private static final String EMPLOYEE_SQL =
+            "SELECT e.id, e.department_id, p.level FROM employees e " +
+            "LEFT JOIN positions p ON p.id = e.position_id WHERE e.id = ? AND e.deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTemplate;
+
+    private final AtomicReference<State> state = new AtomicReference<>();
+    private final CacheVersion version = new CacheVersion();
+
+    public SupervisorIndex(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Load in a separate read-only transaction so a caller's uncommitted writes never leak into the index
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTemplate.setReadOnly(true);
+    }
+
+    // =====================================================
+    // LOOKUP
+    // =====================================================
+
+    /**
+     * Resolution for employee, or null if employee is not indexed (new or deleted)
+     */
+    public Resolution getResolution(Long employeeId) {
+        return employeeId != null ? getState().resolutions.get(employeeId) : null;
+    }
+
+    /**
+     * Employees whose supervisor is the given employee
+     */
+    public Set<Long> getSubordinateIds(Long supervisorId) {
+        Set<Long> ids = getState().subordinates.get(supervisorId);
+        return ids != null ? Set.copyOf(ids) : Set.of();
+    }
+
+    // =====================================================
+    // SYNC
+    // =====================================================
+
+    /**
+     * Department head or parent changed (or department created/deleted)
+     */
+    public void departmentChanged(Long departmentId) {
+        afterCommit(() -> refreshDepartment(departmentId));
+    }
+
+    /**
+     * Employee department or position changed (or employee created/deleted)
+     */
+    public void employeeChanged(Long employeeId) {
+        afterCommit(() -> refreshEmployee(employeeId));
+    }
+
+    /**
+     * Rebuild from scratch (position levels changed)
+     */
+    public void invalidate() {
+        afterCommit(() -> version.evict(state));
+    }
+
+    /**
+     * Warm up index on startup so the first request submission does not pay for it
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            getState();
+        } catch (Exception e) {
+            log.warn("Failed to warm up supervisor index: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void refreshDepartment(Long departmentId) {
+        // Bump first: a load running concurrently is discarded instead of published stale
+        version.bump();
+        State current = state.get();
+        if (current == null) {
+            return;
+        }
+        List<Department> rows = loadTemplate.execute(status -> jdbcTemplate.query(DEPARTMENT_SQL, (rs, i) ->
+                new Department(rs.getLong("id"), getLong(rs, "parent_id"), getLong(rs, "head_id")), departmentId));
+        State next = current.copy();
+        Department previous = rows.isEmpty()
+                ? next.departments.remove(departmentId)
+                : next.departments.put(departmentId, rows.get(0));
+
+        // Members of the department, heads of child departments, and the old/new head themselves
+        Set<Long> affected = new HashSet<>(next.members.getOrDefault(departmentId, Set.of()));
+        for (Department department : next.departments.values()) {
+            if (departmentId.equals(department.parentId()) && department.headId() != null) {
+                affected.add(department.headId());
+            }
+        }
+        if (previous != null && previous.headId() != null) {
+            affected.add(previous.headId());
+        }
+        if (!rows.isEmpty() && rows.get(0).headId() != null) {
+            affected.add(rows.get(0).headId());
+        }
+        affected.forEach(next::resolve);
+        state.compareAndSet(current, next);
+        log.debug("Supervisor index: department {} changed, {} employees re-resolved", departmentId, affected.size());
+    }
+
+    private synchronized void refreshEmployee(Long employeeId) {
+        version.bump();
+        State current = state.get();
+        if (current == null) {
+            return;
+        }
+        List<Member> rows = loadTemplate.execute(status -> jdbcTemplate.query(EMPLOYEE_SQL, (rs, i) ->
+                new Member(rs.getLong("id"), getLong(rs, "department_id"), getInteger(rs, "level")), employeeId));
+        State next = current.copy();
+        next.putMember(employeeId, rows.isEmpty() ? null : rows.get(0));
+        next.resolve(employeeId);
+        state.compareAndSet(current, next);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // =====================================================
+    // SNAPSHOT
+    // =====================================================
+
+    private State getState() {
+        State current = state.get();
+        return current != null ? current : load();
+    }
+
+    private State load() {
+        long loadVersion = version.current();
+        State loaded = loadTemplate.execute(status -> {
+            State s = new State();
+            jdbcTemplate.query(DEPARTMENTS_SQL, rs -> {
+                long id = rs.getLong("id");
+                s.departments.put(id, new Department(id, getLong(rs, "parent_id"), getLong(rs, "head_id")));
+            });
+            jdbcTemplate.query(EMPLOYEES_SQL, rs -> {
+                long id = rs.getLong("id");
+                s.putMember(id, new Member(id, getLong(rs, "department_id"), getInteger(rs, "level")));
+            });
+            return s;
+        });
+        loaded.employees.keySet().forEach(loaded::resolve);
+        version.publish(state, loadVersion, loaded);
+        log.info("Loaded supervisor index: {} employees, {} departments",
+                loaded.employees.size(), loaded.departments.size());
+        return loaded;
+    }
+
+    private static Long getLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    // =====================================================
+    // MODEL
+    // =====================================================
+
+    /**
+     * Which ApprovalService rule produced the supervisor
+     */
+    public enum Rule {
+        TOP_LEVEL,          // Rektor: HR only
+        NO_DEPARTMENT,      // HR only
+        ROOT_HEAD,          // Head of root department: HR only
+        PARENT_HEAD,        // Head of child department: parent department head
+        DEPARTMENT_HEAD,    // Regular employee: department head
+        NONE                // No valid supervisor: HR only
+    }
+
+    /**
+     * Supervisor of an employee (null when approval goes directly to HR)
+     */
+    public record Resolution(Long supervisorId, Rule rule) {
+        public boolean isTwoLevel() {
+            return supervisorId != null;
+        }
+    }
+
+    private record Department(Long id, Long parentId, Long headId) {
+    }
+
+    private record Member(Long id, Long departmentId, Integer level) {
+    }
+
+    /**
+     * Only changed before it is published; a refresh changes a copy and publishes that
+     */
+    private static final class State {
+        private final Map<Long, Department> departments = new HashMap<>();
+        private final Map<Long, Member> employees = new HashMap<>();
+        private final Map<Long, Set<Long>> members = new HashMap<>();
+        private final Map<Long, Resolution> resolutions = new HashMap<>();
+        private final Map<Long, Set<Long>> subordinates = new HashMap<>();
+
+        private State copy() {
+            State copy = new State();
+            copy.departments.putAll(departments);
+            copy.employees.putAll(employees);
+            members.forEach((id, ids) -> copy.members.put(id, new HashSet<>(ids)));
+            copy.resolutions.putAll(resolutions);
+            subordinates.forEach((id, ids) -> copy.subordinates.put(id, new HashSet<>(ids)));
+            return copy;
+        }
+
+        private void putMember(Long employeeId, Member member) {
+            Member previous = member != null ? employees.put(employeeId, member) : employees.remove(employeeId);
+            if (previous != null && previous.departmentId() != null) {
+                Set<Long> ids = members.get(previous.departmentId());
+                if (ids != null) {
+                    ids.remove(employeeId);
+                }
+            }
+            if (member != null && member.departmentId() != null) {
+                members.computeIfAbsent(member.departmentId(), k -> new HashSet<>()).add(employeeId);
+            }
+        }
+
+        /**
+         * Recompute one employee and move it in the reverse index
+         */
+        private void resolve(Long employeeId) {
+            Member member = employees.get(employeeId);
+            Resolution resolution = member != null ? compute(member) : null;
+            Resolution previous = resolution != null
+                    ? resolutions.put(employeeId, resolution) : resolutions.remove(employeeId);
+
+            if (previous != null && previous.supervisorId() != null) {
+                Set<Long> ids = subordinates.get(previous.supervisorId());
+                if (ids != null) {
+                    ids.remove(employeeId);
+                }
+            }
+            if (resolution != null && resolution.supervisorId() != null) {
+                subordinates.computeIfAbsent(resolution.supervisorId(), k -> new HashSet<>()).add(employeeId);
+            }
+        }
+
+        private Resolution compute(Member member) {
+            if (member.level() != null && member.level() >= TOP_LEVEL) {
+                return new Resolution(null, Rule.TOP_LEVEL);
+            }
+            Department department = member.departmentId() != null ? departments.get(member.departmentId()) : null;
+            if (department == null) {
+                return new Resolution(null, Rule.NO_DEPARTMENT);
+            }
+
+            boolean isHead = member.id().equals(department.headId());
+            if (isHead && department.parentId() == null) {
+                return new Resolution(null, Rule.ROOT_HEAD);
+            }
+            if (isHead) {
+                Department parent = departments.get(department.parentId());
+                if (parent != null && parent.headId() != null && !parent.headId().equals(member.id())) {
+                    return new Resolution(parent.headId(), Rule.PARENT_HEAD);
+                }
+            }
+            if (department.headId() != null && !department.headId().equals(member.id())) {
+                return new Resolution(department.headId(), Rule.DEPARTMENT_HEAD);
+            }
+            return new Resolution(null, Rule.NONE);
+        }
+    }
+}
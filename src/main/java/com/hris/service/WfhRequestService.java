@@ -11,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 /**
  * WFH Request Service
@@ -24,6 +25,7 @@ public class WfhRequestService {
     private final WfhRequestRepository wfhRequestRepository;
     private final ApprovalService approvalService;
     private final EmployeeService employeeService;
+    private final DailyAttendanceContextService dailyAttendanceContextService;
 
     // =====================================================
     // SUBMIT REQUEST
@@ -61,6 +63,7 @@ public class WfhRequestService {
                 .build();
 
         WfhRequest saved = wfhRequestRepository.save(request);
+        dailyAttendanceContextService.refreshWfh(employeeId, requestDate);
         log.info("WFH request submitted: {}", saved.getId());
         return saved;
     }
@@ -89,7 +92,9 @@ public class WfhRequestService {
         }
 
         request.approveBySupervisor(supervisor, note);
-        return wfhRequestRepository.save(request);
+        WfhRequest saved = wfhRequestRepository.save(request);
+        dailyAttendanceContextService.refreshWfh(saved.getEmployeeId(), saved.getRequestDate());
+        return saved;
     }
 
     /**
@@ -112,7 +117,9 @@ public class WfhRequestService {
         }
 
         request.rejectBySupervisor(supervisor, reason);
-        return wfhRequestRepository.save(request);
+        WfhRequest saved = wfhRequestRepository.save(request);
+        dailyAttendanceContextService.refreshWfh(saved.getEmployeeId(), saved.getRequestDate());
+        return saved;
     }
 
     /**
@@ -135,7 +142,9 @@ public class WfhRequestService {
         }
 
         request.approveByHr(hr, note);
-        return wfhRequestRepository.save(request);
+        WfhRequest saved = wfhRequestRepository.save(request);
+        dailyAttendanceContextService.refreshWfh(saved.getEmployeeId(), saved.getRequestDate());
+        return saved;
     }
 
     /**
@@ -158,7 +167,9 @@ public class WfhRequestService {
         }
 
         request.rejectByHr(hr, reason);
-        return wfhRequestRepository.save(request);
+        WfhRequest saved = wfhRequestRepository.save(request);
+        dailyAttendanceContextService.refreshWfh(saved.getEmployeeId(), saved.getRequestDate());
+        return saved;
     }
 
     // =====================================================
@@ -173,6 +184,15 @@ public class WfhRequestService {
         return wfhRequestRepository.findPendingSupervisorRequests();
     }
 
+    /**
+     * Get pending supervisor requests of the supervisor's team (via SupervisorIndex, no full scan)
+     */
+    @Transactional(readOnly = true)
+    public List<WfhRequest> getTeamPendingSupervisorRequests(Long supervisorId) {
+        Set<Long> team = approvalService.getSubordinateIds(supervisorId);
+        return team.isEmpty() ? List.of() : wfhRequestRepository.findPendingSupervisorRequestsByEmployeeIds(team);
+    }
+
     /**
      * Get pending HR requests
      */
@@ -0,0 +1,199 @@
+package com.hris.service;
+
+import com.hris.model.Company;
+import com.hris.model.enums.HolidayType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Working Day Calculator
+ * Hitung jumlah hari kerja (hari cuti yang memotong saldo) dalam rentang tanggal
+ *
+ * Satu hari dihitung jika:
+ * - Hari kerja menurut shift employee (shift package per hari dalam minggu, atau override schedule);
+ *   employee tanpa shift pattern/package memakai hari kerja company
+ * - Bukan hari libur, kecuali shift pattern meng-override jenis libur tersebut
+ *   (aturan yang sama dengan DailyAttendanceContextService.isHolidayClockInAllowed);
+ *   holiday tanpa jenis tidak bisa di-override, jadi selalu bukan hari kerja
+ *
+ * Rentang dipecah per segmen shift setting; tiap segmen dihitung aritmatika per hari dalam minggu
+ * dikurangi prefix sum holiday dari HolidayCalendar, lalu dikoreksi per tanggal override.
+ * Biaya O(segmen + tahun + override), tidak tergantung panjang rentang.
+ *
+ * Juga sumber tunggal hari kerja company (EmployeeShiftService, ShiftRosterService).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WorkingDayCalculator {
+
+    private static final Set<DayOfWeek> DEFAULT_WORKING_DAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    private final HolidayCalendar holidayCalendar;
+    private final ShiftResolutionEngine shiftResolutionEngine;
+    private final CompanyService companyService;
+
+    // =====================================================
+    // COUNTING
+    // =====================================================
+
+    /**
+     * Count deductible leave days for employee in date range (inclusive)
+     */
+    public int countLeaveDays(Long employeeId, LocalDate startDate, LocalDate endDate) {
+        validateRange(startDate, endDate);
+
+        ShiftResolutionEngine.CatalogSnapshot catalog = shiftResolutionEngine.getCatalog();
+        ShiftResolutionEngine.EmployeeTimeline timeline = shiftResolutionEngine.getTimeline(employeeId);
+        Set<DayOfWeek> companyDays = getCompanyWorkingDays();
+
+        Map<Long, DayRule> rules = new HashMap<>();
+        int count = 0;
+        for (ShiftResolutionEngine.PatternSegment segment : timeline.patternSegmentsBetween(startDate, endDate)) {
+            DayRule rule = rules.computeIfAbsent(key(segment.patternId()), k -> ruleFor(catalog, segment.patternId(), companyDays));
+            count += countDays(segment.from(), segment.to(), rule);
+        }
+
+        // Override schedules replace the pattern's day: swap the pattern verdict for the override verdict
+        for (LocalDate date : timeline.overrideDatesBetween(startDate, endDate)) {
+            Long patternId = timeline.patternIdOn(date);
+            DayRule rule = rules.computeIfAbsent(key(patternId), k -> ruleFor(catalog, patternId, companyDays));
+            HolidayCalendar.HolidayEntry holiday = holidayCalendar.getHoliday(date);
+
+            ShiftResolutionEngine.WorkingHoursEntry wh = catalog.getWorkingHours(timeline.overrideOn(date).workingHoursId());
+            boolean overrideDeductible = wh != null && !wh.isOff()
+                    && (holiday == null || rule.worksOn(holiday.holidayType()));
+            boolean patternDeductible = rule.workingDays().contains(date.getDayOfWeek())
+                    && (holiday == null || rule.worksOn(holiday.holidayType()));
+
+            count += (overrideDeductible ? 1 : 0) - (patternDeductible ? 1 : 0);
+        }
+
+        log.debug("Counted {} leave days for employee {} between {} and {}", count, employeeId, startDate, endDate);
+        return count;
+    }
+
+    /**
+     * Count company working days in date range (inclusive), optionally excluding holidays
+     */
+    public int countCompanyWorkingDays(LocalDate startDate, LocalDate endDate, boolean excludeHolidays) {
+        validateRange(startDate, endDate);
+
+        Set<DayOfWeek> companyDays = getCompanyWorkingDays();
+        if (!excludeHolidays) {
+            int count = 0;
+            for (DayOfWeek day : companyDays) {
+                count += countWeekdays(startDate, endDate, day);
+            }
+            return count;
+        }
+        return countDays(startDate, endDate, new DayRule(companyDays, EnumSet.noneOf(HolidayType.class)));
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * Weekday occurrences minus non-overridden holidays on those weekdays
+     * (holidays without a type are never overridden, same as the override path)
+     */
+    private int countDays(LocalDate from, LocalDate to, DayRule rule) {
+        int count = 0;
+        for (DayOfWeek day : rule.workingDays()) {
+            count += countWeekdays(from, to, day);
+            for (HolidayType type : HolidayType.values()) {
+                if (!rule.worksOn(type)) {
+                    count -= holidayCalendar.countHolidays(from, to, type, day);
+                }
+            }
+            count -= holidayCalendar.countHolidays(from, to, null, day);
+        }
+        return count;
+    }
+
+    /**
+     * Occurrences of day of week in date range (inclusive)
+     */
+    static int countWeekdays(LocalDate from, LocalDate to, DayOfWeek day) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        long offset = (day.getValue() - from.getDayOfWeek().getValue() + 7) % 7;
+        return (int) (days / 7 + (offset < days % 7 ? 1 : 0));
+    }
+
+    /**
+     * Weekly working days and holiday overrides of a shift pattern
+     * Falls back to company working days when pattern or package cannot be resolved
+     */
+    private DayRule ruleFor(ShiftResolutionEngine.CatalogSnapshot catalog, Long patternId, Set<DayOfWeek> companyDays) {
+        ShiftResolutionEngine.PatternEntry pattern = catalog.getPattern(patternId);
+        ShiftResolutionEngine.PackageEntry pkg = pattern != null ? catalog.getPackage(pattern.shiftPackageId()) : null;
+        if (pkg == null) {
+            return new DayRule(companyDays, EnumSet.noneOf(HolidayType.class));
+        }
+
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            ShiftResolutionEngine.WorkingHoursEntry wh = catalog.getWorkingHours(pkg.workingHoursIdByDay(day));
+            if (wh != null && !wh.isOff()) {
+                days.add(day);
+            }
+        }
+
+        Set<HolidayType> overridden = EnumSet.noneOf(HolidayType.class);
+        if (pattern.overrideNationalHoliday()) {
+            overridden.add(HolidayType.NATIONAL);
+        }
+        if (pattern.overrideCompanyHoliday()) {
+            overridden.add(HolidayType.COMPANY);
+        }
+        if (pattern.overrideJointLeave()) {
+            overridden.add(HolidayType.COLLECTIVE_LEAVE);
+        }
+        return new DayRule(days, overridden);
+    }
+
+    /**
+     * Company working days; Monday - Friday when no company is configured
+     */
+    public Set<DayOfWeek> getCompanyWorkingDays() {
+        Company company = companyService.getCompany();
+        if (company == null) {
+            return DEFAULT_WORKING_DAYS;
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        days.addAll(company.getWorkingDaysList());
+        return days;
+    }
+
+    private static long key(Long patternId) {
+        return patternId != null ? patternId : -1L;
+    }
+
+    private static void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+    }
+
+    /**
+     * Days of week worked and holiday types worked through
+     */
+    private record DayRule(Set<DayOfWeek> workingDays, Set<HolidayType> overriddenHolidays) {
+        boolean worksOn(HolidayType type) {
+            return type != null && overriddenHolidays.contains(type);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Optional;
 public class WorkingHoursService {
 
     private final WorkingHoursRepository workingHoursRepository;
+    private final ShiftResolutionEngine shiftResolutionEngine;
 
     // =====================================================
     // CRUD OPERATIONS
@@ -64,6 +65,7 @@ public class WorkingHoursService {
         }
 
         WorkingHours saved = workingHoursRepository.save(workingHours);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Working hours created successfully: {}", saved.getId());
         return saved;
     }
@@ -99,6 +101,7 @@ public class WorkingHoursService {
         existing.setColor(workingHours.getColor());
 
         WorkingHours saved = workingHoursRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
         log.info("Working hours updated successfully: {}", saved.getId());
         return saved;
     }
@@ -120,6 +123,7 @@ public class WorkingHoursService {
 
         existing.softDelete(null);
         workingHoursRepository.save(existing);
+        shiftResolutionEngine.invalidateCatalog();
 
         log.info("Working hours deleted successfully: {}", id);
     }
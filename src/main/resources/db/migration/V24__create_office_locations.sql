@@ -0,0 +1,27 @@
+-- Create office_locations table
+-- Geofence kantor/kampus tambahan untuk validasi lokasi clock-in (radius atau polygon)
+-- Lokasi kantor di companies (office_latitude/longitude) tetap berlaku sebagai kantor utama
+CREATE TABLE office_locations (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    company_id BIGINT NOT NULL COMMENT 'Company',
+    department_id BIGINT NULL COMMENT 'Department (NULL = berlaku untuk seluruh company)',
+    name VARCHAR(100) NOT NULL COMMENT 'Nama kantor/kampus',
+    shape_type VARCHAR(20) NOT NULL DEFAULT 'RADIUS' COMMENT 'RADIUS, POLYGON',
+    latitude DECIMAL(10, 8) NULL COMMENT 'Latitude titik pusat (RADIUS)',
+    longitude DECIMAL(11, 8) NULL COMMENT 'Longitude titik pusat (RADIUS)',
+    radius_meters INT NULL COMMENT 'Radius dalam meter (RADIUS)',
+    polygon_points TEXT NULL COMMENT 'Titik polygon "lat,lng;lat,lng;..." (POLYGON)',
+    is_active BOOLEAN DEFAULT TRUE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP NULL,
+    created_by BIGINT NULL,
+    updated_by BIGINT NULL,
+    deleted_by BIGINT NULL,
+    FOREIGN KEY (company_id) REFERENCES companies(id),
+    FOREIGN KEY (department_id) REFERENCES departments(id),
+    INDEX idx_office_location_company (company_id),
+    INDEX idx_office_location_department (department_id),
+    INDEX idx_office_location_active (is_active)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
@@ -0,0 +1,20 @@
+-- Create attendance_recompute_jobs table
+-- Job rekalkulasi attendance setelah perubahan shift retroaktif (resumable via last_record_id)
+CREATE TABLE attendance_recompute_jobs (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING, RUNNING, COMPLETED, FAILED',
+    employee_ids TEXT NOT NULL COMMENT 'ID employee yang terdampak (comma separated)',
+    start_date DATE NOT NULL COMMENT 'Awal periode terdampak',
+    end_date DATE NOT NULL COMMENT 'Akhir periode terdampak',
+    reason VARCHAR(255) NULL COMMENT 'Sumber perubahan shift',
+    total_records INT NOT NULL DEFAULT 0 COMMENT 'Jumlah attendance record dalam scope',
+    processed_records INT NOT NULL DEFAULT 0 COMMENT 'Jumlah record yang sudah dihitung ulang',
+    last_record_id BIGINT NOT NULL DEFAULT 0 COMMENT 'Checkpoint: attendance_records.id terakhir yang diproses',
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    error_message TEXT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    created_by BIGINT NULL,
+    INDEX idx_recompute_job_status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
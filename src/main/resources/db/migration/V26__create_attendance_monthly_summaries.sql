@@ -0,0 +1,41 @@
+-- Create attendance_monthly_summaries table
+-- Ringkasan attendance per employee per bulan (materialized dari attendance_records)
+CREATE TABLE attendance_monthly_summaries (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    employee_id BIGINT NOT NULL,
+    period_year INT NOT NULL,
+    period_month INT NOT NULL,
+    record_count INT NOT NULL DEFAULT 0 COMMENT 'Jumlah attendance record',
+    present_days INT NOT NULL DEFAULT 0 COMMENT 'Hari dengan clock-in',
+    late_days INT NOT NULL DEFAULT 0,
+    wfh_days INT NOT NULL DEFAULT 0,
+    overtime_days INT NOT NULL DEFAULT 0,
+    early_leave_days INT NOT NULL DEFAULT 0,
+    late_minutes INT NOT NULL DEFAULT 0,
+    early_leave_minutes INT NOT NULL DEFAULT 0,
+    overtime_minutes INT NOT NULL DEFAULT 0,
+    underwork_minutes INT NOT NULL DEFAULT 0,
+    actual_work_minutes INT NOT NULL DEFAULT 0,
+    late_deduction_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+    early_leave_deduction_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+    underwork_deduction_total DECIMAL(15,2) NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_attendance_summary_period (employee_id, period_year, period_month),
+    INDEX idx_attendance_summary_period (period_year, period_month),
+    CONSTRAINT fk_attendance_summary_employee FOREIGN KEY (employee_id) REFERENCES employees(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Initial fill dari data attendance yang sudah ada
+INSERT INTO attendance_monthly_summaries (employee_id, period_year, period_month, record_count, present_days,
+    late_days, wfh_days, overtime_days, early_leave_days, late_minutes, early_leave_minutes, overtime_minutes,
+    underwork_minutes, actual_work_minutes, late_deduction_total, early_leave_deduction_total, underwork_deduction_total)
+SELECT employee_id, YEAR(attendance_date), MONTH(attendance_date), COUNT(*),
+    SUM(clock_in_time IS NOT NULL), COALESCE(SUM(is_late = TRUE), 0), COALESCE(SUM(is_wfh = TRUE), 0),
+    COALESCE(SUM(is_overtime = TRUE), 0), COALESCE(SUM(is_early_leave = TRUE), 0), COALESCE(SUM(late_duration_minutes), 0), COALESCE(SUM(early_leave_duration_minutes), 0),
+    COALESCE(SUM(overtime_duration_minutes), 0), COALESCE(SUM(underwork_minutes), 0), COALESCE(SUM(actual_work_minutes), 0),
+    COALESCE(SUM(late_deduction_amount), 0), COALESCE(SUM(early_leave_deduction_amount), 0),
+    COALESCE(SUM(underwork_deduction_amount), 0)
+FROM attendance_records
+WHERE deleted_at IS NULL
+GROUP BY employee_id, YEAR(attendance_date), MONTH(attendance_date);
@@ -0,0 +1,6 @@
+-- Add working_days column to leave_requests
+-- Jumlah hari kerja (memotong saldo) dihitung dari shift employee + kalender libur;
+-- NULL untuk data lama (fallback ke jumlah hari kalender)
+ALTER TABLE leave_requests
+ADD COLUMN working_days DOUBLE NULL
+AFTER end_date;
@@ -0,0 +1,42 @@
+-- Create leave_balance_ledger table
+-- Ledger append-only mutasi saldo cuti; leave_balances menjadi proyeksi yang diupdate atomik
+CREATE TABLE leave_balance_ledger (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    employee_id BIGINT NOT NULL,
+    year INT NOT NULL,
+    entry_type VARCHAR(20) NOT NULL COMMENT 'GRANT, CARRY_FORWARD, EXPIRY, ADJUSTMENT, DEDUCTION, REIMBURSEMENT',
+    days DOUBLE NOT NULL COMMENT 'Pengaruh ke sisa saldo (positif menambah, negatif mengurangi)',
+    leave_request_id BIGINT NULL COMMENT 'Leave request terkait (DEDUCTION/REIMBURSEMENT)',
+    note VARCHAR(500) NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT NULL,
+    INDEX idx_leave_ledger_employee_year (employee_id, year, id),
+    UNIQUE KEY uk_leave_ledger_request_entry (leave_request_id, entry_type),
+    FOREIGN KEY (employee_id) REFERENCES employees(id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Optimistic lock version for entity-based edits (admin form)
+ALTER TABLE leave_balances
+ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Old deductions lowered both balance and used (balance held the remaining days);
+-- restore balance as total entitlement so remaining = balance - used
+UPDATE leave_balances
+SET balance = balance + COALESCE(used, 0)
+WHERE deleted_at IS NULL;
+
+-- Opening entries from the corrected values so ledger totals reconcile with balance - used
+INSERT INTO leave_balance_ledger (employee_id, year, entry_type, days, note)
+SELECT employee_id, year, 'GRANT', balance - COALESCE(carried_forward, 0), 'Saldo awal'
+FROM leave_balances
+WHERE deleted_at IS NULL;
+
+INSERT INTO leave_balance_ledger (employee_id, year, entry_type, days, note)
+SELECT employee_id, year, 'CARRY_FORWARD', carried_forward, 'Saldo awal'
+FROM leave_balances
+WHERE deleted_at IS NULL AND carried_forward > 0;
+
+INSERT INTO leave_balance_ledger (employee_id, year, entry_type, days, note)
+SELECT employee_id, year, 'DEDUCTION', -used, 'Saldo awal'
+FROM leave_balances
+WHERE deleted_at IS NULL AND used > 0;
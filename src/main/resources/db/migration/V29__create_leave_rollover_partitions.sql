@@ -0,0 +1,21 @@
+-- Create leave_rollover_partitions table
+-- Checkpoint per partisi (rentang employee id) untuk job rollover saldo cuti akhir tahun
+CREATE TABLE leave_rollover_partitions (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    target_year INT NOT NULL COMMENT 'Tahun saldo baru yang dibuat',
+    partition_no INT NOT NULL,
+    range_start BIGINT NOT NULL COMMENT 'Employee id > range_start',
+    range_end BIGINT NOT NULL COMMENT 'Employee id <= range_end',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING' COMMENT 'PENDING, RUNNING, COMPLETED, FAILED',
+    last_employee_id BIGINT NOT NULL DEFAULT 0 COMMENT 'Checkpoint: employee id terakhir yang diproses',
+    processed_employees INT NOT NULL DEFAULT 0,
+    created_balances INT NOT NULL DEFAULT 0,
+    carried_forward_days DOUBLE NOT NULL DEFAULT 0,
+    expired_days DOUBLE NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    error_message TEXT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_leave_rollover_partition (target_year, partition_no)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,6 @@
+-- Add remaining_balance generated column to leave_balances
+-- Dipelihara otomatis oleh MySQL di setiap write (balance - used), di-index untuk query saldo rendah
+ALTER TABLE leave_balances
+ADD COLUMN remaining_balance DOUBLE AS (balance - used) STORED;
+
+CREATE INDEX idx_leave_balance_year_remaining ON leave_balances (year, remaining_balance);
@@ -0,0 +1,8 @@
+-- Approver inbox: keyset pagination per approver (created_at, id) tanpa filesort
+-- Antrian supervisor = bawahan approver dari SupervisorIndex (employee_id IN ...); antrian HR = status PENDING_HR
+CREATE INDEX idx_leave_requests_inbox_supervisor ON leave_requests (status, employee_id, created_at);
+CREATE INDEX idx_leave_requests_inbox_status ON leave_requests (status, created_at);
+CREATE INDEX idx_wfh_requests_inbox_supervisor ON wfh_requests (status, employee_id, created_at);
+CREATE INDEX idx_wfh_requests_inbox_status ON wfh_requests (status, created_at);
+CREATE INDEX idx_overtime_requests_inbox_supervisor ON overtime_requests (status, employee_id, created_at);
+CREATE INDEX idx_overtime_requests_inbox_status ON overtime_requests (status, created_at);
@@ -0,0 +1,8 @@
+-- Versioned lecturer salary rate table
+-- Setiap perubahan tarif mengisi rate_version = versi terbesar + 1; versi tabel tarif = MAX(rate_version)
+ALTER TABLE lecturer_salary_rates
+ADD COLUMN rate_version BIGINT NOT NULL DEFAULT 1 COMMENT 'Rate table version of the last change to this row';
+
+-- Versi tabel tarif yang dipakai saat gaji dihitung (NULL untuk gaji yang dihitung sebelum versioning)
+ALTER TABLE lecturer_salaries
+ADD COLUMN rate_version BIGINT NULL COMMENT 'Rate table version used for the calculation';
@@ -0,0 +1,14 @@
+-- Effective-dated lecturer salary rates
+-- Satu baris = tarif satu jenjang untuk rentang berlaku [valid_from, valid_to]; valid_to NULL = masih berlaku
+-- Perubahan tarif membuat baris baru dan menutup baris sebelumnya, sehingga periode lama tetap memakai tarif lamanya
+ALTER TABLE lecturer_salary_rates
+ADD COLUMN valid_from DATE NOT NULL DEFAULT '2000-01-01' COMMENT 'First day the rate applies',
+ADD COLUMN valid_to DATE NULL COMMENT 'Last day the rate applies, NULL = open-ended';
+
+-- Tarif yang sudah ada berlaku untuk semua periode sebelumnya; baris baru selalu diisi oleh aplikasi
+ALTER TABLE lecturer_salary_rates ALTER COLUMN valid_from DROP DEFAULT;
+
+-- Lebih dari satu baris (riwayat) per jenjang
+ALTER TABLE lecturer_salary_rates DROP INDEX academic_rank;
+
+CREATE INDEX idx_lecturer_salary_rates_rank_valid ON lecturer_salary_rates (academic_rank, valid_from);
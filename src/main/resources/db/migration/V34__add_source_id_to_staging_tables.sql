@@ -0,0 +1,25 @@
+-- Source system record id for staging imports
+-- Import melakukan upsert berdasarkan source_id; NULL untuk baris yang dibuat manual (unique index mengizinkan banyak NULL)
+ALTER TABLE teaching_schedule_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Siakad' AFTER id,
+ADD UNIQUE INDEX uk_teaching_schedule_staging_source_id (source_id);
+
+ALTER TABLE teaching_attendance_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Siakad' AFTER id,
+ADD UNIQUE INDEX uk_teaching_attendance_staging_source_id (source_id);
+
+ALTER TABLE thesis_guidance_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Siakad' AFTER id,
+ADD UNIQUE INDEX uk_thesis_guidance_staging_source_id (source_id);
+
+ALTER TABLE thesis_examination_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Siakad' AFTER id,
+ADD UNIQUE INDEX uk_thesis_examination_staging_source_id (source_id);
+
+ALTER TABLE research_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Research System' AFTER id,
+ADD UNIQUE INDEX uk_research_staging_source_id (source_id);
+
+ALTER TABLE publication_staging
+ADD COLUMN source_id VARCHAR(100) NULL COMMENT 'Record id in Publication System' AFTER id,
+ADD UNIQUE INDEX uk_publication_staging_source_id (source_id);
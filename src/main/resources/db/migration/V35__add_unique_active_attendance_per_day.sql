@@ -0,0 +1,17 @@
+-- Satu attendance record aktif per employee per tanggal
+-- active_key = 1 untuk record aktif, NULL untuk record yang di-soft delete (unique index mengizinkan banyak NULL),
+-- sehingga clock-in ganda yang lolos pengecekan di aplikasi ditolak oleh database
+
+-- Soft delete duplikat yang sudah ada, record pertama (id terkecil) yang dipertahankan
+UPDATE attendance_records a
+JOIN attendance_records b
+  ON b.employee_id = a.employee_id
+ AND b.attendance_date = a.attendance_date
+ AND b.deleted_at IS NULL
+ AND b.id < a.id
+SET a.deleted_at = NOW()
+WHERE a.deleted_at IS NULL;
+
+ALTER TABLE attendance_records
+ADD COLUMN active_key TINYINT AS (IF(deleted_at IS NULL, 1, NULL)) STORED COMMENT '1 = aktif, NULL = soft delete',
+ADD UNIQUE INDEX uk_attendance_employee_date_active (employee_id, attendance_date, active_key);
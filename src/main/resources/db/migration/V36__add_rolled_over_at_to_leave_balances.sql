@@ -0,0 +1,8 @@
+-- Marker: carry forward tahun sebelumnya sudah diterapkan ke saldo ini (rollover hanya sekali)
+ALTER TABLE leave_balances
+ADD COLUMN rolled_over_at TIMESTAMP NULL COMMENT 'Waktu carry forward tahun sebelumnya diterapkan';
+
+-- Saldo hasil rollover/reset sebelumnya selalu punya tanggal kadaluarsa carry forward
+UPDATE leave_balances
+SET rolled_over_at = COALESCE(updated_at, created_at, NOW())
+WHERE carried_forward_expiry_date IS NOT NULL;
@@ -0,0 +1,29 @@
+-- Satu gaji dosen aktif per periode
+-- active_key = 1 untuk gaji aktif, NULL untuk gaji yang di-soft delete (unique index mengizinkan banyak NULL),
+-- sehingga payroll run paralel / hitung ulang setelah hapus tetap dijaga oleh database
+
+-- Soft delete duplikat yang sudah ada, gaji pertama (id terkecil) yang dipertahankan
+UPDATE lecturer_salaries a
+JOIN lecturer_salaries b
+  ON b.lecturer_profile_id = a.lecturer_profile_id
+ AND b.period = a.period
+ AND b.deleted_at IS NULL
+ AND b.id < a.id
+SET a.deleted_at = NOW()
+WHERE a.deleted_at IS NULL;
+
+ALTER TABLE lecturer_salaries
+ADD COLUMN active_key TINYINT AS (IF(deleted_at IS NULL, 1, NULL)) STORED COMMENT '1 = aktif, NULL = soft delete',
+ADD UNIQUE INDEX uk_lecturer_salary_period_active (lecturer_profile_id, period, active_key);
+
+-- Unique key lama (tanpa soft delete) menolak hitung ulang setelah gaji dihapus
+SET @exist_idx = (SELECT COUNT(*) FROM information_schema.statistics
+    WHERE table_schema = DATABASE()
+    AND table_name = 'lecturer_salaries'
+    AND index_name = 'unique_lecturer_period');
+SET @sql_drop_idx = IF(@exist_idx > 0,
+    'ALTER TABLE lecturer_salaries DROP INDEX unique_lecturer_period',
+    'SELECT "Index unique_lecturer_period does not exist, skipping"');
+PREPARE stmt FROM @sql_drop_idx;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,10 @@
+-- Counter versi tabel tarif dosen (satu baris)
+-- Perubahan tarif mengambil versi berikutnya dengan UPDATE baris ini, sehingga penulis tarif berurutan
+-- (row lock sampai commit) dan setiap versi unik serta di-commit sesuai urutannya
+CREATE TABLE lecturer_rate_version_counter (
+    id TINYINT PRIMARY KEY,
+    version BIGINT NOT NULL COMMENT 'Versi tabel tarif terakhir yang dialokasikan'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO lecturer_rate_version_counter (id, version)
+SELECT 1, COALESCE(MAX(rate_version), 0) FROM lecturer_salary_rates;
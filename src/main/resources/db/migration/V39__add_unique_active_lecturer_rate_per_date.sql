@@ -0,0 +1,19 @@
+-- Satu tarif aktif per jenjang per tanggal berlaku
+-- active_key = 1 untuk tarif aktif, NULL untuk tarif yang di-soft delete (unique index mengizinkan banyak NULL)
+
+-- Soft delete duplikat yang sudah ada, tarif pertama (id terkecil) yang dipertahankan
+UPDATE lecturer_salary_rates a
+JOIN lecturer_salary_rates b
+  ON b.academic_rank = a.academic_rank
+ AND b.valid_from = a.valid_from
+ AND b.deleted_at IS NULL
+ AND b.id < a.id
+SET a.deleted_at = NOW()
+WHERE a.deleted_at IS NULL;
+
+ALTER TABLE lecturer_salary_rates
+ADD COLUMN active_key TINYINT AS (IF(deleted_at IS NULL, 1, NULL)) STORED COMMENT '1 = aktif, NULL = soft delete',
+ADD UNIQUE INDEX uk_lecturer_salary_rates_rank_valid_active (academic_rank, valid_from, active_key);
+
+-- Digantikan oleh unique index di atas (kolom awal sama)
+DROP INDEX idx_lecturer_salary_rates_rank_valid ON lecturer_salary_rates;
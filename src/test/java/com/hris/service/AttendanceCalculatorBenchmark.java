@@ -0,0 +1,123 @@
+package com.hris.service;
+
+import com.hris.model.ShiftPattern;
+import com.hris.model.WorkingHours;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of AttendanceCalculator: bulk computeAll (recomputation jobs) vs one call per day,
+ * and the former LocalTime / ChronoUnit math of AttendanceService.clockOut as a baseline
+ * One operation computes DAYS attendance days; overnightPercent of the shifts cross midnight
+ *
+ * Run after mvn test-compile, with the test classpath:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main AttendanceCalculatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttendanceCalculatorBenchmark {
+
+    private static final int DAYS = 10_000;
+
+    @Param({"0", "30"})
+    public int overnightPercent;
+
+    private final AttendanceCalculator calculator = new AttendanceCalculator();
+    private List<AttendanceCalculator.DayInput> days;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20240101L);
+        days = new ArrayList<>(DAYS);
+        for (int i = 0; i < DAYS; i++) {
+            boolean overnight = random.nextInt(100) < overnightPercent;
+            LocalTime start = overnight ? LocalTime.of(20 + random.nextInt(3), 0) : LocalTime.of(7 + random.nextInt(3), 0);
+            WorkingHours wh = new WorkingHours();
+            wh.setStartTime(start);
+            wh.setEndTime(start.plusHours(9));
+            wh.setBreakDurationMinutes(60);
+
+            ShiftPattern pattern = new ShiftPattern();
+            pattern.setLateToleranceMinutes(random.nextInt(15));
+            pattern.setEarlyLeaveToleranceMinutes(random.nextInt(15));
+            pattern.setIsOvertimeAllowed(random.nextBoolean());
+
+            EmployeeShiftService.ShiftAssignmentResult shift = EmployeeShiftService.ShiftAssignmentResult.builder()
+                    .workingHours(ShiftResolutionEngine.WorkingHoursEntry.of(wh))
+                    .shiftPattern(ShiftResolutionEngine.PatternEntry.of(pattern))
+                    .isWorkingDay(true)
+                    .lateToleranceMinutes(pattern.getLateToleranceMinutes())
+                    .build();
+
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365));
+            LocalDateTime clockIn = date.atTime(start).plusMinutes(random.nextInt(90) - 30);
+            LocalDateTime clockOut = clockIn.plusMinutes(7 * 60 + random.nextInt(4 * 60));
+            days.add(new AttendanceCalculator.DayInput(shift, date, clockIn, clockOut));
+        }
+    }
+
+    @Benchmark
+    public void computeAll(Blackhole blackhole) {
+        blackhole.consume(calculator.computeAll(days));
+    }
+
+    @Benchmark
+    public void callPerDay(Blackhole blackhole) {
+        for (AttendanceCalculator.DayInput day : days) {
+            blackhole.consume(calculator.calculateLate(day.shift(), day.attendanceDate(), day.clockIn()));
+            blackhole.consume(calculator.calculateClockOut(day.shift(), day.attendanceDate(),
+                    day.clockIn(), day.clockOut()));
+        }
+    }
+
+    /**
+     * Former clock-in / clock-out math on LocalTime (wrong for overnight shifts, kept only as a baseline)
+     */
+    @Benchmark
+    public void localTimeBaseline(Blackhole blackhole) {
+        for (AttendanceCalculator.DayInput day : days) {
+            EmployeeShiftService.ShiftAssignmentResult shift = day.shift();
+            ShiftResolutionEngine.WorkingHoursEntry wh = shift.getWorkingHours();
+            ShiftResolutionEngine.PatternEntry pattern = shift.getShiftPattern();
+            LocalTime clockIn = day.clockIn().toLocalTime();
+            LocalTime clockOut = day.clockOut().toLocalTime();
+
+            LocalTime effectiveStart = wh.startTime().plusMinutes(shift.getLateToleranceMinutes());
+            int late = clockIn.isAfter(effectiveStart) ? (int) ChronoUnit.MINUTES.between(effectiveStart, clockIn) : 0;
+
+            LocalTime effectiveEnd = wh.endTime().minusMinutes(pattern.earlyLeaveToleranceMinutes());
+            int earlyLeave = clockOut.isBefore(effectiveEnd) ? (int) ChronoUnit.MINUTES.between(clockOut, effectiveEnd) : 0;
+            int overtime = pattern.isOvertimeAllowed() && clockOut.isAfter(wh.endTime())
+                    ? (int) ChronoUnit.MINUTES.between(wh.endTime(), clockOut) : 0;
+            int actual = (int) ChronoUnit.MINUTES.between(clockIn, clockOut);
+            int underwork = Math.max(0, wh.netWorkDurationMinutes() - actual);
+
+            blackhole.consume(late + earlyLeave + overtime + underwork);
+            blackhole.consume(pattern.calculateLateDeduction(late));
+            blackhole.consume(pattern.calculateUnderworkDeduction(underwork));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.hris.service;
+
+import com.hris.model.ShiftPattern;
+import com.hris.model.WorkingHours;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Property tests for AttendanceCalculator over randomly generated shifts and punches
+ * Fixed seed so a failure is reproducible
+ */
+class AttendanceCalculatorPropertyTest {
+
+    private static final int RUNS = 5_000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final AttendanceCalculator calculator = new AttendanceCalculator();
+    private final Random random = new Random(20240101L);
+
+    @Test
+    void windowEndsAfterStartAndWithinOneDay() {
+        for (int i = 0; i < RUNS; i++) {
+            EmployeeShiftService.ShiftAssignmentResult shift = randomShift();
+            LocalDate date = randomDate();
+
+            AttendanceCalculator.ShiftWindow window = calculator.window(shift, date);
+
+            assertThat(window.endMinute()).isGreaterThan(window.startMinute());
+            assertThat(window.endMinute() - window.startMinute()).isLessThanOrEqualTo(MINUTES_PER_DAY);
+            long nextDayStart = date.plusDays(1).toEpochDay() * MINUTES_PER_DAY;
+            assertThat(window.endMinute() >= nextDayStart).isEqualTo(shift.isOvernight());
+        }
+    }
+
+    @Test
+    void overnightFlagAndInferredOvernightAgree() {
+        for (int i = 0; i < RUNS; i++) {
+            LocalTime start = randomTime();
+            LocalTime end = randomTime();
+            WorkingHours flagged = workingHours(start, end, true);
+            WorkingHours inferred = workingHours(start, end, false);
+
+            assertThat(flagged.endsNextDay()).isTrue();
+            assertThat(inferred.endsNextDay()).isEqualTo(!end.isAfter(start));
+            if (inferred.endsNextDay()) {
+                LocalDate date = randomDate();
+                assertThat(calculator.window(shift(inferred, null), date))
+                        .isEqualTo(calculator.window(shift(flagged, null), date));
+            }
+        }
+    }
+
+    @Test
+    void clockOutAttributedToPreviousDayOnlyWithinOvernightShiftAndGrace() {
+        for (int i = 0; i < RUNS; i++) {
+            EmployeeShiftService.ShiftAssignmentResult previousShift = randomShift();
+            LocalDate previousDay = randomDate();
+            LocalDateTime clockOut = previousDay.plusDays(1).atStartOfDay().plusMinutes(random.nextInt(MINUTES_PER_DAY));
+
+            boolean previous = calculator.belongsToPreviousDay(previousShift, clockOut);
+
+            AttendanceCalculator.ShiftWindow window = calculator.window(previousShift, previousDay);
+            boolean expected = previousShift.isOvernight() && AttendanceCalculator.toMinutes(clockOut)
+                    <= window.endMinute() + AttendanceCalculator.OVERNIGHT_CLOCK_OUT_GRACE_MINUTES;
+            assertThat(previous).isEqualTo(expected);
+            assertThat(calculator.resolveClockOutDate(previousShift, clockOut, () -> true))
+                    .isEqualTo(previous ? previousDay : clockOut.toLocalDate());
+            assertThat(calculator.resolveClockOutDate(previousShift, clockOut, () -> false))
+                    .isEqualTo(clockOut.toLocalDate());
+        }
+    }
+
+    @Test
+    void lateMinutesNeverNegativeAndMonotonic() {
+        for (int i = 0; i < RUNS; i++) {
+            EmployeeShiftService.ShiftAssignmentResult shift = randomShift();
+            LocalDate date = randomDate();
+            LocalDateTime first = date.atStartOfDay().plusMinutes(random.nextInt(2 * MINUTES_PER_DAY));
+            LocalDateTime second = first.plusMinutes(random.nextInt(600));
+
+            int lateFirst = calculator.calculateLate(shift, date, first).lateMinutes();
+            int lateSecond = calculator.calculateLate(shift, date, second).lateMinutes();
+
+            assertThat(lateFirst).isGreaterThanOrEqualTo(0);
+            assertThat(lateSecond).isGreaterThanOrEqualTo(lateFirst);
+        }
+    }
+
+    @Test
+    void clockOutFiguresAreConsistent() {
+        for (int i = 0; i < RUNS; i++) {
+            EmployeeShiftService.ShiftAssignmentResult shift = randomShift();
+            LocalDate date = randomDate();
+            LocalDateTime clockIn = date.atStartOfDay().plusMinutes(random.nextInt(MINUTES_PER_DAY));
+            LocalDateTime clockOut = clockIn.plusMinutes(random.nextInt(2 * MINUTES_PER_DAY));
+
+            AttendanceCalculator.ClockOutResult result = calculator.calculateClockOut(shift, date, clockIn, clockOut);
+
+            long gross = AttendanceCalculator.toMinutes(clockOut) - AttendanceCalculator.toMinutes(clockIn);
+            assertThat(result.actualWorkMinutes()).isBetween(0, (int) gross);
+            assertThat(result.earlyLeaveMinutes()).isGreaterThanOrEqualTo(0);
+            assertThat(result.overtimeMinutes()).isGreaterThanOrEqualTo(0);
+            assertThat(result.underworkMinutes()).isGreaterThanOrEqualTo(0);
+            assertThat(result.earlyLeaveMinutes() > 0 && result.overtimeMinutes() > 0).isFalse();
+            int required = shift.getWorkingHours().netWorkDurationMinutes();
+            assertThat(result.underworkMinutes()).isEqualTo(Math.max(0, required - result.actualWorkMinutes()));
+        }
+    }
+
+    @Test
+    void computeAllMatchesSingleCalculations() {
+        List<AttendanceCalculator.DayInput> days = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            LocalDate date = randomDate();
+            LocalDateTime clockIn = random.nextInt(10) == 0 ? null
+                    : date.atStartOfDay().plusMinutes(random.nextInt(MINUTES_PER_DAY));
+            LocalDateTime clockOut = clockIn == null || random.nextInt(5) == 0 ? null
+                    : clockIn.plusMinutes(random.nextInt(MINUTES_PER_DAY));
+            days.add(new AttendanceCalculator.DayInput(randomShift(), date, clockIn, clockOut));
+        }
+
+        List<AttendanceCalculator.DayResult> results = calculator.computeAll(days);
+
+        assertThat(results).hasSameSizeAs(days);
+        for (int i = 0; i < days.size(); i++) {
+            AttendanceCalculator.DayInput day = days.get(i);
+            AttendanceCalculator.DayResult result = results.get(i);
+            if (day.clockIn() != null) {
+                assertThat(result.late())
+                        .isEqualTo(calculator.calculateLate(day.shift(), day.attendanceDate(), day.clockIn()));
+            }
+            if (day.clockOut() != null) {
+                assertThat(result.clockOut()).isEqualTo(calculator.calculateClockOut(
+                        day.shift(), day.attendanceDate(), day.clockIn(), day.clockOut()));
+            } else {
+                assertThat(result.clockOut()).isNull();
+            }
+        }
+    }
+
+    @Test
+    void dayInputFromStoredTimesPutsClockOutAfterClockIn() {
+        for (int i = 0; i < RUNS; i++) {
+            EmployeeShiftService.ShiftAssignmentResult shift = randomShift();
+            LocalDate date = randomDate();
+            LocalTime clockIn = random.nextInt(10) == 0 ? null : randomTime();
+            LocalTime clockOut = random.nextInt(5) == 0 ? null : randomTime();
+
+            AttendanceCalculator.DayInput day = AttendanceCalculator.DayInput.of(shift, date, clockIn, clockOut);
+
+            assertThat(day.clockIn()).isEqualTo(clockIn != null ? LocalDateTime.of(date, clockIn) : null);
+            if (clockOut == null) {
+                assertThat(day.clockOut()).isNull();
+                continue;
+            }
+            assertThat(day.clockOut().toLocalTime()).isEqualTo(clockOut);
+            if (clockIn != null) {
+                assertThat(day.clockOut()).isAfter(day.clockIn());
+                assertThat(day.clockOut().toLocalDate()).isEqualTo(clockOut.isAfter(clockIn) ? date : date.plusDays(1));
+            } else {
+                boolean nextDay = shift.isOvernight() && clockOut.isBefore(shift.getStartTime());
+                assertThat(day.clockOut().toLocalDate()).isEqualTo(nextDay ? date.plusDays(1) : date);
+            }
+        }
+    }
+
+    // =====================================================
+    // GENERATORS
+    // =====================================================
+
+    private EmployeeShiftService.ShiftAssignmentResult randomShift() {
+        LocalTime start = randomTime();
+        LocalTime end = randomTime();
+        // Overnight shifts either flagged or only inferred from end <= start
+        WorkingHours wh = workingHours(start, end, !end.isAfter(start) && random.nextBoolean());
+        wh.setBreakDurationMinutes(random.nextInt(4) * 30);
+
+        ShiftPattern pattern = new ShiftPattern();
+        pattern.setLateToleranceMinutes(random.nextInt(30));
+        pattern.setEarlyLeaveToleranceMinutes(random.nextInt(30));
+        pattern.setIsOvertimeAllowed(random.nextBoolean());
+        return shift(wh, pattern);
+    }
+
+    private static EmployeeShiftService.ShiftAssignmentResult shift(WorkingHours wh, ShiftPattern pattern) {
+        return EmployeeShiftService.ShiftAssignmentResult.builder()
+                .workingHours(ShiftResolutionEngine.WorkingHoursEntry.of(wh))
+                .shiftPattern(pattern != null ? ShiftResolutionEngine.PatternEntry.of(pattern) : null)
+                .isWorkingDay(true)
+                .lateToleranceMinutes(pattern != null ? pattern.getLateToleranceMinutes() : null)
+                .build();
+    }
+
+    private static WorkingHours workingHours(LocalTime start, LocalTime end, boolean overnight) {
+        WorkingHours wh = new WorkingHours();
+        wh.setStartTime(start);
+        wh.setEndTime(end);
+        wh.setIsOvernight(overnight);
+        return wh;
+    }
+
+    private LocalTime randomTime() {
+        return LocalTime.of(random.nextInt(24), random.nextInt(4) * 15);
+    }
+
+    private LocalDate randomDate() {
+        return LocalDate.of(2024, 1, 1).plusDays(random.nextInt(730));
+    }
+}
@@ -0,0 +1,99 @@
+package com.hris.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hris.model.enums.AttendanceStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Journal of the write-behind queue under concurrent clock-ins: punches share group fsyncs and each
+ * one is journaled and queued exactly once before enqueue returns
+ * The writer is not started, so nothing is flushed and the journal keeps every line
+ */
+class AttendanceIngestionServiceTest {
+
+    private static final int THREADS = 16;
+    private static final int PUNCHES_PER_THREAD = 200;
+    private static final LocalDate DATE = LocalDate.of(2024, 4, 1);
+
+    @TempDir
+    Path journalDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AttendanceIngestionService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new AttendanceIngestionService(null, null, objectMapper, mock(AttendanceSummaryService.class),
+                "write-behind", THREADS * PUNCHES_PER_THREAD, 500, 200, 500, 60_000, journalDir.toString());
+        service.open();
+    }
+
+    @Test
+    void concurrentPunchesAreJournaledAndQueuedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long firstEmployee = (long) t * PUNCHES_PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    for (long employeeId = firstEmployee; employeeId < firstEmployee + PUNCHES_PER_THREAD; employeeId++) {
+                        service.enqueue(clockIn(employeeId));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double millis = (System.nanoTime() - started) / 1_000_000.0;
+        System.out.printf("Journaled %d punches from %d threads in %.1f ms%n",
+                THREADS * PUNCHES_PER_THREAD, THREADS, millis);
+
+        assertThat(service.getBacklog()).isEqualTo(THREADS * PUNCHES_PER_THREAD);
+
+        Set<String> keys = new HashSet<>();
+        for (String line : Files.readAllLines(journalFile(), StandardCharsets.UTF_8)) {
+            assertThat(keys.add(objectMapper.readValue(line, AttendanceIngestionService.Punch.class).idempotencyKey()))
+                    .as("journaled once: %s", line)
+                    .isTrue();
+        }
+        assertThat(keys).hasSize(THREADS * PUNCHES_PER_THREAD);
+        for (long employeeId = 0; employeeId < THREADS * PUNCHES_PER_THREAD; employeeId++) {
+            assertThat(service.isPending(employeeId, DATE, AttendanceIngestionService.Direction.IN)).isTrue();
+        }
+    }
+
+    private Path journalFile() {
+        return journalDir.resolve("attendance-punches.journal");
+    }
+
+    private static AttendanceIngestionService.Punch clockIn(long employeeId) {
+        return new AttendanceIngestionService.Punch(AttendanceIngestionService.Direction.IN, employeeId, DATE,
+                LocalTime.of(8, 0), null, null, "test", null,
+                1L, 1L, false, 0, BigDecimal.ZERO, 480, AttendanceStatus.PRESENT, false,
+                0, 0, 0, 0, BigDecimal.ZERO);
+    }
+}
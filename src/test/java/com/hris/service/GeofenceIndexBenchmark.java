@@ -0,0 +1,91 @@
+package com.hris.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: geofence grid index vs Haversine distance to every office (the former clock-in check)
+ * One operation validates POINTS locations
+ *
+ * Run after mvn test-compile, with the test classpath:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main GeofenceIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceIndexBenchmark {
+
+    private static final int POINTS = 1024;
+
+    @Param({"1", "50", "1000"})
+    public int offices;
+
+    private GeofenceService.Fence[] fences;
+    private GeofenceService.GeofenceIndex index;
+    private double[] lats;
+    private double[] lons;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(20240201L);
+        fences = new GeofenceService.Fence[offices];
+        for (int i = 0; i < offices; i++) {
+            fences[i] = GeofenceService.Fence.radius((long) i + 1, "Office " + i, null,
+                    -6.2 + (random.nextDouble() - 0.5), 106.8 + (random.nextDouble() - 0.5), 50 + random.nextInt(500));
+        }
+        index = GeofenceService.GeofenceIndex.of(true, fences);
+
+        // Mostly punches at an office, some outside every geofence
+        lats = new double[POINTS];
+        lons = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            GeofenceService.Fence f = fences[random.nextInt(offices)];
+            double spread = random.nextInt(5) == 0 ? 0.05 : 0.002;
+            lats[i] = f.lat() + (random.nextDouble() - 0.5) * spread;
+            lons[i] = f.lon() + (random.nextDouble() - 0.5) * spread;
+        }
+    }
+
+    @Benchmark
+    public void gridIndex(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(index.match(null, lats[i], lons[i]));
+        }
+    }
+
+    @Benchmark
+    public void haversinePerOffice(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            GeofenceService.Fence nearest = null;
+            double nearestDistance = Double.MAX_VALUE;
+            for (GeofenceService.Fence f : fences) {
+                double distance = GeofenceIndexTest.haversine(f.lat(), f.lon(), lats[i], lons[i]);
+                if (distance <= f.radius()) {
+                    nearest = f;
+                    break;
+                }
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = f;
+                }
+            }
+            blackhole.consume(nearest);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Randomized test of the geofence grid index against a brute-force scan of every geofence
+ * Fixed seed so a failure is reproducible
+ */
+class GeofenceIndexTest {
+
+    private static final int RUNS = 20_000;
+    private static final double CENTER_LAT = -6.2;
+    private static final double CENTER_LON = 106.8;
+    private static final Long[] DEPARTMENTS = {null, 1L, 2L, 3L};
+
+    private final Random random = new Random(20240201L);
+
+    @Test
+    void matchAgreesWithBruteForce() {
+        GeofenceService.Fence[] fences = randomFences(300);
+        GeofenceService.GeofenceIndex index = GeofenceService.GeofenceIndex.of(true, fences);
+        assertThat(index.wideFences()).isNotEmpty();
+
+        for (int i = 0; i < RUNS; i++) {
+            Long departmentId = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+            double[] point = randomPoint(fences);
+
+            GeofenceService.GeofenceResult result = index.match(departmentId, point[0], point[1]);
+
+            GeofenceService.Fence containing = null;
+            GeofenceService.Fence nearest = null;
+            double nearestGap = Double.MAX_VALUE;
+            for (GeofenceService.Fence f : fences) {
+                if (!f.appliesTo(departmentId)) {
+                    continue;
+                }
+                if (containing == null && f.contains(point[0], point[1])) {
+                    containing = f;
+                }
+                double gap = f.distanceOutside(point[0], point[1]);
+                if (gap < nearestGap) {
+                    nearestGap = gap;
+                    nearest = f;
+                }
+            }
+
+            if (nearest == null) {
+                // No geofence applies to the department: validation is skipped, not failed
+                assertThat(result.configured()).isFalse();
+                assertThat(result.inside()).isTrue();
+                continue;
+            }
+            assertThat(result.configured()).isTrue();
+            assertThat(result.inside()).as("inside at %s,%s", point[0], point[1]).isEqualTo(containing != null);
+            if (result.inside()) {
+                // Overlapping geofences: any applicable one containing the point is a valid match
+                GeofenceService.Fence matched = find(fences, result.officeLocationId());
+                assertThat(matched.appliesTo(departmentId)).isTrue();
+                assertThat(matched.contains(point[0], point[1])).isTrue();
+            } else {
+                assertThat(result.officeLocationId()).isEqualTo(nearest.id());
+            }
+        }
+    }
+
+    @Test
+    void departmentOnlyGeofencesSkipValidationForOtherDepartments() {
+        GeofenceService.Fence[] fences = {
+                GeofenceService.Fence.radius(1L, "Campus A", 1L, CENTER_LAT, CENTER_LON, 100)
+        };
+        GeofenceService.GeofenceIndex index = GeofenceService.GeofenceIndex.of(true, fences);
+
+        GeofenceService.GeofenceResult other = index.match(2L, CENTER_LAT + 1, CENTER_LON + 1);
+        assertThat(other.configured()).isFalse();
+        assertThat(other.inside()).isTrue();
+
+        GeofenceService.GeofenceResult own = index.match(1L, CENTER_LAT + 1, CENTER_LON + 1);
+        assertThat(own.configured()).isTrue();
+        assertThat(own.inside()).isFalse();
+        assertThat(own.officeLocationId()).isEqualTo(1L);
+    }
+
+    @Test
+    void radiusContainmentAgreesWithHaversine() {
+        for (int i = 0; i < RUNS; i++) {
+            double lat = CENTER_LAT + (random.nextDouble() - 0.5);
+            double lon = CENTER_LON + (random.nextDouble() - 0.5);
+            int radius = 20 + random.nextInt(2_000);
+            GeofenceService.Fence fence = GeofenceService.Fence.radius(1L, "Office", null, lat, lon, radius);
+
+            double pointLat = lat + (random.nextDouble() - 0.5) * 4 * radius / 111_195.0;
+            double pointLon = lon + (random.nextDouble() - 0.5) * 4 * radius / 111_195.0;
+            double distance = haversine(lat, lon, pointLat, pointLon);
+            // Equirectangular vs great-circle differ by far less than a meter at these distances
+            if (Math.abs(distance - radius) < 1) {
+                continue;
+            }
+
+            assertThat(fence.contains(pointLat, pointLon)).isEqualTo(distance <= radius);
+            assertThat(fence.distanceToCenter(pointLat, pointLon)).isCloseTo(distance, within(1.0));
+        }
+    }
+
+    // =====================================================
+    // GENERATORS
+    // =====================================================
+
+    /**
+     * Radius and polygon geofences around one city, company-wide or per department,
+     * a few of them wide enough to skip the grid
+     */
+    private GeofenceService.Fence[] randomFences(int count) {
+        GeofenceService.Fence[] fences = new GeofenceService.Fence[count];
+        for (int i = 0; i < count; i++) {
+            long id = i + 1;
+            Long departmentId = DEPARTMENTS[random.nextInt(DEPARTMENTS.length)];
+            double lat = CENTER_LAT + (random.nextDouble() - 0.5);
+            double lon = CENTER_LON + (random.nextDouble() - 0.5);
+            if (i % 50 == 0) {
+                fences[i] = GeofenceService.Fence.radius(id, "Wide " + id, departmentId, lat, lon,
+                        40_000 + random.nextInt(20_000));
+            } else if (random.nextInt(3) == 0) {
+                fences[i] = GeofenceService.Fence.polygon(id, "Polygon " + id, departmentId, randomPolygon(lat, lon));
+            } else {
+                fences[i] = GeofenceService.Fence.radius(id, "Office " + id, departmentId, lat, lon,
+                        30 + random.nextInt(1_500));
+            }
+        }
+        return fences;
+    }
+
+    /**
+     * Star-shaped polygon (vertices sorted by angle, so never self-intersecting)
+     */
+    private List<double[]> randomPolygon(double lat, double lon) {
+        int vertices = 3 + random.nextInt(6);
+        List<double[]> points = new ArrayList<>();
+        for (int v = 0; v < vertices; v++) {
+            double angle = 2 * Math.PI * v / vertices;
+            double size = 0.001 + random.nextDouble() * 0.02;
+            points.add(new double[]{lat + Math.sin(angle) * size, lon + Math.cos(angle) * size});
+        }
+        return points;
+    }
+
+    /**
+     * Half of the points near a random geofence (hits and near misses), half anywhere in the area
+     */
+    private double[] randomPoint(GeofenceService.Fence[] fences) {
+        if (random.nextBoolean()) {
+            GeofenceService.Fence f = fences[random.nextInt(fences.length)];
+            double spanLat = (f.maxLat() - f.minLat()) * 1.5;
+            double spanLon = (f.maxLon() - f.minLon()) * 1.5;
+            return new double[]{(f.minLat() + f.maxLat()) / 2 + (random.nextDouble() - 0.5) * spanLat,
+                    (f.minLon() + f.maxLon()) / 2 + (random.nextDouble() - 0.5) * spanLon};
+        }
+        return new double[]{CENTER_LAT + (random.nextDouble() - 0.5) * 1.2,
+                CENTER_LON + (random.nextDouble() - 0.5) * 1.2};
+    }
+
+    private static GeofenceService.Fence find(GeofenceService.Fence[] fences, Long id) {
+        for (GeofenceService.Fence f : fences) {
+            if (f.id().equals(id)) {
+                return f;
+            }
+        }
+        throw new AssertionError("Unknown geofence " + id);
+    }
+
+    static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+        return 6_371_000 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
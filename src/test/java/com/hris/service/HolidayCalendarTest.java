@@ -0,0 +1,79 @@
+package com.hris.service;
+
+import com.hris.model.Holiday;
+import com.hris.model.enums.HolidayType;
+import com.hris.repository.HolidayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publishing of the holiday snapshot: a load that raced with an invalidation is never kept,
+ * and callers get copies that do not follow the loaded entities
+ */
+class HolidayCalendarTest {
+
+    private static final LocalDate NEW_YEAR = LocalDate.of(2024, 1, 1);
+
+    private final HolidayRepository holidayRepository = mock(HolidayRepository.class);
+
+    private HolidayCalendar calendar;
+    private Holiday newYear;
+
+    @BeforeEach
+    void setUp() {
+        calendar = new HolidayCalendar(holidayRepository, mock(PlatformTransactionManager.class));
+
+        newYear = new Holiday();
+        newYear.setId(1L);
+        newYear.setName("Tahun Baru");
+        newYear.setDate(NEW_YEAR);
+        newYear.setHolidayType(HolidayType.NATIONAL);
+        newYear.setRepeatAnnually(true);
+
+        when(holidayRepository.findByIsActiveTrueAndDeletedAtIsNullOrderByDate()).thenReturn(List.of(newYear));
+    }
+
+    @Test
+    void snapshotInvalidatedDuringLoadIsNotKept() {
+        when(holidayRepository.findByIsActiveTrueAndDeletedAtIsNullOrderByDate()).thenAnswer(invocation -> {
+            calendar.invalidate();
+            return List.of(newYear);
+        }).thenReturn(List.of(newYear));
+
+        assertThat(calendar.isHoliday(NEW_YEAR)).isTrue();
+        assertThat(calendar.isHoliday(NEW_YEAR)).isTrue();
+        assertThat(calendar.isHoliday(NEW_YEAR)).isTrue();
+
+        verify(holidayRepository, times(2)).findByIsActiveTrueAndDeletedAtIsNullOrderByDate();
+    }
+
+    @Test
+    void holidaysAreCopiesOfTheLoadedEntities() {
+        HolidayCalendar.HolidayEntry entry = calendar.getHoliday(NEW_YEAR);
+
+        newYear.setName("Changed");
+        newYear.setHolidayType(HolidayType.COMPANY);
+
+        assertThat(entry.name()).isEqualTo("Tahun Baru");
+        assertThat(calendar.getHoliday(NEW_YEAR).isNationalHoliday()).isTrue();
+    }
+
+    @Test
+    void recurringHolidayCarriesTheDateItFallsOn() {
+        LocalDate nextYear = NEW_YEAR.plusYears(1);
+
+        assertThat(calendar.getHoliday(nextYear).date()).isEqualTo(nextYear);
+        assertThat(calendar.getHolidaysBetween(nextYear, nextYear)).containsOnlyKeys(nextYear);
+        assertThat(calendar.getHoliday(NEW_YEAR).date()).isEqualTo(NEW_YEAR);
+    }
+}
@@ -0,0 +1,197 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrency stress test of LeaveBalanceService against a real MySQL database
+ * Many threads deduct and reimburse the same balance at once; the projection must never go
+ * negative or lose an update, and must always equal the ledger total. Concurrent first
+ * deductions of a year must create exactly one balance row with one annual grant
+ *
+ * Seeds its own employee and removes it afterwards, so an empty migrated database is enough
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class LeaveBalanceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 200;
+    // Far from any real year so the test never touches live balances
+    private static final int YEAR = 2999;
+    // NIK of the employee seeded for each test
+    private static final String NIK = "LBCTEST00001";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> THREADS + 4);
+    }
+
+    @Autowired
+    private LeaveBalanceService leaveBalanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long employeeId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        jdbcTemplate.update("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                        "hire_date, status) VALUES (?, 'Leave Concurrency Test', ?, 'MALE', ?, '-', ?, 'ACTIVE')",
+                NIK, Date.valueOf(LocalDate.of(1990, 1, 1)), NIK.toLowerCase() + "@test.invalid",
+                Date.valueOf(LocalDate.of(2020, 1, 1)));
+        employeeId = jdbcTemplate.queryForObject("SELECT id FROM employees WHERE nik = ?", Long.class, NIK);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // leave_balances and leave_balance_ledger cascade on employee delete
+        jdbcTemplate.update("DELETE FROM employees WHERE nik = ?", NIK);
+    }
+
+    @Test
+    void concurrentDeductionsNeverOverdraw() throws Exception {
+        leaveBalanceService.initializeLeaveBalance(employeeId, YEAR);
+
+        int applied = runConcurrently(i -> () -> {
+            leaveBalanceService.deductBalance(employeeId, YEAR, 1.0);
+            return true;
+        });
+
+        // Initialized with 12 days: exactly 12 deductions succeed, the rest are refused
+        assertThat(applied).isEqualTo(12);
+        assertThat(used()).isEqualTo(12.0);
+        assertThat(remaining()).isEqualTo(0.0);
+        assertThat(ledgerTotal()).isEqualTo(remaining());
+    }
+
+    @Test
+    void concurrentDeductionsAndReimbursementsKeepLedgerInSync() throws Exception {
+        leaveBalanceService.initializeLeaveBalance(employeeId, YEAR);
+        leaveBalanceService.deductBalance(employeeId, YEAR, 6.0);
+
+        int applied = runConcurrently(i -> () -> {
+            if (i % 2 == 0) {
+                leaveBalanceService.deductBalance(employeeId, YEAR, 0.5);
+            } else {
+                leaveBalanceService.reimburseBalance(employeeId, YEAR, 0.5);
+            }
+            return true;
+        });
+
+        assertThat(applied).isPositive();
+        assertThat(used()).isBetween(0.0, 12.0);
+        assertThat(remaining()).isBetween(0.0, 12.0);
+        assertThat(ledgerTotal()).isEqualTo(remaining());
+    }
+
+    @Test
+    void concurrentFirstDeductionsCreateOneBalance() throws Exception {
+        // No balance for the year yet: every thread's deduction races to create it
+        int applied = runConcurrently(i -> () -> {
+            leaveBalanceService.deductBalance(employeeId, YEAR, 1.0);
+            return true;
+        });
+
+        assertThat(applied).isEqualTo(12);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM leave_balances WHERE employee_id = ? AND year = ?",
+                Integer.class, employeeId, YEAR)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM leave_balance_ledger WHERE employee_id = ? AND year = ? AND entry_type = 'GRANT'",
+                Integer.class, employeeId, YEAR)).isEqualTo(1);
+        assertThat(used()).isEqualTo(12.0);
+        assertThat(ledgerTotal()).isEqualTo(remaining());
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * Run ATTEMPTS tasks on THREADS threads released together
+     *
+     * @return Number of tasks that completed without an exception
+     */
+    private int runConcurrently(IntFunction<Callable<Boolean>> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < ATTEMPTS; i++) {
+                Callable<Boolean> attempt = task.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return attempt.call();
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int applied = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(60, TimeUnit.SECONDS)) {
+                    applied++;
+                }
+            }
+            return applied;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double used() {
+        return jdbcTemplate.queryForObject(
+                "SELECT used FROM leave_balances WHERE employee_id = ? AND year = ? AND deleted_at IS NULL",
+                Double.class, employeeId, YEAR);
+    }
+
+    private double remaining() {
+        return jdbcTemplate.queryForObject(
+                "SELECT balance - used FROM leave_balances WHERE employee_id = ? AND year = ? AND deleted_at IS NULL",
+                Double.class, employeeId, YEAR);
+    }
+
+    private double ledgerTotal() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(days), 0) FROM leave_balance_ledger WHERE employee_id = ? AND year = ?",
+                Double.class, employeeId, YEAR);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
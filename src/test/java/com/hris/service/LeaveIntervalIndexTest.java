@@ -0,0 +1,79 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Randomized test of the leave interval tree against a brute-force scan of every interval
+ * Fixed seed so a failure is reproducible
+ */
+class LeaveIntervalIndexTest {
+
+    private static final int RUNS = 20_000;
+    private static final long FIRST_DAY = 19_000;
+    private static final int DAYS = 730;
+
+    private final Random random = new Random(20240301L);
+
+    @Test
+    void overlapAgreesWithBruteForce() {
+        List<LeaveIntervalIndex.Interval> intervals = randomIntervals(2_000);
+        LeaveIntervalIndex.IntervalSet set = LeaveIntervalIndex.IntervalSet.of(intervals);
+
+        for (int i = 0; i < RUNS; i++) {
+            long start = FIRST_DAY + random.nextInt(DAYS);
+            long end = start + random.nextInt(random.nextInt(10) == 0 ? 60 : 3);
+            boolean approvedOnly = random.nextBoolean();
+
+            List<Long> expected = new ArrayList<>();
+            for (LeaveIntervalIndex.Interval interval : intervals) {
+                if (interval.start() <= end && interval.end() >= start && (!approvedOnly || interval.approved())) {
+                    expected.add(interval.id());
+                }
+            }
+
+            List<Long> actual = new ArrayList<>();
+            set.collect(start, end, approvedOnly, interval -> actual.add(interval.id()));
+            assertThat(actual).as("overlapping [%s, %s]", start, end).containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(set.anyOverlap(start, end, null, approvedOnly)).isEqualTo(!expected.isEmpty());
+            if (!expected.isEmpty()) {
+                Long excluded = expected.get(0);
+                assertThat(set.anyOverlap(start, end, excluded, approvedOnly)).isEqualTo(expected.size() > 1);
+            }
+        }
+    }
+
+    @Test
+    void earlyLongLeaveDoesNotHideLaterOnes() {
+        List<LeaveIntervalIndex.Interval> intervals = new ArrayList<>();
+        intervals.add(new LeaveIntervalIndex.Interval(1, 1, FIRST_DAY, FIRST_DAY + DAYS, true));
+        for (int i = 2; i <= 500; i++) {
+            long start = FIRST_DAY + i;
+            intervals.add(new LeaveIntervalIndex.Interval(i, i, start, start + 1, i % 2 == 0));
+        }
+        LeaveIntervalIndex.IntervalSet set = LeaveIntervalIndex.IntervalSet.of(intervals);
+
+        List<Long> onLeave = new ArrayList<>();
+        set.collect(FIRST_DAY + 100, FIRST_DAY + 100, true, interval -> onLeave.add(interval.id()));
+        assertThat(onLeave).containsExactlyInAnyOrder(1L, 100L);
+    }
+
+    /**
+     * Mostly short leaves, a few long ones, some of them not approved yet
+     */
+    private List<LeaveIntervalIndex.Interval> randomIntervals(int count) {
+        List<LeaveIntervalIndex.Interval> intervals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = FIRST_DAY + random.nextInt(DAYS);
+            int length = random.nextInt(20) == 0 ? random.nextInt(120) : random.nextInt(5);
+            intervals.add(new LeaveIntervalIndex.Interval(i + 1, random.nextInt(200), start, start + length,
+                    random.nextInt(3) != 0));
+        }
+        return intervals;
+    }
+}
@@ -0,0 +1,116 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the year-end leave rollover against a real MySQL database
+ * Seeds EMPLOYEES active employees with a previous-year balance (a twentieth already have a
+ * target-year balance, created as if a leave was submitted early) and rolls all of them over;
+ * the whole run must finish within a minute and create or complete one balance per employee
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class LeaveRolloverThroughputTest {
+
+    private static final int EMPLOYEES = 20_000;
+    // Far from any real year so the test never touches live balances
+    private static final int TARGET_YEAR = 2951;
+    private static final String NIK_PREFIX = "LRTTEST";
+    private static final long MAX_MILLIS = 60_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+    }
+
+    @Autowired
+    private LeaveRolloverService leaveRolloverService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(20241231L);
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            String nik = String.format("%s%06d", NIK_PREFIX, i);
+            employees.add(new Object[]{nik, "Rollover Test " + i, Date.valueOf(LocalDate.of(1990, 1, 1)),
+                    nik.toLowerCase() + "@test.invalid", "-", Date.valueOf(LocalDate.of(2020, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                "hire_date, status) VALUES (?, ?, ?, 'MALE', ?, ?, ?, 'ACTIVE')", employees);
+
+        List<Long> employeeIds = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE nik LIKE ?", Long.class, NIK_PREFIX + "%");
+        List<Object[]> balances = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            balances.add(new Object[]{employeeId, TARGET_YEAR - 1, 12.0, random.nextInt(25) * 0.5});
+            if (random.nextInt(20) == 0) {
+                balances.add(new Object[]{employeeId, TARGET_YEAR, 12.0, 0.0});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leave_balances (employee_id, year, annual_quota, balance, used) " +
+                "VALUES (?, ?, 12, ?, ?)", balances);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // leave_balances and leave_balance_ledger cascade on employee delete; other employees were rolled over too
+        jdbcTemplate.update("DELETE FROM employees WHERE nik LIKE ?", NIK_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM leave_balance_ledger WHERE year IN (?, ?)", TARGET_YEAR - 1, TARGET_YEAR);
+        jdbcTemplate.update("DELETE FROM leave_balances WHERE year IN (?, ?)", TARGET_YEAR - 1, TARGET_YEAR);
+        jdbcTemplate.update("DELETE FROM leave_rollover_partitions WHERE target_year = ?", TARGET_YEAR);
+    }
+
+    @Test
+    void twentyThousandEmployeesRollOverWithinAMinute() {
+        LeaveRolloverService.RolloverResult result = leaveRolloverService.runRollover(TARGET_YEAR);
+        System.out.printf("Leave rollover: %d employees in %d ms (%.0f employees/s), %d failed partitions%n",
+                result.processedEmployees(), result.elapsedMillis(), result.employeesPerSecond(),
+                result.failedPartitions());
+
+        assertThat(result.failedPartitions()).isZero();
+        assertThat(result.processedEmployees()).isGreaterThanOrEqualTo(EMPLOYEES);
+        assertThat(result.elapsedMillis()).isLessThan(MAX_MILLIS);
+
+        Long rolledOver = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM leave_balances lb " +
+                "JOIN employees e ON e.id = lb.employee_id WHERE e.nik LIKE ? AND lb.year = ? " +
+                "AND lb.rolled_over_at IS NOT NULL", Long.class, NIK_PREFIX + "%", TARGET_YEAR);
+        assertThat(rolledOver).isEqualTo(EMPLOYEES);
+
+        // Carry is at most half the quota (PP 35/2021): 6 of 12 days
+        Double maxCarried = jdbcTemplate.queryForObject("SELECT MAX(carried_forward) FROM leave_balances " +
+                "WHERE year = ?", Double.class, TARGET_YEAR);
+        assertThat(maxCarried).isEqualTo(6.0);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the monthly lecturer payroll run against a real MySQL database
+ * Seeds LECTURERS active lecturers of every rank (a quarter DOSEN_TIDAK_TETAP paid per attended
+ * session, the rest per scheduled SKS) with thesis guidance, examinations, research and publications,
+ * runs the payroll once and expects every lecturer calculated within seconds
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class LecturerPayrollRunThroughputTest {
+
+    private static final int LECTURERS = 1_500;
+    // Far from any real period so the test never touches live salaries
+    private static final YearMonth PERIOD = YearMonth.of(2950, 3);
+    private static final String NIK_PREFIX = "LPRTEST";
+    private static final String SOURCE_PREFIX = "LPRTEST-";
+    private static final long MAX_MILLIS = 10_000;
+
+    private static final String[] RANKS = {"ASISTEN_AHLI", "LEKTOR", "LEKTOR_KEPALA", "PROFESOR"};
+    private static final String[] MODES = {"OFFLINE", "ONLINE"};
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+    }
+
+    @Autowired
+    private LecturerPayrollRunService lecturerPayrollRunService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(29500301L);
+    private long sourceSequence;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 0; i < LECTURERS; i++) {
+            String nik = String.format("%s%06d", NIK_PREFIX, i);
+            employees.add(new Object[]{nik, "Payroll Test " + i, Date.valueOf(LocalDate.of(1980, 1, 1)),
+                    nik.toLowerCase() + "@test.invalid", "-", Date.valueOf(LocalDate.of(2010, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                "hire_date, status) VALUES (?, ?, ?, 'FEMALE', ?, ?, ?, 'ACTIVE')", employees);
+
+        List<Long> employeeIds = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE nik LIKE ? ORDER BY id", Long.class, NIK_PREFIX + "%");
+        List<Object[]> profiles = new ArrayList<>();
+        for (int i = 0; i < employeeIds.size(); i++) {
+            profiles.add(new Object[]{employeeIds.get(i), RANKS[i % RANKS.length],
+                    i % 4 == 3 ? "DOSEN_TIDAK_TETAP" : "DOSEN_TETAP"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO lecturer_profiles (employee_id, lecturer_rank, employment_status, " +
+                "work_status) VALUES (?, ?, ?, 'ACTIVE')", profiles);
+
+        List<Object[]> schedules = new ArrayList<>();
+        List<Object[]> attendances = new ArrayList<>();
+        List<Object[]> guidance = new ArrayList<>();
+        List<Object[]> examinations = new ArrayList<>();
+        List<Object[]> research = new ArrayList<>();
+        List<Object[]> publications = new ArrayList<>();
+        List<Object[]> lecturers = jdbcTemplate.query("SELECT lp.id, lp.employment_status FROM lecturer_profiles lp " +
+                        "JOIN employees e ON e.id = lp.employee_id WHERE e.nik LIKE ?",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)}, NIK_PREFIX + "%");
+        for (Object[] lecturer : lecturers) {
+            long id = (Long) lecturer[0];
+            if ("DOSEN_TETAP".equals(lecturer[1])) {
+                for (int c = 0; c < 4; c++) {
+                    schedules.add(new Object[]{source(), id, "MK" + c, 2 + random.nextInt(2), mode()});
+                }
+            } else {
+                for (int day = 1; day <= 12; day++) {
+                    attendances.add(new Object[]{source(), id, Date.valueOf(PERIOD.atDay(day * 2)), "MK" + day % 3,
+                            2, mode(), random.nextInt(10) == 0 ? "TIDAK_HADIR" : "HADIR"});
+                }
+            }
+            for (int g = 0; g < 2; g++) {
+                guidance.add(new Object[]{source(), id, "SKRIPSI_S1", mode()});
+            }
+            examinations.add(new Object[]{source(), id, "SKRIPSI_S1", "PENGUJI_1", mode()});
+            if (random.nextInt(3) == 0) {
+                research.add(new Object[]{source(), id, "Penelitian " + id});
+            }
+            if (random.nextInt(3) == 0) {
+                publications.add(new Object[]{source(), id, "Publikasi " + id, "SINTA_2"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO teaching_schedule_staging (source_id, lecturer_id, academic_year, " +
+                "semester, course_code, sks, teaching_mode) VALUES (?, ?, '2949/2950', 'GENAP', ?, ?, ?)", schedules);
+        jdbcTemplate.batchUpdate("INSERT INTO teaching_attendance_staging (source_id, lecturer_id, attendance_date, " +
+                "course_code, sks, teaching_mode, attendance_status) VALUES (?, ?, ?, ?, ?, ?, ?)", attendances);
+        jdbcTemplate.batchUpdate("INSERT INTO thesis_guidance_staging (source_id, lecturer_id, thesis_type, " +
+                "guidance_mode) VALUES (?, ?, ?, ?)", guidance);
+        jdbcTemplate.batchUpdate("INSERT INTO thesis_examination_staging (source_id, lecturer_id, thesis_type, " +
+                "examination_role, examination_mode) VALUES (?, ?, ?, ?, ?)", examinations);
+        jdbcTemplate.batchUpdate("INSERT INTO research_staging (source_id, lecturer_id, research_title) " +
+                "VALUES (?, ?, ?)", research);
+        jdbcTemplate.batchUpdate("INSERT INTO publication_staging (source_id, lecturer_id, publication_title, " +
+                "sinta_level) VALUES (?, ?, ?, ?)", publications);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Details restrict the salary delete, salaries the profile delete, profiles the employee delete;
+        // staging rows have no foreign key and are found by their source_id
+        String ofTestLecturers = "IN (SELECT lp.id FROM lecturer_profiles lp JOIN employees e ON e.id = lp.employee_id " +
+                "WHERE e.nik LIKE ?)";
+        jdbcTemplate.update("DELETE d FROM lecturer_salary_details d JOIN lecturer_salaries s " +
+                "ON s.id = d.lecturer_salary_id WHERE s.lecturer_profile_id " + ofTestLecturers, NIK_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM lecturer_salaries WHERE lecturer_profile_id " + ofTestLecturers,
+                NIK_PREFIX + "%");
+        for (String staging : List.of("teaching_schedule_staging", "teaching_attendance_staging",
+                "thesis_guidance_staging", "thesis_examination_staging", "research_staging", "publication_staging")) {
+            jdbcTemplate.update("DELETE FROM " + staging + " WHERE source_id LIKE ?", SOURCE_PREFIX + "%");
+        }
+        jdbcTemplate.update("DELETE lp FROM lecturer_profiles lp JOIN employees e ON e.id = lp.employee_id " +
+                "WHERE e.nik LIKE ?", NIK_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM employees WHERE nik LIKE ?", NIK_PREFIX + "%");
+    }
+
+    @Test
+    void fifteenHundredLecturersArePaidWithinSeconds() {
+        LecturerPayrollRunService.RunResult result = lecturerPayrollRunService.runPayroll(PERIOD.toString());
+        System.out.printf("Lecturer payroll %s: %d calculated, %d skipped, %d failed of %d lecturers in %d ms%n",
+                result.period(), result.calculated(), result.skipped(), result.failed(), result.totalLecturers(),
+                result.elapsedMillis());
+
+        assertThat(result.failed()).isZero();
+        assertThat(result.calculated()).isGreaterThanOrEqualTo(LECTURERS);
+        assertThat(result.elapsedMillis()).isLessThan(MAX_MILLIS);
+
+        Long salaries = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM lecturer_salaries WHERE period = ? " +
+                "AND lecturer_profile_id IN (SELECT lp.id FROM lecturer_profiles lp JOIN employees e " +
+                "ON e.id = lp.employee_id WHERE e.nik LIKE ?)", Long.class, PERIOD.toString(), NIK_PREFIX + "%");
+        assertThat(salaries).isEqualTo(LECTURERS);
+
+        // Every HADIR session and every guidance row was used by this period, nothing twice
+        Long unused = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM teaching_attendance_staging " +
+                "WHERE source_id LIKE ? AND attendance_status = 'HADIR' AND payroll_period_used IS NULL",
+                Long.class, SOURCE_PREFIX + "%");
+        assertThat(unused).isZero();
+        Long unusedGuidance = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM thesis_guidance_staging " +
+                "WHERE source_id LIKE ? AND payroll_period_used IS NULL", Long.class, SOURCE_PREFIX + "%");
+        assertThat(unusedGuidance).isZero();
+    }
+
+    // source_id is unique per staging table
+    private String source() {
+        return SOURCE_PREFIX + sourceSequence++;
+    }
+
+    private String mode() {
+        return MODES[random.nextInt(MODES.length)];
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hris.service;
+
+import com.hris.model.LecturerSalaryRate;
+import com.hris.model.enums.LecturerRank;
+import com.hris.repository.LecturerSalaryRateRepository;
+import com.hris.repository.LecturerSalaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rate history rules of LecturerSalaryRateService.updateRate: a new rate version from a later
+ * effective date must not change the rate of salaries already calculated from that date on
+ */
+@ExtendWith(MockitoExtension.class)
+class LecturerSalaryRateServiceTest {
+
+    private static final Long RATE_ID = 7L;
+
+    @Mock
+    private LecturerSalaryRateRepository repository;
+
+    @Mock
+    private LecturerSalaryRepository salaryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private LecturerSalaryRateService service;
+
+    private LecturerSalaryRate existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = rate(LocalDate.of(2026, 1, 1), new BigDecimal("5000000"));
+        existing.setId(RATE_ID);
+        existing.setValidTo(null);
+        when(repository.findById(RATE_ID)).thenReturn(Optional.of(existing));
+        when(jdbcTemplate.update(anyString())).thenReturn(1);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(2L);
+    }
+
+    @Test
+    void laterEffectiveDateIsRefusedWhenSalariesFromThatDateUseTheOldRate() {
+        when(salaryRepository.existsByAcademicRankAndPeriodBetweenAndDeletedAtIsNull(
+                LecturerRank.LEKTOR, "2026-07", "9999-12")).thenReturn(true);
+
+        LecturerSalaryRate update = rate(LocalDate.of(2026, 7, 1), new BigDecimal("5500000"));
+        update.setId(RATE_ID);
+
+        assertThatThrownBy(() -> service.updateRate(RATE_ID, update))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2026-07-01");
+        assertThat(existing.getValidTo()).isNull();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void laterEffectiveDateInsideAPeriodChecksFromTheNextPeriod() {
+        // Rates apply on the first day of the period: a mid-month date only affects later periods
+        LecturerSalaryRate update = rate(LocalDate.of(2026, 7, 15), new BigDecimal("5500000"));
+        update.setId(RATE_ID);
+
+        withTransactionSynchronization(() -> service.updateRate(RATE_ID, update));
+
+        verify(salaryRepository).existsByAcademicRankAndPeriodBetweenAndDeletedAtIsNull(
+                LecturerRank.LEKTOR, "2026-08", "9999-12");
+    }
+
+    @Test
+    void laterEffectiveDateAddsAVersionWhenNoSalaryUsesTheOldRateFromThatDate() {
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        LecturerSalaryRate update = rate(LocalDate.of(2026, 7, 1), new BigDecimal("5500000"));
+        update.setId(RATE_ID);
+
+        withTransactionSynchronization(() -> service.updateRate(RATE_ID, update));
+
+        ArgumentCaptor<LecturerSalaryRate> saved = ArgumentCaptor.forClass(LecturerSalaryRate.class);
+        verify(repository, times(2)).save(saved.capture());
+        List<LecturerSalaryRate> rows = saved.getAllValues();
+        assertThat(rows.get(0)).isSameAs(existing);
+        assertThat(existing.getValidTo()).isEqualTo(LocalDate.of(2026, 6, 30));
+        assertThat(existing.getBasicSalary()).isEqualByComparingTo("5000000");
+        assertThat(rows.get(1).getValidFrom()).isEqualTo(LocalDate.of(2026, 7, 1));
+        assertThat(rows.get(1).getValidTo()).isNull();
+        assertThat(rows.get(1).getBasicSalary()).isEqualByComparingTo("5500000");
+    }
+
+    private static LecturerSalaryRate rate(LocalDate validFrom, BigDecimal basicSalary) {
+        LecturerSalaryRate rate = new LecturerSalaryRate();
+        rate.setAcademicRank(LecturerRank.LEKTOR);
+        rate.setValidFrom(validFrom);
+        rate.setBasicSalary(basicSalary);
+        return rate;
+    }
+
+    /**
+     * Run inside an active synchronization so the rate table reload is registered for after commit
+     * (never fired here) instead of loading through the transaction manager
+     */
+    private static void withTransactionSynchronization(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            assertThat(TransactionSynchronizationManager.getSynchronizations())
+                    .hasSize(1)
+                    .allMatch(TransactionSynchronization.class::isInstance);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the bulk staging import against a real MySQL database
+ * Writes a CSV of ROWS teaching attendance records for LECTURERS lecturers and imports it once;
+ * every row must be written within a minute
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class LecturerStagingImportThroughputTest {
+
+    private static final int ROWS = 500_000;
+    private static final int LECTURERS = 200;
+    // Far from any real semester so the rows never reach a live payroll
+    private static final LocalDate FIRST_DATE = LocalDate.of(2950, 2, 1);
+    private static final String NIK_PREFIX = "LSITEST";
+    private static final String SOURCE_PREFIX = "LSITEST-";
+    private static final long MAX_MILLIS = 60_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+    }
+
+    @Autowired
+    private LecturerStagingImportService lecturerStagingImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    private final Random random = new Random(29500201L);
+
+    private Path csv;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cleanUp();
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 0; i < LECTURERS; i++) {
+            String nik = String.format("%s%06d", NIK_PREFIX, i);
+            employees.add(new Object[]{nik, "Import Test " + i, Date.valueOf(LocalDate.of(1980, 1, 1)),
+                    nik.toLowerCase() + "@test.invalid", "-", Date.valueOf(LocalDate.of(2010, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                "hire_date, status) VALUES (?, ?, ?, 'MALE', ?, ?, ?, 'ACTIVE')", employees);
+        jdbcTemplate.update("INSERT INTO lecturer_profiles (employee_id, lecturer_rank, employment_status, " +
+                "work_status) SELECT id, 'LEKTOR', 'DOSEN_TIDAK_TETAP', 'ACTIVE' FROM employees WHERE nik LIKE ?",
+                NIK_PREFIX + "%");
+        List<Long> lecturerIds = jdbcTemplate.queryForList("SELECT lp.id FROM lecturer_profiles lp " +
+                "JOIN employees e ON e.id = lp.employee_id WHERE e.nik LIKE ?", Long.class, NIK_PREFIX + "%");
+
+        csv = tempDir.resolve("teaching-attendance.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("source_id,lecturer_id,attendance_date,course_code,course_name,sks,teaching_mode," +
+                    "attendance_status\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(SOURCE_PREFIX + i + ',' + lecturerIds.get(i % lecturerIds.size()) + ','
+                        + FIRST_DATE.plusDays(i % 120) + ",MK" + i % 40 + ",\"Mata Kuliah " + i % 40 + ", Kelas A\","
+                        + (1 + random.nextInt(3)) + ".0," + (random.nextBoolean() ? "ONLINE" : "OFFLINE") + ','
+                        + (random.nextInt(10) == 0 ? "TIDAK_HADIR" : "HADIR") + '\n');
+            }
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Staging rows have no foreign key and are found by their source_id
+        jdbcTemplate.update("DELETE FROM teaching_attendance_staging WHERE source_id LIKE ?", SOURCE_PREFIX + "%");
+        jdbcTemplate.update("DELETE lp FROM lecturer_profiles lp JOIN employees e ON e.id = lp.employee_id " +
+                "WHERE e.nik LIKE ?", NIK_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM employees WHERE nik LIKE ?", NIK_PREFIX + "%");
+    }
+
+    @Test
+    void halfAMillionAttendanceRowsImportWithinAMinute() throws Exception {
+        LecturerStagingImportService.ImportResult result;
+        try (InputStream input = Files.newInputStream(csv)) {
+            result = lecturerStagingImportService.importRows(LecturerStagingImportService.Target.TEACHING_ATTENDANCE,
+                    LecturerStagingImportService.Format.CSV, input);
+        }
+        System.out.printf("Staging import: %d received, %d written, %d rejected in %d ms (%.0f rows/s)%n",
+                result.received(), result.written(), result.rejected(), result.elapsedMillis(),
+                result.written() * 1000.0 / Math.max(1, result.elapsedMillis()));
+
+        assertThat(result.rejects()).isEmpty();
+        assertThat(result.received()).isEqualTo(ROWS);
+        assertThat(result.written()).isEqualTo(ROWS);
+        assertThat(result.elapsedMillis()).isLessThan(MAX_MILLIS);
+
+        Long imported = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM teaching_attendance_staging " +
+                "WHERE source_id LIKE ?", Long.class, SOURCE_PREFIX + "%");
+        assertThat(imported).isEqualTo(ROWS);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,235 @@
+package com.hris.service;
+
+import com.hris.dto.LowLeaveBalanceRow;
+import com.hris.repository.LeaveBalanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan and result check of the low leave balance query (V30 remaining_balance + idx_leave_balance_year_remaining)
+ * against a real MySQL database
+ * Seeds YEARS years of balances for its own employees; EXPLAIN must pick the (year, remaining_balance) index
+ * and estimate about one year's low-balance rows, not the whole table as the former findAll() read
+ * Growth check: the history is grown to HISTORY_YEARS and at each size the query is timed against
+ * reading every balance and filtering in Java (the former findAll(), without entity mapping);
+ * the indexed time must stay flat while the table grows
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class LowLeaveBalanceQueryTest {
+
+    private static final int EMPLOYEES = 300;
+    private static final int YEARS = 10;
+    // Far from any real year so the test never touches live balances
+    private static final int FIRST_YEAR = 2900;
+    private static final int QUERY_YEAR = FIRST_YEAR + YEARS - 1;
+    private static final double THRESHOLD = 2.0;
+    private static final String NIK_PREFIX = "LBQTEST";
+    // Years of history per employee at each measured size (EMPLOYEES rows per year)
+    private static final int[] HISTORY_YEARS = {YEARS, 100, 400};
+    private static final int WARMUP_RUNS = 20;
+    private static final int MEASURED_RUNS = 50;
+
+    // SQL form of LeaveBalanceRepository.findLowBalances (without paging)
+    private static final String LOW_BALANCE_SQL =
+            "SELECT lb.id, e.id, e.nik, e.full_name, d.name, lb.year, lb.balance, lb.used, lb.remaining_balance " +
+            "FROM leave_balances lb JOIN employees e ON e.id = lb.employee_id " +
+            "LEFT JOIN departments d ON d.id = e.department_id " +
+            "WHERE lb.year = ? AND lb.remaining_balance < ? AND lb.deleted_at IS NULL " +
+            "AND (? IS NULL OR d.id = ?) " +
+            "ORDER BY lb.remaining_balance ASC, lb.id ASC";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+    }
+
+    @Autowired
+    private LeaveBalanceRepository leaveBalanceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(20240401L);
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            String nik = String.format("%s%05d", NIK_PREFIX, i);
+            employees.add(new Object[]{nik, "Low Balance Test " + i, Date.valueOf(LocalDate.of(1990, 1, 1)),
+                    nik.toLowerCase() + "@test.invalid", "-", Date.valueOf(LocalDate.of(2020, 1, 1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                "hire_date, status) VALUES (?, ?, ?, 'MALE', ?, ?, ?, 'ACTIVE')", employees);
+
+        insertBalances(FIRST_YEAR, FIRST_YEAR + YEARS);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // leave_balances and leave_balance_ledger cascade on employee delete
+        jdbcTemplate.update("DELETE FROM employees WHERE nik LIKE ?", NIK_PREFIX + "%");
+    }
+
+    @Test
+    void lowBalanceQueryUsesYearRemainingIndex() {
+        Map<String, Object> plan = explain();
+
+        assertThat(plan.get("key")).isEqualTo("idx_leave_balance_year_remaining");
+        assertThat(String.valueOf(plan.get("type"))).isEqualTo("range");
+
+        // Range scan over the low rows of one year; the former findAll() read EMPLOYEES * YEARS rows
+        long lowRows = lowRowsOfQueryYear();
+        // MySQL returns rows as a number, MariaDB as a string
+        long estimatedRows = Long.parseLong(String.valueOf(plan.get("rows")));
+        assertThat(estimatedRows).isLessThan(EMPLOYEES);
+        assertThat(estimatedRows).isLessThanOrEqualTo(Math.max(lowRows * 2, 10));
+    }
+
+    @Test
+    void findLowBalancesReturnsLowestFirst() {
+        Page<LowLeaveBalanceRow> page = leaveBalanceRepository.findLowBalances(
+                QUERY_YEAR, THRESHOLD, null, PageRequest.of(0, 100));
+
+        assertThat(page.getTotalElements()).isEqualTo(lowRowsOfQueryYear());
+        List<LowLeaveBalanceRow> rows = page.getContent();
+        for (LowLeaveBalanceRow row : rows) {
+            assertThat(row.getYear()).isEqualTo(QUERY_YEAR);
+            assertThat(row.getNik()).startsWith(NIK_PREFIX);
+            assertThat(row.getRemainingBalance()).isEqualTo(row.getBalance() - row.getUsed());
+            assertThat(row.getRemainingBalance()).isLessThan(THRESHOLD);
+        }
+        assertThat(rows).isSortedAccordingTo(Comparator.comparing(LowLeaveBalanceRow::getRemainingBalance)
+                .thenComparing(LowLeaveBalanceRow::getBalanceId));
+    }
+
+    @Test
+    void lowBalanceQueryTimeStaysFlatAsHistoryGrows() {
+        int years = YEARS;
+        List<String> report = new ArrayList<>();
+        double[] indexed = new double[HISTORY_YEARS.length];
+        double[] readAll = new double[HISTORY_YEARS.length];
+        for (int i = 0; i < HISTORY_YEARS.length; i++) {
+            // Older years below FIRST_YEAR so the query year and its low rows stay the same
+            insertBalances(FIRST_YEAR + YEARS - HISTORY_YEARS[i], FIRST_YEAR + YEARS - years);
+            years = HISTORY_YEARS[i];
+
+            indexed[i] = medianMillis(() -> jdbcTemplate.queryForList(LOW_BALANCE_SQL, QUERY_YEAR, THRESHOLD, null, null));
+            readAll[i] = medianMillis(this::readAllAndFilter);
+            report.add(String.format("%,d rows: indexed %.3f ms, read all + filter %.3f ms",
+                    EMPLOYEES * years, indexed[i], readAll[i]));
+        }
+        System.out.println("Low leave balance query (median of " + MEASURED_RUNS + " runs): " + report);
+
+        int last = HISTORY_YEARS.length - 1;
+        // Table grew 40x: reading it grows with it, the index range scan does not
+        assertThat(indexed[last]).isLessThan(readAll[last] / 5);
+        assertThat(indexed[last]).isLessThan(indexed[0] * 3 + 1);
+    }
+
+    // =====================================================
+    // HELPERS
+    // =====================================================
+
+    /**
+     * Balances of all test employees for years [fromYear, toYear)
+     */
+    private void insertBalances(int fromYear, int toYear) {
+        List<Long> employeeIds = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE nik LIKE ?", Long.class, NIK_PREFIX + "%");
+        List<Object[]> balances = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            for (int year = fromYear; year < toYear; year++) {
+                // About a tenth of the balances fall below THRESHOLD
+                double used = random.nextInt(10) == 0 ? 10.5 + random.nextInt(3) * 0.5 : random.nextInt(21) * 0.5;
+                balances.add(new Object[]{employeeId, year, 12.0, used});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO leave_balances (employee_id, year, annual_quota, balance, used) " +
+                "VALUES (?, ?, 12, ?, ?)", balances);
+        jdbcTemplate.execute("ANALYZE TABLE leave_balances");
+    }
+
+    /**
+     * Former lookup shape: every balance row, filtered to QUERY_YEAR and THRESHOLD in Java
+     */
+    private List<long[]> readAllAndFilter() {
+        List<long[]> low = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, employee_id, year, balance, used FROM leave_balances WHERE deleted_at IS NULL",
+                rs -> {
+                    if (rs.getInt("year") == QUERY_YEAR && rs.getDouble("balance") - rs.getDouble("used") < THRESHOLD) {
+                        low.add(new long[]{rs.getLong("id"), rs.getLong("employee_id")});
+                    }
+                });
+        return low;
+    }
+
+    /**
+     * Median wall time of query, after warm-up
+     */
+    private static double medianMillis(Runnable query) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            query.run();
+        }
+        double[] millis = new double[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(millis);
+        return millis[MEASURED_RUNS / 2];
+    }
+
+    /**
+     * EXPLAIN row of leave_balances in the low balance query
+     */
+    private Map<String, Object> explain() {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList(
+                "EXPLAIN " + LOW_BALANCE_SQL, QUERY_YEAR, THRESHOLD, null, null);
+        return plan.stream()
+                .filter(row -> "lb".equals(row.get("table")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No leave_balances row in plan " + plan));
+    }
+
+    private long lowRowsOfQueryYear() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM leave_balances lb JOIN employees e ON e.id = lb.employee_id " +
+                "WHERE e.nik LIKE ? AND lb.year = ? AND lb.balance - lb.used < ?",
+                Long.class, NIK_PREFIX + "%", QUERY_YEAR, THRESHOLD);
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hris.service;
+
+import com.hris.model.ShiftPackage;
+import com.hris.model.ShiftPattern;
+import com.hris.model.WorkingHours;
+import com.hris.repository.EmployeeShiftScheduleRepository;
+import com.hris.repository.EmployeeShiftSettingRepository;
+import com.hris.repository.ShiftPackageRepository;
+import com.hris.repository.ShiftPatternRepository;
+import com.hris.repository.WorkingHoursRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Publishing of the shift catalog and employee timelines: a load that raced with an invalidation
+ * is never kept, and cached values are copies that do not follow the loaded entities
+ */
+class ShiftResolutionEngineTest {
+
+    private static final Long EMPLOYEE_ID = 42L;
+
+    private final ShiftPatternRepository patternRepository = mock(ShiftPatternRepository.class);
+    private final ShiftPackageRepository packageRepository = mock(ShiftPackageRepository.class);
+    private final WorkingHoursRepository workingHoursRepository = mock(WorkingHoursRepository.class);
+    private final EmployeeShiftSettingRepository settingRepository = mock(EmployeeShiftSettingRepository.class);
+    private final EmployeeShiftScheduleRepository scheduleRepository = mock(EmployeeShiftScheduleRepository.class);
+
+    private ShiftResolutionEngine engine;
+    private ShiftPattern pattern;
+    private WorkingHours workingHours;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ShiftResolutionEngine(patternRepository, packageRepository, workingHoursRepository,
+                settingRepository, scheduleRepository, mock(PlatformTransactionManager.class), mock(JdbcTemplate.class));
+
+        pattern = new ShiftPattern();
+        pattern.setId(1L);
+        pattern.setName("Office");
+        pattern.setShiftPackageId(10L);
+        ShiftPackage pkg = new ShiftPackage();
+        pkg.setId(10L);
+        pkg.setMondayWorkingHoursId(100L);
+        workingHours = new WorkingHours();
+        workingHours.setId(100L);
+        workingHours.setCode("WH_8");
+        workingHours.setStartTime(LocalTime.of(8, 0));
+        workingHours.setEndTime(LocalTime.of(17, 0));
+
+        when(patternRepository.findAllWithShiftPackage()).thenReturn(List.of(pattern));
+        when(packageRepository.findAllWithWorkingHours()).thenReturn(List.of(pkg));
+        when(workingHoursRepository.findAllByDeletedAtIsNullOrderByDisplayOrderAscNameAsc()).thenReturn(List.of(workingHours));
+        when(settingRepository.findByEmployeeIdAndDeletedAtIsNullOrderByEffectiveFromDesc(EMPLOYEE_ID)).thenReturn(List.of());
+        when(scheduleRepository.findByEmployeeIdAndDeletedAtIsNullOrderByScheduleDateAsc(EMPLOYEE_ID)).thenReturn(List.of());
+    }
+
+    @Test
+    void catalogInvalidatedDuringLoadIsNotKept() {
+        when(workingHoursRepository.findAllByDeletedAtIsNullOrderByDisplayOrderAscNameAsc()).thenAnswer(invocation -> {
+            engine.invalidateCatalog();
+            return List.of(workingHours);
+        }).thenReturn(List.of(workingHours));
+
+        ShiftResolutionEngine.CatalogSnapshot raced = engine.getCatalog();
+        ShiftResolutionEngine.CatalogSnapshot reloaded = engine.getCatalog();
+
+        assertThat(reloaded).isNotSameAs(raced);
+        assertThat(engine.getCatalog()).isSameAs(reloaded);
+        verify(patternRepository, times(2)).findAllWithShiftPackage();
+    }
+
+    @Test
+    void timelineInvalidatedDuringLoadIsNotKept() {
+        when(scheduleRepository.findByEmployeeIdAndDeletedAtIsNullOrderByScheduleDateAsc(EMPLOYEE_ID)).thenAnswer(invocation -> {
+            engine.invalidateEmployee(EMPLOYEE_ID);
+            return List.of();
+        }).thenReturn(List.of());
+
+        ShiftResolutionEngine.EmployeeTimeline raced = engine.getTimeline(EMPLOYEE_ID);
+        ShiftResolutionEngine.EmployeeTimeline reloaded = engine.getTimeline(EMPLOYEE_ID);
+
+        assertThat(reloaded).isNotSameAs(raced);
+        assertThat(engine.getTimelines(List.of(EMPLOYEE_ID))).containsEntry(EMPLOYEE_ID, reloaded);
+        verify(settingRepository, times(2)).findByEmployeeIdAndDeletedAtIsNullOrderByEffectiveFromDesc(EMPLOYEE_ID);
+    }
+
+    @Test
+    void timelineIsEvictedBeforeOtherSynchronizationsRunAfterCommit() {
+        AtomicReference<ShiftResolutionEngine.EmployeeTimeline> seenAfterCommit = new AtomicReference<>();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Registered first, like a recompute job scheduled before the shift change is flushed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    seenAfterCommit.set(engine.getTimeline(EMPLOYEE_ID));
+                }
+            });
+            engine.invalidateEmployee(EMPLOYEE_ID);
+            // Read inside the transaction: cached, but built from the uncommitted state
+            ShiftResolutionEngine.EmployeeTimeline duringTransaction = engine.getTimeline(EMPLOYEE_ID);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+
+            assertThat(seenAfterCommit.get()).isNotNull().isNotSameAs(duringTransaction);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publishIsRolledBackWhenInvalidatedBetweenCheckAndPublish() {
+        CacheVersion version = new CacheVersion();
+        // Invalidation lands after the version check, just before the entry is published
+        Map<Long, String> cache = new ConcurrentHashMap<>() {
+            @Override
+            public String putIfAbsent(Long key, String value) {
+                version.evict(this, key);
+                return super.putIfAbsent(key, value);
+            }
+        };
+
+        version.publish(cache, EMPLOYEE_ID, version.current(), "stale");
+
+        assertThat(cache).isEmpty();
+    }
+
+    @Test
+    void catalogHoldsCopiesOfTheLoadedEntities() {
+        ShiftResolutionEngine.CatalogSnapshot catalog = engine.getCatalog();
+
+        pattern.setName("Changed");
+        workingHours.setStartTime(LocalTime.of(22, 0));
+
+        assertThat(catalog.getPattern(1L).name()).isEqualTo("Office");
+        assertThat(catalog.getWorkingHours(100L).startTime()).isEqualTo(LocalTime.of(8, 0));
+        assertThat(catalog.getWorkingHours(100L).endsNextDay()).isFalse();
+        assertThat(catalog.getWorkingHours(100L).netWorkDurationMinutes()).isEqualTo(480);
+    }
+}
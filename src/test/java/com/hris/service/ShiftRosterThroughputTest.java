@@ -0,0 +1,168 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Render time of a department shift roster against a real MySQL database
+ * Seeds EMPLOYEES active employees in one department, each on the standard shift pattern and a
+ * fifth of them with per-day overrides, then computes the 31-day roster and writes it as CSV and
+ * JSON. A cold render reloads every employee timeline from the database (as after a shift change),
+ * a warm render reuses the cached timelines; the first render of the JVM is reported separately
+ *
+ * Runs only when HRIS_TEST_DB_URL points at a disposable database (Flyway migrates it), e.g.
+ * HRIS_TEST_DB_URL=jdbc:mysql://localhost:3306/hris_test?createDatabaseIfNotExist=true&rewriteBatchedStatements=true
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "HRIS_TEST_DB_URL", matches = ".+")
+class ShiftRosterThroughputTest {
+
+    private static final int EMPLOYEES = 2_000;
+    // Far from any real month so the test never meets live schedules
+    private static final LocalDate START = LocalDate.of(2950, 3, 1);
+    private static final LocalDate END = LocalDate.of(2950, 3, 31);
+    private static final String NIK_PREFIX = "SRTTEST";
+    private static final String DEPARTMENT = "Roster Throughput Test";
+    private static final int RUNS = 10;
+    private static final long MAX_MILLIS = 1_000;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("HRIS_TEST_DB_URL"));
+        registry.add("spring.datasource.username", () -> envOrDefault("HRIS_TEST_DB_USERNAME", "root"));
+        registry.add("spring.datasource.password", () -> envOrDefault("HRIS_TEST_DB_PASSWORD", ""));
+    }
+
+    @Autowired
+    private ShiftRosterService shiftRosterService;
+
+    @Autowired
+    private ShiftResolutionEngine shiftResolutionEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Random random = new Random(29500331L);
+
+    private Long departmentId;
+    private List<Long> employeeIds;
+    private int overrides;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+
+        jdbcTemplate.update("INSERT INTO departments (name) VALUES (?)", DEPARTMENT);
+        departmentId = jdbcTemplate.queryForObject("SELECT id FROM departments WHERE name = ?", Long.class, DEPARTMENT);
+
+        List<Object[]> employees = new ArrayList<>();
+        for (int i = 0; i < EMPLOYEES; i++) {
+            String nik = String.format("%s%06d", NIK_PREFIX, i);
+            employees.add(new Object[]{nik, "Roster Test " + i, Date.valueOf(LocalDate.of(1990, 1, 1)),
+                    nik.toLowerCase() + "@test.invalid", "-", Date.valueOf(LocalDate.of(2020, 1, 1)), departmentId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employees (nik, full_name, date_of_birth, gender, email, password, " +
+                "hire_date, department_id, status) VALUES (?, ?, ?, 'MALE', ?, ?, ?, ?, 'ACTIVE')", employees);
+
+        Long patternId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM shift_patterns", Long.class);
+        List<Long> workingHoursIds = jdbcTemplate.queryForList(
+                "SELECT id FROM working_hours WHERE start_time IS NOT NULL", Long.class);
+        employeeIds = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE nik LIKE ?", Long.class, NIK_PREFIX + "%");
+        List<Object[]> settings = new ArrayList<>();
+        List<Object[]> schedules = new ArrayList<>();
+        for (Long employeeId : employeeIds) {
+            settings.add(new Object[]{employeeId, patternId, Date.valueOf(START.minusMonths(2))});
+            if (random.nextInt(5) == 0) {
+                for (int day = 0; day < 31; day += 1 + random.nextInt(3)) {
+                    schedules.add(new Object[]{employeeId, Date.valueOf(START.plusDays(day)),
+                            workingHoursIds.get(random.nextInt(workingHoursIds.size())), random.nextInt(4) == 0});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO employee_shift_settings (employee_id, shift_pattern_id, effective_from) " +
+                "VALUES (?, ?, ?)", settings);
+        overrides = schedules.size();
+        jdbcTemplate.batchUpdate("INSERT INTO employee_shift_schedules (employee_id, schedule_date, working_hours_id, " +
+                "override_is_wfh) VALUES (?, ?, ?, ?)", schedules);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // Shift settings and schedules cascade on employee delete
+        jdbcTemplate.update("DELETE FROM employees WHERE nik LIKE ?", NIK_PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM departments WHERE name = ?", DEPARTMENT);
+    }
+
+    @Test
+    void twoThousandEmployeeMonthRendersWellUnderASecond() throws IOException {
+        long first = render();
+
+        long[] cold = new long[RUNS];
+        long[] warm = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            employeeIds.forEach(shiftResolutionEngine::invalidateEmployee);
+            cold[i] = render();
+            warm[i] = render();
+        }
+        Arrays.sort(cold);
+        Arrays.sort(warm);
+        System.out.printf("Shift roster %d employees x 31 days: first %.1f ms, cold median %.1f ms (max %.1f ms), " +
+                        "warm median %.1f ms (max %.1f ms)%n", EMPLOYEES, first / 1e6,
+                cold[RUNS / 2] / 1e6, cold[RUNS - 1] / 1e6, warm[RUNS / 2] / 1e6, warm[RUNS - 1] / 1e6);
+
+        assertThat(cold[RUNS / 2] / 1_000_000).isLessThan(MAX_MILLIS);
+        assertThat(warm[RUNS / 2] / 1_000_000).isLessThan(MAX_MILLIS / 2);
+    }
+
+    /**
+     * Compute the roster and write both exports, returns nanoseconds
+     */
+    private long render() throws IOException {
+        long started = System.nanoTime();
+        ShiftRosterService.RosterMatrix roster = shiftRosterService.computeRoster(departmentId, START, END);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        shiftRosterService.writeCsv(roster, csv);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        shiftRosterService.writeJson(roster, json);
+        long elapsed = System.nanoTime() - started;
+
+        assertThat(roster.getEmployeeCount()).isEqualTo(EMPLOYEES);
+        assertThat(roster.getDays()).isEqualTo(31);
+        // Header plus one line per employee
+        assertThat(csv.toString().lines().count()).isEqualTo(EMPLOYEES + 1);
+        assertThat(json.size()).isPositive();
+        // Every seeded override reached the timelines
+        int overrideCells = 0;
+        for (byte flags : roster.getFlagCells()) {
+            if ((flags & ShiftRosterService.FLAG_OVERRIDE) != 0) {
+                overrideCells++;
+            }
+        }
+        assertThat(overrideCells).isEqualTo(overrides);
+        return elapsed;
+    }
+
+    private static String envOrDefault(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+}
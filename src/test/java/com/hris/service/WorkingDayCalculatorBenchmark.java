@@ -0,0 +1,70 @@
+package com.hris.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of WorkingDayCalculator.countLeaveDays vs the day-by-day loop, by range length
+ * One operation counts RANGES ranges of rangeDays days at random starts
+ *
+ * Run after mvn test-compile, with the test classpath:
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; org.openjdk.jmh.Main WorkingDayCalculatorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkingDayCalculatorBenchmark {
+
+    private static final int RANGES = 64;
+
+    @Param({"5", "30", "365", "1095"})
+    public int rangeDays;
+
+    private WorkingDayFixture fixture;
+    private LocalDate[] starts;
+
+    @Setup
+    public void setUp() {
+        fixture = new WorkingDayFixture(20240301L);
+        starts = new LocalDate[RANGES];
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] = WorkingDayFixture.FIRST_DAY.plusDays(
+                    fixture.random.nextInt(WorkingDayFixture.SPAN_DAYS - rangeDays));
+        }
+        // Build the holiday year calendars outside the measurement
+        for (LocalDate start : starts) {
+            fixture.calculator.countLeaveDays(WorkingDayFixture.EMPLOYEE_ID, start, start.plusDays(rangeDays - 1));
+        }
+    }
+
+    @Benchmark
+    public void calculator(Blackhole blackhole) {
+        for (LocalDate start : starts) {
+            blackhole.consume(fixture.calculator.countLeaveDays(
+                    WorkingDayFixture.EMPLOYEE_ID, start, start.plusDays(rangeDays - 1)));
+        }
+    }
+
+    @Benchmark
+    public void dayByDay(Blackhole blackhole) {
+        for (LocalDate start : starts) {
+            blackhole.consume(fixture.countDayByDay(start, start.plusDays(rangeDays - 1)));
+        }
+    }
+}
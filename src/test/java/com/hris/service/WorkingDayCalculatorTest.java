@@ -0,0 +1,58 @@
+package com.hris.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Randomized test of WorkingDayCalculator against a day-by-day loop over the same shift resolution
+ * and holiday rules; both must agree on every range
+ * Fixed seed so a failure is reproducible (timings: WorkingDayCalculatorBenchmark)
+ */
+class WorkingDayCalculatorTest {
+
+    private static final int RANGES = 2_000;
+
+    private WorkingDayFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new WorkingDayFixture(20240301L);
+    }
+
+    @Test
+    void countLeaveDaysMatchesDayByDayLoop() {
+        for (int i = 0; i < RANGES; i++) {
+            LocalDate[] range = fixture.randomRange(i);
+
+            assertThat(fixture.calculator.countLeaveDays(WorkingDayFixture.EMPLOYEE_ID, range[0], range[1]))
+                    .as("leave days %s - %s", range[0], range[1])
+                    .isEqualTo(fixture.countDayByDay(range[0], range[1]));
+        }
+    }
+
+    @Test
+    void countCompanyWorkingDaysMatchesDayByDayLoop() {
+        for (int i = 0; i < RANGES; i++) {
+            LocalDate start = WorkingDayFixture.FIRST_DAY.plusDays(fixture.random.nextInt(WorkingDayFixture.SPAN_DAYS));
+            LocalDate end = start.plusDays(fixture.random.nextInt(400));
+
+            int withHolidays = 0;
+            int withoutHolidays = 0;
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                if (fixture.companyDays.contains(date.getDayOfWeek())) {
+                    withHolidays++;
+                    if (fixture.holidayCalendar.getHoliday(date) == null) {
+                        withoutHolidays++;
+                    }
+                }
+            }
+
+            assertThat(fixture.calculator.countCompanyWorkingDays(start, end, false)).isEqualTo(withHolidays);
+            assertThat(fixture.calculator.countCompanyWorkingDays(start, end, true)).isEqualTo(withoutHolidays);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.hris.service;
+
+import com.hris.model.Company;
+import com.hris.model.EmployeeShiftSchedule;
+import com.hris.model.EmployeeShiftSetting;
+import com.hris.model.Holiday;
+import com.hris.model.ShiftPackage;
+import com.hris.model.ShiftPattern;
+import com.hris.model.WorkingHours;
+import com.hris.model.enums.HolidayType;
+import com.hris.repository.HolidayRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Randomly generated shift catalog, shift timeline and holidays for one employee over SPAN_DAYS,
+ * with a WorkingDayCalculator over them and a day-by-day reference count
+ * Shared by WorkingDayCalculatorTest and WorkingDayCalculatorBenchmark
+ */
+class WorkingDayFixture {
+
+    static final Long EMPLOYEE_ID = 1L;
+    static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    static final int SPAN_DAYS = 10 * 365;
+
+    final Random random;
+    final HolidayCalendar holidayCalendar;
+    final ShiftResolutionEngine.CatalogSnapshot catalog;
+    final ShiftResolutionEngine.EmployeeTimeline timeline;
+    final WorkingDayCalculator calculator;
+    final Set<DayOfWeek> companyDays;
+
+    // Pure resolve(snapshot, timeline, date) never touches its repositories
+    private final ShiftResolutionEngine resolver = new ShiftResolutionEngine(null, null, null, null, null, null, null);
+
+    WorkingDayFixture(long seed) {
+        random = new Random(seed);
+
+        HolidayRepository holidayRepository = mock(HolidayRepository.class);
+        when(holidayRepository.findByIsActiveTrueAndDeletedAtIsNullOrderByDate()).thenReturn(randomHolidays());
+        holidayCalendar = new HolidayCalendar(holidayRepository, mock(PlatformTransactionManager.class));
+
+        catalog = catalog();
+        timeline = ShiftResolutionEngine.EmployeeTimeline.of(EMPLOYEE_ID, randomSettings(), randomOverrides());
+
+        // Plain overrides, not Mockito stubs: countLeaveDays calls both on every range and a mock walks
+        // the stack on each call, which the benchmark would measure instead of the calculator
+        ShiftResolutionEngine engine = new ShiftResolutionEngine(null, null, null, null, null, null, null) {
+            @Override
+            public CatalogSnapshot getCatalog() {
+                return catalog;
+            }
+
+            @Override
+            public EmployeeTimeline getTimeline(Long employeeId) {
+                return EMPLOYEE_ID.equals(employeeId) ? timeline : null;
+            }
+        };
+        // No company configured: Monday - Friday
+        CompanyService companyService = new CompanyService(null, null) {
+            @Override
+            public Company getCompany() {
+                return null;
+            }
+        };
+
+        calculator = new WorkingDayCalculator(holidayCalendar, engine, companyService);
+        companyDays = calculator.getCompanyWorkingDays();
+    }
+
+    /**
+     * Random range inside the generated span; every tenth one spans up to three years
+     */
+    LocalDate[] randomRange(int i) {
+        LocalDate start = FIRST_DAY.plusDays(random.nextInt(SPAN_DAYS));
+        return new LocalDate[]{start, start.plusDays(random.nextInt(i % 10 == 0 ? 3 * 365 : 60))};
+    }
+
+    // =====================================================
+    // REFERENCE
+    // =====================================================
+
+    /**
+     * One resolve per day: working day of the shift (company days without a pattern or package),
+     * minus holidays the pattern does not override (same rule as clock-in)
+     */
+    int countDayByDay(LocalDate start, LocalDate end) {
+        int count = 0;
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            ShiftResolutionEngine.PatternEntry pattern = catalog.getPattern(timeline.patternIdOn(date));
+            boolean hasPackage = pattern != null && catalog.getPackage(pattern.shiftPackageId()) != null;
+
+            boolean working = timeline.overrideOn(date) != null || hasPackage
+                    ? resolver.resolve(catalog, timeline, date).isWorkingDay()
+                    : companyDays.contains(date.getDayOfWeek());
+            EmployeeShiftService.ShiftAssignmentResult rule = EmployeeShiftService.ShiftAssignmentResult.builder()
+                    .shiftPattern(hasPackage ? pattern : null)
+                    .build();
+
+            if (working && DailyAttendanceContextService.isHolidayClockInAllowed(rule, holidayCalendar.getHoliday(date))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // =====================================================
+    // GENERATORS
+    // =====================================================
+
+    private static ShiftResolutionEngine.CatalogSnapshot catalog() {
+        WorkingHours office = workingHours(1L, "WH_8", LocalTime.of(8, 0), LocalTime.of(17, 0));
+        WorkingHours night = workingHours(2L, "WH_NIGHT", LocalTime.of(22, 0), LocalTime.of(6, 0));
+        WorkingHours off = workingHours(3L, "WH_OFF", null, null);
+
+        ShiftPackage weekdays = shiftPackage(10L, 1L, 1L, 1L, 1L, 1L, 3L, null);
+        ShiftPackage sixDays = shiftPackage(11L, 2L, 2L, 2L, 2L, 2L, 2L, 3L);
+
+        ShiftPattern plain = pattern(100L, 10L, false, false, false);
+        ShiftPattern throughHolidays = pattern(101L, 11L, true, true, false);
+        // Package not in the catalog: falls back to company working days
+        ShiftPattern orphan = pattern(102L, 99L, true, true, true);
+
+        return new ShiftResolutionEngine.CatalogSnapshot(1L,
+                Map.of(100L, ShiftResolutionEngine.PatternEntry.of(plain),
+                        101L, ShiftResolutionEngine.PatternEntry.of(throughHolidays),
+                        102L, ShiftResolutionEngine.PatternEntry.of(orphan)),
+                Map.of(10L, ShiftResolutionEngine.PackageEntry.of(weekdays),
+                        11L, ShiftResolutionEngine.PackageEntry.of(sixDays)),
+                Map.of(1L, ShiftResolutionEngine.WorkingHoursEntry.of(office),
+                        2L, ShiftResolutionEngine.WorkingHoursEntry.of(night),
+                        3L, ShiftResolutionEngine.WorkingHoursEntry.of(off)));
+    }
+
+    /**
+     * Consecutive settings of random length with random gaps (no setting) between some of them
+     */
+    private List<EmployeeShiftSetting> randomSettings() {
+        Long[] patternIds = {100L, 101L, 102L};
+        List<EmployeeShiftSetting> settings = new ArrayList<>();
+        LocalDate from = FIRST_DAY.minusDays(30);
+        LocalDate last = FIRST_DAY.plusDays(SPAN_DAYS + 3 * 365);
+        while (from.isBefore(last)) {
+            LocalDate to = from.plusDays(20 + random.nextInt(200));
+            EmployeeShiftSetting setting = new EmployeeShiftSetting();
+            setting.setEmployeeId(EMPLOYEE_ID);
+            setting.setShiftPatternId(patternIds[random.nextInt(patternIds.length)]);
+            setting.setEffectiveFrom(from);
+            setting.setEffectiveTo(to);
+            settings.add(setting);
+            from = to.plusDays(random.nextInt(4) == 0 ? 1 + random.nextInt(30) : 1);
+        }
+        return settings;
+    }
+
+    private List<EmployeeShiftSchedule> randomOverrides() {
+        Long[] workingHoursIds = {1L, 2L, 3L, null};
+        List<EmployeeShiftSchedule> schedules = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            EmployeeShiftSchedule schedule = new EmployeeShiftSchedule();
+            schedule.setEmployeeId(EMPLOYEE_ID);
+            schedule.setScheduleDate(FIRST_DAY.plusDays(random.nextInt(SPAN_DAYS)));
+            schedule.setWorkingHoursId(workingHoursIds[random.nextInt(workingHoursIds.length)]);
+            schedules.add(schedule);
+        }
+        return schedules;
+    }
+
+    /**
+     * About 15 holidays a year of every type, some without a type, some repeating annually
+     */
+    private List<Holiday> randomHolidays() {
+        HolidayType[] types = {HolidayType.NATIONAL, HolidayType.COMPANY, HolidayType.COLLECTIVE_LEAVE, null};
+        List<Holiday> holidays = new ArrayList<>();
+        for (int i = 0; i < 15 * (SPAN_DAYS / 365 + 4); i++) {
+            Holiday holiday = new Holiday();
+            holiday.setName("Holiday " + i);
+            holiday.setDate(FIRST_DAY.minusDays(365).plusDays(random.nextInt(SPAN_DAYS + 4 * 365)));
+            holiday.setYear(holiday.getDate().getYear());
+            holiday.setHolidayType(types[random.nextInt(types.length)]);
+            holiday.setRepeatAnnually(random.nextInt(10) == 0);
+            holidays.add(holiday);
+        }
+        holidays.sort((a, b) -> a.getDate().compareTo(b.getDate()));
+        return holidays;
+    }
+
+    private static WorkingHours workingHours(Long id, String code, LocalTime start, LocalTime end) {
+        WorkingHours wh = new WorkingHours();
+        wh.setId(id);
+        wh.setCode(code);
+        wh.setStartTime(start);
+        wh.setEndTime(end);
+        return wh;
+    }
+
+    private static ShiftPackage shiftPackage(Long id, Long monday, Long tuesday, Long wednesday, Long thursday,
+                                             Long friday, Long saturday, Long sunday) {
+        ShiftPackage pkg = new ShiftPackage();
+        pkg.setId(id);
+        pkg.setMondayWorkingHoursId(monday);
+        pkg.setTuesdayWorkingHoursId(tuesday);
+        pkg.setWednesdayWorkingHoursId(wednesday);
+        pkg.setThursdayWorkingHoursId(thursday);
+        pkg.setFridayWorkingHoursId(friday);
+        pkg.setSaturdayWorkingHoursId(saturday);
+        pkg.setSundayWorkingHoursId(sunday);
+        return pkg;
+    }
+
+    private static ShiftPattern pattern(Long id, Long packageId, boolean national, boolean company, boolean jointLeave) {
+        ShiftPattern pattern = new ShiftPattern();
+        pattern.setId(id);
+        pattern.setShiftPackageId(packageId);
+        pattern.setOverrideNationalHoliday(national);
+        pattern.setOverrideCompanyHoliday(company);
+        pattern.setOverrideJointLeave(jointLeave);
+        return pattern;
+    }
+}